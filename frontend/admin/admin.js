@@ -127,7 +127,7 @@ async function loadDashboard(C) {
 async function loadImages(C, page) {
     page = page || state.imgPage || 1;
     state.imgPage = page; state.selected.clear();
-    const res = await api(`/admin/images?page=${page}&size=${PAGE_SIZE}&status=1`);
+    const res = await api(`/admin/images?page=${page}&size=${PAGE_SIZE}&status=1&view=table`);
     if (!res || res.code !== 200) { C.innerHTML = '<div class="empty"><div class="empty-icon">😕</div><div class="empty-text">加载失败</div></div>'; return; }
     const d = res.data;
     C.innerHTML = `
@@ -352,7 +352,7 @@ function adminOpenFullscreen(url) {
 // ==================== Trash ====================
 async function loadTrash(C, page) {
     page = page || state.trashPage || 1; state.trashPage = page;
-    const res = await api(`/admin/trash?page=${page}&size=${PAGE_SIZE}`);
+    const res = await api(`/admin/trash?page=${page}&size=${PAGE_SIZE}&view=table`);
     if (!res || res.code !== 200) { C.innerHTML = '<div class="empty"><div class="empty-icon">😕</div><div class="empty-text">加载失败</div></div>'; return; }
     const d = res.data;
     C.innerHTML = `
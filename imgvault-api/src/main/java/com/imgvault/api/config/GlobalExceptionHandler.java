@@ -2,8 +2,12 @@ package com.imgvault.api.config;
 
 import com.imgvault.common.dto.Result;
 import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.exception.ServiceUnavailableException;
+import com.imgvault.common.exception.TooManyRequestsException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -30,6 +34,28 @@ public class GlobalExceptionHandler {
         return Result.fail(e.getCode(), e.getMessage());
     }
 
+    /**
+     * 准入控制拒绝: 返回 429 和 Retry-After，便于客户端/网关退避重试
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Result<Void>> handleTooManyRequests(TooManyRequestsException e) {
+        log.warn("请求被限流: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.fail(e.getCode(), e.getMessage()));
+    }
+
+    /**
+     * 依赖服务熔断: 返回 503 和 Retry-After，请求快速失败而不是阻塞等待下游超时
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Result<Void>> handleServiceUnavailable(ServiceUnavailableException e) {
+        log.warn("依赖服务不可用: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.fail(e.getCode(), e.getMessage()));
+    }
+
     /**
      * 参数校验异常
      */
@@ -1,6 +1,6 @@
 package com.imgvault.api.config;
 
-import com.imgvault.infrastructure.storage.MinioStorageService;
+import com.imgvault.infrastructure.storage.StorageBackend;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
@@ -14,17 +14,18 @@ import java.sql.Statement;
 
 /**
  * F10: 健康检查配置
- * 包含 SQLite 和 MinIO 健康状态
+ * 包含 SQLite 和对象存储（MinIO / 本地存储）健康状态
  */
 @Configuration
 @RequiredArgsConstructor
 public class HealthIndicatorConfig {
 
-    private final MinioStorageService storageService;
+    private final StorageBackend storageService;
     private final DataSource dataSource;
 
     /**
-     * MinIO 健康检查
+     * 对象存储健康检查（Bean 名称保持 minio 以兼容既有监控）
+     * 状态取自存储熔断器的缓存结果，健康检查本身不再访问存储
      */
     @Bean
     public HealthIndicator minioHealthIndicator() {
@@ -32,18 +33,20 @@ public class HealthIndicatorConfig {
             try {
                 if (storageService.isHealthy()) {
                     return Health.up()
-                            .withDetail("service", "MinIO")
+                            .withDetail("service", storageService.getName())
                             .withDetail("status", "connected")
+                            .withDetails(storageService.getHealthDetails())
                             .build();
                 } else {
                     return Health.down()
-                            .withDetail("service", "MinIO")
+                            .withDetail("service", storageService.getName())
                             .withDetail("status", "disconnected")
+                            .withDetails(storageService.getHealthDetails())
                             .build();
                 }
             } catch (Exception e) {
                 return Health.down()
-                        .withDetail("service", "MinIO")
+                        .withDetail("service", storageService.getName())
                         .withDetail("error", e.getMessage())
                         .build();
             }
@@ -66,9 +66,11 @@ public class AdminController {
     }
 
     @GetMapping("/trash")
-    public Result<PageResult<ImageDetailDTO>> listTrash(@RequestParam(defaultValue="1") int page, @RequestParam(defaultValue="20") int size) {
+    public Result<PageResult<ImageDetailDTO>> listTrash(@RequestParam(defaultValue="1") int page, @RequestParam(defaultValue="20") int size,
+                                                        @RequestParam(required=false) String view, @RequestParam(required=false) String fields) {
         ImageQueryRequest r = new ImageQueryRequest();
         r.setPage(page); r.setSize(size); r.setStatus(0);
+        r.setView(view); r.setFields(fields);
         return Result.success(imageAppService.listImages(r));
     }
 
@@ -88,11 +90,17 @@ public class AdminController {
 
     @PostMapping("/batch-delete")
     public Result<Void> batchDelete(@RequestBody List<Long> ids) {
-        int ok=0;
-        for (Long id : ids) { try { imageAppService.softDeleteImage(id); ok++; } catch (Exception e) {} }
+        int ok = imageAppService.softDeleteImages(ids);
         return Result.success("Deleted: "+ok+"/"+ids.size(), null);
     }
 
+    @PostMapping("/trash/purge")
+    @Operation(summary = "批量永久删除", description = "一次事务删除记录，批量删除存储文件")
+    public Result<Void> purgeTrash(@RequestBody List<Long> ids) {
+        int ok = imageAppService.hardDeleteImages(ids);
+        return Result.success(String.format("Purged: %d/%d", ok, ids.size()), null);
+    }
+
     @SuppressWarnings("unchecked")
     @PostMapping("/batch-tag")
     public Result<Void> batchTag(@RequestBody Map<String,Object> req) {
@@ -1,19 +1,36 @@
 package com.imgvault.api.controller;
 
 import com.imgvault.app.service.ImageAppService;
+import com.imgvault.common.constant.StorageConstants;
 import com.imgvault.common.dto.*;
+import com.imgvault.domain.entity.ImageEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.view.RedirectView;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 图片 API 控制器
@@ -25,6 +42,8 @@ import java.util.List;
 @Tag(name = "图片管理", description = "图片上传/下载/查询/删除接口")
 public class ImageController {
 
+    private static final DateTimeFormatter CREATED_AT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final ImageAppService imageAppService;
 
     /**
@@ -42,8 +61,8 @@ public class ImageController {
      * F02: 批量图片上传
      */
     @PostMapping(value = "/batch-upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Operation(summary = "批量上传图片", description = "支持同时上传多张图片")
-    public Result<List<ImageUploadDTO>> batchUpload(
+    @Operation(summary = "批量上传图片", description = "并行上传多张图片，返回与请求顺序一致的逐文件结果")
+    public Result<BatchUploadResultDTO> batchUpload(
             @Parameter(description = "图片文件列表") @RequestParam("files") MultipartFile[] files,
             @RequestHeader(value = "X-Visitor-Id", required = false) String visitorId) {
         return Result.success("批量上传完成", imageAppService.batchUpload(files, visitorId));
@@ -82,16 +101,24 @@ public class ImageController {
     }
 
     /**
-     * F06: 下载图片（302 重定向到预签名 URL）
+     * F06: 下载图片
+     * 默认 302 重定向到预签名 URL；开启 imgvault.storage.proxy-download 时由服务端以附件形式输出原图
      */
     @GetMapping("/{id}/download")
-    @Operation(summary = "下载图片", description = "返回 302 重定向到 MinIO 预签名 URL")
-    public RedirectView download(
-            @Parameter(description = "图片ID") @PathVariable Long id) {
-        String url = imageAppService.getDownloadUrl(id);
-        RedirectView redirectView = new RedirectView(url);
-        redirectView.setStatusCode(HttpStatus.FOUND);
-        return redirectView;
+    @Operation(summary = "下载图片", description = "默认 302 重定向到预签名 URL；开启代理下载时直接输出原图，支持 Range 与条件请求")
+    public void download(
+            @Parameter(description = "图片ID") @PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!imageAppService.isProxyDownload()) {
+            response.sendRedirect(imageAppService.getDownloadUrl(id));
+            return;
+        }
+        ImageEntity image = imageAppService.getDownloadableImage(id);
+        if (image.getOriginalName() != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(image.getOriginalName(), StandardCharsets.UTF_8).build().toString());
+        }
+        writeContent(image, request, response);
     }
 
     /**
@@ -104,6 +131,90 @@ public class ImageController {
         return Result.success(imageAppService.getDownloadUrl(id));
     }
 
+    /**
+     * F06: 经服务端输出原图，支持单区间 HTTP Range（206）与条件请求（304）
+     */
+    @GetMapping("/{id}/content")
+    @Operation(summary = "读取图片内容", description = "服务端输出原图，支持单个 Range 区间（多区间时返回完整内容）、If-None-Match 与 If-Modified-Since")
+    public void content(
+            @Parameter(description = "图片ID") @PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeContent(imageAppService.getDownloadableImage(id), request, response);
+    }
+
+    /**
+     * 输出原图字节
+     * <p>
+     * 以 file_hash 作强 ETag、创建时间作 Last-Modified，命中条件请求时返回 304 不读存储；
+     * If-Range 与 ETag 不一致时忽略 Range 返回完整内容。字节由存储后端直接写入响应通道，不在堆内缓存
+     */
+    private void writeContent(ImageEntity image, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        String etag = image.getFileHash() != null ? "\"" + image.getFileHash() + "\"" : null;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, StorageConstants.PROXY_CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified(image))) {
+            return;
+        }
+
+        long size = image.getFileSize();
+        long start = 0;
+        long end = size - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges = ifRange == null || ifRange.equals(etag)
+                ? parseRanges(request.getHeader(HttpHeaders.RANGE)) : Collections.emptyList();
+        if (ranges.size() == 1) {
+            try {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                start = size;
+            }
+            if (start >= size || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+
+        long length = end - start + 1;
+        response.setContentType(image.getMimeType() != null ? image.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        if (length <= 0) {
+            return;
+        }
+        imageAppService.transferImageRange(image, start, length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 创建时间（SQLite datetime('now')，UTC）转毫秒时间戳，无法解析时返回 -1（不参与条件请求）
+     */
+    private static long lastModified(ImageEntity image) {
+        if (image.getCreatedAt() == null) {
+            return -1;
+        }
+        try {
+            return LocalDateTime.parse(image.getCreatedAt(), CREATED_AT_FORMATTER)
+                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析 Range 头，格式错误时按无 Range 处理（RFC 7233 允许忽略）
+     */
+    private static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * F07: 软删除图片
      */
@@ -171,12 +282,36 @@ public class ImageController {
      * F20 + F21: 上传分片
      */
     @PostMapping(value = "/chunk-upload/{uploadId}/{chunkNumber}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Operation(summary = "上传分片", description = "上传单个分片，支持断点续传")
+    @Operation(summary = "上传分片", description = "上传单个分片，支持断点续传；可通过 X-Chunk-Sha256 头提供分片校验值")
     public Result<ChunkUploadDTO> uploadChunk(
             @Parameter(description = "上传任务ID") @PathVariable String uploadId,
             @Parameter(description = "分片编号(从1开始)") @PathVariable int chunkNumber,
-            @Parameter(description = "分片数据") @RequestParam("chunk") MultipartFile chunkFile) {
-        return Result.success(imageAppService.uploadChunk(uploadId, chunkNumber, chunkFile));
+            @Parameter(description = "分片数据") @RequestParam("chunk") MultipartFile chunkFile,
+            @Parameter(description = "分片 SHA-256（可选，不一致时拒绝该分片）")
+            @RequestHeader(value = "X-Chunk-Sha256", required = false) String chunkSha256) {
+        return Result.success(imageAppService.uploadChunk(uploadId, chunkNumber, chunkFile, chunkSha256));
+    }
+
+    /**
+     * 分片直传: 分批获取预签名分片 URL
+     */
+    @GetMapping("/chunk-upload/{uploadId}/part-urls")
+    @Operation(summary = "获取预签名分片 URL", description = "分片直传任务分批获取或刷新过期的分片上传 URL")
+    public Result<Map<Integer, String>> getPartUploadUrls(
+            @Parameter(description = "上传任务ID") @PathVariable String uploadId,
+            @Parameter(description = "起始分片编号(从1开始)") @RequestParam(defaultValue = "1") int from,
+            @Parameter(description = "数量(单批最多1000)") @RequestParam(defaultValue = "1000") int count) {
+        return Result.success(imageAppService.getPartUploadUrls(uploadId, from, count));
+    }
+
+    /**
+     * 分片直传: 完成上传并创建图片记录
+     */
+    @PostMapping("/chunk-upload/{uploadId}/complete")
+    @Operation(summary = "完成分片直传", description = "全部分片直传到对象存储后调用，拼接最终对象并创建图片记录")
+    public Result<ImageUploadDTO> completeDirectUpload(
+            @Parameter(description = "上传任务ID") @PathVariable String uploadId) {
+        return Result.success(imageAppService.completeDirectUpload(uploadId));
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.imgvault.api.controller;
+
+import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.infrastructure.storage.LocalStorageBackend;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 本地存储预签名 URL 访问端点（imgvault.storage.backend = local 时启用）
+ * <p>
+ * 下载优先使用 Tomcat sendfile（内核零拷贝），不支持时经 FileChannel.transferTo 写出
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/storage")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "imgvault.storage", name = "backend", havingValue = "local")
+@Tag(name = "本地存储", description = "本地存储后端的预签名下载/上传")
+public class LocalStorageController {
+
+    private static final String PATTERN = "/api/v1/storage/**";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final LocalStorageBackend storageBackend;
+
+    @GetMapping("/**")
+    @Operation(summary = "预签名下载")
+    public void download(@RequestParam("expires") long expires,
+                         @RequestParam("signature") String signature,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String storagePath = storagePath(request);
+        if (!storageBackend.verifyPresignedUrl("GET", storagePath, expires, signature)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        Path file = storageBackend.resolve(storagePath);
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long size = Files.size(file);
+        String contentType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, StorageBackend.isContentAddressed(storagePath)
+                ? StorageConstants.IMMUTABLE_CACHE_CONTROL : "private, max-age=3600");
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
+        }
+        storageBackend.transferTo(storagePath, 0, size, Channels.newChannel(response.getOutputStream()));
+    }
+
+    @PutMapping("/**")
+    @Operation(summary = "预签名上传")
+    public void upload(@RequestParam("expires") long expires,
+                       @RequestParam("signature") String signature,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String storagePath = storagePath(request);
+        if (!storageBackend.verifyPresignedUrl("PUT", storagePath, expires, signature)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        String etag = storageBackend.uploadFile(storagePath, request.getInputStream(),
+                request.getContentLengthLong(), request.getContentType());
+        response.setHeader(HttpHeaders.ETAG, "\"" + etag + "\"");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    private static String storagePath(HttpServletRequest request) {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        return PATH_MATCHER.extractPathWithinPattern(PATTERN, path);
+    }
+}
@@ -2,10 +2,16 @@ package com.imgvault.api.controller;
 
 import com.imgvault.api.config.GlobalExceptionHandler;
 import com.imgvault.app.service.ImageAppService;
+import com.imgvault.common.dto.BatchUploadItemDTO;
+import com.imgvault.common.dto.BatchUploadResultDTO;
+import com.imgvault.common.dto.ChunkUploadDTO;
 import com.imgvault.common.dto.ImageDetailDTO;
+import com.imgvault.common.dto.SparseImageDetailDTO;
 import com.imgvault.common.dto.ImageUploadDTO;
 import com.imgvault.common.dto.PageResult;
 import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.exception.TooManyRequestsException;
+import com.imgvault.domain.entity.ImageEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,18 +19,28 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -102,6 +118,152 @@ class ImageControllerTest {
                     .andExpect(jsonPath("$.code").value(400))
                     .andExpect(jsonPath("$.message").value("不支持的文件类型"));
         }
+
+        @Test
+        @DisplayName("准入控制拒绝时返回 429 和 Retry-After")
+        void shouldReturn429WhenAdmissionRejected() throws Exception {
+            MockMultipartFile mockFile = new MockMultipartFile(
+                    "file", "big.jpg", "image/jpeg",
+                    new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+
+            when(imageAppService.uploadImage(any(), any()))
+                    .thenThrow(new TooManyRequestsException("服务繁忙，请稍后重试", 2));
+
+            mockMvc.perform(multipart("/api/v1/images/upload")
+                            .file(mockFile))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.code").value(429))
+                    .andExpect(jsonPath("$.message").value("服务繁忙，请稍后重试"));
+        }
+
+        @Test
+        @DisplayName("批量上传返回逐文件结果")
+        void shouldReturnPerFileBatchResults() throws Exception {
+            MockMultipartFile first = new MockMultipartFile(
+                    "files", "a.jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+            MockMultipartFile second = new MockMultipartFile(
+                    "files", "b.exe", "application/octet-stream", new byte[]{0x4D, 0x5A});
+
+            ImageUploadDTO image = new ImageUploadDTO();
+            image.setId(7L);
+            BatchUploadItemDTO ok = new BatchUploadItemDTO();
+            ok.setIndex(0);
+            ok.setOriginalName("a.jpg");
+            ok.setStatus(BatchUploadItemDTO.STATUS_SUCCESS);
+            ok.setImage(image);
+            BatchUploadItemDTO failed = new BatchUploadItemDTO();
+            failed.setIndex(1);
+            failed.setOriginalName("b.exe");
+            failed.setStatus(BatchUploadItemDTO.STATUS_FAILED);
+            failed.setErrorMessage("不支持的文件类型");
+            BatchUploadResultDTO result = new BatchUploadResultDTO();
+            result.setTotal(2);
+            result.setSucceeded(1);
+            result.setFailed(1);
+            result.setItems(Arrays.asList(ok, failed));
+
+            when(imageAppService.batchUpload(any(), any())).thenReturn(result);
+
+            mockMvc.perform(multipart("/api/v1/images/batch-upload")
+                            .file(first)
+                            .file(second))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.data.total").value(2))
+                    .andExpect(jsonPath("$.data.succeeded").value(1))
+                    .andExpect(jsonPath("$.data.failed").value(1))
+                    .andExpect(jsonPath("$.data.items[0].status").value("success"))
+                    .andExpect(jsonPath("$.data.items[0].image.id").value(7))
+                    .andExpect(jsonPath("$.data.items[1].index").value(1))
+                    .andExpect(jsonPath("$.data.items[1].status").value("failed"))
+                    .andExpect(jsonPath("$.data.items[1].errorMessage").value("不支持的文件类型"));
+        }
+    }
+
+    // ==================== 分片上传 ====================
+
+    @Nested
+    @DisplayName("POST /api/v1/images/chunk-upload/{uploadId}/{chunkNumber} - 上传分片")
+    class ChunkUploadTests {
+
+        @Test
+        @DisplayName("透传分片校验头并返回服务端摘要")
+        void shouldPassChunkChecksumHeader() throws Exception {
+            MockMultipartFile chunk = new MockMultipartFile(
+                    "chunk", "c", "application/octet-stream", new byte[]{1, 2, 3});
+            ChunkUploadDTO dto = new ChunkUploadDTO();
+            dto.setSuccess(true);
+            dto.setChunkNumber(2);
+            dto.setChunkSha256("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81");
+
+            when(imageAppService.uploadChunk(eq("u1"), eq(2), any(), eq(dto.getChunkSha256())))
+                    .thenReturn(dto);
+
+            mockMvc.perform(multipart("/api/v1/images/chunk-upload/u1/2")
+                            .file(chunk)
+                            .header("X-Chunk-Sha256", dto.getChunkSha256()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.data.chunkSha256").value(dto.getChunkSha256()));
+        }
+
+        @Test
+        @DisplayName("分片校验失败返回 400")
+        void shouldRejectCorruptChunk() throws Exception {
+            MockMultipartFile chunk = new MockMultipartFile(
+                    "chunk", "c", "application/octet-stream", new byte[]{1, 2, 3});
+
+            when(imageAppService.uploadChunk(eq("u1"), eq(1), any(), eq("bad")))
+                    .thenThrow(BusinessException.badRequest("分片校验失败，请重新上传: 1"));
+
+            mockMvc.perform(multipart("/api/v1/images/chunk-upload/u1/1")
+                            .file(chunk)
+                            .header("X-Chunk-Sha256", "bad"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(400));
+        }
+
+        @Test
+        @DisplayName("分片直传分批获取预签名分片 URL")
+        void shouldReturnPartUploadUrls() throws Exception {
+            Map<Integer, String> urls = new LinkedHashMap<>();
+            urls.put(3, "http://minio/bucket/a.png?uploadId=x&partNumber=3");
+            urls.put(4, "http://minio/bucket/a.png?uploadId=x&partNumber=4");
+            when(imageAppService.getPartUploadUrls("u1", 3, 2)).thenReturn(urls);
+
+            mockMvc.perform(get("/api/v1/images/chunk-upload/u1/part-urls")
+                            .param("from", "3")
+                            .param("count", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.data['4']").value(urls.get(4)));
+        }
+
+        @Test
+        @DisplayName("完成分片直传返回图片信息")
+        void shouldCompleteDirectUpload() throws Exception {
+            ImageUploadDTO dto = new ImageUploadDTO();
+            dto.setId(7L);
+            dto.setFileSize(12_000_000L);
+            when(imageAppService.completeDirectUpload("u1")).thenReturn(dto);
+
+            mockMvc.perform(post("/api/v1/images/chunk-upload/u1/complete"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(200))
+                    .andExpect(jsonPath("$.data.id").value(7));
+        }
+
+        @Test
+        @DisplayName("分片未全部上传时完成直传返回 400")
+        void shouldRejectIncompleteDirectUpload() throws Exception {
+            when(imageAppService.completeDirectUpload("u1"))
+                    .thenThrow(BusinessException.badRequest("分片未全部上传: 已上传 2/3 个分片"));
+
+            mockMvc.perform(post("/api/v1/images/chunk-upload/u1/complete"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.code").value(400));
+        }
     }
 
     // ==================== 图片查询 ====================
@@ -194,6 +356,28 @@ class ImageControllerTest {
                     .andExpect(jsonPath("$.data.records.length()").value(2));
         }
 
+        @Test
+        @DisplayName("full 视图保留值为 null 的字段，稀疏字段集省略未请求的字段")
+        void shouldOmitNullsOnlyForSparseFieldSets() throws Exception {
+            ImageDetailDTO full = new ImageDetailDTO();
+            full.setId(1L);
+            SparseImageDetailDTO sparse = new SparseImageDetailDTO();
+            sparse.setId(2L);
+            sparse.setWidth(640);
+
+            when(imageAppService.listImages(any())).thenReturn(
+                    PageResult.of(Arrays.asList(full, sparse), 2, 1, 20));
+
+            mockMvc.perform(get("/api/v1/images"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.records[0].description").value(nullValue()))
+                    .andExpect(jsonPath("$.data.records[0].thumbnails").value(nullValue()))
+                    .andExpect(jsonPath("$.data.records[0].downloadUrl").value(nullValue()))
+                    .andExpect(jsonPath("$.data.records[1].width").value(640))
+                    .andExpect(jsonPath("$.data.records[1].description").doesNotExist())
+                    .andExpect(jsonPath("$.data.records[1].thumbnails").doesNotExist());
+        }
+
         @Test
         @DisplayName("空列表返回空分页")
         void shouldReturnEmptyPage() throws Exception {
@@ -293,5 +477,164 @@ class ImageControllerTest {
                     .andExpect(status().isFound())
                     .andExpect(redirectedUrl(url));
         }
+
+        @Test
+        @DisplayName("开启代理下载时直接输出附件")
+        void shouldStreamAttachmentWhenProxyEnabled() throws Exception {
+            byte[] content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+            ImageEntity image = new ImageEntity();
+            image.setId(1L);
+            image.setFileSize((long) content.length);
+            image.setMimeType("image/png");
+            image.setOriginalName("photo.png");
+            when(imageAppService.isProxyDownload()).thenReturn(true);
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image);
+            when(imageAppService.transferImageRange(eq(image), eq(0L), eq(10L), any()))
+                    .thenAnswer(write(content));
+
+            mockMvc.perform(get("/api/v1/images/1/download"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("attachment")))
+                    .andExpect(content().bytes(content));
+
+            verify(imageAppService, never()).getDownloadUrl(anyLong());
+        }
+    }
+
+    /**
+     * 模拟存储后端把给定字节写入响应通道
+     */
+    private static Answer<Long> write(byte[] bytes) {
+        return invocation -> {
+            WritableByteChannel target = invocation.getArgument(3);
+            return (long) target.write(ByteBuffer.wrap(bytes));
+        };
+    }
+
+    // ==================== 服务端输出 (Range / 条件请求) ====================
+
+    @Nested
+    @DisplayName("GET /api/v1/images/{id}/content - 读取图片内容")
+    class ContentTests {
+
+        private static final String HASH = "ef95823721a407028c9134e3d5605168218b048d50d2bce55cd1fdde16868c32";
+
+        private final byte[] content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+        private ImageEntity image() {
+            ImageEntity image = new ImageEntity();
+            image.setId(1L);
+            image.setFileHash(HASH);
+            image.setStoragePath("originals/2026/02/14/abc-123.png");
+            image.setFileSize((long) content.length);
+            image.setMimeType("image/png");
+            image.setCreatedAt("2026-02-14 08:00:00");
+            return image;
+        }
+
+        @Test
+        @DisplayName("无 Range 时返回完整内容和缓存校验头")
+        void shouldReturnFullContent() throws Exception {
+            ImageEntity image = image();
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image);
+            when(imageAppService.transferImageRange(eq(image), eq(0L), eq(10L), any())).thenAnswer(write(content));
+
+            mockMvc.perform(get("/api/v1/images/1/content"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Accept-Ranges", "bytes"))
+                    .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                    .andExpect(header().string("Last-Modified", "Sat, 14 Feb 2026 08:00:00 GMT"))
+                    .andExpect(header().string("Cache-Control", "public, max-age=2592000"))
+                    .andExpect(header().longValue("Content-Length", 10))
+                    .andExpect(content().contentType("image/png"))
+                    .andExpect(content().bytes(content));
+        }
+
+        @Test
+        @DisplayName("单区间 Range 返回 206 和对应字节")
+        void shouldReturnPartialContent() throws Exception {
+            ImageEntity image = image();
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image);
+            when(imageAppService.transferImageRange(eq(image), eq(2L), eq(4L), any()))
+                    .thenAnswer(write(Arrays.copyOfRange(content, 2, 6)));
+
+            mockMvc.perform(get("/api/v1/images/1/content").header("Range", "bytes=2-5"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                    .andExpect(header().longValue("Content-Length", 4))
+                    .andExpect(content().bytes("2345".getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        @Test
+        @DisplayName("后缀区间读取文件末尾")
+        void shouldReturnSuffixRange() throws Exception {
+            ImageEntity image = image();
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image);
+            when(imageAppService.transferImageRange(eq(image), eq(7L), eq(3L), any()))
+                    .thenAnswer(write(Arrays.copyOfRange(content, 7, 10)));
+
+            mockMvc.perform(get("/api/v1/images/1/content").header("Range", "bytes=-3"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string("Content-Range", "bytes 7-9/10"));
+        }
+
+        @Test
+        @DisplayName("起始位置超出文件大小返回 416")
+        void shouldRejectUnsatisfiableRange() throws Exception {
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image());
+
+            mockMvc.perform(get("/api/v1/images/1/content").header("Range", "bytes=20-"))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string("Content-Range", "bytes */10"));
+
+            verify(imageAppService, never()).transferImageRange(any(), anyLong(), anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("If-None-Match 命中 ETag 返回 304 且不读存储")
+        void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image());
+
+            mockMvc.perform(get("/api/v1/images/1/content").header("If-None-Match", "\"" + HASH + "\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"" + HASH + "\""));
+
+            verify(imageAppService, never()).transferImageRange(any(), anyLong(), anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("If-Modified-Since 不早于创建时间返回 304")
+        void shouldReturnNotModifiedSinceCreation() throws Exception {
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image());
+
+            mockMvc.perform(get("/api/v1/images/1/content")
+                            .header("If-Modified-Since", "Sat, 14 Feb 2026 08:00:00 GMT"))
+                    .andExpect(status().isNotModified());
+
+            verify(imageAppService, never()).transferImageRange(any(), anyLong(), anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("If-Range 与 ETag 不一致时忽略 Range 返回完整内容")
+        void shouldIgnoreRangeWhenIfRangeMismatches() throws Exception {
+            ImageEntity image = image();
+            when(imageAppService.getDownloadableImage(1L)).thenReturn(image);
+            when(imageAppService.transferImageRange(eq(image), eq(0L), eq(10L), any())).thenAnswer(write(content));
+
+            mockMvc.perform(get("/api/v1/images/1/content")
+                            .header("Range", "bytes=2-5")
+                            .header("If-Range", "\"stale\""))
+                    .andExpect(status().isOk())
+                    .andExpect(content().bytes(content));
+        }
+
+        @Test
+        @DisplayName("图片不存在返回 404")
+        void shouldReturn404WhenNotFound() throws Exception {
+            when(imageAppService.getDownloadableImage(99L)).thenThrow(BusinessException.notFound("图片不存在: 99"));
+
+            mockMvc.perform(get("/api/v1/images/99/content"))
+                    .andExpect(jsonPath("$.code").value(404));
+        }
     }
 }
@@ -0,0 +1,178 @@
+package com.imgvault.api.controller;
+
+import com.imgvault.api.config.GlobalExceptionHandler;
+import com.imgvault.infrastructure.config.PresignCacheConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.LocalStorageBackend;
+import com.imgvault.infrastructure.storage.PresignedUrlCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * LocalStorageController 本地存储预签名访问测试（真实磁盘读写）
+ */
+@DisplayName("LocalStorageController 本地存储接口测试")
+class LocalStorageControllerTest {
+
+    @TempDir
+    Path rootDir;
+
+    private LocalStorageBackend backend;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StorageConfig config = new StorageConfig();
+        config.setBackend("local");
+        // publicUrl 为空时预签名 URL 即为请求路径 + 查询参数
+        config.getLocal().setRootDir(rootDir.toString());
+        backend = new LocalStorageBackend(config, new PresignedUrlCache(new PresignCacheConfig()));
+        backend.init();
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new LocalStorageController(backend))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/storage/** - 预签名下载")
+    class DownloadTests {
+
+        @Test
+        @DisplayName("签名有效时返回文件内容")
+        void shouldDownloadWithValidSignature() throws Exception {
+            backend.uploadFile("originals/2026/02/13/a.png", new ByteArrayInputStream(bytes("hello")), 5, "image/png");
+            String url = backend.getPresignedDownloadUrl("originals/2026/02/13/a.png", 60);
+
+            mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().longValue("Content-Length", 5))
+                    .andExpect(content().contentType("image/png"))
+                    .andExpect(content().bytes(bytes("hello")));
+        }
+
+        @Test
+        @DisplayName("内容寻址对象返回不可变 Cache-Control")
+        void shouldServeContentAddressedAsImmutable() throws Exception {
+            String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+            String path = backend.generateContentAddressedPath(sha256, "png");
+            assertEquals("cas/2c/f2/" + sha256 + ".png", path);
+            assertTrue(backend.uploadFileIfAbsent(path, new ByteArrayInputStream(bytes("hello")), 5, "image/png"));
+            assertFalse(backend.uploadFileIfAbsent(path, new ByteArrayInputStream(bytes("other")), 5, "image/png"));
+
+            mockMvc.perform(get(backend.getPresignedDownloadUrl(path, 60)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                    .andExpect(content().bytes(bytes("hello")));
+        }
+
+        @Test
+        @DisplayName("签名被篡改返回 403")
+        void shouldRejectTamperedSignature() throws Exception {
+            backend.uploadFile("originals/a.png", new ByteArrayInputStream(bytes("hello")), 5, "image/png");
+            String url = backend.getPresignedDownloadUrl("originals/a.png", 60);
+
+            mockMvc.perform(get(url.replace("originals/a.png", "originals/b.png")))
+                    .andExpect(status().isForbidden());
+        }
+
+        @Test
+        @DisplayName("已过期返回 403")
+        void shouldRejectExpired() throws Exception {
+            backend.uploadFile("originals/a.png", new ByteArrayInputStream(bytes("hello")), 5, "image/png");
+            String url = backend.getPresignedDownloadUrl("originals/a.png", -10);
+
+            mockMvc.perform(get(url))
+                    .andExpect(status().isForbidden());
+        }
+
+        @Test
+        @DisplayName("上传 URL 不能用于下载")
+        void shouldRejectUploadSignatureForDownload() throws Exception {
+            backend.uploadFile("originals/a.png", new ByteArrayInputStream(bytes("hello")), 5, "image/png");
+            String url = backend.getPresignedUploadUrl("originals/a.png", 60);
+
+            mockMvc.perform(get(url))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    @Nested
+    @DisplayName("PUT /api/v1/storage/** - 预签名上传")
+    class UploadTests {
+
+        @Test
+        @DisplayName("签名有效时写入文件")
+        void shouldUploadWithValidSignature() throws Exception {
+            String url = backend.getPresignedUploadUrl("temp/presigned/x.png", "image/png", 60);
+
+            mockMvc.perform(put(url).content(bytes("payload")).contentType("image/png"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"));
+
+            assertArrayEquals(bytes("payload"), Files.readAllBytes(rootDir.resolve("temp/presigned/x.png")));
+        }
+    }
+
+    @Nested
+    @DisplayName("LocalStorageBackend 文件操作")
+    class BackendTests {
+
+        @Test
+        @DisplayName("合并、区间读取、列举与批量删除")
+        void shouldComposeRangeListAndDelete() throws Exception {
+            backend.uploadFile("temp/chunks/u1/0001", new ByteArrayInputStream(bytes("abc")), 3, null);
+            backend.uploadFile("temp/chunks/u1/0002", new ByteArrayInputStream(bytes("def")), 3, null);
+            backend.uploadFile("temp/chunks/u2/0001", new ByteArrayInputStream(bytes("x")), 1, null);
+
+            backend.composeObject("originals/c.bin",
+                    Arrays.asList("temp/chunks/u1/0001", "temp/chunks/u1/0002"), "application/octet-stream");
+            assertEquals(6, backend.getObjectSize("originals/c.bin"));
+            byte[] range = new byte[6];
+            try (InputStream in = backend.getFileStream("originals/c.bin", 2, 3)) {
+                assertEquals(3, in.read(range));
+                // 读满区间长度后结束，不越过区间末尾
+                assertEquals(-1, in.read(range));
+                assertEquals(-1, in.read());
+            }
+            assertArrayEquals(bytes("cde"), Arrays.copyOf(range, 3));
+
+            assertEquals(Arrays.asList("temp/chunks/u1/", "temp/chunks/u2/"),
+                    backend.listObjects("temp/chunks/", false, null, 10));
+            assertEquals(Arrays.asList("temp/chunks/u2/"),
+                    backend.listObjects("temp/chunks/", false, "temp/chunks/u1/", 10));
+            List<String> chunks = backend.listObjects("temp/chunks/u1/", true, null, 10);
+            assertEquals(Arrays.asList("temp/chunks/u1/0001", "temp/chunks/u1/0002"), chunks);
+
+            assertEquals(0, backend.deleteFiles(chunks));
+            assertEquals(Arrays.asList("temp/chunks/u2/"), backend.listObjects("temp/chunks/", false, null, 10));
+        }
+
+        @Test
+        @DisplayName("拒绝越出根目录的路径")
+        void shouldRejectPathTraversal() {
+            assertThrows(IllegalArgumentException.class, () -> backend.resolve("../escape.png"));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.imgvault.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.imgvault.common.util.MultiDigest;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分片上传的整文件摘要续算
+ * <p>
+ * 分片按顺序到达时，其数据在写入存储的同时计入该任务的整文件 SHA-256/MD5；
+ * 合并时只需补算续算位置之后的分片，全部按序到达则无需再读取任何分片。
+ * 乱序到达的分片不计入（续算停在第一个缺口处），由合并时补算
+ * <p>
+ * 状态仅保存在本机内存，进程重启或被淘汰后合并退化为从头计算
+ */
+@Component
+public class ChunkDigestTracker {
+
+    /** 与分片上传任务有效期一致 */
+    private static final long EXPIRE_HOURS = 24;
+
+    private static final long MAX_TASKS = 4096;
+
+    private final Cache<String, RollingDigest> digests = Caffeine.newBuilder()
+            .maximumSize(MAX_TASKS)
+            .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * 尝试占用续算摘要以计入指定分片
+     *
+     * @return 分片正好是下一个待计入的分片时返回已加锁的摘要，调用方写入后必须 {@link RollingDigest#release(boolean)}；
+     * 否则返回 null
+     */
+    public RollingDigest claim(String uploadId, int chunkNumber) {
+        RollingDigest rolling = digests.get(uploadId, id -> new RollingDigest());
+        if (rolling.nextChunk != chunkNumber || !rolling.lock.tryLock()) {
+            return null;
+        }
+        if (rolling.nextChunk != chunkNumber || rolling.broken) {
+            rolling.lock.unlock();
+            return null;
+        }
+        return rolling;
+    }
+
+    /**
+     * 取出续算摘要用于合并（取出后不再参与续算）
+     *
+     * @return 可用的续算摘要；不存在、已损坏或仍在写入时返回 null
+     */
+    public RollingDigest take(String uploadId) {
+        RollingDigest rolling = digests.asMap().remove(uploadId);
+        if (rolling == null || !rolling.lock.tryLock()) {
+            return null;
+        }
+        try {
+            return rolling.broken ? null : rolling;
+        } finally {
+            rolling.lock.unlock();
+        }
+    }
+
+    public void discard(String uploadId) {
+        digests.invalidate(uploadId);
+    }
+
+    /**
+     * 单个上传任务的续算摘要
+     */
+    public static final class RollingDigest {
+
+        private final MultiDigest digest = new MultiDigest();
+        private final ReentrantLock lock = new ReentrantLock();
+        /** 下一个待计入的分片编号（之前的分片均已计入） */
+        private volatile int nextChunk = 1;
+        /** 写入中途失败，摘要状态已不可用 */
+        private volatile boolean broken;
+
+        public MultiDigest getDigest() {
+            return digest;
+        }
+
+        public int getNextChunk() {
+            return nextChunk;
+        }
+
+        /**
+         * 结束本次分片写入并释放锁
+         *
+         * @param success 分片是否完整写入且校验通过；失败时摘要作废
+         */
+        public void release(boolean success) {
+            if (success) {
+                nextChunk++;
+            } else {
+                broken = true;
+            }
+            lock.unlock();
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.imgvault.app.service;
 
 import com.imgvault.common.dto.*;
+import com.imgvault.common.util.FileDigest;
+import com.imgvault.common.util.FileHashUtil;
 import com.imgvault.domain.entity.ImageEntity;
 import com.imgvault.domain.repository.ImageRepository;
-import com.imgvault.infrastructure.storage.MinioStorageService;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -27,8 +30,11 @@ public class ComposeAppService {
 
     private final ImageComposeService composeService;
     private final ComposeTemplateEngine templateEngine;
-    private final MinioStorageService storageService;
+    private final StorageBackend storageService;
     private final ImageRepository imageRepository;
+    private final UploadAdmissionService admissionService;
+    private final OriginalObjectCache originalObjectCache;
+    private final StorageConfig storageConfig;
 
     private static final DateTimeFormatter DT_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -40,12 +46,15 @@ public class ComposeAppService {
                 request.getCanvas().getWidth(), request.getCanvas().getHeight(),
                 request.getLayers().size());
 
-        List<ImageComposeService.LayerInput> layerInputs = prepareLayerInputs(request.getLayers());
-        ComposeRequest.OutputConfig output = request.getOutput() != null
-                ? request.getOutput() : new ComposeRequest.OutputConfig();
+        // 解码许可覆盖源图拉取和合成，限制同时驻留内存的整图数量
+        ImageComposeService.ComposeOutput result;
+        try (UploadAdmissionService.Permit permit = admissionService.acquireDecode()) {
+            List<ImageComposeService.LayerInput> layerInputs = prepareLayerInputs(request.getLayers());
+            ComposeRequest.OutputConfig output = request.getOutput() != null
+                    ? request.getOutput() : new ComposeRequest.OutputConfig();
 
-        ImageComposeService.ComposeOutput result = composeService.compose(
-                request.getCanvas(), layerInputs, output);
+            result = composeService.compose(request.getCanvas(), layerInputs, output);
+        }
 
         return saveAndBuildResult(result, visitorId, "composed");
     }
@@ -76,11 +85,12 @@ public class ComposeAppService {
     }
 
     /**
-     * 准备图层输入数据（从 MinIO 拉取源图）
+     * 准备图层输入数据（从 MinIO 拉取源图，各图层并行拉取）
      */
     private List<ImageComposeService.LayerInput> prepareLayerInputs(
             List<ComposeRequest.LayerConfig> layers) {
         List<ImageComposeService.LayerInput> inputs = new ArrayList<>();
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
 
         for (ComposeRequest.LayerConfig cfg : layers) {
             ImageComposeService.LayerInput input = new ImageComposeService.LayerInput();
@@ -90,9 +100,16 @@ public class ComposeAppService {
                 try {
                     ImageEntity entity = imageRepository.findById(cfg.getImageId());
                     if (entity != null && entity.getStoragePath() != null) {
-                        InputStream stream = storageService.getFileStream(entity.getStoragePath());
-                        input.setImageData(toByteArray(stream));
-                        stream.close();
+                        fetches.add(originalObjectCache.readAllBytesAsync(entity)
+                                .handle((data, error) -> {
+                                    if (error != null) {
+                                        log.warn("拉取图片数据失败: imageId={}, error={}",
+                                                cfg.getImageId(), rootCause(error).getMessage());
+                                    } else {
+                                        input.setImageData(data);
+                                    }
+                                    return null;
+                                }));
                     }
                 } catch (Exception e) {
                     log.warn("拉取图片数据失败: imageId={}, error={}", cfg.getImageId(), e.getMessage());
@@ -102,6 +119,7 @@ public class ComposeAppService {
             inputs.add(input);
         }
 
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0])).join();
         return inputs;
     }
 
@@ -112,19 +130,26 @@ public class ComposeAppService {
                                                 String visitorId, String source) {
         String ext = result.getFormat();
         if ("jpeg".equals(ext)) ext = "jpg";
-        String storagePath = storageService.generateStoragePath(ext)
-                .replace("originals/", "composed/");
-
         String contentType = "image/" + result.getFormat();
         byte[] data = result.getData();
+        FileDigest digest = FileHashUtil.digest(data);
+
+        boolean contentAddressed = storageConfig.isContentAddressed();
+        String storagePath = contentAddressed
+                ? storageService.generateContentAddressedPath(digest.sha256Hex(), ext)
+                : storageService.generateStoragePath(ext).replace("originals/", "composed/");
 
-        storageService.uploadFile(storagePath, new ByteArrayInputStream(data),
-                data.length, contentType);
+        // 上传进行中构建记录；内容寻址下相同内容已存在时不再写入
+        CompletableFuture<String> upload = contentAddressed && storageService.objectExists(storagePath)
+                ? CompletableFuture.completedFuture(null)
+                : storageService.uploadFileAsync(storagePath, new ByteArrayInputStream(data), data.length, contentType);
 
         ImageEntity entity = new ImageEntity();
         entity.setImageUuid(UUID.randomUUID().toString());
         entity.setOriginalName("composed_" + System.currentTimeMillis() + "." + ext);
         entity.setStoragePath(storagePath);
+        entity.setFileHash(digest.sha256Hex());
+        entity.setFileMd5(digest.md5Hex());
         entity.setBucketName("imgvault");
         entity.setFileSize((long) data.length);
         entity.setWidth(result.getWidth());
@@ -139,7 +164,22 @@ public class ComposeAppService {
         entity.setCreatedAt(LocalDateTime.now().format(DT_FMT));
         entity.setUpdatedAt(LocalDateTime.now().format(DT_FMT));
 
-        imageRepository.insert(entity);
+        // 对象写入完成后才插入记录: 记录一经插入即可被查询和下载，不能先于对象可见
+        try {
+            upload.join();
+        } catch (CompletionException e) {
+            Throwable cause = rootCause(e);
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+        try {
+            imageRepository.insert(entity);
+        } catch (RuntimeException e) {
+            // 内容寻址对象可能被其他记录共享，不在此清理
+            if (!contentAddressed) {
+                discardQuietly(storagePath);
+            }
+            throw e;
+        }
 
         String downloadUrl = storageService.getPresignedDownloadUrl(storagePath, 3600);
 
@@ -158,13 +198,22 @@ public class ComposeAppService {
         return dto;
     }
 
-    private static byte[] toByteArray(InputStream input) throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] buf = new byte[8192];
-        int len;
-        while ((len = input.read(buf)) != -1) {
-            buffer.write(buf, 0, len);
+    /**
+     * 删除记录未能落库的合成对象，失败仅记录日志
+     */
+    private void discardQuietly(String storagePath) {
+        try {
+            storageService.deleteFile(storagePath);
+        } catch (Exception e) {
+            log.warn("清理未落库的合成对象失败: path={}, error={}", storagePath, e.getMessage());
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
-        return buffer.toByteArray();
+        return cause;
     }
 }
@@ -4,28 +4,46 @@ import com.imgvault.common.constant.StorageConstants;
 import com.imgvault.common.dto.*;
 import com.imgvault.common.enums.*;
 import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.util.FileDigest;
 import com.imgvault.common.util.FileHashUtil;
+import com.imgvault.common.util.HashingInputStream;
+import com.imgvault.common.util.ImageHeaderProbe;
 import com.imgvault.common.util.MagicBytesValidator;
+import com.imgvault.common.util.MultiDigest;
 import com.imgvault.domain.entity.*;
 import com.imgvault.domain.repository.*;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.config.UploadConfig;
+import com.imgvault.infrastructure.persistence.SqliteWriteBatcher;
 import com.imgvault.infrastructure.storage.ImgproxyService;
-import com.imgvault.infrastructure.storage.MinioStorageService;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import com.imgvault.infrastructure.storage.StoragePart;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
+import javax.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -37,83 +55,160 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ImageAppService {
 
+    private static final String[] THUMBNAIL_SIZES = {"small", "medium", "large"};
+
     private final ImageRepository imageRepository;
     private final ImageMetadataRepository imageMetadataRepository;
     private final FileFingerprintRepository fingerprintRepository;
     private final UploadTaskRepository uploadTaskRepository;
     private final AsyncTaskRepository asyncTaskRepository;
-    private final MinioStorageService storageService;
+    private final StorageBackend storageService;
     private final ImgproxyService imgproxyService;
+    private final SqliteWriteBatcher writeBatcher;
+    private final UploadMetrics uploadMetrics;
+    private final UploadAdmissionService admissionService;
+    private final ChunkDigestTracker chunkDigestTracker;
+    private final OriginalObjectCache originalObjectCache;
+    private final StorageTieringService storageTieringService;
+    private final UploadConfig uploadConfig;
+    private final StorageConfig storageConfig;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    @Qualifier("batchUploadExecutor")
+    private final Executor batchUploadExecutor;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * F02 + F03 + F08: 图片上传（含安全校验和元数据提取）
+     * <p>
+     * 单遍流式写入: 仅缓冲文件头部（{@link StorageConstants#UPLOAD_HEAD_BUFFER_SIZE}）用于类型嗅探和尺寸解析，
+     * 其余字节边读边算 SHA-256/MD5 并直接写入 MinIO，单次上传的堆内存占用不随文件大小增长。
+     * 内容寻址布局下先对已接收到本地的 multipart 计算哈希: 内容已存在时只写元数据，否则直接写入 cas/ 路径
      */
     public ImageUploadDTO uploadImage(MultipartFile file, String visitorId) {
+        return uploadImage(file, visitorId, null);
+    }
+
+    /**
+     * @param admitted 调用方已申请的准入许可（批量上传），为 null 时在此申请
+     */
+    private ImageUploadDTO uploadImage(MultipartFile file, String visitorId, UploadAdmissionService.Permit admitted) {
+        UploadMetrics.Recorder metrics = uploadMetrics.start(UploadMetrics.PATH_DIRECT);
+        String outcome = UploadMetrics.OUTCOME_ERROR;
+        try {
+            ImageUploadDTO dto = doUploadImage(file, visitorId, admitted, metrics);
+            outcome = Boolean.TRUE.equals(dto.getDuplicate())
+                    ? UploadMetrics.OUTCOME_DUPLICATE : UploadMetrics.OUTCOME_SUCCESS;
+            return dto;
+        } finally {
+            metrics.finish(outcome);
+        }
+    }
+
+    private ImageUploadDTO doUploadImage(MultipartFile file, String visitorId, UploadAdmissionService.Permit admitted,
+                                         UploadMetrics.Recorder metrics) {
         // 1. 基本参数校验
+        metrics.size(file != null ? file.getSize() : -1);
         validateUploadFile(file);
+        metrics.lap(UploadMetrics.STAGE_VALIDATE);
 
-        try {
-            byte[] fileBytes = file.getBytes();
-
-            // 2. Magic Bytes 安全校验 (F03)
-            validateMagicBytes(fileBytes, file.getContentType());
-
-            // 3. 计算文件哈希 (SHA-256 + MD5)
-            String fileHash = FileHashUtil.sha256(fileBytes);
-            String fileMd5 = FileHashUtil.md5(fileBytes);
-
-            // 3.5 文件指纹去重检查
-            FileFingerprintEntity existingFingerprint = fingerprintRepository.findByHash(fileHash);
-            if (existingFingerprint != null) {
-                ImageEntity existingImage = imageRepository.findByHash(fileHash);
-                if (existingImage != null && existingImage.getStatus() == ImageStatus.NORMAL.getCode()) {
-                    log.info("检测到重复文件上传: hash={}, existingId={}", fileHash, existingImage.getId());
-                    ImageUploadDTO dto = new ImageUploadDTO();
-                    dto.setId(existingImage.getId());
-                    dto.setImageUuid(existingImage.getImageUuid());
-                    dto.setOriginalName(existingImage.getOriginalName());
-                    dto.setFileSize(existingImage.getFileSize());
-                    dto.setWidth(existingImage.getWidth());
-                    dto.setHeight(existingImage.getHeight());
-                    dto.setFormat(existingImage.getFormat());
-                    dto.setMimeType(existingImage.getMimeType());
-                    dto.setStoragePath(existingImage.getStoragePath());
-                    dto.setFileHash(fileHash);
-                    dto.setDownloadUrl(storageService.getPresignedDownloadUrl(
-                            existingImage.getStoragePath(), StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
-                    dto.setDuplicate(true);
-                    return dto;
-                }
-            }
+        // 准入控制: 按文件大小占用处理中字节预算，资源不足时 429
+        try (UploadAdmissionService.Permit permit = admitted != null
+                ? admitted : admissionService.acquireUpload(file.getSize());
+             InputStream rawStream = file.getInputStream()) {
+            metrics.lap(UploadMetrics.STAGE_ADMISSION);
+
+            // 2. 读取文件头部，Magic Bytes 安全校验 (F03)
+            byte[] head = readHead(rawStream, StorageConstants.UPLOAD_HEAD_BUFFER_SIZE);
+            validateMagicBytes(head, file.getContentType());
 
-            // 4. 检测 MIME 类型和格式
-            String mimeType = MagicBytesValidator.detectMimeType(fileBytes);
+            // 3. 检测 MIME 类型和格式
+            String mimeType = MagicBytesValidator.detectMimeType(head);
             if (mimeType == null) {
                 throw BusinessException.badRequest("无法检测文件类型");
             }
             ImageFormat imageFormat = ImageFormat.fromMimeType(mimeType);
+            metrics.format(imageFormat.getFormat());
+            metrics.lap(UploadMetrics.STAGE_SNIFF);
 
-            // 5. 提取图片尺寸信息 (F08)
+            String extension = imageFormat.getExtensions()[0].substring(1);
+            String storagePath;
+            String fileHash;
+            String fileMd5;
+            long fileSize;
+            if (storageConfig.isContentAddressed()) {
+                // 4. 内容寻址: 先对本地 multipart 计算哈希，按内容决定路径
+                long hashStart = System.nanoTime();
+                FileDigest digest;
+                try (InputStream localStream = file.getInputStream()) {
+                    digest = FileHashUtil.digest(localStream, false);
+                }
+                fileHash = digest.sha256Hex();
+                fileMd5 = digest.md5Hex();
+                fileSize = digest.getLength();
+                metrics.record(UploadMetrics.STAGE_HASH, System.nanoTime() - hashStart);
+                metrics.size(fileSize);
+                metrics.resetLap();
+
+                // 5. 文件指纹去重检查（重复文件不写存储，复用已有记录）
+                ImageUploadDTO duplicate = findDuplicateUpload(fileHash, metrics);
+                if (duplicate != null) {
+                    return duplicate;
+                }
+
+                // 相同内容的对象已存在（如已删除记录仍被引用、或其他上传路径写入）时跳过写入
+                storagePath = storageService.generateContentAddressedPath(fileHash, extension);
+                boolean written = storageService.uploadFileIfAbsent(storagePath,
+                        new SequenceInputStream(new ByteArrayInputStream(head), rawStream), fileSize, mimeType);
+                metrics.lap(UploadMetrics.STAGE_STORAGE_PUT);
+                if (!written) {
+                    log.info("内容已存在，跳过写入: path={}", storagePath);
+                }
+            } else {
+                // 4. 单遍流式上传: 头部 + 剩余字节 → 哈希计算 → MinIO（字节流直写，零重编码）
+                //    哈希与写入在同一遍中完成，哈希耗时由 HashingInputStream 单独累计，其余计入 storage_put
+                storagePath = storageService.generateStoragePath(extension);
+                HashingInputStream hashingStream = new HashingInputStream(
+                        new SequenceInputStream(new ByteArrayInputStream(head), rawStream));
+                long putStart = System.nanoTime();
+                storageService.uploadFile(storagePath, hashingStream, file.getSize(), mimeType);
+                fileSize = hashingStream.getBytesRead();
+                fileHash = hashingStream.sha256Hex();
+                fileMd5 = hashingStream.md5Hex();
+                long hashNanos = hashingStream.getDigestNanos();
+                metrics.record(UploadMetrics.STAGE_HASH, hashNanos);
+                metrics.record(UploadMetrics.STAGE_STORAGE_PUT, System.nanoTime() - putStart - hashNanos);
+                metrics.size(fileSize);
+                metrics.resetLap();
+
+                // 5. 文件指纹去重检查（重复文件删除刚写入的对象，复用已有记录）
+                ImageUploadDTO duplicate = findDuplicateUpload(fileHash, metrics);
+                if (duplicate != null) {
+                    discardUploadedObject(storagePath);
+                    return duplicate;
+                }
+            }
+
+            // 6. 提取图片尺寸信息 (F08)，只解析头部，不解码像素
             int width = 0, height = 0;
             boolean hasAlpha = false;
             String colorSpace = null;
-            try {
-                BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(fileBytes));
-                if (bufferedImage != null) {
-                    width = bufferedImage.getWidth();
-                    height = bufferedImage.getHeight();
-                    hasAlpha = bufferedImage.getColorModel().hasAlpha();
-                    colorSpace = bufferedImage.getColorModel().getColorSpace().getType() == 5 ? "RGB" : "OTHER";
-                }
-            } catch (Exception e) {
-                log.warn("图片尺寸提取失败: {}", e.getMessage());
+            ImageHeaderProbe.ImageInfo imageInfo = probeImage(head, file::getInputStream, storagePath);
+            if (imageInfo != null) {
+                width = imageInfo.getWidth();
+                height = imageInfo.getHeight();
+                hasAlpha = imageInfo.isHasAlpha();
+                colorSpace = imageInfo.getColorSpace();
+            } else {
+                log.warn("图片尺寸提取失败: path={}", storagePath);
             }
-
-            // 6. 生成存储路径并上传到 MinIO（字节流直写，零重编码）
-            String extension = imageFormat.getExtensions()[0].substring(1);
-            String storagePath = storageService.generateStoragePath(extension);
-            storageService.uploadFile(storagePath, new ByteArrayInputStream(fileBytes),
-                    fileBytes.length, mimeType);
+            metrics.lap(UploadMetrics.STAGE_PROBE);
 
             // 7. 保存图片记录
             ImageEntity entity = new ImageEntity();
@@ -123,7 +218,7 @@ public class ImageAppService {
             entity.setOriginalName(file.getOriginalFilename());
             entity.setStoragePath(storagePath);
             entity.setBucketName(StorageConstants.DEFAULT_BUCKET);
-            entity.setFileSize((long) fileBytes.length);
+            entity.setFileSize(fileSize);
             entity.setWidth(width);
             entity.setHeight(height);
             entity.setFormat(imageFormat.getFormat());
@@ -133,20 +228,15 @@ public class ImageAppService {
             entity.setStatus(ImageStatus.NORMAL.getCode());
             entity.setAccessLevel(0);
             entity.setVisitorId(visitorId);
-            imageRepository.insert(entity);
 
-            // 8. 保存文件指纹（用于秒传）
+            // 8. 图片记录 + 文件指纹（用于秒传）组提交落库
             FileFingerprintEntity fingerprint = new FileFingerprintEntity();
             fingerprint.setFileHash(fileHash);
             fingerprint.setFileMd5(fileMd5);
             fingerprint.setStoragePath(storagePath);
-            fingerprint.setFileSize((long) fileBytes.length);
-            try {
-                fingerprintRepository.insert(fingerprint);
-            } catch (Exception e) {
-                // 指纹已存在时忽略
-                log.debug("文件指纹已存在: hash={}", fileHash);
-            }
+            fingerprint.setFileSize(fileSize);
+            persistNewImage(entity, fingerprint, false);
+            metrics.lap(UploadMetrics.STAGE_DB_INSERT);
 
             // 9. 构建返回结果
             ImageUploadDTO dto = new ImageUploadDTO();
@@ -162,6 +252,7 @@ public class ImageAppService {
             dto.setFileHash(fileHash);
             dto.setDownloadUrl(storageService.getPresignedDownloadUrl(storagePath,
                     StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
+            metrics.lap(UploadMetrics.STAGE_PRESIGN);
 
             log.info("图片上传成功: id={}, uuid={}, path={}", entity.getId(), entity.getImageUuid(), storagePath);
             return dto;
@@ -174,20 +265,82 @@ public class ImageAppService {
         }
     }
 
+    /**
+     * 已有相同内容的正常图片时返回复用结果，否则返回 null
+     */
+    private ImageUploadDTO findDuplicateUpload(String fileHash, UploadMetrics.Recorder metrics) {
+        FileFingerprintEntity existingFingerprint = fingerprintRepository.findByHash(fileHash);
+        metrics.lap(UploadMetrics.STAGE_DEDUP);
+        if (existingFingerprint == null) {
+            return null;
+        }
+        ImageEntity existingImage = imageRepository.findByHash(fileHash);
+        if (existingImage == null || existingImage.getStatus() != ImageStatus.NORMAL.getCode()) {
+            return null;
+        }
+        log.info("检测到重复文件上传: hash={}, existingId={}", fileHash, existingImage.getId());
+        ImageUploadDTO dto = new ImageUploadDTO();
+        dto.setId(existingImage.getId());
+        dto.setImageUuid(existingImage.getImageUuid());
+        dto.setOriginalName(existingImage.getOriginalName());
+        dto.setFileSize(existingImage.getFileSize());
+        dto.setWidth(existingImage.getWidth());
+        dto.setHeight(existingImage.getHeight());
+        dto.setFormat(existingImage.getFormat());
+        dto.setMimeType(existingImage.getMimeType());
+        dto.setStoragePath(existingImage.getStoragePath());
+        dto.setFileHash(fileHash);
+        dto.setDownloadUrl(storageService.getPresignedDownloadUrl(
+                existingImage.getStoragePath(), StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
+        dto.setDuplicate(true);
+        return dto;
+    }
+
     /**
      * F02: 批量上传
+     * <p>
+     * 在专用有界线程池 batchUploadExecutor 上并行处理。逐个文件在提交前申请准入字节预算（与单次上传共用同一预算），
+     * 最多等待 {@link UploadConfig#getBatchMaxWaitMillis()}，超时该文件记为失败；许可交给工作线程，处理完成后归还。
+     * 返回逐文件结果，顺序与请求一致
      */
-    public List<ImageUploadDTO> batchUpload(MultipartFile[] files, String visitorId) {
-        List<ImageUploadDTO> results = new ArrayList<>();
-        for (MultipartFile file : files) {
+    public BatchUploadResultDTO batchUpload(MultipartFile[] files, String visitorId) {
+        List<CompletableFuture<BatchUploadItemDTO>> futures = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            int index = i;
+            UploadAdmissionService.Permit permit;
             try {
-                results.add(uploadImage(file, visitorId));
-            } catch (Exception e) {
-                log.error("批量上传失败: file={}, error={}", file.getOriginalFilename(), e.getMessage());
-                // 继续上传其他文件
+                permit = admissionService.acquireUpload(file.getSize(), uploadConfig.getBatchMaxWaitMillis());
+            } catch (BusinessException e) {
+                futures.add(CompletableFuture.completedFuture(failedBatchItem(index, file, e.getMessage())));
+                continue;
+            }
+            try {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> uploadBatchItem(index, file, visitorId, permit), batchUploadExecutor));
+            } catch (RuntimeException e) {
+                permit.close();
+                futures.add(CompletableFuture.completedFuture(failedBatchItem(index, file, e.getMessage())));
             }
         }
-        return results;
+
+        List<BatchUploadItemDTO> items = new ArrayList<>(files.length);
+        int failed = 0;
+        for (CompletableFuture<BatchUploadItemDTO> future : futures) {
+            BatchUploadItemDTO item = future.join();
+            if (BatchUploadItemDTO.STATUS_FAILED.equals(item.getStatus())) {
+                failed++;
+            }
+            items.add(item);
+        }
+
+        BatchUploadResultDTO result = new BatchUploadResultDTO();
+        result.setTotal(files.length);
+        result.setSucceeded(files.length - failed);
+        result.setFailed(failed);
+        result.setItems(items);
+        log.info("批量上传完成: total={}, failed={}", files.length, failed);
+        return result;
     }
 
     /**
@@ -224,6 +377,7 @@ public class ImageAppService {
         String format = StringUtils.isNotBlank(request.getFormat()) ? request.getFormat() : null;
         String keyword = StringUtils.isNotBlank(request.getKeyword()) ? request.getKeyword() : null;
         String visitorId = StringUtils.isNotBlank(request.getVisitorId()) ? request.getVisitorId() : null;
+        ImageFieldSet fieldSet = ImageFieldSet.of(request.getView(), request.getFields());
 
         long total = imageRepository.count(format, status, keyword, visitorId);
         if (total == 0) {
@@ -235,9 +389,9 @@ public class ImageAppService {
                 request.getSortBy(), request.getSortOrder(),
                 request.getOffset(), request.getSize());
 
-        List<ImageDetailDTO> dtos = new ArrayList<>();
+        List<ImageDetailDTO> dtos = new ArrayList<>(entities.size());
         for (ImageEntity entity : entities) {
-            dtos.add(convertToDetailDTO(entity));
+            dtos.add(convertToDetailDTO(entity, fieldSet));
         }
 
         return PageResult.of(dtos, total, request.getPage(), request.getSize());
@@ -251,8 +405,9 @@ public class ImageAppService {
         if (entity == null || entity.getStatus() == ImageStatus.DELETED.getCode()) {
             throw BusinessException.notFound("图片不存在: " + id);
         }
-        // 增加浏览次数
+        // 增加浏览次数，冷对象登记回迁
         imageRepository.incrementViewCount(id);
+        storageTieringService.recordRead(entity);
         return storageService.getPresignedDownloadUrl(entity.getStoragePath(),
                 StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS);
     }
@@ -311,30 +466,101 @@ public class ImageAppService {
     /**
      * F07: 物理删除图片（同时删除 MinIO 文件）
      */
-    @CacheEvict(value = "imageCache", allEntries = true)
     public void hardDeleteImage(Long id) {
         ImageEntity entity = imageRepository.findById(id);
         if (entity == null) {
             throw BusinessException.notFound("图片不存在: " + id);
         }
+        hardDeleteImages(Collections.singletonList(id));
+    }
 
-        // 删除 MinIO 文件
-        try {
-            storageService.deleteFile(entity.getStoragePath());
-        } catch (Exception e) {
-            log.error("MinIO 文件删除失败: path={}", entity.getStoragePath(), e);
+    /**
+     * Admin: 批量软删除
+     *
+     * @return 实际软删除的数量（不存在或已在回收站的 ID 跳过）
+     */
+    public int softDeleteImages(List<Long> ids) {
+        List<ImageEntity> entities = findExisting(ids);
+        if (entities.isEmpty()) {
+            return 0;
         }
+        List<Long> found = entities.stream().map(ImageEntity::getId).collect(Collectors.toList());
+        Integer rows = transactionTemplate.execute(status -> imageRepository.softDeleteByIds(found));
+        evictImageCaches(entities, false);
+        log.info("图片已批量软删除: requested={}, deleted={}", ids.size(), rows);
+        return rows != null ? rows : 0;
+    }
 
-        // 删除数据库记录
-        imageRepository.deleteById(id);
-
-        // 减少指纹引用
-        FileFingerprintEntity fingerprint = fingerprintRepository.findByHash(entity.getFileHash());
-        if (fingerprint != null) {
-            fingerprintRepository.decrementRefCount(fingerprint.getId());
+    /**
+     * Admin: 批量物理删除
+     * <ol>
+     *   <li>一次 IN 查询加载全部记录</li>
+     *   <li>同一事务内扣减指纹引用、删除从表记录和图片记录</li>
+     *   <li>提交后删除指向不再被引用文件的指纹，再按对象删除接口批量删除这些文件（每次请求最多 1000 个）</li>
+     *   <li>按 ID/UUID 精确失效缓存，不清空整个 imageCache</li>
+     * </ol>
+     * 先提交数据库再删对象: 对象删除失败只留下孤儿文件，不会出现记录指向缺失的文件
+     *
+     * @return 实际删除的图片数（不存在的 ID 跳过）
+     */
+    public int hardDeleteImages(List<Long> ids) {
+        List<ImageEntity> entities = findExisting(ids);
+        if (entities.isEmpty()) {
+            return 0;
         }
+        List<Long> found = entities.stream().map(ImageEntity::getId).collect(Collectors.toList());
+        Integer rows = transactionTemplate.execute(status -> {
+            fingerprintRepository.decrementRefCountByImageIds(found);
+            return imageRepository.deleteByIds(found);
+        });
+        evictImageCaches(entities, true);
+
+        // 秒传记录共享同一个存储文件，仍被其他记录引用的文件保留
+        List<String> paths = entities.stream()
+                .map(ImageEntity::getStoragePath)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        paths.removeAll(new HashSet<>(imageRepository.findReferencedPaths(paths)));
+        int failed = 0;
+        if (!paths.isEmpty()) {
+            fingerprintRepository.deleteByStoragePaths(paths);
+            try {
+                failed = storageService.deleteFiles(paths);
+            } catch (Exception e) {
+                log.error("批量删除存储文件失败: count={}", paths.size(), e);
+                failed = paths.size();
+            }
+        }
+        paths.forEach(originalObjectCache::invalidate);
+
+        log.info("图片已批量物理删除: requested={}, deleted={}, objects={}, failedObjects={}",
+                ids.size(), rows, paths.size(), failed);
+        return rows != null ? rows : 0;
+    }
 
-        log.info("图片已物理删除: id={}, path={}", id, entity.getStoragePath());
+    private List<ImageEntity> findExisting(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        return distinct.isEmpty() ? Collections.emptyList() : imageRepository.findByIds(distinct);
+    }
+
+    /**
+     * 精确失效图片详情缓存（与 getImageById/getImageByUuid 的缓存键一致）
+     *
+     * @param fingerprints 是否同时失效秒传检测结果
+     */
+    private void evictImageCaches(List<ImageEntity> entities, boolean fingerprints) {
+        Cache imageCache = cacheManager.getCache("imageCache");
+        Cache fingerprintCache = fingerprints ? cacheManager.getCache("fingerprintCache") : null;
+        for (ImageEntity entity : entities) {
+            if (imageCache != null) {
+                imageCache.evict("id:" + entity.getId());
+                imageCache.evict("uuid:" + entity.getImageUuid());
+            }
+            if (fingerprintCache != null) {
+                fingerprintCache.evict(entity.getFileHash() + ":" + entity.getFileMd5());
+            }
+        }
     }
 
     // ==================== Phase 2: imgproxy 图片处理 ====================
@@ -393,10 +619,14 @@ public class ImageAppService {
         entity.setFileSize(request.getFileSize());
         entity.setStatus(ImageStatus.NORMAL.getCode());
         entity.setAccessLevel(0);
-        imageRepository.insert(entity);
 
-        // 增加指纹引用计数
-        fingerprintRepository.incrementRefCount(fingerprint.getId());
+        // 图片记录 + 指纹引用计数 + EXIF 异步任务 (F22) 组提交落库
+        writeBatcher.execute(() -> {
+            imageRepository.insert(entity);
+            fingerprintRepository.incrementRefCount(fingerprint.getId());
+            submitAsyncTask(AsyncTaskType.EXIF_EXTRACT, entity.getId(), null);
+            return entity.getId();
+        });
 
         String downloadUrl = null;
         try {
@@ -406,9 +636,6 @@ public class ImageAppService {
             log.warn("秒传后生成下载 URL 失败: {}", e.getMessage());
         }
 
-        // 异步提取 EXIF (F22)
-        submitAsyncTask(AsyncTaskType.EXIF_EXTRACT, entity.getId(), null);
-
         log.info("秒传成功: id={}, uuid={}, hash={}", entity.getId(), entity.getImageUuid(), request.getFileHash());
         return InstantUploadDTO.matched(entity.getId(), entity.getImageUuid(), downloadUrl);
     }
@@ -444,55 +671,102 @@ public class ImageAppService {
      * F19: 客户端直传完成后确认，创建图片记录
      */
     public ImageUploadDTO confirmPresignedUpload(PresignedUploadConfirmRequest request) {
-        // 验证文件已存在于 MinIO
-        // TODO: 可以通过 MinIO statObject 校验
+        UploadMetrics.Recorder metrics = uploadMetrics.start(UploadMetrics.PATH_PRESIGNED_CONFIRM);
+        metrics.size(request.getFileSize() != null ? request.getFileSize() : -1);
+        String outcome = UploadMetrics.OUTCOME_ERROR;
+        try {
+            ImageUploadDTO dto = doConfirmPresignedUpload(request, metrics);
+            outcome = UploadMetrics.OUTCOME_SUCCESS;
+            return dto;
+        } finally {
+            metrics.finish(outcome);
+        }
+    }
+
+    private ImageUploadDTO doConfirmPresignedUpload(PresignedUploadConfirmRequest request,
+                                                    UploadMetrics.Recorder metrics) {
+        // 验证文件已上传: statObject 取大小，区间读取头部做 Magic Bytes 校验和尺寸解析，不下载整个文件
+        String storagePath = request.getStoragePath();
+        long objectSize;
+        try {
+            objectSize = storageService.getObjectSize(storagePath);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw BusinessException.badRequest("文件尚未上传: " + storagePath);
+        }
+        metrics.size(objectSize);
+        // 空对象无法区间读取头部，直接拒绝
+        if (objectSize == 0) {
+            discardUploadedObject(storagePath);
+            throw BusinessException.badRequest("上传的文件为空");
+        }
+        if (request.getFileSize() != null && request.getFileSize() != objectSize) {
+            throw BusinessException.badRequest(String.format("文件大小与声明不一致: 声明 %d 字节, 实际 %d 字节",
+                    request.getFileSize(), objectSize));
+        }
+        if (objectSize > StorageConstants.MAX_FILE_SIZE) {
+            discardUploadedObject(storagePath);
+            throw BusinessException.badRequest("文件大小超过限制(50MB)");
+        }
+        metrics.lap(UploadMetrics.STAGE_VALIDATE);
+
+        int headLength = (int) Math.min(StorageConstants.UPLOAD_HEAD_BUFFER_SIZE, objectSize);
+        byte[] head;
+        try (InputStream headStream = storageService.getFileStream(storagePath, 0, headLength)) {
+            head = readHead(headStream, headLength);
+        } catch (IOException e) {
+            throw new BusinessException("读取文件头失败: " + e.getMessage());
+        }
+        if (!MagicBytesValidator.isValidImage(Arrays.copyOf(head, Math.min(head.length, 16)))) {
+            discardUploadedObject(storagePath);
+            throw BusinessException.badRequest("不支持的文件类型");
+        }
+        ImageFormat imageFormat = ImageFormat.fromMimeType(MagicBytesValidator.detectMimeType(head));
+        metrics.format(imageFormat.getFormat());
+        metrics.lap(UploadMetrics.STAGE_SNIFF);
+
+        ImageHeaderProbe.ImageInfo imageInfo = probeImage(head,
+                () -> storageService.getFileStream(storagePath), storagePath);
+        if (imageInfo == null) {
+            log.warn("预签名上传确认时提取尺寸失败: path={}", storagePath);
+        }
+        metrics.lap(UploadMetrics.STAGE_PROBE);
 
         ImageEntity entity = new ImageEntity();
         entity.setImageUuid(UUID.randomUUID().toString());
         entity.setOriginalName(request.getOriginalName());
-        entity.setStoragePath(request.getStoragePath());
+        entity.setStoragePath(storagePath);
         entity.setBucketName(StorageConstants.DEFAULT_BUCKET);
-        entity.setFileSize(request.getFileSize());
-        entity.setMimeType(request.getContentType());
+        entity.setFileSize(objectSize);
+        entity.setWidth(imageInfo != null ? imageInfo.getWidth() : 0);
+        entity.setHeight(imageInfo != null ? imageInfo.getHeight() : 0);
+        entity.setFormat(imageFormat.getFormat());
+        entity.setMimeType(imageFormat.getMimeType());
         entity.setFileHash(request.getFileHash());
         entity.setFileMd5(request.getFileMd5());
         entity.setStatus(ImageStatus.NORMAL.getCode());
         entity.setAccessLevel(0);
 
-        // 根据 MIME 类型推断格式
-        if (StringUtils.isNotBlank(request.getContentType())) {
-            try {
-                ImageFormat format = ImageFormat.fromMimeType(request.getContentType());
-                entity.setFormat(format.getFormat());
-            } catch (Exception e) {
-                log.warn("无法推断图片格式: contentType={}", request.getContentType());
-            }
-        }
-
-        imageRepository.insert(entity);
-
-        // 保存文件指纹
+        // 图片记录 + 文件指纹 + EXIF 异步任务 (F22) 组提交落库
+        FileFingerprintEntity fingerprint = null;
         if (StringUtils.isNotBlank(request.getFileHash())) {
-            FileFingerprintEntity fingerprint = new FileFingerprintEntity();
+            fingerprint = new FileFingerprintEntity();
             fingerprint.setFileHash(request.getFileHash());
             fingerprint.setFileMd5(request.getFileMd5());
-            fingerprint.setStoragePath(request.getStoragePath());
-            fingerprint.setFileSize(request.getFileSize());
-            try {
-                fingerprintRepository.insert(fingerprint);
-            } catch (Exception e) {
-                log.debug("文件指纹已存在: hash={}", request.getFileHash());
-            }
+            fingerprint.setStoragePath(storagePath);
+            fingerprint.setFileSize(objectSize);
         }
-
-        // 异步提取 EXIF (F22)
-        submitAsyncTask(AsyncTaskType.EXIF_EXTRACT, entity.getId(), null);
+        persistNewImage(entity, fingerprint, true);
+        metrics.lap(UploadMetrics.STAGE_DB_INSERT);
 
         ImageUploadDTO dto = new ImageUploadDTO();
         dto.setId(entity.getId());
         dto.setImageUuid(entity.getImageUuid());
         dto.setOriginalName(entity.getOriginalName());
         dto.setFileSize(entity.getFileSize());
+        dto.setWidth(entity.getWidth());
+        dto.setHeight(entity.getHeight());
         dto.setFormat(entity.getFormat());
         dto.setMimeType(entity.getMimeType());
         dto.setStoragePath(entity.getStoragePath());
@@ -504,6 +778,7 @@ public class ImageAppService {
         } catch (Exception e) {
             log.warn("生成下载 URL 失败");
         }
+        metrics.lap(UploadMetrics.STAGE_PRESIGN);
 
         log.info("预签名上传确认成功: id={}, uuid={}", entity.getId(), entity.getImageUuid());
         return dto;
@@ -522,10 +797,21 @@ public class ImageAppService {
             }
         }
 
+        boolean direct = Boolean.TRUE.equals(request.getDirect());
+        if (direct && !storageService.supportsMultipartUpload()) {
+            throw BusinessException.badRequest("当前存储后端不支持分片直传，请使用普通分片上传");
+        }
         int chunkSize = (request.getChunkSize() != null && request.getChunkSize() > 0)
                 ? request.getChunkSize()
                 : StorageConstants.CHUNK_SIZE;
+        if (direct) {
+            // 直传分片即 S3 Multipart 分片，除最后一个外不得小于 5MiB
+            chunkSize = (int) Math.max(chunkSize, StorageConstants.COMPOSE_MIN_PART_SIZE);
+        }
         int totalChunks = (int) Math.ceil((double) request.getFileSize() / chunkSize);
+        if (direct && totalChunks > StorageConstants.COMPOSE_MAX_PARTS) {
+            throw BusinessException.badRequest("分片数超过上限 " + StorageConstants.COMPOSE_MAX_PARTS + "，请增大分片大小");
+        }
 
         // 检查是否有未完成的上传任务（断点续传 F21）
         // 使用 fileHash 查找已有任务
@@ -535,6 +821,16 @@ public class ImageAppService {
                 ? request.getFileName().substring(request.getFileName().lastIndexOf('.') + 1).toLowerCase()
                 : "bin";
         String storagePath = storageService.generateStoragePath(extension);
+        String multipartUploadId = null;
+        if (direct) {
+            ImageFormat format;
+            try {
+                format = ImageFormat.fromExtension(extension);
+            } catch (Exception e) {
+                throw BusinessException.badRequest("不支持的文件格式: " + extension);
+            }
+            multipartUploadId = storageService.createMultipartUpload(storagePath, format.getMimeType());
+        }
 
         // 创建上传任务记录
         UploadTaskEntity task = new UploadTaskEntity();
@@ -547,6 +843,7 @@ public class ImageAppService {
         task.setUploadedChunks(0);
         task.setUploadedParts("");
         task.setStoragePath(storagePath);
+        task.setMultipartUploadId(multipartUploadId);
         task.setStatus(UploadTaskStatus.UPLOADING.getCode());
         // 24小时过期
         task.setExpiresAt(LocalDateTime.now().plusHours(24)
@@ -558,16 +855,180 @@ public class ImageAppService {
         dto.setTotalChunks(totalChunks);
         dto.setChunkSize(chunkSize);
         dto.setUploadedChunks(Collections.emptyList());
+        if (direct) {
+            dto.setDirect(true);
+            dto.setPartUrls(presignPartUrls(task, 1, StorageConstants.PRESIGNED_PART_URL_BATCH));
+            dto.setPartUrlExpirySeconds(StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS);
+        }
 
-        log.info("分片上传初始化: uploadId={}, totalChunks={}, chunkSize={}",
-                uploadId, totalChunks, chunkSize);
+        log.info("分片上传初始化: uploadId={}, totalChunks={}, chunkSize={}, direct={}",
+                uploadId, totalChunks, chunkSize, direct);
         return dto;
     }
 
+    /**
+     * 分片直传: 分批获取（或刷新过期的）预签名分片 URL
+     *
+     * @param fromPart 起始分片编号（从 1 开始）
+     * @param count    数量，不超过单批上限
+     */
+    public Map<Integer, String> getPartUploadUrls(String uploadId, int fromPart, int count) {
+        UploadTaskEntity task = findDirectUploadTask(uploadId);
+        if (fromPart < 1 || fromPart > task.getTotalChunks()) {
+            throw BusinessException.badRequest("无效的分片编号: " + fromPart);
+        }
+        return presignPartUrls(task, fromPart, Math.min(Math.max(count, 1), StorageConstants.PRESIGNED_PART_URL_BATCH));
+    }
+
+    /**
+     * 分片直传: 客户端上传完全部分片后调用，由存储端拼接为最终对象并创建图片记录
+     * <p>
+     * 分片数据不经过服务端；完成后服务端读取一遍最终对象计算 SHA-256/MD5，以服务端结果作为秒传指纹
+     */
+    public ImageUploadDTO completeDirectUpload(String uploadId) {
+        UploadTaskEntity task = findDirectUploadTask(uploadId);
+        if (!uploadTaskRepository.compareAndSetStatus(uploadId,
+                UploadTaskStatus.UPLOADING.getCode(), UploadTaskStatus.MERGING.getCode())) {
+            throw BusinessException.badRequest("上传任务状态异常: " + task.getStatus());
+        }
+        UploadMetrics.Recorder metrics = uploadMetrics.start(UploadMetrics.PATH_MULTIPART_COMPLETE);
+        metrics.size(task.getFileSize());
+        String outcome = UploadMetrics.OUTCOME_ERROR;
+        try {
+            ImageUploadDTO dto = doCompleteDirectUpload(task, metrics);
+            outcome = UploadMetrics.OUTCOME_SUCCESS;
+            return dto;
+        } finally {
+            metrics.finish(outcome);
+        }
+    }
+
+    private ImageUploadDTO doCompleteDirectUpload(UploadTaskEntity task, UploadMetrics.Recorder metrics) {
+        String uploadId = task.getUploadId();
+        String storagePath = task.getStoragePath();
+
+        // 1. 核对存储端已上传的分片（只取元数据）
+        List<StoragePart> parts;
+        try {
+            parts = storageService.listUploadedParts(storagePath, task.getMultipartUploadId());
+        } catch (RuntimeException e) {
+            uploadTaskRepository.compareAndSetStatus(uploadId,
+                    UploadTaskStatus.MERGING.getCode(), UploadTaskStatus.UPLOADING.getCode());
+            throw new BusinessException("查询已上传分片失败，请稍后重试");
+        }
+        long totalSize = parts.stream().mapToLong(StoragePart::getSize).sum();
+        if (parts.size() != task.getTotalChunks() || totalSize != task.getFileSize()) {
+            uploadTaskRepository.compareAndSetStatus(uploadId,
+                    UploadTaskStatus.MERGING.getCode(), UploadTaskStatus.UPLOADING.getCode());
+            throw BusinessException.badRequest(String.format("分片未全部上传: 已上传 %d/%d 个分片, %d/%d 字节",
+                    parts.size(), task.getTotalChunks(), totalSize, task.getFileSize()));
+        }
+        metrics.lap(UploadMetrics.STAGE_CHUNK_READ);
+
+        try {
+            // 2. 存储端拼接最终对象
+            storageService.completeMultipartUpload(storagePath, task.getMultipartUploadId(), parts);
+            metrics.lap(UploadMetrics.STAGE_STORAGE_PUT);
+
+            // 3. 只读取头部做 Magic Bytes 校验和 MIME 检测
+            int headLength = (int) Math.min(StorageConstants.UPLOAD_HEAD_BUFFER_SIZE, totalSize);
+            byte[] head;
+            try (InputStream headStream = storageService.getFileStream(storagePath, 0, headLength)) {
+                head = readHead(headStream, headLength);
+            }
+            if (!MagicBytesValidator.isValidImage(Arrays.copyOf(head, Math.min(head.length, 16)))) {
+                discardUploadedObject(storagePath);
+                uploadTaskRepository.updateStatus(uploadId, UploadTaskStatus.FAILED.getCode());
+                throw BusinessException.badRequest("不支持的文件类型");
+            }
+            ImageFormat imageFormat = ImageFormat.fromMimeType(MagicBytesValidator.detectMimeType(head));
+            metrics.format(imageFormat.getFormat());
+            metrics.lap(UploadMetrics.STAGE_SNIFF);
+
+            // 4. 服务端计算整文件哈希（秒传指纹不信任客户端声明值）
+            FileDigest digest;
+            try (InputStream objectStream = storageService.getFileStream(storagePath)) {
+                digest = FileHashUtil.digest(objectStream, false);
+            }
+            metrics.lap(UploadMetrics.STAGE_HASH);
+            if (StringUtils.isNotBlank(task.getFileHash()) && !task.getFileHash().equalsIgnoreCase(digest.sha256Hex())) {
+                discardUploadedObject(storagePath);
+                uploadTaskRepository.updateStatus(uploadId, UploadTaskStatus.FAILED.getCode());
+                throw BusinessException.badRequest("文件哈希与初始化声明不一致");
+            }
+
+            ImageEntity entity = persistAssembledImage(task, totalSize, digest, head, imageFormat, metrics);
+            uploadTaskRepository.updateStatus(uploadId, UploadTaskStatus.COMPLETED.getCode());
+            metrics.lap(UploadMetrics.STAGE_DB_INSERT);
+
+            ImageUploadDTO dto = new ImageUploadDTO();
+            dto.setId(entity.getId());
+            dto.setImageUuid(entity.getImageUuid());
+            dto.setOriginalName(entity.getOriginalName());
+            dto.setFileSize(entity.getFileSize());
+            dto.setWidth(entity.getWidth());
+            dto.setHeight(entity.getHeight());
+            dto.setFormat(entity.getFormat());
+            dto.setMimeType(entity.getMimeType());
+            dto.setStoragePath(entity.getStoragePath());
+            dto.setFileHash(entity.getFileHash());
+            try {
+                dto.setDownloadUrl(storageService.getPresignedDownloadUrl(
+                        entity.getStoragePath(), StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
+            } catch (Exception e) {
+                log.warn("生成下载 URL 失败");
+            }
+            metrics.lap(UploadMetrics.STAGE_PRESIGN);
+
+            log.info("分片直传完成: uploadId={}, imageId={}, parts={}", uploadId, entity.getId(), parts.size());
+            return dto;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("分片直传完成失败: uploadId={}", uploadId, e);
+            uploadTaskRepository.updateStatus(uploadId, UploadTaskStatus.FAILED.getCode());
+            throw new BusinessException("分片直传完成失败: " + e.getMessage());
+        }
+    }
+
+    private UploadTaskEntity findDirectUploadTask(String uploadId) {
+        UploadTaskEntity task = uploadTaskRepository.findByUploadId(uploadId);
+        if (task == null) {
+            throw BusinessException.notFound("上传任务不存在: " + uploadId);
+        }
+        if (task.getMultipartUploadId() == null) {
+            throw BusinessException.badRequest("该上传任务不是分片直传任务: " + uploadId);
+        }
+        return task;
+    }
+
+    private Map<Integer, String> presignPartUrls(UploadTaskEntity task, int fromPart, int count) {
+        int toPart = Math.min(task.getTotalChunks(), fromPart + count - 1);
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (int part = fromPart; part <= toPart; part++) {
+            urls.put(part, storageService.getPresignedPartUploadUrl(task.getStoragePath(),
+                    task.getMultipartUploadId(), part, StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
+        }
+        return urls;
+    }
+
     /**
      * F20 + F21: 上传分片（支持断点续传）
      */
     public ChunkUploadDTO uploadChunk(String uploadId, int chunkNumber, MultipartFile chunkFile) {
+        return uploadChunk(uploadId, chunkNumber, chunkFile, null);
+    }
+
+    /**
+     * F20 + F21: 上传分片（支持断点续传）
+     * <p>
+     * 分片写入存储时同步计算分片自身的 SHA-256/MD5 并落库；按序到达的分片同时计入整文件续算摘要，
+     * 合并时无需再次读取
+     *
+     * @param expectedSha256 客户端提供的分片 SHA-256，不一致时删除分片并拒绝（可为空）
+     */
+    public ChunkUploadDTO uploadChunk(String uploadId, int chunkNumber, MultipartFile chunkFile,
+                                      String expectedSha256) {
         UploadTaskEntity task = uploadTaskRepository.findByUploadId(uploadId);
         if (task == null) {
             throw BusinessException.notFound("上传任务不存在: " + uploadId);
@@ -575,45 +1036,87 @@ public class ImageAppService {
         if (!UploadTaskStatus.UPLOADING.getCode().equals(task.getStatus())) {
             throw BusinessException.badRequest("上传任务状态异常: " + task.getStatus());
         }
+        // 已过期的任务随时可能被清理任务认领，不再接收分片
+        if (task.getExpiresAt() != null && task.getExpiresAt().compareTo(
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))) < 0) {
+            throw BusinessException.badRequest("上传任务已过期: " + uploadId);
+        }
+        if (task.getMultipartUploadId() != null) {
+            throw BusinessException.badRequest("分片直传任务请使用预签名分片 URL 上传");
+        }
         if (chunkNumber < 1 || chunkNumber > task.getTotalChunks()) {
             throw BusinessException.badRequest("无效的分片编号: " + chunkNumber);
         }
 
-        // 检查分片是否已上传（断点续传 F21）
-        Set<Integer> uploadedParts = parseUploadedParts(task.getUploadedParts());
-        if (uploadedParts.contains(chunkNumber)) {
+        // 检查分片是否已上传（断点续传 F21）；uploaded_parts 仅兼容升级前创建的任务
+        UploadChunkEntity existing = uploadTaskRepository.findChunk(uploadId, chunkNumber);
+        if (existing != null || parseUploadedParts(task.getUploadedParts()).contains(chunkNumber)) {
             ChunkUploadDTO dto = new ChunkUploadDTO();
             dto.setSuccess(true);
             dto.setChunkNumber(chunkNumber);
-            dto.setAllUploaded(uploadedParts.size() == task.getTotalChunks());
+            dto.setChunkSha256(existing != null ? existing.getChunkSha256() : null);
+            dto.setAllUploaded(task.getUploadedChunks() != null
+                    && task.getUploadedChunks() >= task.getTotalChunks());
             return dto;
         }
 
         try {
-            // 上传分片到 MinIO 临时目录
-            String chunkPath = String.format("%s/chunks/%s/%04d",
-                    StorageConstants.TEMP_PREFIX, uploadId, chunkNumber);
-            storageService.uploadFile(chunkPath,
-                    chunkFile.getInputStream(), chunkFile.getSize(),
-                    "application/octet-stream");
+            // 上传分片到 MinIO 临时目录（准入控制仅覆盖分片写入，合并不占用预算）
+            String chunkPath = chunkPath(uploadId, chunkNumber);
+            FileDigest chunkDigest;
+            ChunkDigestTracker.RollingDigest rolling = chunkDigestTracker.claim(uploadId, chunkNumber);
+            boolean verified = false;
+            try (UploadAdmissionService.Permit permit = admissionService.acquireUpload(chunkFile.getSize());
+                 InputStream rawStream = chunkFile.getInputStream()) {
+                // 内层旁路续算整文件摘要，外层计算分片自身摘要，数据只读一遍
+                InputStream source = rolling != null ? new HashingInputStream(rawStream, rolling.getDigest()) : rawStream;
+                HashingInputStream chunkStream = new HashingInputStream(source);
+                storageService.uploadFile(chunkPath, chunkStream, chunkFile.getSize(),
+                        "application/octet-stream");
+                chunkDigest = chunkStream.getDigest();
+                if (StringUtils.isNotBlank(expectedSha256)
+                        && !expectedSha256.trim().equalsIgnoreCase(chunkDigest.sha256Hex())) {
+                    storageService.deleteFile(chunkPath);
+                    log.warn("分片校验失败: uploadId={}, chunk={}, expected={}, actual={}",
+                            uploadId, chunkNumber, expectedSha256, chunkDigest.sha256Hex());
+                    throw BusinessException.badRequest("分片校验失败，请重新上传: " + chunkNumber);
+                }
+                verified = true;
+            } finally {
+                if (rolling != null) {
+                    rolling.release(verified);
+                }
+            }
 
-            // 更新任务状态
-            uploadedParts.add(chunkNumber);
-            task.setUploadedChunks(uploadedParts.size());
-            task.setUploadedParts(formatUploadedParts(uploadedParts));
-            uploadTaskRepository.update(task);
+            UploadChunkEntity chunkRecord = new UploadChunkEntity();
+            chunkRecord.setUploadId(uploadId);
+            chunkRecord.setChunkNumber(chunkNumber);
+            chunkRecord.setChunkSize(chunkDigest.getLength());
+            chunkRecord.setChunkSha256(chunkDigest.sha256Hex());
+            chunkRecord.setChunkMd5(chunkDigest.md5Hex());
+
+            // 分片记录与计数作为一个写操作提交，无论是否与其他操作凑批都在同一事务内原子更新
+            // （计数失败时分片记录一并回滚，客户端重试可重新计数）；记录已存在（并发重复上传）时不计数
+            Integer uploadedCount = writeBatcher.execute(() ->
+                    uploadTaskRepository.insertChunkIfAbsent(chunkRecord)
+                            ? uploadTaskRepository.incrementUploadedChunks(uploadId)
+                            : null);
+            if (uploadedCount == null) {
+                log.debug("分片已由并发请求记录: uploadId={}, chunk={}", uploadId, chunkNumber);
+            }
 
             ChunkUploadDTO dto = new ChunkUploadDTO();
             dto.setSuccess(true);
             dto.setChunkNumber(chunkNumber);
+            dto.setChunkSha256(chunkDigest.sha256Hex());
 
-            // 检查是否全部上传完成
-            if (uploadedParts.size() == task.getTotalChunks()) {
-                dto.setAllUploaded(true);
+            // 计数到达总数的请求负责触发合并，状态 CAS 保证只触发一次
+            boolean allUploaded = uploadedCount != null && uploadedCount >= task.getTotalChunks();
+            dto.setAllUploaded(allUploaded);
+            if (allUploaded && uploadTaskRepository.compareAndSetStatus(uploadId,
+                    UploadTaskStatus.UPLOADING.getCode(), UploadTaskStatus.MERGING.getCode())) {
                 // 触发分片合并 (异步)
                 mergeChunksAsync(task);
-            } else {
-                dto.setAllUploaded(false);
             }
 
             return dto;
@@ -637,7 +1140,27 @@ public class ImageAppService {
         dto.setUploadId(task.getUploadId());
         dto.setTotalChunks(task.getTotalChunks());
         dto.setChunkSize(task.getChunkSize());
-        dto.setUploadedChunks(new ArrayList<>(parseUploadedParts(task.getUploadedParts())));
+        if (task.getMultipartUploadId() != null) {
+            // 分片直传: 已上传分片以存储端记录为准
+            dto.setDirect(true);
+            if (UploadTaskStatus.UPLOADING.getCode().equals(task.getStatus())) {
+                dto.setUploadedChunks(storageService.listUploadedParts(task.getStoragePath(),
+                        task.getMultipartUploadId()).stream()
+                        .map(StoragePart::getPartNumber)
+                        .collect(Collectors.toList()));
+            } else {
+                dto.setUploadedChunks(Collections.emptyList());
+            }
+            return dto;
+        }
+        Set<Integer> uploadedParts = parseUploadedParts(task.getUploadedParts());
+        Map<Integer, String> chunkHashes = new TreeMap<>();
+        for (UploadChunkEntity chunk : uploadTaskRepository.findChunks(uploadId)) {
+            uploadedParts.add(chunk.getChunkNumber());
+            chunkHashes.put(chunk.getChunkNumber(), chunk.getChunkSha256());
+        }
+        dto.setUploadedChunks(new ArrayList<>(uploadedParts));
+        dto.setChunkHashes(chunkHashes);
         return dto;
     }
 
@@ -653,79 +1176,69 @@ public class ImageAppService {
                 return;
             }
 
-            // 从 MinIO 获取图片流
-            java.io.InputStream imageStream = storageService.getFileStream(image.getStoragePath());
-            if (imageStream == null) {
-                log.warn("异步 EXIF 提取: 无法获取图片流 path={}", image.getStoragePath());
-                return;
+            // 元数据段位于文件头部: 只区间读取前 1MB，解析需要更多数据时才继续读取剩余部分
+            com.drew.metadata.Metadata metadata;
+            try (java.io.InputStream imageStream = openMetadataStream(image)) {
+                metadata = com.drew.imaging.ImageMetadataReader.readMetadata(imageStream);
             }
 
-            // 提取 EXIF 元数据
-            try {
-                com.drew.imaging.ImageMetadataReader reader = null;
-                com.drew.metadata.Metadata metadata = com.drew.imaging.ImageMetadataReader.readMetadata(imageStream);
-
-                ImageMetadataEntity metaEntity = new ImageMetadataEntity();
-                metaEntity.setImageId(imageId);
-
-                // 提取关键 EXIF 字段
-                for (com.drew.metadata.Directory directory : metadata.getDirectories()) {
-                    if (directory instanceof com.drew.metadata.exif.ExifSubIFDDirectory) {
-                        com.drew.metadata.exif.ExifSubIFDDirectory exif =
-                                (com.drew.metadata.exif.ExifSubIFDDirectory) directory;
-                        metaEntity.setCameraMake(exif.getString(com.drew.metadata.exif.ExifDirectoryBase.TAG_MAKE));
-                        metaEntity.setCameraModel(exif.getString(com.drew.metadata.exif.ExifDirectoryBase.TAG_MODEL));
-                        if (exif.containsTag(com.drew.metadata.exif.ExifDirectoryBase.TAG_ISO_EQUIVALENT)) {
-                            metaEntity.setIso(exif.getInteger(com.drew.metadata.exif.ExifDirectoryBase.TAG_ISO_EQUIVALENT));
-                        }
-                        metaEntity.setExposureTime(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_EXPOSURE_TIME));
-                        metaEntity.setFNumber(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_FNUMBER));
-                        metaEntity.setFocalLength(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_FOCAL_LENGTH));
-                        java.util.Date date = exif.getDate(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL);
-                        if (date != null) {
-                            metaEntity.setDateTaken(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date));
-                        }
+            ImageMetadataEntity metaEntity = new ImageMetadataEntity();
+            metaEntity.setImageId(imageId);
+
+            // 提取关键 EXIF 字段
+            for (com.drew.metadata.Directory directory : metadata.getDirectories()) {
+                if (directory instanceof com.drew.metadata.exif.ExifSubIFDDirectory) {
+                    com.drew.metadata.exif.ExifSubIFDDirectory exif =
+                            (com.drew.metadata.exif.ExifSubIFDDirectory) directory;
+                    metaEntity.setCameraMake(exif.getString(com.drew.metadata.exif.ExifDirectoryBase.TAG_MAKE));
+                    metaEntity.setCameraModel(exif.getString(com.drew.metadata.exif.ExifDirectoryBase.TAG_MODEL));
+                    if (exif.containsTag(com.drew.metadata.exif.ExifDirectoryBase.TAG_ISO_EQUIVALENT)) {
+                        metaEntity.setIso(exif.getInteger(com.drew.metadata.exif.ExifDirectoryBase.TAG_ISO_EQUIVALENT));
                     }
-
-                    if (directory instanceof com.drew.metadata.exif.GpsDirectory) {
-                        com.drew.metadata.exif.GpsDirectory gps =
-                                (com.drew.metadata.exif.GpsDirectory) directory;
-                        com.drew.lang.GeoLocation location = gps.getGeoLocation();
-                        if (location != null) {
-                            metaEntity.setGpsLatitude(location.getLatitude());
-                            metaEntity.setGpsLongitude(location.getLongitude());
-                        }
+                    metaEntity.setExposureTime(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_EXPOSURE_TIME));
+                    metaEntity.setFNumber(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_FNUMBER));
+                    metaEntity.setFocalLength(exif.getString(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_FOCAL_LENGTH));
+                    java.util.Date date = exif.getDate(com.drew.metadata.exif.ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL);
+                    if (date != null) {
+                        metaEntity.setDateTaken(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date));
                     }
                 }
 
-                // 将完整 EXIF 保存为 JSON
-                StringBuilder allMeta = new StringBuilder("{");
-                boolean first = true;
-                for (com.drew.metadata.Directory directory : metadata.getDirectories()) {
-                    for (com.drew.metadata.Tag tag : directory.getTags()) {
-                        if (!first) allMeta.append(",");
-                        allMeta.append("\"").append(directory.getName()).append(":")
-                                .append(tag.getTagName().replace("\"", "\\\""))
-                                .append("\":\"")
-                                .append(tag.getDescription() != null ? tag.getDescription().replace("\"", "\\\"") : "")
-                                .append("\"");
-                        first = false;
+                if (directory instanceof com.drew.metadata.exif.GpsDirectory) {
+                    com.drew.metadata.exif.GpsDirectory gps =
+                            (com.drew.metadata.exif.GpsDirectory) directory;
+                    com.drew.lang.GeoLocation location = gps.getGeoLocation();
+                    if (location != null) {
+                        metaEntity.setGpsLatitude(location.getLatitude());
+                        metaEntity.setGpsLongitude(location.getLongitude());
                     }
                 }
-                allMeta.append("}");
-                metaEntity.setRawExif(allMeta.toString());
+            }
 
-                // 保存到数据库
-                try {
-                    imageMetadataRepository.insert(metaEntity);
-                    log.info("EXIF 提取并保存成功: imageId={}, camera={} {}", imageId,
-                            metaEntity.getCameraMake(), metaEntity.getCameraModel());
-                } catch (Exception ex) {
-                    log.warn("EXIF 保存失败（可能已存在）: imageId={}, error={}", imageId, ex.getMessage());
+            // 将完整 EXIF 保存为 JSON
+            StringBuilder allMeta = new StringBuilder("{");
+            boolean first = true;
+            for (com.drew.metadata.Directory directory : metadata.getDirectories()) {
+                for (com.drew.metadata.Tag tag : directory.getTags()) {
+                    if (!first) allMeta.append(",");
+                    allMeta.append("\"").append(directory.getName()).append(":")
+                            .append(tag.getTagName().replace("\"", "\\\""))
+                            .append("\":\"")
+                            .append(tag.getDescription() != null ? tag.getDescription().replace("\"", "\\\"") : "")
+                            .append("\"");
+                    first = false;
                 }
+            }
+            allMeta.append("}");
+            metaEntity.setRawExif(allMeta.toString());
 
-            } finally {
-                imageStream.close();
+            // 保存到数据库
+            try {
+                imageMetadataRepository.insert(metaEntity);
+                log.info("EXIF 提取并保存成功: imageId={}, camera={} {}", imageId,
+                        metaEntity.getCameraMake(), metaEntity.getCameraModel());
+            } catch (Exception ex) {
+                log.warn("EXIF 保存失败（可能已存在）: imageId={}, error={}", imageId, ex.getMessage());
             }
 
         } catch (Exception e) {
@@ -733,6 +1246,61 @@ public class ImageAppService {
         }
     }
 
+    /**
+     * 打开用于元数据解析的输入流: 先区间读取头部 {@link StorageConstants#EXIF_HEAD_BUFFER_SIZE} 字节，
+     * 解析器读过头部时才发起第二个区间请求读取剩余部分（如 PNG 需要扫描到 IEND）
+     */
+    private InputStream openMetadataStream(ImageEntity image) {
+        String storagePath = image.getStoragePath();
+        long size = image.getFileSize() != null ? image.getFileSize() : storageService.getObjectSize(storagePath);
+        long headLength = Math.min(size, StorageConstants.EXIF_HEAD_BUFFER_SIZE);
+        InputStream head = storageService.getFileStream(storagePath, 0, headLength);
+        if (size <= headLength) {
+            return head;
+        }
+        return new LazyTailInputStream(head, () -> {
+            log.debug("元数据不在头部区间内，继续读取剩余部分: imageId={}, offset={}", image.getId(), headLength);
+            return storageService.getFileStream(storagePath, headLength, size - headLength);
+        });
+    }
+
+    /**
+     * F06: 获取可下载的图片记录（供服务端输出原图和 Range 下载使用）
+     */
+    public ImageEntity getDownloadableImage(Long id) {
+        ImageEntity entity = imageRepository.findById(id);
+        if (entity == null || entity.getStatus() == ImageStatus.DELETED.getCode()) {
+            throw BusinessException.notFound("图片不存在: " + id);
+        }
+        if (entity.getFileSize() == null) {
+            entity.setFileSize(storageService.getObjectSize(entity.getStoragePath()));
+        }
+        return entity;
+    }
+
+    /**
+     * F06: 是否经服务端代理下载（imgvault.storage.proxy-download），否则 302 到预签名 URL
+     */
+    public boolean isProxyDownload() {
+        return storageConfig.isProxyDownload();
+    }
+
+    /**
+     * F06: 将原图的字节区间 [offset, offset + length) 写入目标通道，从文件开头读取时计一次浏览
+     * <p>
+     * 本地后端走 FileChannel.transferTo，远程后端按固定缓冲区流式复制，均不在堆内缓存整个对象
+     *
+     * @return 实际写入的字节数
+     */
+    public long transferImageRange(ImageEntity image, long offset, long length, WritableByteChannel target)
+            throws IOException {
+        if (offset == 0) {
+            imageRepository.incrementViewCount(image.getId());
+            storageTieringService.recordRead(image);
+        }
+        return storageService.transferTo(image.getStoragePath(), offset, length, target);
+    }
+
     /**
      * F23: 提交异步任务到任务表
      */
@@ -755,92 +1323,92 @@ public class ImageAppService {
      */
     @Async("asyncTaskExecutor")
     public void mergeChunksAsync(UploadTaskEntity task) {
+        UploadMetrics.Recorder metrics = uploadMetrics.start(UploadMetrics.PATH_CHUNK_MERGE);
+        String outcome = UploadMetrics.OUTCOME_ERROR;
         try {
             uploadTaskRepository.updateStatus(task.getUploadId(), UploadTaskStatus.MERGING.getCode());
-
-            // 按顺序读取分片并合并上传
-            java.io.ByteArrayOutputStream mergedStream = new java.io.ByteArrayOutputStream();
+            metrics.resetLap();
+
+            // 1. 分片大小（优先取分片记录，缺失时查询存储元数据）
+            Map<Integer, UploadChunkEntity> chunkRecords = uploadTaskRepository.findChunks(task.getUploadId())
+                    .stream()
+                    .collect(Collectors.toMap(UploadChunkEntity::getChunkNumber, c -> c, (a, b) -> b));
+            List<String> chunkPaths = new ArrayList<>(task.getTotalChunks());
+            long[] chunkSizes = new long[task.getTotalChunks()];
+            long totalSize = 0;
             for (int i = 1; i <= task.getTotalChunks(); i++) {
-                String chunkPath = String.format("%s/chunks/%s/%04d",
-                        StorageConstants.TEMP_PREFIX, task.getUploadId(), i);
-                java.io.InputStream chunkStream = storageService.getFileStream(chunkPath);
-                if (chunkStream != null) {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = chunkStream.read(buffer)) != -1) {
-                        mergedStream.write(buffer, 0, bytesRead);
-                    }
-                    chunkStream.close();
-                }
+                String chunkPath = chunkPath(task.getUploadId(), i);
+                chunkPaths.add(chunkPath);
+                UploadChunkEntity record = chunkRecords.get(i);
+                chunkSizes[i - 1] = record != null ? record.getChunkSize() : storageService.getObjectSize(chunkPath);
+                totalSize += chunkSizes[i - 1];
             }
-
-            byte[] mergedBytes = mergedStream.toByteArray();
-
-            // 验证 Magic Bytes
-            if (!MagicBytesValidator.isValidImage(Arrays.copyOf(mergedBytes, Math.min(mergedBytes.length, 16)))) {
+            metrics.size(totalSize);
+            metrics.lap(UploadMetrics.STAGE_CHUNK_READ);
+
+            // 2. 只读取首个分片的头部做 Magic Bytes 校验和尺寸解析
+            int headLength = (int) Math.min(StorageConstants.UPLOAD_HEAD_BUFFER_SIZE, chunkSizes[0]);
+            byte[] head;
+            try (InputStream headStream = storageService.getFileStream(chunkPaths.get(0), 0, headLength)) {
+                head = readHead(headStream, headLength);
+            }
+            if (!MagicBytesValidator.isValidImage(Arrays.copyOf(head, Math.min(head.length, 16)))) {
                 uploadTaskRepository.updateStatus(task.getUploadId(), UploadTaskStatus.FAILED.getCode());
                 log.error("分片合并后文件不是有效图片: uploadId={}", task.getUploadId());
                 return;
             }
 
             // 检测 MIME 类型
-            String mimeType = MagicBytesValidator.detectMimeType(mergedBytes);
+            String mimeType = MagicBytesValidator.detectMimeType(head);
             ImageFormat imageFormat = ImageFormat.fromMimeType(mimeType);
-
-            // 计算哈希
-            String fileHash = FileHashUtil.sha256(mergedBytes);
-            String fileMd5 = FileHashUtil.md5(mergedBytes);
-
-            // 上传合并后的文件
-            storageService.uploadFile(task.getStoragePath(),
-                    new ByteArrayInputStream(mergedBytes), mergedBytes.length, mimeType);
-
-            // 提取图片尺寸
-            int width = 0, height = 0;
-            try {
-                BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(mergedBytes));
-                if (bufferedImage != null) {
-                    width = bufferedImage.getWidth();
-                    height = bufferedImage.getHeight();
+            metrics.format(imageFormat.getFormat());
+            metrics.lap(UploadMetrics.STAGE_SNIFF);
+
+            // 3. 合并: 满足 S3 分片约束时服务端 composeObject（数据不经过 JVM），否则流式拼接上传。
+            //    整文件哈希从上传阶段的续算位置接着算，只补读未计入的分片，全部按序到达时无需读取
+            ChunkDigestTracker.RollingDigest rolling = chunkDigestTracker.take(task.getUploadId());
+            int resumeFrom = rolling != null ? rolling.getNextChunk() : 1;
+            MultiDigest multiDigest = rolling != null ? rolling.getDigest() : new MultiDigest();
+            List<String> hashedPaths = chunkPaths.subList(0, resumeFrom - 1);
+            List<String> tailPaths = chunkPaths.subList(resumeFrom - 1, chunkPaths.size());
+            FileDigest digest;
+            if (isComposable(chunkSizes) && tryComposeChunks(task.getStoragePath(), chunkPaths, mimeType)) {
+                metrics.lap(UploadMetrics.STAGE_STORAGE_PUT);
+                try (InputStream tail = openChunkSequence(tailPaths)) {
+                    multiDigest.update(tail);
                 }
-            } catch (Exception e) {
-                log.warn("分片合并后提取尺寸失败");
+                digest = multiDigest.finish();
+                metrics.lap(UploadMetrics.STAGE_HASH);
+            } else {
+                try (HashingInputStream tail = new HashingInputStream(openChunkSequence(tailPaths), multiDigest);
+                     InputStream merged = new SequenceInputStream(openChunkSequence(hashedPaths), tail)) {
+                    long putStart = System.nanoTime();
+                    storageService.uploadFile(task.getStoragePath(), merged, totalSize, mimeType);
+                    digest = tail.getDigest();
+                    metrics.record(UploadMetrics.STAGE_HASH, tail.getDigestNanos());
+                    metrics.record(UploadMetrics.STAGE_STORAGE_PUT,
+                            System.nanoTime() - putStart - tail.getDigestNanos());
+                }
+                metrics.resetLap();
             }
-
-            // 创建图片记录
-            ImageEntity entity = new ImageEntity();
-            entity.setImageUuid(UUID.randomUUID().toString());
-            entity.setOriginalName(task.getFileName());
-            entity.setStoragePath(task.getStoragePath());
-            entity.setBucketName(StorageConstants.DEFAULT_BUCKET);
-            entity.setFileSize((long) mergedBytes.length);
-            entity.setFileHash(fileHash);
-            entity.setFileMd5(fileMd5);
-            entity.setWidth(width);
-            entity.setHeight(height);
-            entity.setFormat(imageFormat.getFormat());
-            entity.setMimeType(mimeType);
-            entity.setStatus(ImageStatus.NORMAL.getCode());
-            entity.setAccessLevel(0);
-            imageRepository.insert(entity);
-
-            // 保存指纹
-            FileFingerprintEntity fingerprint = new FileFingerprintEntity();
-            fingerprint.setFileHash(fileHash);
-            fingerprint.setFileMd5(fileMd5);
-            fingerprint.setStoragePath(task.getStoragePath());
-            fingerprint.setFileSize((long) mergedBytes.length);
-            try {
-                fingerprintRepository.insert(fingerprint);
-            } catch (Exception e) {
-                log.debug("文件指纹已存在");
+            if (digest.getLength() != totalSize) {
+                throw new IllegalStateException("分片摘要长度与文件大小不一致: " + digest.getLength() + " != " + totalSize);
+            }
+            if (StringUtils.isNotBlank(task.getFileHash()) && !task.getFileHash().equalsIgnoreCase(digest.sha256Hex())) {
+                discardUploadedObject(task.getStoragePath());
+                uploadTaskRepository.updateStatus(task.getUploadId(), UploadTaskStatus.FAILED.getCode());
+                log.error("分片合并后文件哈希与初始化声明不一致: uploadId={}, expected={}, actual={}",
+                        task.getUploadId(), task.getFileHash(), digest.sha256Hex());
+                return;
             }
+            log.debug("分片合并哈希: uploadId={}, 续算分片数={}, 补读分片数={}",
+                    task.getUploadId(), hashedPaths.size(), tailPaths.size());
+            ImageEntity entity = persistAssembledImage(task, totalSize, digest, head, imageFormat, metrics);
 
             // 更新任务状态
             uploadTaskRepository.updateStatus(task.getUploadId(), UploadTaskStatus.COMPLETED.getCode());
-
-            // 异步提取 EXIF
-            submitAsyncTask(AsyncTaskType.EXIF_EXTRACT, entity.getId(), null);
+            metrics.lap(UploadMetrics.STAGE_DB_INSERT);
+            outcome = UploadMetrics.OUTCOME_SUCCESS;
 
             // 清理临时分片
             cleanupChunksAsync(task);
@@ -850,7 +1418,82 @@ public class ImageAppService {
         } catch (Exception e) {
             log.error("分片合并失败: uploadId={}", task.getUploadId(), e);
             uploadTaskRepository.updateStatus(task.getUploadId(), UploadTaskStatus.FAILED.getCode());
+        } finally {
+            metrics.finish(outcome);
+        }
+    }
+
+    /**
+     * 为已在存储端组装完成的分片上传创建图片记录（尺寸只解析头部）
+     * 内容寻址布局下先将对象归位到 cas/ 路径
+     */
+    private ImageEntity persistAssembledImage(UploadTaskEntity task, long totalSize, FileDigest digest,
+                                              byte[] head, ImageFormat imageFormat,
+                                              UploadMetrics.Recorder metrics) {
+        String fileHash = digest.sha256Hex();
+        String fileMd5 = digest.md5Hex();
+        String storagePath = promoteToContentAddress(task.getStoragePath(), fileHash, imageFormat);
+        if (!storagePath.equals(task.getStoragePath())) {
+            metrics.lap(UploadMetrics.STAGE_STORAGE_PUT);
+        }
+
+        // 提取图片尺寸（只解析头部）
+        int width = 0, height = 0;
+        ImageHeaderProbe.ImageInfo imageInfo = probeImage(head,
+                () -> storageService.getFileStream(storagePath), storagePath);
+        if (imageInfo != null) {
+            width = imageInfo.getWidth();
+            height = imageInfo.getHeight();
+        } else {
+            log.warn("分片组装后提取尺寸失败: uploadId={}", task.getUploadId());
+        }
+        metrics.lap(UploadMetrics.STAGE_PROBE);
+
+        // 创建图片记录
+        ImageEntity entity = new ImageEntity();
+        entity.setImageUuid(UUID.randomUUID().toString());
+        entity.setOriginalName(task.getFileName());
+        entity.setStoragePath(storagePath);
+        entity.setBucketName(StorageConstants.DEFAULT_BUCKET);
+        entity.setFileSize(totalSize);
+        entity.setFileHash(fileHash);
+        entity.setFileMd5(fileMd5);
+        entity.setWidth(width);
+        entity.setHeight(height);
+        entity.setFormat(imageFormat.getFormat());
+        entity.setMimeType(imageFormat.getMimeType());
+        entity.setStatus(ImageStatus.NORMAL.getCode());
+        entity.setAccessLevel(0);
+
+        // 图片记录 + 指纹 + EXIF 异步任务组提交落库
+        FileFingerprintEntity fingerprint = new FileFingerprintEntity();
+        fingerprint.setFileHash(fileHash);
+        fingerprint.setFileMd5(fileMd5);
+        fingerprint.setStoragePath(storagePath);
+        fingerprint.setFileSize(totalSize);
+        persistNewImage(entity, fingerprint, true);
+        return entity;
+    }
+
+    /**
+     * 内容寻址布局下将已校验哈希的对象复制到 cas/ab/cd/{sha256}.ext 并删除原对象；
+     * 相同内容已存在时直接删除原对象（只写元数据）
+     *
+     * @return 最终存储路径（未启用内容寻址时原样返回）
+     */
+    private String promoteToContentAddress(String storagePath, String fileHash, ImageFormat imageFormat) {
+        if (!storageConfig.isContentAddressed() || StorageBackend.isContentAddressed(storagePath)) {
+            return storagePath;
+        }
+        String target = storageService.generateContentAddressedPath(fileHash,
+                imageFormat.getExtensions()[0].substring(1));
+        if (storageService.objectExists(target)) {
+            log.info("内容已存在，跳过写入: path={}", target);
+        } else {
+            storageService.copyObject(storagePath, target, imageFormat.getMimeType());
         }
+        discardUploadedObject(storagePath);
+        return target;
     }
 
     /**
@@ -859,21 +1502,25 @@ public class ImageAppService {
     @Async("asyncTaskExecutor")
     public void cleanupChunksAsync(UploadTaskEntity task) {
         try {
+            List<String> chunkPaths = new ArrayList<>(task.getTotalChunks());
             for (int i = 1; i <= task.getTotalChunks(); i++) {
-                String chunkPath = String.format("%s/chunks/%s/%04d",
-                        StorageConstants.TEMP_PREFIX, task.getUploadId(), i);
-                try {
-                    storageService.deleteFile(chunkPath);
-                } catch (Exception e) {
-                    log.debug("清理分片失败: {}", chunkPath);
-                }
+                chunkPaths.add(chunkPath(task.getUploadId(), i));
             }
+            int failed = storageService.deleteFiles(chunkPaths);
+            if (failed > 0) {
+                log.debug("部分分片清理失败，留待过期清理: uploadId={}, failed={}", task.getUploadId(), failed);
+            }
+            uploadTaskRepository.deleteChunks(task.getUploadId());
+            chunkDigestTracker.discard(task.getUploadId());
             log.info("分片清理完成: uploadId={}", task.getUploadId());
         } catch (Exception e) {
             log.warn("分片清理异常: uploadId={}", task.getUploadId());
         }
     }
 
+    /**
+     * 解析升级前任务的 uploaded_parts（逗号分隔），新任务的分片状态记录在 img_upload_chunk
+     */
     private Set<Integer> parseUploadedParts(String parts) {
         if (StringUtils.isBlank(parts)) {
             return new TreeSet<>();
@@ -884,13 +1531,161 @@ public class ImageAppService {
                 .collect(Collectors.toCollection(TreeSet::new));
     }
 
-    private String formatUploadedParts(Set<Integer> parts) {
-        return parts.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
+    // ==================== 私有方法 ====================
+
+    /**
+     * 新图片落库: 图片记录、文件指纹（可选）、EXIF 异步任务（可选）作为一个写操作提交给组提交写入器，
+     * 与其他并发上传共享同一个事务提交
+     */
+    private void persistNewImage(ImageEntity entity, FileFingerprintEntity fingerprint, boolean submitExifTask) {
+        writeBatcher.execute(() -> {
+            imageRepository.insert(entity);
+            if (fingerprint != null) {
+                try {
+                    fingerprintRepository.insert(fingerprint);
+                } catch (Exception e) {
+                    // 指纹已存在时忽略
+                    log.debug("文件指纹已存在: hash={}", fingerprint.getFileHash());
+                }
+            }
+            if (submitExifTask) {
+                submitAsyncTask(AsyncTaskType.EXIF_EXTRACT, entity.getId(), null);
+            }
+            return entity.getId();
+        });
     }
 
-    // ==================== 私有方法 ====================
+    /**
+     * 批量上传中的单个文件，异常转换为 failed 结果而不是中断整个批次
+     */
+    private BatchUploadItemDTO uploadBatchItem(int index, MultipartFile file, String visitorId,
+                                               UploadAdmissionService.Permit permit) {
+        try {
+            ImageUploadDTO image = uploadImage(file, visitorId, permit);
+            BatchUploadItemDTO item = new BatchUploadItemDTO();
+            item.setIndex(index);
+            item.setOriginalName(file.getOriginalFilename());
+            item.setFileSize(file.getSize());
+            item.setStatus(Boolean.TRUE.equals(image.getDuplicate())
+                    ? BatchUploadItemDTO.STATUS_DUPLICATE : BatchUploadItemDTO.STATUS_SUCCESS);
+            item.setImage(image);
+            return item;
+        } catch (Exception e) {
+            log.error("批量上传失败: file={}, error={}", file.getOriginalFilename(), e.getMessage());
+            return failedBatchItem(index, file, e.getMessage());
+        } finally {
+            // 参数校验失败时许可尚未交给上传流程
+            permit.close();
+        }
+    }
+
+    private BatchUploadItemDTO failedBatchItem(int index, MultipartFile file, String reason) {
+        BatchUploadItemDTO item = new BatchUploadItemDTO();
+        item.setIndex(index);
+        item.setOriginalName(file.getOriginalFilename());
+        item.setFileSize(file.getSize());
+        item.setStatus(BatchUploadItemDTO.STATUS_FAILED);
+        item.setErrorMessage(reason);
+        return item;
+    }
+
+    /**
+     * 解析图片尺寸: 先只看头部；头部缓冲已满仍找不到尺寸时（元数据段把 JPEG SOF 推到缓冲区之外），
+     * 从完整内容流式探测，只读到 SOF 为止
+     */
+    private ImageHeaderProbe.ImageInfo probeImage(byte[] head, Callable<InputStream> content, String storagePath) {
+        ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(head);
+        if (info != null || head.length < StorageConstants.UPLOAD_HEAD_BUFFER_SIZE) {
+            return info;
+        }
+        try (InputStream in = content.call()) {
+            info = ImageHeaderProbe.probeStream(in);
+        } catch (Exception e) {
+            log.warn("流式提取图片尺寸失败: path={}, error={}", storagePath, e.getMessage());
+        }
+        return info;
+    }
+
+    /**
+     * 读取流的头部字节（最多 limit 字节，不足时返回实际长度）
+     */
+    private static byte[] readHead(InputStream in, int limit) throws IOException {
+        byte[] buffer = new byte[limit];
+        int total = 0;
+        int n;
+        while (total < limit && (n = in.read(buffer, total, limit - total)) != -1) {
+            total += n;
+        }
+        return total == limit ? buffer : Arrays.copyOf(buffer, total);
+    }
+
+    /**
+     * 分片临时对象路径: temp/chunks/{uploadId}/{0001}
+     */
+    private static String chunkPath(String uploadId, int chunkNumber) {
+        return String.format("%s%04d", chunkPrefix(uploadId), chunkNumber);
+    }
+
+    static String chunkPrefix(String uploadId) {
+        return StorageConstants.CHUNKS_PREFIX + uploadId + "/";
+    }
+
+    /**
+     * 服务端合并分片，失败（如存储端不支持 UploadPartCopy）时返回 false 由调用方回退为流式合并
+     */
+    private boolean tryComposeChunks(String targetPath, List<String> chunkPaths, String mimeType) {
+        try {
+            storageService.composeObject(targetPath, chunkPaths, mimeType);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("服务端合并分片失败，回退为流式合并: path={}, error={}", targetPath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 是否满足服务端合并约束: 分片数不超过上限，且除最后一个外每个分片不小于 5MiB
+     */
+    private static boolean isComposable(long[] chunkSizes) {
+        if (chunkSizes.length > StorageConstants.COMPOSE_MAX_PARTS) {
+            return false;
+        }
+        for (int i = 0; i < chunkSizes.length - 1; i++) {
+            if (chunkSizes[i] < StorageConstants.COMPOSE_MIN_PART_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按顺序串联各分片的输入流，分片在读到时才打开，同一时刻只持有一个连接
+     */
+    private InputStream openChunkSequence(List<String> chunkPaths) {
+        Iterator<String> paths = chunkPaths.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return paths.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return storageService.getFileStream(paths.next());
+            }
+        });
+    }
+
+    /**
+     * 删除已写入但不再需要的对象（如去重命中），失败仅记录日志
+     */
+    private void discardUploadedObject(String storagePath) {
+        try {
+            storageService.deleteFile(storagePath);
+        } catch (Exception e) {
+            log.warn("清理重复上传对象失败: path={}, error={}", storagePath, e.getMessage());
+        }
+    }
 
     /**
      * 基本参数校验
@@ -924,54 +1719,143 @@ public class ImageAppService {
     }
 
     /**
-     * 实体转 DTO
+     * 实体转 DTO（全部字段）
      */
     private ImageDetailDTO convertToDetailDTO(ImageEntity entity) {
-        ImageDetailDTO dto = new ImageDetailDTO();
+        return convertToDetailDTO(entity, ImageFieldSet.FULL);
+    }
+
+    /**
+     * 实体转 DTO，只填充字段集中的列和 URL（未请求的 URL 不签名）
+     */
+    private ImageDetailDTO convertToDetailDTO(ImageEntity entity, ImageFieldSet fields) {
+        ImageDetailDTO dto = fields.isFull() ? new ImageDetailDTO() : new SparseImageDetailDTO();
         dto.setId(entity.getId());
-        dto.setImageUuid(entity.getImageUuid());
-        dto.setOriginalName(entity.getOriginalName());
-        dto.setFileSize(entity.getFileSize());
-        dto.setWidth(entity.getWidth());
-        dto.setHeight(entity.getHeight());
-        dto.setFormat(entity.getFormat());
-        dto.setMimeType(entity.getMimeType());
-        dto.setColorSpace(entity.getColorSpace());
-        dto.setHasAlpha(entity.getHasAlpha() != null && entity.getHasAlpha() == 1);
-        dto.setStatus(entity.getStatus());
-        dto.setAccessLevel(entity.getAccessLevel());
-        dto.setViewCount(entity.getViewCount());
-        dto.setDescription(entity.getDescription());
-        dto.setFileHash(entity.getFileHash());
-        dto.setCreatedAt(entity.getCreatedAt());
-        dto.setUpdatedAt(entity.getUpdatedAt());
+        if (fields.includes("imageUuid")) {
+            dto.setImageUuid(entity.getImageUuid());
+        }
+        if (fields.includes("originalName")) {
+            dto.setOriginalName(entity.getOriginalName());
+        }
+        if (fields.includes("fileSize")) {
+            dto.setFileSize(entity.getFileSize());
+        }
+        if (fields.includes("width")) {
+            dto.setWidth(entity.getWidth());
+        }
+        if (fields.includes("height")) {
+            dto.setHeight(entity.getHeight());
+        }
+        if (fields.includes("format")) {
+            dto.setFormat(entity.getFormat());
+        }
+        if (fields.includes("mimeType")) {
+            dto.setMimeType(entity.getMimeType());
+        }
+        if (fields.includes("colorSpace")) {
+            dto.setColorSpace(entity.getColorSpace());
+        }
+        if (fields.includes("hasAlpha")) {
+            dto.setHasAlpha(entity.getHasAlpha() != null && entity.getHasAlpha() == 1);
+        }
+        if (fields.includes("status")) {
+            dto.setStatus(entity.getStatus());
+        }
+        if (fields.includes("accessLevel")) {
+            dto.setAccessLevel(entity.getAccessLevel());
+        }
+        if (fields.includes("viewCount")) {
+            dto.setViewCount(entity.getViewCount());
+        }
+        if (fields.includes("description")) {
+            dto.setDescription(entity.getDescription());
+        }
+        if (fields.includes("fileHash")) {
+            dto.setFileHash(entity.getFileHash());
+        }
+        if (fields.includes("createdAt")) {
+            dto.setCreatedAt(entity.getCreatedAt());
+        }
+        if (fields.includes("updatedAt")) {
+            dto.setUpdatedAt(entity.getUpdatedAt());
+        }
 
         // 生成预签名下载 URL
-        try {
-            dto.setDownloadUrl(storageService.getPresignedDownloadUrl(
-                    entity.getStoragePath(), StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
-        } catch (Exception e) {
-            log.warn("生成下载 URL 失败: path={}", entity.getStoragePath());
+        if (fields.includes("downloadUrl")) {
+            try {
+                dto.setDownloadUrl(storageService.getPresignedDownloadUrl(
+                        entity.getStoragePath(), StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS));
+            } catch (Exception e) {
+                log.warn("生成下载 URL 失败: path={}", entity.getStoragePath());
+            }
         }
 
-        // 生成 imgproxy 缩略图 URL (Phase 2: F12)
+        // 生成 imgproxy 缩略图 URL (Phase 2: F12) 与格式变体 URL (Phase 2: F14)
         try {
-            ImgproxyService.ThumbnailUrls thumbs = imgproxyService.getThumbnailUrls(entity.getStoragePath());
-            Map<String, String> thumbnails = new LinkedHashMap<>();
-            thumbnails.put("small", thumbs.getSmall());
-            thumbnails.put("medium", thumbs.getMedium());
-            thumbnails.put("large", thumbs.getLarge());
-            dto.setThumbnails(thumbnails);
-
-            // 格式变体 URL (Phase 2: F14)
-            Map<String, String> variants = new LinkedHashMap<>();
-            variants.put("webp", imgproxyService.getWebpUrl(entity.getStoragePath(), 85));
-            variants.put("avif", imgproxyService.getAvifUrl(entity.getStoragePath(), 80));
-            dto.setVariants(variants);
+            if (fields.includesAny(ImageFieldSet.THUMBNAILS)) {
+                Map<String, String> thumbnails = new LinkedHashMap<>(4);
+                for (String size : THUMBNAIL_SIZES) {
+                    if (fields.includes(ImageFieldSet.THUMBNAILS + "." + size)) {
+                        thumbnails.put(size, imgproxyService.getThumbnailUrl(entity.getStoragePath(), size));
+                    }
+                }
+                dto.setThumbnails(thumbnails);
+            }
+            if (fields.includesAny(ImageFieldSet.VARIANTS)) {
+                Map<String, String> variants = new LinkedHashMap<>(4);
+                if (fields.includes("variants.webp")) {
+                    variants.put("webp", imgproxyService.getWebpUrl(entity.getStoragePath(), 85));
+                }
+                if (fields.includes("variants.avif")) {
+                    variants.put("avif", imgproxyService.getAvifUrl(entity.getStoragePath(), 80));
+                }
+                dto.setVariants(variants);
+            }
         } catch (Exception e) {
             log.warn("生成 imgproxy URL 失败: path={}", entity.getStoragePath());
         }
 
         return dto;
     }
+
+    /**
+     * 头部读完后才打开剩余部分的输入流；与 SequenceInputStream 不同，关闭时不会为未读到的部分发起请求
+     */
+    private static final class LazyTailInputStream extends InputStream {
+
+        private InputStream current;
+        private java.util.function.Supplier<InputStream> tail;
+
+        private LazyTailInputStream(InputStream head, java.util.function.Supplier<InputStream> tail) {
+            this.current = head;
+            this.tail = tail;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = current.read();
+            return b == -1 && openTail() ? read() : b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = current.read(buffer, off, len);
+            return n == -1 && openTail() ? read(buffer, off, len) : n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            current.close();
+        }
+
+        private boolean openTail() throws IOException {
+            if (tail == null) {
+                return false;
+            }
+            current.close();
+            current = tail.get();
+            tail = null;
+            return true;
+        }
+    }
 }
@@ -0,0 +1,325 @@
+package com.imgvault.app.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.imgvault.common.util.FileHashUtil;
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.infrastructure.config.ObjectCacheConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 原图本地磁盘读穿缓存
+ * <p>
+ * 合成、去水印、EXIF 提取需要读取整张原图，热门原图会被反复从对象存储拉取。
+ * 本缓存以存储路径为键将原图落在本地磁盘（{dir}/ab/{路径的 SHA-256}），按字节数以 W-TinyLFU 淘汰:
+ * <ul>
+ *   <li>同一对象的并发未命中只拉取一次，其余读者等待同一次填充</li>
+ *   <li>键只取决于服务端分配的存储路径，不使用图片记录中的文件哈希（预签名直传时该哈希由客户端声明，
+ *       以其为键会让伪造相同哈希的图片读到他人的缓存内容）</li>
+ *   <li>存储路径写入后内容不变，缓存不会过期；删除对象时主动失效以释放空间</li>
+ *   <li>进程重启后从缓存目录恢复已有文件</li>
+ * </ul>
+ * 指标: cache.gets{cache=originalObjectCache, result=hit/miss} 等 Caffeine 标准指标，
+ * 以及 imgvault.object.cache.hit.ratio / imgvault.object.cache.bytes
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OriginalObjectCache {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String TMP_DIR = "tmp";
+
+    private final StorageBackend storageService;
+    private final ObjectCacheConfig config;
+    private final StorageConfig storageConfig;
+    private final MeterRegistry meterRegistry;
+
+    private AsyncCache<String, CachedObject> cache;
+    private Path root;
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        // 本地存储后端本身就在磁盘上，无需再缓存一份
+        enabled = config.isEnabled() && !"local".equals(storageConfig.getBackend());
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((String key, CachedObject value) -> (int) Math.min(Integer.MAX_VALUE, value.size))
+                .removalListener((String key, CachedObject value, RemovalCause cause) -> {
+                    if (value != null && cause != RemovalCause.REPLACED) {
+                        deleteQuietly(value.path);
+                    }
+                })
+                // 移除监听同步执行，避免延迟删除误删同一键重新填充的文件
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "originalObjectCache");
+        Gauge.builder("imgvault.object.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .register(meterRegistry);
+        Gauge.builder("imgvault.object.cache.bytes", cache,
+                        c -> c.synchronous().policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        try {
+            root = Paths.get(config.getDir()).toAbsolutePath().normalize();
+            Files.createDirectories(root.resolve(TMP_DIR));
+            int restored = restore();
+            log.info("原图磁盘缓存已启用: dir={}, maxBytes={}, restored={}", root, config.getMaxBytes(), restored);
+        } catch (IOException e) {
+            log.warn("原图磁盘缓存初始化失败，直接读取存储: {}", e.getMessage());
+            enabled = false;
+        }
+    }
+
+    /**
+     * 读取原图全部字节（优先本地缓存）
+     */
+    public byte[] readAllBytes(ImageEntity image) throws IOException {
+        Path cached = lookup(image);
+        if (cached != null) {
+            try {
+                return Files.readAllBytes(cached);
+            } catch (NoSuchFileException e) {
+                // 缓存文件已不存在（被淘汰或外部清理），失效后回退到存储
+                invalidate(image.getStoragePath());
+            }
+        }
+        try (InputStream in = storageService.getFileStream(image.getStoragePath())) {
+            return toByteArray(in);
+        }
+    }
+
+    /**
+     * 异步读取原图全部字节（优先本地缓存），供并行拉取多张原图
+     * <p>
+     * 缓存未命中时经存储异步 API 下载，调用线程不等待网络
+     */
+    public CompletableFuture<byte[]> readAllBytesAsync(ImageEntity image) {
+        CompletableFuture<Path> cached = lookupAsync(image);
+        if (cached == null) {
+            return readFromStorageAsync(image);
+        }
+        return cached
+                .handle((path, error) -> {
+                    if (error != null) {
+                        log.warn("原图缓存填充失败: path={}, error={}", image.getStoragePath(), rootMessage(error));
+                    }
+                    return path;
+                })
+                .thenCompose(path -> {
+                    if (path != null) {
+                        try {
+                            return CompletableFuture.completedFuture(Files.readAllBytes(path));
+                        } catch (NoSuchFileException e) {
+                            invalidate(image.getStoragePath());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return readFromStorageAsync(image);
+                });
+    }
+
+    /**
+     * 打开原图输入流（优先本地缓存），调用方负责关闭
+     */
+    public InputStream openStream(ImageEntity image) throws IOException {
+        Path cached = lookup(image);
+        if (cached != null) {
+            try {
+                return Files.newInputStream(cached);
+            } catch (NoSuchFileException e) {
+                // 缓存文件已不存在（被淘汰或外部清理），失效后回退到存储
+                invalidate(image.getStoragePath());
+            }
+        }
+        return storageService.getFileStream(image.getStoragePath());
+    }
+
+    /**
+     * 失效指定存储路径的缓存文件
+     */
+    public void invalidate(String storagePath) {
+        if (enabled && storagePath != null) {
+            cache.synchronous().invalidate(keyOf(storagePath));
+        }
+    }
+
+    /**
+     * 查找或填充缓存
+     *
+     * @return 缓存文件路径；不可缓存或填充失败时返回 null（调用方直接读取存储）
+     */
+    private Path lookup(ImageEntity image) {
+        CompletableFuture<Path> future = lookupAsync(image);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            log.warn("原图缓存填充失败: path={}, error={}", image.getStoragePath(), rootMessage(e));
+            return null;
+        }
+    }
+
+    /**
+     * 查找或异步填充缓存
+     *
+     * @return 缓存文件路径的 future；不可缓存时返回 null
+     */
+    private CompletableFuture<Path> lookupAsync(ImageEntity image) {
+        String storagePath = image.getStoragePath();
+        if (!enabled || storagePath == null
+                || image.getFileSize() == null || image.getFileSize() > config.getMaxObjectBytes()) {
+            return null;
+        }
+        String key = keyOf(storagePath);
+        CompletableFuture<CachedObject> pending = new CompletableFuture<>();
+        CompletableFuture<CachedObject> future = cache.get(key, (k, executor) -> pending);
+        if (future == pending) {
+            // 首个未命中者发起填充，并发读者等待同一个 future；失败的 future 由 Caffeine 自动移除
+            storageService.getFileStreamAsync(storagePath)
+                    .thenApply(in -> fill(key, storagePath, in))
+                    .whenComplete((object, error) -> {
+                        if (error != null) {
+                            pending.completeExceptionally(error);
+                        } else {
+                            pending.complete(object);
+                        }
+                    });
+        }
+        return future.thenApply(object -> object.path);
+    }
+
+    private CompletableFuture<byte[]> readFromStorageAsync(ImageEntity image) {
+        return storageService.getFileStreamAsync(image.getStoragePath()).thenApply(in -> {
+            try (InputStream stream = in) {
+                return toByteArray(stream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private CachedObject fill(String key, String storagePath, InputStream source) {
+        Path temp = null;
+        try (InputStream in = source) {
+            Path target = pathOf(key);
+            temp = Files.createTempFile(root.resolve(TMP_DIR), key, ".tmp");
+            long size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("原图已缓存: path={}, size={}", storagePath, size);
+            return new CachedObject(target, size);
+        } catch (IOException e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * 恢复缓存目录中已有的文件，清理残留的临时文件
+     */
+    private int restore() throws IOException {
+        try (Stream<Path> temps = Files.list(root.resolve(TMP_DIR))) {
+            temps.forEach(OriginalObjectCache::deleteQuietly);
+        }
+        int[] restored = {0};
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> SHA256_HEX.matcher(path.getFileName().toString()).matches())
+                    .forEach(path -> {
+                        try {
+                            String key = path.getFileName().toString();
+                            cache.put(key, CompletableFuture.completedFuture(new CachedObject(path, Files.size(path))));
+                            restored[0]++;
+                        } catch (IOException e) {
+                            deleteQuietly(path);
+                        }
+                    });
+        }
+        return restored[0];
+    }
+
+    /**
+     * 缓存键: 存储路径的 SHA-256，定长且可直接作为文件名，重启后按文件名恢复
+     */
+    private static String keyOf(String storagePath) {
+        return FileHashUtil.sha256(storagePath.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static byte[] toByteArray(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("删除缓存文件失败: {}", path);
+        }
+    }
+
+    private static final class CachedObject {
+
+        private final Path path;
+        private final long size;
+
+        private CachedObject(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
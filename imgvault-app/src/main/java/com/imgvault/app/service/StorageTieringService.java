@@ -0,0 +1,283 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.domain.repository.FileFingerprintRepository;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.infrastructure.config.TieringConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷热分层
+ * <p>
+ * 定时扫描长期无人访问的对象（创建与最近一次访问均早于 coldAfterDays 天、浏览次数合计低于 maxViewCount），
+ * 迁移到冷层前缀 {@link StorageConstants#COLD_PREFIX} 下；冷对象被读取时登记回迁，由后台按批迁回原路径。
+ * <p>
+ * 迁移以对象为单位（秒传下多条记录共享同一对象）：服务端复制 → 同一事务内以原路径为条件
+ * 改写图片记录与指纹 → 延迟删除原对象。字节不做任何改写，file_hash / ETag 保持不变。
+ * <p>
+ * 原对象在 sourceDeleteDelaySeconds（默认等于预签名 URL 有效期）后才删除，迁移前已签发的原路径 URL
+ * 在有效期内仍可访问。待删除队列仅保存在本机内存，进程重启时未到期的原对象不再删除（只多占空间，不丢数据）。
+ * <p>
+ * 内容寻址对象（{@link StorageConstants#CAS_PREFIX}/ 下）不参与分层：其 URL 以长有效期签发并标记
+ * Cache-Control immutable，移动路径会使已分发的 URL 失效。
+ * <p>
+ * 指标:
+ * <ul>
+ *   <li>imgvault.tiering.objects（Counter）: direction = demote / promote，result = moved / failed</li>
+ *   <li>imgvault.tiering.run（Timer）: 单轮降冷耗时</li>
+ *   <li>imgvault.tiering.pending.deletes（Gauge）: 等待延迟删除的原对象数</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageTieringService {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** 不参与降冷的路径前缀：已在冷层的对象、URL 长期不可变的内容寻址对象 */
+    static final List<String> EXCLUDED_PREFIXES =
+            Arrays.asList(StorageConstants.COLD_PREFIX, StorageConstants.CAS_PREFIX + "/");
+
+    private final ImageRepository imageRepository;
+    private final FileFingerprintRepository fingerprintRepository;
+    private final StorageBackend storageService;
+    private final TieringConfig config;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    /** 待回迁的冷对象路径 → Content-Type */
+    private final Map<String, String> pendingPromotions = new ConcurrentHashMap<>();
+
+    /** 已迁移、等待延迟删除的原对象（延迟固定，按到期先后排列） */
+    private final Queue<PendingDelete> pendingDeletes = new ConcurrentLinkedQueue<>();
+
+    /** 降冷与回迁可能同时处理同一对象，迁移串行执行 */
+    private final Object relocateLock = new Object();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("imgvault.tiering.pending.deletes", pendingDeletes, Queue::size).register(meterRegistry);
+    }
+
+    /**
+     * 是否为冷层路径
+     */
+    public static boolean isCold(String storagePath) {
+        return storagePath != null && storagePath.startsWith(StorageConstants.COLD_PREFIX);
+    }
+
+    /**
+     * 读取图片时调用：冷对象登记回迁，由 {@link #promotePending()} 后台处理，本次读取仍走冷层路径
+     */
+    public void recordRead(ImageEntity image) {
+        if (!config.isEnabled() || !config.isPromoteOnRead() || !isCold(image.getStoragePath())) {
+            return;
+        }
+        if (pendingPromotions.size() >= config.getMaxPendingPromotions()) {
+            return;
+        }
+        pendingPromotions.putIfAbsent(image.getStoragePath(), image.getMimeType() != null
+                ? image.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    @Scheduled(fixedDelayString = "${imgvault.tiering.interval-millis:3600000}", initialDelay = 120000)
+    public void demote() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int moved = demoteColdObjects();
+            if (moved > 0) {
+                log.info("冷热分层降冷完成: objects={}", moved);
+            }
+        } catch (Exception e) {
+            log.error("冷热分层降冷异常", e);
+        } finally {
+            sample.stop(meterRegistry.timer("imgvault.tiering.run"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${imgvault.tiering.promote-interval-millis:10000}", initialDelay = 60000)
+    public void promotePending() {
+        if (pendingPromotions.isEmpty()) {
+            return;
+        }
+        int moved = 0;
+        Iterator<Map.Entry<String, String>> it = pendingPromotions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            it.remove();
+            String coldPath = entry.getKey();
+            if (relocate(coldPath, coldPath.substring(StorageConstants.COLD_PREFIX.length()),
+                    entry.getValue(), "promote")) {
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            log.info("冷对象回迁完成: objects={}", moved);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void deleteExpiredSources() {
+        int deleted = 0;
+        synchronized (relocateLock) {
+            long now = System.currentTimeMillis();
+            PendingDelete head;
+            while ((head = pendingDeletes.peek()) != null && head.deleteAfter <= now) {
+                pendingDeletes.poll();
+                if (deleteSource(head)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("迁移后的原对象已删除: objects={}", deleted);
+        }
+    }
+
+    /**
+     * 按 storage_path 游标分批降冷
+     *
+     * @return 降冷的对象数
+     */
+    int demoteColdObjects() {
+        // created_at / updated_at 由 SQLite datetime('now') 写入，为 UTC
+        String cutoff = LocalDateTime.now(ZoneOffset.UTC).minusDays(config.getColdAfterDays()).format(FORMATTER);
+        String cursor = null;
+        int scanned = 0;
+        int moved = 0;
+        while (scanned < config.getMaxObjectsPerRun()) {
+            int limit = Math.min(config.getBatchSize(), config.getMaxObjectsPerRun() - scanned);
+            List<ImageEntity> candidates = imageRepository.findColdCandidates(
+                    cutoff, config.getMaxViewCount(), EXCLUDED_PREFIXES, cursor, limit);
+            for (ImageEntity candidate : candidates) {
+                String path = candidate.getStoragePath();
+                if (relocate(path, StorageConstants.COLD_PREFIX + path, candidate.getMimeType(), "demote")) {
+                    moved++;
+                }
+            }
+            scanned += candidates.size();
+            if (candidates.size() < limit) {
+                break;
+            }
+            cursor = candidates.get(candidates.size() - 1).getStoragePath();
+        }
+        return moved;
+    }
+
+    /**
+     * 将对象从 sourcePath 迁移到 targetPath 并改写引用
+     *
+     * @return 是否完成迁移（原路径已无引用时无需迁移，返回 false）
+     */
+    boolean relocate(String sourcePath, String targetPath, String contentType, String direction) {
+        synchronized (relocateLock) {
+            try {
+                List<ImageEntity> images = imageRepository.findByStoragePath(sourcePath);
+                if (images.isEmpty()) {
+                    return false;
+                }
+                // 目标已存在（上次迁移中断，或内容寻址下同内容已重新上传）时字节相同，直接复用
+                if (!storageService.objectExists(targetPath)) {
+                    storageService.copyObject(sourcePath, targetPath, contentType);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    imageRepository.updateStoragePath(sourcePath, targetPath);
+                    fingerprintRepository.updateStoragePath(sourcePath, targetPath);
+                });
+                evictImageCaches(images);
+                // 目标路径可能正等待上一次反向迁移后的删除（降冷后很快又被回迁），取消以免删掉当前对象
+                pendingDeletes.removeIf(pending -> pending.sourcePath.equals(targetPath));
+                pendingDeletes.add(new PendingDelete(sourcePath, targetPath, System.currentTimeMillis()
+                        + TimeUnit.SECONDS.toMillis(config.getSourceDeleteDelaySeconds())));
+                meterRegistry.counter("imgvault.tiering.objects", "direction", direction, "result", "moved")
+                        .increment();
+                log.debug("对象已迁移: direction={}, {} -> {}", direction, sourcePath, targetPath);
+                return true;
+            } catch (Exception e) {
+                meterRegistry.counter("imgvault.tiering.objects", "direction", direction, "result", "failed")
+                        .increment();
+                log.warn("对象迁移失败: direction={}, path={}", direction, sourcePath, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 删除到期的原对象，删除前补改迁移后新增的引用
+     */
+    private boolean deleteSource(PendingDelete pending) {
+        try {
+            // 改写前已查到旧指纹的并发秒传仍可能写入原路径，补改到目标对象
+            int late = imageRepository.updateStoragePath(pending.sourcePath, pending.targetPath);
+            if (late > 0) {
+                log.info("迁移期间新增的引用已改写: path={}, rows={}", pending.sourcePath, late);
+            }
+            storageService.deleteFile(pending.sourcePath);
+            return true;
+        } catch (Exception e) {
+            log.warn("删除迁移后的原对象失败: path={}", pending.sourcePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * 精确失效图片详情缓存（其中的下载 URL 指向旧路径）
+     */
+    private void evictImageCaches(List<ImageEntity> images) {
+        Cache imageCache = cacheManager.getCache("imageCache");
+        if (imageCache == null) {
+            return;
+        }
+        for (ImageEntity image : images) {
+            imageCache.evict("id:" + image.getId());
+            imageCache.evict("uuid:" + image.getImageUuid());
+        }
+    }
+
+    private static final class PendingDelete {
+
+        private final String sourcePath;
+        private final String targetPath;
+        private final long deleteAfter;
+
+        private PendingDelete(String sourcePath, String targetPath, long deleteAfter) {
+            this.sourcePath = sourcePath;
+            this.targetPath = targetPath;
+            this.deleteAfter = deleteAfter;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.exception.TooManyRequestsException;
+import com.imgvault.infrastructure.config.AdmissionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上传准入控制服务
+ * <p>
+ * 用加权信号量限制同时处理中的上传字节数（1 许可 = 1KB），用普通信号量限制并发解码数。
+ * 资源不足时在有界队列中最多等待 maxWaitMillis，仍不足则抛出 {@link TooManyRequestsException}（429 + Retry-After）。
+ * 信号量为非公平模式，小文件可以越过排队中的大文件，避免大文件堆积拖慢小文件的尾延迟
+ * <p>
+ * 指标: imgvault.admission.in_flight / queue.depth（Gauge）、admitted / rejected（Counter），按 resource 标签区分
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadAdmissionService {
+
+    private static final String RESOURCE_UPLOAD_BYTES = "upload_bytes";
+    private static final String RESOURCE_DECODE = "decode";
+
+    private final AdmissionConfig admissionConfig;
+    private final MeterRegistry meterRegistry;
+
+    private Gate uploadGate;
+    private Gate decodeGate;
+
+    @PostConstruct
+    public void init() {
+        long maxKb = Math.max(1L, admissionConfig.getMaxInFlightBytes() / 1024);
+        int decodes = admissionConfig.getMaxConcurrentDecodes() > 0
+                ? admissionConfig.getMaxConcurrentDecodes()
+                : Runtime.getRuntime().availableProcessors();
+        this.uploadGate = new Gate(RESOURCE_UPLOAD_BYTES, (int) Math.min(maxKb, Integer.MAX_VALUE), 1024);
+        this.decodeGate = new Gate(RESOURCE_DECODE, decodes, 1);
+        log.info("上传准入控制: enabled={}, maxInFlightBytes={}, maxConcurrentDecodes={}, maxWaitMillis={}",
+                admissionConfig.isEnabled(), admissionConfig.getMaxInFlightBytes(), decodes,
+                admissionConfig.getMaxWaitMillis());
+    }
+
+    /**
+     * 申请上传字节预算，超过总预算的单个文件按总预算计
+     *
+     * @param bytes 文件大小
+     * @return 许可，处理完成后必须 close
+     */
+    public Permit acquireUpload(long bytes) {
+        return acquireUpload(bytes, admissionConfig.getMaxWaitMillis());
+    }
+
+    /**
+     * 申请上传字节预算，指定最长等待时间（批量上传逐个文件申请，需要比单次上传更长的等待）
+     *
+     * @param bytes         文件大小
+     * @param maxWaitMillis 最长等待时间
+     * @return 许可，处理完成后必须 close
+     */
+    public Permit acquireUpload(long bytes, long maxWaitMillis) {
+        int permits = (int) Math.min(Math.max(1L, (bytes + 1023) / 1024), uploadGate.maxPermits);
+        return uploadGate.acquire(permits, maxWaitMillis);
+    }
+
+    /**
+     * 申请一个解码许可（整图解码到 BufferedImage 的操作）
+     *
+     * @return 许可，处理完成后必须 close
+     */
+    public Permit acquireDecode() {
+        return decodeGate.acquire(1, admissionConfig.getMaxWaitMillis());
+    }
+
+    /**
+     * 已获取的许可，close 时归还（重复 close 无副作用）
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private static final Permit NOOP = new Permit(null, 0);
+
+        private final Semaphore semaphore;
+        private final int permits;
+        private boolean released;
+
+        private Permit(Semaphore semaphore, int permits) {
+            this.semaphore = semaphore;
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (semaphore != null && !released) {
+                released = true;
+                semaphore.release(permits);
+            }
+        }
+    }
+
+    /**
+     * 单类资源的信号量、排队计数和指标
+     */
+    private final class Gate {
+
+        private final String resource;
+        private final int maxPermits;
+        private final Semaphore semaphore;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter admitted;
+        private final Counter rejectedQueueFull;
+        private final Counter rejectedTimeout;
+
+        Gate(String resource, int maxPermits, int unit) {
+            this.resource = resource;
+            this.maxPermits = maxPermits;
+            this.semaphore = new Semaphore(maxPermits, false);
+            Gauge.builder("imgvault.admission.in_flight", semaphore,
+                            s -> (double) (maxPermits - s.availablePermits()) * unit)
+                    .tag("resource", resource)
+                    .description("准入控制中已占用的资源量")
+                    .register(meterRegistry);
+            Gauge.builder("imgvault.admission.queue.depth", waiting, AtomicInteger::get)
+                    .tag("resource", resource)
+                    .description("等待准入的请求数")
+                    .register(meterRegistry);
+            this.admitted = Counter.builder("imgvault.admission.admitted")
+                    .tag("resource", resource).register(meterRegistry);
+            this.rejectedQueueFull = Counter.builder("imgvault.admission.rejected")
+                    .tag("resource", resource).tag("reason", "queue_full").register(meterRegistry);
+            this.rejectedTimeout = Counter.builder("imgvault.admission.rejected")
+                    .tag("resource", resource).tag("reason", "timeout").register(meterRegistry);
+        }
+
+        Permit acquire(int permits, long maxWaitMillis) {
+            if (!admissionConfig.isEnabled()) {
+                return Permit.NOOP;
+            }
+            if (semaphore.tryAcquire(permits)) {
+                admitted.increment();
+                return new Permit(semaphore, permits);
+            }
+            if (waiting.incrementAndGet() > admissionConfig.getMaxQueueDepth()) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                throw reject("排队已满");
+            }
+            try {
+                if (semaphore.tryAcquire(permits, maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                    admitted.increment();
+                    return new Permit(semaphore, permits);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiting.decrementAndGet();
+            }
+            rejectedTimeout.increment();
+            throw reject("等待超时");
+        }
+
+        private TooManyRequestsException reject(String reason) {
+            log.warn("准入控制拒绝请求: resource={}, reason={}, available={}",
+                    resource, reason, semaphore.availablePermits());
+            return new TooManyRequestsException("服务繁忙，请稍后重试", admissionConfig.getRetryAfterSeconds());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.imgvault.app.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传链路分阶段指标
+ * <p>
+ * 每次上传创建一个 {@link Recorder}，按阶段计时，结束时统一按最终的格式和大小区间打标签上报:
+ * <ul>
+ *   <li>imgvault.upload.stage（Timer）: path / stage / format / size_bucket</li>
+ *   <li>imgvault.upload.duration（Timer）: path / format / size_bucket / outcome</li>
+ *   <li>imgvault.upload.size（DistributionSummary，字节）: path / format</li>
+ * </ul>
+ * 可通过 /actuator/metrics/imgvault.upload.stage?tag=path:direct 等方式查询
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadMetrics {
+
+    public static final String PATH_DIRECT = "direct";
+    public static final String PATH_CHUNK_MERGE = "chunk_merge";
+    public static final String PATH_PRESIGNED_CONFIRM = "presigned_confirm";
+    public static final String PATH_MULTIPART_COMPLETE = "multipart_complete";
+
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_ADMISSION = "admission";
+    public static final String STAGE_SNIFF = "sniff";
+    public static final String STAGE_CHUNK_READ = "chunk_read";
+    public static final String STAGE_HASH = "hash";
+    public static final String STAGE_STORAGE_PUT = "storage_put";
+    public static final String STAGE_DEDUP = "dedup";
+    public static final String STAGE_PROBE = "probe";
+    public static final String STAGE_DB_INSERT = "db_insert";
+    public static final String STAGE_PRESIGN = "presign";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 开始记录一次上传
+     *
+     * @param path 上传链路: direct / chunk_merge / presigned_confirm / multipart_complete
+     */
+    public Recorder start(String path) {
+        return new Recorder(path);
+    }
+
+    /**
+     * 文件大小区间，控制标签基数
+     */
+    static String sizeBucket(long bytes) {
+        if (bytes < 0) {
+            return UNKNOWN;
+        }
+        if (bytes < 100 * 1024) {
+            return "lt_100k";
+        }
+        if (bytes < 1024 * 1024) {
+            return "100k_1m";
+        }
+        if (bytes < 10 * 1024 * 1024) {
+            return "1m_10m";
+        }
+        return "gte_10m";
+    }
+
+    /**
+     * 单次上传的阶段计时器（非线程安全，随请求线程使用）
+     */
+    public final class Recorder {
+
+        private final String path;
+        private final long startNanos;
+        private final List<String> stages = new ArrayList<>();
+        private final List<Long> durations = new ArrayList<>();
+        private long lapNanos;
+        private String format = UNKNOWN;
+        private long size = -1;
+        private boolean finished;
+
+        private Recorder(String path) {
+            this.path = path;
+            this.startNanos = System.nanoTime();
+            this.lapNanos = startNanos;
+        }
+
+        /**
+         * 记录上一个计时点到现在的耗时为 stage 阶段
+         */
+        public void lap(String stage) {
+            long now = System.nanoTime();
+            record(stage, now - lapNanos);
+            lapNanos = now;
+        }
+
+        /**
+         * 直接记录某阶段耗时（用于融合在同一操作中的阶段，如边读边哈希）
+         */
+        public void record(String stage, long nanos) {
+            stages.add(stage);
+            durations.add(Math.max(0L, nanos));
+        }
+
+        /**
+         * 重置计时点（跳过不计入任何阶段的时间）
+         */
+        public void resetLap() {
+            lapNanos = System.nanoTime();
+        }
+
+        public void format(String format) {
+            if (format != null) {
+                this.format = format;
+            }
+        }
+
+        public void size(long size) {
+            this.size = size;
+        }
+
+        /**
+         * 结束并上报，重复调用只上报一次
+         */
+        public void finish(String outcome) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            String bucket = sizeBucket(size);
+            Tags tags = Tags.of("path", path, "format", format, "size_bucket", bucket);
+            for (int i = 0; i < stages.size(); i++) {
+                Timer.builder("imgvault.upload.stage")
+                        .description("上传链路各阶段耗时")
+                        .tags(tags).tag("stage", stages.get(i))
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)
+                        .record(durations.get(i), TimeUnit.NANOSECONDS);
+            }
+            Timer.builder("imgvault.upload.duration")
+                    .description("上传总耗时")
+                    .tags(tags).tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (size >= 0) {
+                DistributionSummary.builder("imgvault.upload.size")
+                        .description("上传文件大小")
+                        .baseUnit("bytes")
+                        .tags("path", path, "format", format)
+                        .register(meterRegistry)
+                        .record(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.common.enums.UploadTaskStatus;
+import com.imgvault.domain.entity.UploadTaskEntity;
+import com.imgvault.domain.repository.UploadTaskRepository;
+import com.imgvault.infrastructure.config.UploadReaperConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过期分片上传任务清理
+ * <p>
+ * 定时扫描已过期仍在上传的任务、合并超时的任务和失败超过保留时长的任务：先以 CAS 将任务标记为 expired 认领，
+ * 认领成功后才放弃未完成的分片直传、删除其临时分片（批量删除）；并发的合并/完成已改变状态时不动任何数据。
+ * 另按批巡检 temp/chunks/ 下已没有进行中任务的孤儿分片目录。
+ * 删除速率受 {@link UploadReaperConfig#getMaxDeletesPerSecond()} 限制，避免与前台请求争抢存储。
+ * <p>
+ * 指标:
+ * <ul>
+ *   <li>imgvault.upload.reaper.tasks（Counter）: from = 任务原状态 / orphan</li>
+ *   <li>imgvault.upload.reaper.objects（Counter）: result = deleted / failed</li>
+ *   <li>imgvault.upload.reaper.run（Timer）: 单轮清理耗时</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadTaskReaper {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** 单个任务最多的分片对象数（分片数上限 + 余量） */
+    private static final int MAX_OBJECTS_PER_TASK = StorageConstants.COMPOSE_MAX_PARTS + 1;
+
+    private final UploadTaskRepository uploadTaskRepository;
+    private final StorageBackend storageService;
+    private final ChunkDigestTracker chunkDigestTracker;
+    private final UploadReaperConfig config;
+    private final MeterRegistry meterRegistry;
+
+    /** 孤儿目录巡检游标，跨轮次推进 */
+    private String orphanCursor;
+
+    /** 下一次允许发起删除的时间（纳秒） */
+    private long nextDeleteAt;
+
+    @Scheduled(fixedDelayString = "${imgvault.upload-reaper.interval-millis:300000}", initialDelay = 60000)
+    public void reap() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int tasks = reapExpiredTasks();
+            int orphans = reapOrphanPrefixes();
+            if (tasks > 0 || orphans > 0) {
+                log.info("分片上传清理完成: tasks={}, orphanPrefixes={}", tasks, orphans);
+            }
+        } catch (Exception e) {
+            log.error("分片上传清理异常", e);
+        } finally {
+            sample.stop(meterRegistry.timer("imgvault.upload.reaper.run"));
+        }
+    }
+
+    /**
+     * 清理过期与失败的任务
+     *
+     * @return 标记为过期的任务数
+     */
+    int reapExpiredTasks() {
+        String now = LocalDateTime.now().format(FORMATTER);
+        Set<String> seen = new HashSet<>();
+        int reaped = 0;
+        while (seen.size() < config.getMaxTasksPerRun()) {
+            List<UploadTaskEntity> tasks = uploadTaskRepository.findExpiredTasks(
+                    now, config.getMergingTimeoutMinutes(), config.getFailedRetentionMinutes(), config.getBatchSize());
+            boolean progressed = false;
+            for (UploadTaskEntity task : tasks) {
+                // 清理失败的任务仍会被再次查出，留待下一轮
+                if (!seen.add(task.getUploadId())) {
+                    continue;
+                }
+                progressed = true;
+                if (reapTask(task)) {
+                    reaped++;
+                }
+            }
+            if (!progressed || tasks.size() < config.getBatchSize()) {
+                break;
+            }
+        }
+        return reaped;
+    }
+
+    /**
+     * 先认领再删除: CAS 到 expired 成功后任务不会再被合并/完成，此时删除数据才安全
+     *
+     * @return 是否认领成功
+     */
+    boolean reapTask(UploadTaskEntity task) {
+        String uploadId = task.getUploadId();
+        try {
+            // 与并发的合并/完成竞争时以对方为准，不动任何数据
+            if (!uploadTaskRepository.compareAndSetStatus(uploadId, task.getStatus(),
+                    UploadTaskStatus.EXPIRED.getCode())) {
+                log.debug("任务状态已变更，跳过清理: uploadId={}", uploadId);
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("分片上传任务标记过期失败: uploadId={}", uploadId, e);
+            return false;
+        }
+        meterRegistry.counter("imgvault.upload.reaper.tasks", "from", task.getStatus()).increment();
+        chunkDigestTracker.discard(uploadId);
+        try {
+            if (task.getMultipartUploadId() != null) {
+                storageService.abortMultipartUpload(task.getStoragePath(), task.getMultipartUploadId());
+            }
+            // 删除未完成的分片目录（含认领前仍在写入的分片）由孤儿目录巡检补删
+            if (deletePrefix(ImageAppService.chunkPrefix(uploadId))) {
+                uploadTaskRepository.deleteChunks(uploadId);
+            }
+        } catch (Exception e) {
+            log.warn("分片上传任务数据清理失败，留待孤儿目录巡检: uploadId={}", uploadId, e);
+        }
+        log.info("分片上传任务已过期清理: uploadId={}, status={}", uploadId, task.getStatus());
+        return true;
+    }
+
+    /**
+     * 巡检 temp/chunks/ 下的分片目录，删除任务不存在或已结束的目录
+     *
+     * @return 清理的目录数
+     */
+    int reapOrphanPrefixes() {
+        List<String> prefixes = storageService.listObjects(StorageConstants.CHUNKS_PREFIX, false,
+                orphanCursor, config.getMaxOrphanPrefixesPerRun());
+        // 不足一批说明已巡检到末尾，下一轮从头开始
+        orphanCursor = prefixes.size() < config.getMaxOrphanPrefixesPerRun()
+                ? null : prefixes.get(prefixes.size() - 1);
+        int reaped = 0;
+        for (String prefix : prefixes) {
+            if (!prefix.endsWith("/")) {
+                continue;
+            }
+            String uploadId = prefix.substring(StorageConstants.CHUNKS_PREFIX.length(), prefix.length() - 1);
+            UploadTaskEntity task = uploadTaskRepository.findByUploadId(uploadId);
+            if (task != null && !isFinished(task.getStatus())) {
+                continue;
+            }
+            if (deletePrefix(prefix)) {
+                if (task != null) {
+                    uploadTaskRepository.deleteChunks(uploadId);
+                }
+                meterRegistry.counter("imgvault.upload.reaper.tasks", "from", "orphan").increment();
+                log.info("孤儿分片目录已清理: prefix={}", prefix);
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+
+    private static boolean isFinished(String status) {
+        return UploadTaskStatus.COMPLETED.getCode().equals(status)
+                || UploadTaskStatus.EXPIRED.getCode().equals(status);
+    }
+
+    /**
+     * 按限速分批删除前缀下的全部对象
+     *
+     * @return 是否全部删除成功
+     */
+    private boolean deletePrefix(String prefix) {
+        List<String> paths = storageService.listObjects(prefix, true, null, MAX_OBJECTS_PER_TASK);
+        int step = Math.max(1, Math.min(config.getMaxDeletesPerSecond(), StorageConstants.DELETE_OBJECTS_MAX_BATCH));
+        int failed = 0;
+        for (int from = 0; from < paths.size(); from += step) {
+            List<String> batch = paths.subList(from, Math.min(from + step, paths.size()));
+            throttle(batch.size());
+            int batchFailed = storageService.deleteFiles(batch);
+            failed += batchFailed;
+            meterRegistry.counter("imgvault.upload.reaper.objects", "result", "deleted")
+                    .increment(batch.size() - batchFailed);
+        }
+        if (failed > 0) {
+            meterRegistry.counter("imgvault.upload.reaper.objects", "result", "failed").increment(failed);
+        }
+        return failed == 0;
+    }
+
+    /**
+     * 删除限速：每删除 n 个对象，下一次删除至少推迟 n / maxDeletesPerSecond 秒
+     */
+    private void throttle(int count) {
+        long now = System.nanoTime();
+        long wait = nextDeleteAt - now;
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            now = nextDeleteAt;
+        }
+        nextDeleteAt = now + TimeUnit.SECONDS.toNanos(count) / Math.max(1, config.getMaxDeletesPerSecond());
+    }
+}
@@ -3,21 +3,21 @@ package com.imgvault.app.service;
 import com.imgvault.common.constant.StorageConstants;
 import com.imgvault.common.dto.WatermarkRemoveResultDTO;
 import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.util.FileDigest;
+import com.imgvault.common.util.FileHashUtil;
+import com.imgvault.common.util.ImageHeaderProbe;
 import com.imgvault.common.util.MagicBytesValidator;
 import com.imgvault.domain.entity.ImageEntity;
 import com.imgvault.domain.repository.ImageRepository;
-import com.imgvault.infrastructure.storage.MinioStorageService;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -38,8 +38,11 @@ public class WatermarkAppService {
 
     private final OpenCvWatermarkService openCvWatermarkService;
     private final IoPaintWatermarkService ioPaintWatermarkService;
-    private final MinioStorageService storageService;
+    private final StorageBackend storageService;
     private final ImageRepository imageRepository;
+    private final UploadAdmissionService admissionService;
+    private final OriginalObjectCache originalObjectCache;
+    private final StorageConfig storageConfig;
 
     /**
      * 去除水印
@@ -73,7 +76,10 @@ public class WatermarkAppService {
             if ("iopaint".equals(engineName)) {
                 resultBytes = ioPaintWatermarkService.removeWatermark(imageBytes, maskBytes);
             } else {
-                resultBytes = openCvWatermarkService.removeWatermark(imageBytes, maskBytes);
+                // 本地引擎整图解码，占用解码许可
+                try (UploadAdmissionService.Permit permit = admissionService.acquireDecode()) {
+                    resultBytes = openCvWatermarkService.removeWatermark(imageBytes, maskBytes);
+                }
             }
         } catch (BusinessException e) {
             throw e;
@@ -95,10 +101,7 @@ public class WatermarkAppService {
                 throw BusinessException.badRequest("图片存储路径为空");
             }
             try {
-                InputStream stream = storageService.getFileStream(entity.getStoragePath());
-                byte[] bytes = toByteArray(stream);
-                stream.close();
-                return bytes;
+                return originalObjectCache.readAllBytes(entity);
             } catch (Exception e) {
                 throw new BusinessException("读取图片失败: " + e.getMessage());
             }
@@ -133,31 +136,39 @@ public class WatermarkAppService {
             ext = "webp";
         }
 
-        String storagePath = storageService.generateStoragePath(ext).replace("originals/", "watermark-removed/");
         String contentType = "image/" + ext;
         if ("jpg".equals(ext)) {
             contentType = "image/jpeg";
         }
 
-        storageService.uploadFile(storagePath, new ByteArrayInputStream(resultBytes),
-                resultBytes.length, contentType);
+        FileDigest digest = FileHashUtil.digest(resultBytes);
+        String storagePath;
+        if (storageConfig.isContentAddressed()) {
+            storagePath = storageService.generateContentAddressedPath(digest.sha256Hex(), ext);
+            storageService.uploadFileIfAbsent(storagePath, new ByteArrayInputStream(resultBytes),
+                    resultBytes.length, contentType);
+        } else {
+            storagePath = storageService.generateStoragePath(ext).replace("originals/", "watermark-removed/");
+            storageService.uploadFile(storagePath, new ByteArrayInputStream(resultBytes),
+                    resultBytes.length, contentType);
+        }
 
         int width = 0;
         int height = 0;
-        try {
-            BufferedImage img = ImageIO.read(new ByteArrayInputStream(resultBytes));
-            if (img != null) {
-                width = img.getWidth();
-                height = img.getHeight();
-            }
-        } catch (Exception e) {
-            log.warn("提取结果图片尺寸失败: {}", e.getMessage());
+        ImageHeaderProbe.ImageInfo imageInfo = ImageHeaderProbe.probe(resultBytes);
+        if (imageInfo != null) {
+            width = imageInfo.getWidth();
+            height = imageInfo.getHeight();
+        } else {
+            log.warn("提取结果图片尺寸失败: path={}", storagePath);
         }
 
         ImageEntity entity = new ImageEntity();
         entity.setImageUuid(UUID.randomUUID().toString());
         entity.setOriginalName("watermark_removed_" + System.currentTimeMillis() + "." + ext);
         entity.setStoragePath(storagePath);
+        entity.setFileHash(digest.sha256Hex());
+        entity.setFileMd5(digest.md5Hex());
         entity.setBucketName(StorageConstants.DEFAULT_BUCKET);
         entity.setFileSize((long) resultBytes.length);
         entity.setWidth(width);
@@ -191,14 +202,4 @@ public class WatermarkAppService {
 
         return dto;
     }
-
-    private static byte[] toByteArray(InputStream input) throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] buf = new byte[8192];
-        int len;
-        while ((len = input.read(buf)) != -1) {
-            buffer.write(buf, 0, len);
-        }
-        return buffer.toByteArray();
-    }
 }
@@ -0,0 +1,104 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.util.MultiDigest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChunkDigestTracker 单元测试
+ */
+@DisplayName("分片整文件摘要续算测试")
+class ChunkDigestTrackerTest {
+
+    private static final String UPLOAD_ID = "u-1";
+    private static final byte[][] CHUNKS = {bytes("first-"), bytes("second-"), bytes("third")};
+
+    private final ChunkDigestTracker tracker = new ChunkDigestTracker();
+
+    @Test
+    @DisplayName("分片按序到达时续算结果与整文件摘要一致")
+    void rollsDigestInOrder() {
+        for (int i = 0; i < CHUNKS.length; i++) {
+            ChunkDigestTracker.RollingDigest rolling = tracker.claim(UPLOAD_ID, i + 1);
+            assertNotNull(rolling);
+            rolling.getDigest().update(CHUNKS[i], 0, CHUNKS[i].length);
+            rolling.release(true);
+        }
+
+        ChunkDigestTracker.RollingDigest rolling = tracker.take(UPLOAD_ID);
+        assertNotNull(rolling);
+        assertEquals(CHUNKS.length + 1, rolling.getNextChunk());
+        assertEquals(wholeFileSha256(), rolling.getDigest().finish().sha256Hex());
+        // 取出后不再参与续算
+        assertNull(tracker.take(UPLOAD_ID));
+    }
+
+    @Test
+    @DisplayName("乱序到达的分片不计入，续算停在第一个缺口处")
+    void stopsAtFirstGap() {
+        assertNull(tracker.claim(UPLOAD_ID, 2));
+
+        ChunkDigestTracker.RollingDigest rolling = tracker.claim(UPLOAD_ID, 1);
+        rolling.getDigest().update(CHUNKS[0], 0, CHUNKS[0].length);
+        rolling.release(true);
+        // 分片 2 已上传过（乱序），之后到达的分片 3 仍不能计入
+        assertNull(tracker.claim(UPLOAD_ID, 3));
+
+        ChunkDigestTracker.RollingDigest taken = tracker.take(UPLOAD_ID);
+        assertEquals(2, taken.getNextChunk());
+        assertEquals(CHUNKS[0].length, taken.getDigest().getLength());
+    }
+
+    @Test
+    @DisplayName("续算摘要正在写入时，并发的同号分片与合并都拿不到锁，回退为补读")
+    void fallsBackWhenLocked() throws Exception {
+        ChunkDigestTracker.RollingDigest holder = tracker.claim(UPLOAD_ID, 1);
+        assertNotNull(holder);
+
+        // 锁可重入，需在其他线程上竞争
+        assertNull(CompletableFuture.supplyAsync(() -> tracker.claim(UPLOAD_ID, 1)).get(5, TimeUnit.SECONDS));
+        assertNull(CompletableFuture.supplyAsync(() -> tracker.take(UPLOAD_ID)).get(5, TimeUnit.SECONDS));
+        holder.release(true);
+    }
+
+    @Test
+    @DisplayName("写入失败后摘要作废，后续分片不再计入、合并从头计算")
+    void brokenDigestIsDiscarded() {
+        ChunkDigestTracker.RollingDigest rolling = tracker.claim(UPLOAD_ID, 1);
+        rolling.getDigest().update(CHUNKS[0], 0, 3);
+        rolling.release(false);
+
+        // 失败的分片重传时编号仍为 1
+        assertNull(tracker.claim(UPLOAD_ID, 1));
+        assertNull(tracker.take(UPLOAD_ID));
+    }
+
+    @Test
+    @DisplayName("discard 后合并时无续算摘要")
+    void discardDropsState() {
+        ChunkDigestTracker.RollingDigest rolling = tracker.claim(UPLOAD_ID, 1);
+        rolling.release(true);
+
+        tracker.discard(UPLOAD_ID);
+
+        assertNull(tracker.take(UPLOAD_ID));
+    }
+
+    private static String wholeFileSha256() {
+        MultiDigest digest = new MultiDigest();
+        for (byte[] chunk : CHUNKS) {
+            digest.update(chunk, 0, chunk.length);
+        }
+        return digest.finish().sha256Hex();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,149 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.dto.ComposeRequest;
+import com.imgvault.common.dto.ComposeResultDTO;
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.infrastructure.config.AdmissionConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ComposeAppService 合成结果落库单元测试
+ * 覆盖对象写入与记录插入的先后顺序，以及任一步失败时的清理
+ */
+@DisplayName("合成结果保存测试")
+class ComposeAppServiceTest {
+
+    private static final String DATED_PATH = "originals/2026/01/02/c.png";
+    private static final String COMPOSED_PATH = "composed/2026/01/02/c.png";
+    private static final String CAS_PATH = "cas/ab/cd/abcd.png";
+
+    private final ImageComposeService composeService = mock(ImageComposeService.class);
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final ImageRepository imageRepository = mock(ImageRepository.class);
+    private final StorageConfig storageConfig = new StorageConfig();
+
+    private ExecutorService caller;
+    private ComposeAppService service;
+
+    @BeforeEach
+    void setUp() {
+        caller = Executors.newSingleThreadExecutor();
+        UploadAdmissionService admissionService =
+                new UploadAdmissionService(new AdmissionConfig(), new SimpleMeterRegistry());
+        admissionService.init();
+        service = new ComposeAppService(composeService, mock(ComposeTemplateEngine.class), storageService,
+                imageRepository, admissionService, mock(OriginalObjectCache.class), storageConfig);
+
+        ImageComposeService.ComposeOutput output = new ImageComposeService.ComposeOutput();
+        output.setData("composed-bytes".getBytes(StandardCharsets.UTF_8));
+        output.setWidth(40);
+        output.setHeight(30);
+        output.setFormat("png");
+        when(composeService.compose(any(), anyList(), any())).thenReturn(output);
+        when(storageService.generateStoragePath("png")).thenReturn(DATED_PATH);
+        when(storageService.generateContentAddressedPath(anyString(), eq("png"))).thenReturn(CAS_PATH);
+        when(storageService.getPresignedDownloadUrl(anyString(), anyInt())).thenReturn("http://storage/c.png");
+        doAnswer(inv -> {
+            inv.<ImageEntity>getArgument(0).setId(7L);
+            return 1;
+        }).when(imageRepository).insert(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        caller.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("对象写入完成前不插入记录，完成后插入并返回结果")
+    void insertsAfterUploadCompletes() throws Exception {
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        when(storageService.uploadFileAsync(eq(COMPOSED_PATH), any(), anyLong(), eq("image/png"))).thenReturn(upload);
+
+        Future<ComposeResultDTO> result = caller.submit(() -> service.compose(request(), "visitor-1"));
+        verify(storageService, timeout(5000)).uploadFileAsync(eq(COMPOSED_PATH), any(), anyLong(), eq("image/png"));
+        assertFalse(result.isDone());
+        verify(imageRepository, never()).insert(any());
+
+        upload.complete("etag");
+
+        ComposeResultDTO dto = result.get(5, TimeUnit.SECONDS);
+        assertEquals(7L, dto.getImageId());
+        assertEquals("http://storage/c.png", dto.getDownloadUrl());
+        verify(imageRepository).insert(argThat(entity -> COMPOSED_PATH.equals(entity.getStoragePath())
+                && "visitor-1".equals(entity.getVisitorId())));
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    @DisplayName("对象写入失败: 不插入记录，抛出存储异常")
+    void skipsInsertWhenUploadFails() {
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        upload.completeExceptionally(new IllegalStateException("put failed"));
+        when(storageService.uploadFileAsync(anyString(), any(), anyLong(), anyString())).thenReturn(upload);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.compose(request(), null));
+
+        assertEquals("put failed", e.getMessage());
+        verify(imageRepository, never()).insert(any());
+        verify(imageRepository, never()).deleteByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("记录插入失败: 返回前同步删除已写入的对象")
+    void deletesObjectWhenInsertFails() {
+        when(storageService.uploadFileAsync(anyString(), any(), anyLong(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("etag"));
+        doThrow(new IllegalStateException("insert failed")).when(imageRepository).insert(any());
+
+        assertThrows(IllegalStateException.class, () -> service.compose(request(), null));
+
+        InOrder inOrder = inOrder(storageService, imageRepository);
+        inOrder.verify(storageService).uploadFileAsync(eq(COMPOSED_PATH), any(), anyLong(), anyString());
+        inOrder.verify(imageRepository).insert(any());
+        inOrder.verify(storageService).deleteFile(COMPOSED_PATH);
+    }
+
+    @Test
+    @DisplayName("内容寻址下记录插入失败不删除对象（可能被其他记录共享）")
+    void keepsContentAddressedObjectWhenInsertFails() {
+        storageConfig.setLayout("cas");
+        when(storageService.objectExists(CAS_PATH)).thenReturn(false);
+        when(storageService.uploadFileAsync(anyString(), any(), anyLong(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("etag"));
+        doThrow(new IllegalStateException("insert failed")).when(imageRepository).insert(any());
+
+        assertThrows(IllegalStateException.class, () -> service.compose(request(), null));
+
+        verify(storageService).uploadFileAsync(eq(CAS_PATH), any(), anyLong(), anyString());
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    private static ComposeRequest request() {
+        ComposeRequest request = new ComposeRequest();
+        request.setCanvas(new ComposeRequest.CanvasConfig());
+        request.setLayers(Collections.emptyList());
+        return request;
+    }
+}
@@ -0,0 +1,203 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.dto.BatchUploadItemDTO;
+import com.imgvault.common.dto.BatchUploadResultDTO;
+import com.imgvault.domain.repository.AsyncTaskRepository;
+import com.imgvault.domain.repository.FileFingerprintRepository;
+import com.imgvault.domain.repository.ImageMetadataRepository;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.domain.repository.UploadTaskRepository;
+import com.imgvault.infrastructure.config.AdmissionConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.config.UploadConfig;
+import com.imgvault.infrastructure.persistence.SqliteWriteBatcher;
+import com.imgvault.infrastructure.storage.ImgproxyService;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ImageAppService 批量上传单元测试
+ * 存储与仓库为 mock，准入控制与执行器为真实实例
+ */
+@DisplayName("批量上传测试")
+class ImageAppServiceBatchUploadTest {
+
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final SqliteWriteBatcher writeBatcher = mock(SqliteWriteBatcher.class);
+    private final AdmissionConfig admissionConfig = new AdmissionConfig();
+    private final UploadConfig uploadConfig = new UploadConfig();
+    private final AtomicInteger pathSeq = new AtomicInteger();
+
+    private ExecutorService executor;
+    private UploadAdmissionService admissionService;
+    private ImageAppService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        admissionService = new UploadAdmissionService(admissionConfig, registry);
+        service = new ImageAppService(
+                mock(ImageRepository.class), mock(ImageMetadataRepository.class),
+                mock(FileFingerprintRepository.class), mock(UploadTaskRepository.class),
+                mock(AsyncTaskRepository.class), storageService, mock(ImgproxyService.class),
+                writeBatcher, new UploadMetrics(registry), admissionService,
+                mock(ChunkDigestTracker.class), mock(OriginalObjectCache.class),
+                mock(StorageTieringService.class), uploadConfig, new StorageConfig(),
+                mock(PlatformTransactionManager.class), mock(CacheManager.class), executor);
+        service.init();
+
+        when(storageService.generateStoragePath(anyString()))
+                .thenAnswer(inv -> "originals/test/" + pathSeq.incrementAndGet() + "." + inv.getArgument(0));
+        when(writeBatcher.execute(any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("逐文件结果顺序与请求一致，单个文件失败不影响其他文件")
+    void shouldKeepRequestOrderAndIsolateFailures() throws Exception {
+        admissionService.init();
+        // 第一个文件最慢完成，结果仍排在第一位
+        when(storageService.uploadFile(anyString(), any(), anyLong(), anyString())).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(1);
+            drain(in);
+            if ("originals/test/1.png".equals(inv.getArgument(0))) {
+                Thread.sleep(200);
+            }
+            return inv.getArgument(0);
+        });
+
+        MultipartFile[] files = {
+                png("slow.png", 40, 30),
+                new MockMultipartFile("files", "fake.png", "image/png",
+                        "not an image".getBytes(StandardCharsets.UTF_8)),
+                png("fast.png", 20, 10)
+        };
+
+        BatchUploadResultDTO result = service.batchUpload(files, null);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getItems().size());
+        for (int i = 0; i < files.length; i++) {
+            assertEquals(i, result.getItems().get(i).getIndex());
+            assertEquals(files[i].getOriginalFilename(), result.getItems().get(i).getOriginalName());
+        }
+
+        BatchUploadItemDTO slow = result.getItems().get(0);
+        assertEquals(BatchUploadItemDTO.STATUS_SUCCESS, slow.getStatus());
+        assertEquals(40, slow.getImage().getWidth());
+        assertEquals(30, slow.getImage().getHeight());
+
+        BatchUploadItemDTO fake = result.getItems().get(1);
+        assertEquals(BatchUploadItemDTO.STATUS_FAILED, fake.getStatus());
+        assertNotNull(fake.getErrorMessage());
+        assertNull(fake.getImage());
+
+        assertEquals(BatchUploadItemDTO.STATUS_SUCCESS, result.getItems().get(2).getStatus());
+        assertEquals(20, result.getItems().get(2).getImage().getWidth());
+        assertBudgetReleased();
+    }
+
+    @Test
+    @DisplayName("与单次上传共用准入预算: 预算占满时等待有上限，超时的文件记为失败")
+    void shouldFailItemWhenBudgetWaitTimesOut() throws Exception {
+        // 预算只够一个文件
+        admissionConfig.setMaxInFlightBytes(1024);
+        uploadConfig.setBatchMaxWaitMillis(100);
+        admissionService.init();
+        CountDownLatch release = new CountDownLatch(1);
+        when(storageService.uploadFile(anyString(), any(), anyLong(), anyString())).thenAnswer(inv -> {
+            drain(inv.getArgument(1));
+            release.await(5, TimeUnit.SECONDS);
+            return inv.getArgument(0);
+        });
+
+        MultipartFile[] files = {png("a.png", 8, 8), png("b.png", 9, 9)};
+        long start = System.nanoTime();
+        BatchUploadResultDTO result;
+        try {
+            result = runReleasingAfter(files, release, 500);
+        } finally {
+            release.countDown();
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertEquals(BatchUploadItemDTO.STATUS_SUCCESS, result.getItems().get(0).getStatus());
+        assertEquals(BatchUploadItemDTO.STATUS_FAILED, result.getItems().get(1).getStatus());
+        assertEquals(1, result.getFailed());
+        assertBudgetReleased();
+    }
+
+    /**
+     * 在另一个线程发起批量上传，delayMillis 后放行阻塞中的存储写入
+     */
+    private BatchUploadResultDTO runReleasingAfter(MultipartFile[] files, CountDownLatch release,
+                                                   long delayMillis) throws Exception {
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<BatchUploadResultDTO> future =
+                    caller.submit(() -> service.batchUpload(files, null));
+            Thread.sleep(delayMillis);
+            release.countDown();
+            return future.get(10, TimeUnit.SECONDS);
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    /**
+     * 批次结束后全部许可已归还，整份预算可再次申请
+     */
+    private void assertBudgetReleased() {
+        try (UploadAdmissionService.Permit ignored =
+                     admissionService.acquireUpload(admissionConfig.getMaxInFlightBytes(), 0)) {
+            assertNotNull(ignored);
+        }
+    }
+
+    private static MockMultipartFile png(String name, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new MockMultipartFile("files", name, "image/png", out.toByteArray());
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // 读完以触发哈希计算
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.common.enums.UploadTaskStatus;
+import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.util.MultiDigest;
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.domain.entity.UploadChunkEntity;
+import com.imgvault.domain.entity.UploadTaskEntity;
+import com.imgvault.domain.repository.AsyncTaskRepository;
+import com.imgvault.domain.repository.FileFingerprintRepository;
+import com.imgvault.domain.repository.ImageMetadataRepository;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.domain.repository.UploadTaskRepository;
+import com.imgvault.infrastructure.config.AdmissionConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.config.UploadConfig;
+import com.imgvault.infrastructure.persistence.SqliteWriteBatcher;
+import com.imgvault.infrastructure.storage.ImgproxyService;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ImageAppService 分片合并单元测试
+ * 覆盖整文件摘要续算与补读、服务端合并与流式合并的选择，以及合并后哈希不一致的处理；
+ * 存储为内存实现，续算摘要与准入控制为真实实例
+ */
+@DisplayName("分片合并测试")
+class ImageAppServiceChunkMergeTest {
+
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String STORAGE_PATH = "originals/2026/01/02/merged.png";
+    private static final int LARGE_CHUNK = (int) StorageConstants.COMPOSE_MIN_PART_SIZE;
+
+    private final ImageRepository imageRepository = mock(ImageRepository.class);
+    private final UploadTaskRepository uploadTaskRepository = mock(UploadTaskRepository.class);
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final SqliteWriteBatcher writeBatcher = mock(SqliteWriteBatcher.class);
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<UploadChunkEntity> chunkRecords = new CopyOnWriteArrayList<>();
+    private final AtomicInteger uploadedChunks = new AtomicInteger();
+
+    private ExecutorService executor;
+    private ImageAppService service;
+    private UploadTaskEntity task;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UploadAdmissionService admissionService = new UploadAdmissionService(new AdmissionConfig(), registry);
+        admissionService.init();
+        service = new ImageAppService(
+                imageRepository, mock(ImageMetadataRepository.class),
+                mock(FileFingerprintRepository.class), uploadTaskRepository,
+                mock(AsyncTaskRepository.class), storageService, mock(ImgproxyService.class),
+                writeBatcher, new UploadMetrics(registry), admissionService,
+                new ChunkDigestTracker(), mock(OriginalObjectCache.class),
+                mock(StorageTieringService.class), new UploadConfig(), new StorageConfig(),
+                mock(PlatformTransactionManager.class), mock(CacheManager.class), executor);
+        service.init();
+        when(writeBatcher.execute(any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+
+        // 内存存储
+        when(storageService.uploadFile(anyString(), any(), anyLong(), anyString())).thenAnswer(inv -> {
+            objects.put(inv.getArgument(0), readAll(inv.getArgument(1)));
+            return inv.getArgument(0);
+        });
+        when(storageService.getFileStream(anyString()))
+                .thenAnswer(inv -> new ByteArrayInputStream(objects.get(inv.<String>getArgument(0))));
+        when(storageService.getFileStream(anyString(), anyLong(), anyLong())).thenAnswer(inv -> {
+            byte[] data = objects.get(inv.<String>getArgument(0));
+            long offset = inv.getArgument(1);
+            long length = inv.getArgument(2);
+            return new ByteArrayInputStream(data, (int) offset, (int) length);
+        });
+        when(storageService.composeObject(anyString(), anyList(), anyString())).thenAnswer(inv -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (String source : inv.<List<String>>getArgument(1)) {
+                out.write(objects.get(source));
+            }
+            objects.put(inv.getArgument(0), out.toByteArray());
+            return inv.getArgument(0);
+        });
+        doAnswer(inv -> objects.remove(inv.<String>getArgument(0))).when(storageService).deleteFile(anyString());
+
+        // 分片记录
+        when(uploadTaskRepository.findByUploadId(UPLOAD_ID)).thenAnswer(inv -> task);
+        when(uploadTaskRepository.insertChunkIfAbsent(any())).thenAnswer(inv -> chunkRecords.add(inv.getArgument(0)));
+        when(uploadTaskRepository.incrementUploadedChunks(UPLOAD_ID)).thenAnswer(inv -> uploadedChunks.incrementAndGet());
+        when(uploadTaskRepository.findChunks(UPLOAD_ID)).thenAnswer(inv -> new ArrayList<>(chunkRecords));
+        when(uploadTaskRepository.compareAndSetStatus(UPLOAD_ID, UploadTaskStatus.UPLOADING.getCode(),
+                UploadTaskStatus.MERGING.getCode())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("分片全部按序到达且满足合并约束时服务端合并，整文件摘要续算完成，不再读取任何分片")
+    void composesWithoutRereadingInOrderChunks() throws IOException {
+        byte[] content = content(LARGE_CHUNK + 1000);
+        initTask(content, LARGE_CHUNK);
+
+        upload(content, 1, null);
+        upload(content, 2, null);
+
+        verify(storageService).composeObject(eq(STORAGE_PATH), anyList(), eq("image/png"));
+        verify(storageService, never()).getFileStream(anyString());
+        assertMerged(content);
+    }
+
+    @Test
+    @DisplayName("乱序到达时续算停在缺口处，合并只补读之后的分片")
+    void rereadsOnlyChunksAfterGap() throws IOException {
+        byte[] content = content(LARGE_CHUNK * 2 + 1000);
+        initTask(content, LARGE_CHUNK);
+
+        upload(content, 2, null);
+        upload(content, 1, null);
+        upload(content, 3, null);
+
+        verify(storageService, never()).getFileStream(chunkPath(1));
+        verify(storageService).getFileStream(chunkPath(2));
+        verify(storageService).getFileStream(chunkPath(3));
+        assertMerged(content);
+    }
+
+    @Test
+    @DisplayName("分片校验失败使续算摘要作废，合并时从头补读全部分片")
+    void rereadsAllChunksWhenRollingDigestBroken() throws IOException {
+        byte[] content = content(LARGE_CHUNK + 1000);
+        initTask(content, LARGE_CHUNK);
+
+        assertThrows(BusinessException.class, () -> upload(content, 1, repeat('0', 64)));
+        upload(content, 1, null);
+        upload(content, 2, null);
+
+        verify(storageService).getFileStream(chunkPath(1));
+        verify(storageService).getFileStream(chunkPath(2));
+        assertMerged(content);
+    }
+
+    @Test
+    @DisplayName("服务端合并失败时回退为流式拼接上传")
+    void fallsBackToStreamWhenComposeFails() throws IOException {
+        byte[] content = content(LARGE_CHUNK + 1000);
+        initTask(content, LARGE_CHUNK);
+        when(storageService.composeObject(anyString(), anyList(), anyString()))
+                .thenThrow(new UnsupportedOperationException("UploadPartCopy not supported"));
+
+        upload(content, 1, null);
+        upload(content, 2, null);
+
+        verify(storageService).uploadFile(eq(STORAGE_PATH), any(), eq((long) content.length), eq("image/png"));
+        assertMerged(content);
+    }
+
+    @Test
+    @DisplayName("分片小于 5MiB 时不尝试服务端合并，直接流式拼接上传")
+    void streamsSmallChunks() throws IOException {
+        byte[] content = content(3000);
+        initTask(content, 1024);
+
+        for (int i = 1; i <= 3; i++) {
+            upload(content, i, null);
+        }
+
+        verify(storageService, never()).composeObject(anyString(), anyList(), anyString());
+        verify(storageService).uploadFile(eq(STORAGE_PATH), any(), eq((long) content.length), eq("image/png"));
+        assertMerged(content);
+    }
+
+    @Test
+    @DisplayName("合并后哈希与初始化声明不一致: 删除合并对象、任务失败、不创建图片记录")
+    void discardsMergedObjectOnDigestMismatch() throws IOException {
+        byte[] content = content(LARGE_CHUNK + 1000);
+        initTask(content, LARGE_CHUNK);
+        task.setFileHash(repeat('a', 64));
+
+        upload(content, 1, null);
+        upload(content, 2, null);
+
+        assertFalse(objects.containsKey(STORAGE_PATH));
+        verify(uploadTaskRepository).updateStatus(UPLOAD_ID, UploadTaskStatus.FAILED.getCode());
+        verify(uploadTaskRepository, never()).updateStatus(UPLOAD_ID, UploadTaskStatus.COMPLETED.getCode());
+        verify(imageRepository, never()).insert(any());
+    }
+
+    private void initTask(byte[] content, int chunkSize) {
+        task = new UploadTaskEntity();
+        task.setUploadId(UPLOAD_ID);
+        task.setFileName("merged.png");
+        task.setFileSize((long) content.length);
+        task.setFileHash(sha256(content));
+        task.setChunkSize(chunkSize);
+        task.setTotalChunks((content.length + chunkSize - 1) / chunkSize);
+        task.setUploadedChunks(0);
+        task.setStoragePath(STORAGE_PATH);
+        task.setStatus(UploadTaskStatus.UPLOADING.getCode());
+    }
+
+    private void upload(byte[] content, int chunkNumber, String expectedSha256) {
+        int from = (chunkNumber - 1) * task.getChunkSize();
+        int to = Math.min(content.length, from + task.getChunkSize());
+        service.uploadChunk(UPLOAD_ID, chunkNumber,
+                new MockMultipartFile("file", Arrays.copyOfRange(content, from, to)), expectedSha256);
+    }
+
+    /**
+     * 合并对象内容完整、任务完成，图片记录使用服务端计算的哈希
+     */
+    private void assertMerged(byte[] content) {
+        assertArrayEquals(content, objects.get(STORAGE_PATH));
+        verify(uploadTaskRepository).updateStatus(UPLOAD_ID, UploadTaskStatus.COMPLETED.getCode());
+        ArgumentCaptor<ImageEntity> image = ArgumentCaptor.forClass(ImageEntity.class);
+        verify(imageRepository).insert(image.capture());
+        assertEquals(sha256(content), image.getValue().getFileHash());
+        assertEquals(STORAGE_PATH, image.getValue().getStoragePath());
+        assertEquals(content.length, image.getValue().getFileSize());
+        assertEquals(16, image.getValue().getWidth());
+    }
+
+    private static String chunkPath(int chunkNumber) {
+        return String.format("%s%04d", ImageAppService.chunkPrefix(UPLOAD_ID), chunkNumber);
+    }
+
+    /**
+     * 合法 PNG 头部 + 随机填充到指定长度
+     */
+    private static byte[] content(int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB), "png", out);
+        byte[] png = out.toByteArray();
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        System.arraycopy(png, 0, content, 0, png.length);
+        return content;
+    }
+
+    private static String sha256(byte[] data) {
+        MultiDigest digest = new MultiDigest();
+        digest.update(data, 0, data.length);
+        return digest.finish().sha256Hex();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
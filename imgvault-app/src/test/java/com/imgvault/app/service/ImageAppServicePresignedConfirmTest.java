@@ -0,0 +1,70 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.dto.PresignedUploadConfirmRequest;
+import com.imgvault.common.exception.BusinessException;
+import com.imgvault.domain.repository.AsyncTaskRepository;
+import com.imgvault.domain.repository.FileFingerprintRepository;
+import com.imgvault.domain.repository.ImageMetadataRepository;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.domain.repository.UploadTaskRepository;
+import com.imgvault.infrastructure.config.AdmissionConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.config.UploadConfig;
+import com.imgvault.infrastructure.persistence.SqliteWriteBatcher;
+import com.imgvault.infrastructure.storage.ImgproxyService;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ImageAppService 预签名上传确认单元测试
+ */
+@DisplayName("预签名上传确认测试")
+class ImageAppServicePresignedConfirmTest {
+
+    private static final String PATH = "originals/2026/10/17/empty.png";
+
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final ImageRepository imageRepository = mock(ImageRepository.class);
+
+    private ImageAppService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new ImageAppService(
+                imageRepository, mock(ImageMetadataRepository.class),
+                mock(FileFingerprintRepository.class), mock(UploadTaskRepository.class),
+                mock(AsyncTaskRepository.class), storageService, mock(ImgproxyService.class),
+                mock(SqliteWriteBatcher.class), new UploadMetrics(registry),
+                new UploadAdmissionService(new AdmissionConfig(), registry),
+                mock(ChunkDigestTracker.class), mock(OriginalObjectCache.class),
+                mock(StorageTieringService.class), new UploadConfig(), new StorageConfig(),
+                mock(PlatformTransactionManager.class), mock(CacheManager.class), Runnable::run);
+        service.init();
+    }
+
+    @Test
+    @DisplayName("空对象返回 400 并删除对象，不做区间读取")
+    void shouldRejectEmptyObject() {
+        when(storageService.getObjectSize(PATH)).thenReturn(0L);
+        PresignedUploadConfirmRequest request = new PresignedUploadConfirmRequest();
+        request.setStoragePath(PATH);
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> service.confirmPresignedUpload(request));
+
+        assertEquals(400, error.getCode());
+        verify(storageService).deleteFile(PATH);
+        verify(storageService, never()).getFileStream(anyString(), anyLong(), anyLong());
+        verifyNoInteractions(imageRepository);
+    }
+}
@@ -0,0 +1,218 @@
+package com.imgvault.app.service;
+
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.infrastructure.config.ObjectCacheConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * OriginalObjectCache 单元测试
+ * 覆盖按存储路径隔离、并发未命中单次填充、按容量淘汰，以及缓存文件丢失或填充失败时的回退
+ */
+@DisplayName("原图磁盘缓存测试")
+class OriginalObjectCacheTest {
+
+    /** 客户端声明的哈希，两张不同内容的图片声明相同的值 */
+    private static final String DECLARED_HASH = repeatHex('a');
+
+    @TempDir
+    Path tempDir;
+
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final ObjectCacheConfig config = new ObjectCacheConfig();
+    private final Map<String, byte[]> objects = new HashMap<>();
+
+    private SimpleMeterRegistry registry;
+    private OriginalObjectCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config.setDir(tempDir.toString());
+        when(storageService.getFileStreamAsync(anyString())).thenAnswer(inv ->
+                CompletableFuture.completedFuture(open(inv.getArgument(0))));
+        when(storageService.getFileStream(anyString())).thenAnswer(inv -> open(inv.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("按存储路径缓存: 声明相同哈希的不同图片各自读到自己的内容")
+    void isolatesImagesWithSameDeclaredHash() throws Exception {
+        init();
+        ImageEntity victim = image("originals/victim.png", "victim-bytes");
+        ImageEntity forged = image("originals/forged.png", "forged-bytes");
+
+        assertEquals("victim-bytes", read(victim));
+        assertEquals("forged-bytes", read(forged));
+        assertEquals("victim-bytes", read(victim));
+        assertEquals("forged-bytes", new String(cache.readAllBytesAsync(forged).get(5, TimeUnit.SECONDS),
+                StandardCharsets.UTF_8));
+        verify(storageService, times(1)).getFileStreamAsync("originals/victim.png");
+        verify(storageService, times(1)).getFileStreamAsync("originals/forged.png");
+    }
+
+    @Test
+    @DisplayName("同一对象的并发未命中只拉取一次，其余读者等待同一次填充")
+    void fillsConcurrentMissesOnce() throws Exception {
+        init();
+        ImageEntity image = image("originals/hot.png", "hot-bytes");
+        CompletableFuture<InputStream> download = new CompletableFuture<>();
+        when(storageService.getFileStreamAsync("originals/hot.png")).thenReturn(download);
+
+        CompletableFuture<byte[]> first = cache.readAllBytesAsync(image);
+        CompletableFuture<byte[]> second = cache.readAllBytesAsync(image);
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        download.complete(open("originals/hot.png"));
+
+        assertArrayEquals(objects.get("originals/hot.png"), first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(objects.get("originals/hot.png"), second.get(5, TimeUnit.SECONDS));
+        assertEquals("hot-bytes", read(image));
+        verify(storageService, times(1)).getFileStreamAsync("originals/hot.png");
+        verify(storageService, never()).getFileStream(anyString());
+    }
+
+    @Test
+    @DisplayName("超出总容量时淘汰并删除缓存文件，超过单对象上限的原图不缓存")
+    void evictsByWeight() throws Exception {
+        config.setMaxBytes(16);
+        config.setMaxObjectBytes(12);
+        init();
+        ImageEntity a = image("originals/a.png", "0123456789");
+        ImageEntity b = image("originals/b.png", "abcdefghij");
+        ImageEntity large = image("originals/large.png", "0123456789abcdef");
+
+        assertEquals("0123456789", read(a));
+        assertEquals("abcdefghij", read(b));
+        assertEquals("0123456789abcdef", read(large));
+
+        // 两个 10 字节对象超出 16 字节容量，只保留其一
+        assertEquals(1, cachedFiles().size());
+        assertTrue(registryBytes() <= config.getMaxBytes());
+        verify(storageService, never()).getFileStreamAsync("originals/large.png");
+        verify(storageService).getFileStream("originals/large.png");
+    }
+
+    @Test
+    @DisplayName("缓存文件被外部删除时失效并回退到存储，下次读取重新填充")
+    void invalidatesWhenCachedFileMissing() throws Exception {
+        init();
+        ImageEntity image = image("originals/a.png", "a-bytes");
+        assertEquals("a-bytes", read(image));
+        for (Path file : cachedFiles()) {
+            Files.delete(file);
+        }
+
+        assertEquals("a-bytes", read(image));
+        verify(storageService).getFileStream("originals/a.png");
+
+        assertEquals("a-bytes", read(image));
+        verify(storageService, times(2)).getFileStreamAsync("originals/a.png");
+        assertEquals(1, cachedFiles().size());
+    }
+
+    @Test
+    @DisplayName("填充失败时回退到存储，失败的条目不保留，下次读取重新填充")
+    void retriesAfterFailedFill() throws Exception {
+        init();
+        ImageEntity image = image("originals/a.png", "a-bytes");
+        CompletableFuture<InputStream> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("storage unavailable"));
+        when(storageService.getFileStreamAsync("originals/a.png"))
+                .thenReturn(failed)
+                .thenAnswer(inv -> CompletableFuture.completedFuture(open("originals/a.png")));
+
+        assertEquals("a-bytes", read(image));
+        verify(storageService).getFileStream("originals/a.png");
+        assertTrue(cachedFiles().isEmpty());
+
+        assertEquals("a-bytes", read(image));
+        verify(storageService, times(2)).getFileStreamAsync("originals/a.png");
+        assertEquals(1, cachedFiles().size());
+    }
+
+    @Test
+    @DisplayName("按存储路径失效，重启后从缓存目录恢复")
+    void invalidatesByPathAndRestores() throws Exception {
+        init();
+        ImageEntity a = image("originals/a.png", "a-bytes");
+        ImageEntity b = image("originals/b.png", "b-bytes");
+        read(a);
+        read(b);
+
+        cache.invalidate("originals/a.png");
+        assertEquals(1, cachedFiles().size());
+
+        // 模拟重启: 新实例从目录恢复 b，读取时不访问存储
+        init();
+        reset(storageService);
+        assertEquals("b-bytes", read(b));
+        verifyNoInteractions(storageService);
+    }
+
+    private void init() {
+        registry = new SimpleMeterRegistry();
+        cache = new OriginalObjectCache(storageService, config, new StorageConfig(), registry);
+        cache.init();
+    }
+
+    private double registryBytes() {
+        return registry.get("imgvault.object.cache.bytes").gauge().value();
+    }
+
+    private ImageEntity image(String storagePath, String content) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        objects.put(storagePath, data);
+        ImageEntity entity = new ImageEntity();
+        entity.setStoragePath(storagePath);
+        entity.setFileHash(DECLARED_HASH);
+        entity.setFileSize((long) data.length);
+        return entity;
+    }
+
+    private String read(ImageEntity image) throws IOException {
+        return new String(cache.readAllBytes(image), StandardCharsets.UTF_8);
+    }
+
+    private InputStream open(String storagePath) {
+        return new ByteArrayInputStream(objects.get(storagePath));
+    }
+
+    private List<Path> cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getParent().getFileName().toString().equals("tmp"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String repeatHex(char c) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,200 @@
+package com.imgvault.app.service;
+
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.domain.repository.FileFingerprintRepository;
+import com.imgvault.domain.repository.ImageRepository;
+import com.imgvault.infrastructure.config.TieringConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * StorageTieringService 单元测试
+ * 覆盖降冷、回迁、原对象延迟删除、迁移期间新增引用的补改，以及内容寻址对象不参与分层
+ */
+@DisplayName("冷热分层测试")
+class StorageTieringServiceTest {
+
+    private static final String HOT_PATH = "originals/2026/01/02/a.png";
+    private static final String COLD_PATH = "cold/" + HOT_PATH;
+
+    private final ImageRepository imageRepository = mock(ImageRepository.class);
+    private final FileFingerprintRepository fingerprintRepository = mock(FileFingerprintRepository.class);
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TieringConfig config = new TieringConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private StorageTieringService service;
+
+    @BeforeEach
+    void setUp() {
+        config.setEnabled(true);
+        // 默认不等待，需要验证延迟的用例单独设置
+        config.setSourceDeleteDelaySeconds(0);
+        service = new StorageTieringService(imageRepository, fingerprintRepository, storageService, config,
+                transactionManager, new ConcurrentMapCacheManager("imageCache"), registry);
+        service.init();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    @DisplayName("降冷: 复制到冷层 → 事务内改写记录与指纹 → 到期后删除原对象")
+    void shouldDemoteColdObject() {
+        when(imageRepository.findColdCandidates(anyString(), anyInt(), anyList(), isNull(), anyInt()))
+                .thenReturn(Collections.singletonList(candidate(HOT_PATH)));
+        when(imageRepository.findByStoragePath(HOT_PATH)).thenReturn(Collections.singletonList(image(HOT_PATH)));
+
+        assertEquals(1, service.demoteColdObjects());
+        verify(storageService, never()).deleteFile(anyString());
+        assertEquals(1.0, registry.get("imgvault.tiering.pending.deletes").gauge().value());
+
+        service.deleteExpiredSources();
+
+        InOrder inOrder = inOrder(storageService, imageRepository, fingerprintRepository, transactionManager);
+        inOrder.verify(storageService).copyObject(HOT_PATH, COLD_PATH, "image/png");
+        inOrder.verify(imageRepository).updateStoragePath(HOT_PATH, COLD_PATH);
+        inOrder.verify(fingerprintRepository).updateStoragePath(HOT_PATH, COLD_PATH);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(storageService).deleteFile(HOT_PATH);
+        assertEquals(0.0, registry.get("imgvault.tiering.pending.deletes").gauge().value());
+        assertEquals(1.0, registry.counter("imgvault.tiering.objects",
+                "direction", "demote", "result", "moved").count());
+    }
+
+    @Test
+    @DisplayName("降冷候选排除冷层与内容寻址（cas/）对象")
+    @SuppressWarnings("unchecked")
+    void shouldExcludeColdAndContentAddressedPaths() {
+        when(imageRepository.findColdCandidates(anyString(), anyInt(), anyList(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        service.demoteColdObjects();
+
+        ArgumentCaptor<List<String>> prefixes = ArgumentCaptor.forClass(List.class);
+        verify(imageRepository).findColdCandidates(anyString(), eq(config.getMaxViewCount()),
+                prefixes.capture(), isNull(), anyInt());
+        assertTrue(prefixes.getValue().containsAll(Arrays.asList("cold/", "cas/")));
+    }
+
+    @Test
+    @DisplayName("回迁: 读取冷对象登记后由后台迁回原路径")
+    void shouldPromoteOnRead() {
+        ImageEntity cold = image(COLD_PATH);
+        when(imageRepository.findByStoragePath(COLD_PATH)).thenReturn(Collections.singletonList(cold));
+        // 上次迁移中断时目标已存在，直接复用
+        when(storageService.objectExists(HOT_PATH)).thenReturn(true);
+
+        service.recordRead(cold);
+        service.recordRead(image(HOT_PATH));
+        service.promotePending();
+        service.deleteExpiredSources();
+
+        verify(storageService, never()).copyObject(anyString(), anyString(), anyString());
+        // 事务内改写一次，删除原对象前补改一次
+        verify(imageRepository, times(2)).updateStoragePath(COLD_PATH, HOT_PATH);
+        verify(fingerprintRepository).updateStoragePath(COLD_PATH, HOT_PATH);
+        verify(storageService).deleteFile(COLD_PATH);
+        verify(imageRepository, never()).findByStoragePath(HOT_PATH);
+
+        // 队列已清空，不重复迁移
+        service.promotePending();
+        service.deleteExpiredSources();
+        verify(storageService, times(1)).deleteFile(COLD_PATH);
+    }
+
+    @Test
+    @DisplayName("删除原对象前补改迁移期间新增的引用")
+    void shouldRewriteLateReferences() {
+        when(imageRepository.findByStoragePath(HOT_PATH)).thenReturn(Collections.singletonList(image(HOT_PATH)));
+        // 事务内改写 1 行；删除原对象前并发秒传又写入 2 行指向原路径
+        when(imageRepository.updateStoragePath(HOT_PATH, COLD_PATH)).thenReturn(1, 2);
+
+        assertTrue(service.relocate(HOT_PATH, COLD_PATH, "image/png", "demote"));
+        service.deleteExpiredSources();
+
+        InOrder inOrder = inOrder(storageService, imageRepository);
+        inOrder.verify(imageRepository, times(2)).updateStoragePath(HOT_PATH, COLD_PATH);
+        inOrder.verify(storageService).deleteFile(HOT_PATH);
+    }
+
+    @Test
+    @DisplayName("原对象在预签名 URL 有效期内保留，到期前不删除")
+    void shouldKeepSourceUntilPresignedUrlsExpire() {
+        config.setSourceDeleteDelaySeconds(3600);
+        ImageEntity cold = image(COLD_PATH);
+        when(imageRepository.findByStoragePath(COLD_PATH)).thenReturn(Collections.singletonList(cold));
+
+        // 回迁: 读取后登记，下一轮回迁即迁回原路径
+        service.recordRead(cold);
+        service.promotePending();
+        service.deleteExpiredSources();
+
+        verify(storageService).copyObject(COLD_PATH, HOT_PATH, "image/png");
+        verify(imageRepository).updateStoragePath(COLD_PATH, HOT_PATH);
+        verify(storageService, never()).deleteFile(anyString());
+        assertEquals(1.0, registry.get("imgvault.tiering.pending.deletes").gauge().value());
+    }
+
+    @Test
+    @DisplayName("降冷后很快又被回迁: 取消原路径的待删除，只删除冷层副本")
+    void shouldCancelPendingDeleteOfReusedTarget() {
+        when(imageRepository.findByStoragePath(HOT_PATH)).thenReturn(Collections.singletonList(image(HOT_PATH)));
+        when(imageRepository.findByStoragePath(COLD_PATH)).thenReturn(Collections.singletonList(image(COLD_PATH)));
+        assertTrue(service.relocate(HOT_PATH, COLD_PATH, "image/png", "demote"));
+
+        // 原路径对象尚未删除，回迁时直接复用
+        when(storageService.objectExists(HOT_PATH)).thenReturn(true);
+        assertTrue(service.relocate(COLD_PATH, HOT_PATH, "image/png", "promote"));
+        service.deleteExpiredSources();
+
+        verify(storageService).deleteFile(COLD_PATH);
+        verify(storageService, never()).deleteFile(HOT_PATH);
+        verify(imageRepository, times(1)).updateStoragePath(HOT_PATH, COLD_PATH);
+    }
+
+    @Test
+    @DisplayName("复制失败时不改写记录、不删除原对象")
+    void shouldKeepSourceWhenCopyFails() {
+        when(imageRepository.findByStoragePath(HOT_PATH)).thenReturn(Collections.singletonList(image(HOT_PATH)));
+        when(storageService.copyObject(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("copy failed"));
+
+        assertFalse(service.relocate(HOT_PATH, COLD_PATH, "image/png", "demote"));
+
+        verify(imageRepository, never()).updateStoragePath(anyString(), anyString());
+        verify(fingerprintRepository, never()).updateStoragePath(anyString(), anyString());
+        verify(storageService, never()).deleteFile(anyString());
+        assertEquals(1.0, registry.counter("imgvault.tiering.objects",
+                "direction", "demote", "result", "failed").count());
+    }
+
+    private static ImageEntity candidate(String storagePath) {
+        ImageEntity entity = new ImageEntity();
+        entity.setStoragePath(storagePath);
+        entity.setMimeType("image/png");
+        return entity;
+    }
+
+    private static ImageEntity image(String storagePath) {
+        ImageEntity entity = candidate(storagePath);
+        entity.setId(1L);
+        entity.setImageUuid("uuid-1");
+        return entity;
+    }
+}
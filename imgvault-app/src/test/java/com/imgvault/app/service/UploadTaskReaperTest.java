@@ -0,0 +1,123 @@
+package com.imgvault.app.service;
+
+import com.imgvault.common.enums.UploadTaskStatus;
+import com.imgvault.domain.entity.UploadTaskEntity;
+import com.imgvault.domain.repository.UploadTaskRepository;
+import com.imgvault.infrastructure.config.UploadReaperConfig;
+import com.imgvault.infrastructure.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UploadTaskReaper 单元测试
+ * 重点覆盖与并发合并/完成的竞争：必须先认领（CAS 到 expired）再删除数据
+ */
+@DisplayName("过期分片上传任务清理测试")
+class UploadTaskReaperTest {
+
+    private static final String UPLOAD_ID = "u-1";
+    private static final String CHUNK_PREFIX = ImageAppService.chunkPrefix(UPLOAD_ID);
+
+    private final UploadTaskRepository uploadTaskRepository = mock(UploadTaskRepository.class);
+    private final StorageBackend storageService = mock(StorageBackend.class);
+    private final ChunkDigestTracker chunkDigestTracker = mock(ChunkDigestTracker.class);
+    private final UploadReaperConfig config = new UploadReaperConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private UploadTaskReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        reaper = new UploadTaskReaper(uploadTaskRepository, storageService, chunkDigestTracker, config, registry);
+        when(storageService.listObjects(eq(CHUNK_PREFIX), eq(true), isNull(), anyInt()))
+                .thenReturn(Arrays.asList(CHUNK_PREFIX + "1", CHUNK_PREFIX + "2"));
+    }
+
+    @Test
+    @DisplayName("并发合并已改变任务状态时认领失败，不删除任何分片数据")
+    void shouldNotDeleteWhenClaimLost() {
+        UploadTaskEntity task = task(UploadTaskStatus.UPLOADING.getCode(), "mp-1");
+        expiredTasks(task);
+        // 合并请求抢先把状态改成 merging
+        when(uploadTaskRepository.compareAndSetStatus(UPLOAD_ID, UploadTaskStatus.UPLOADING.getCode(),
+                UploadTaskStatus.EXPIRED.getCode())).thenReturn(false);
+
+        assertEquals(0, reaper.reapExpiredTasks());
+
+        verify(storageService, never()).abortMultipartUpload(anyString(), anyString());
+        verify(storageService, never()).listObjects(anyString(), anyBoolean(), any(), anyInt());
+        verify(storageService, never()).deleteFiles(anyList());
+        verify(uploadTaskRepository, never()).deleteChunks(anyString());
+        verify(chunkDigestTracker, never()).discard(anyString());
+    }
+
+    @Test
+    @DisplayName("认领成功后才放弃直传并删除分片")
+    void shouldDeleteOnlyAfterClaim() {
+        UploadTaskEntity task = task(UploadTaskStatus.UPLOADING.getCode(), "mp-1");
+        expiredTasks(task);
+        when(uploadTaskRepository.compareAndSetStatus(anyString(), anyString(), anyString())).thenReturn(true);
+
+        assertEquals(1, reaper.reapExpiredTasks());
+
+        InOrder inOrder = inOrder(uploadTaskRepository, storageService);
+        inOrder.verify(uploadTaskRepository).compareAndSetStatus(UPLOAD_ID,
+                UploadTaskStatus.UPLOADING.getCode(), UploadTaskStatus.EXPIRED.getCode());
+        inOrder.verify(storageService).abortMultipartUpload("originals/a.png", "mp-1");
+        inOrder.verify(storageService).deleteFiles(Arrays.asList(CHUNK_PREFIX + "1", CHUNK_PREFIX + "2"));
+        inOrder.verify(uploadTaskRepository).deleteChunks(UPLOAD_ID);
+        verify(chunkDigestTracker).discard(UPLOAD_ID);
+        assertEquals(1.0, registry.counter("imgvault.upload.reaper.tasks", "from", "uploading").count());
+    }
+
+    @Test
+    @DisplayName("认领后删除失败时任务仍记为过期，分片记录保留给孤儿目录巡检")
+    void shouldKeepChunkRowsWhenDeleteFails() {
+        UploadTaskEntity task = task(UploadTaskStatus.FAILED.getCode(), null);
+        expiredTasks(task);
+        when(uploadTaskRepository.compareAndSetStatus(anyString(), anyString(), anyString())).thenReturn(true);
+        when(storageService.deleteFiles(anyList())).thenReturn(1);
+
+        assertEquals(1, reaper.reapExpiredTasks());
+
+        verify(storageService, never()).abortMultipartUpload(anyString(), anyString());
+        verify(uploadTaskRepository, never()).deleteChunks(anyString());
+    }
+
+    @Test
+    @DisplayName("合并中的任务按独立的合并超时查询，而不是上传过期时间")
+    void shouldQueryWithMergingTimeout() {
+        config.setMergingTimeoutMinutes(240);
+        config.setFailedRetentionMinutes(30);
+        when(uploadTaskRepository.findExpiredTasks(anyString(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, reaper.reapExpiredTasks());
+
+        verify(uploadTaskRepository).findExpiredTasks(anyString(), eq(240), eq(30), eq(config.getBatchSize()));
+    }
+
+    private void expiredTasks(UploadTaskEntity task) {
+        when(uploadTaskRepository.findExpiredTasks(anyString(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(Collections.singletonList(task));
+    }
+
+    private static UploadTaskEntity task(String status, String multipartUploadId) {
+        UploadTaskEntity task = new UploadTaskEntity();
+        task.setUploadId(UPLOAD_ID);
+        task.setStatus(status);
+        task.setStoragePath("originals/a.png");
+        task.setMultipartUploadId(multipartUploadId);
+        return task;
+    }
+}
@@ -14,9 +14,36 @@ public final class StorageConstants {
     /** 原图存储前缀 */
     public static final String ORIGINALS_PREFIX = "originals";
 
+    /** 内容寻址存储前缀，对象路径为 cas/{sha256 前 2 位}/{3-4 位}/{sha256}.{ext} */
+    public static final String CAS_PREFIX = "cas";
+
+    /**
+     * 冷层前缀，降冷对象路径为 {COLD_PREFIX}{原路径}；
+     * 可在 MinIO 上对该前缀配置 ILM 转储规则，将冷对象迁至低成本存储
+     */
+    public static final String COLD_PREFIX = "cold/";
+
+    /** 内容寻址对象的 Cache-Control：路径由内容决定，对象永不改变 */
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    /** 内容寻址对象预签名下载 URL 的最短有效期：7 天（SigV4 上限），配合 URL 复用让浏览器/CDN 缓存长期命中 */
+    public static final int IMMUTABLE_URL_EXPIRY_SECONDS = 7 * 24 * 3600;
+
+    /**
+     * 代理下载（/images/{id}/content）的 Cache-Control：同一 ID 的字节不会改变，
+     * 过期后凭强 ETag（file_hash）条件请求重新验证，删除后最迟 30 天失效
+     */
+    public static final String PROXY_CACHE_CONTROL = "public, max-age=2592000";
+
     /** 临时文件前缀 */
     public static final String TEMP_PREFIX = "temp";
 
+    /** 分片上传临时分片前缀，分片路径为 {CHUNKS_PREFIX}{uploadId}/{分片号} */
+    public static final String CHUNKS_PREFIX = TEMP_PREFIX + "/chunks/";
+
+    /** 批量删除单次请求的最大对象数（S3 DeleteObjects 上限） */
+    public static final int DELETE_OBJECTS_MAX_BATCH = 1000;
+
     /** 头像前缀 */
     public static final String AVATARS_PREFIX = "avatars";
 
@@ -28,4 +55,19 @@ public final class StorageConstants {
 
     /** 分片大小：5MB */
     public static final int CHUNK_SIZE = 5 * 1024 * 1024;
+
+    /** 服务端合并（composeObject）及分片直传时除最后一个外每个分片的最小大小：5MiB（S3 分片下限） */
+    public static final long COMPOSE_MIN_PART_SIZE = 5 * 1024 * 1024L;
+
+    /** 服务端合并（composeObject）及分片直传的最大分片数（S3 分片上限） */
+    public static final int COMPOSE_MAX_PARTS = 10000;
+
+    /** 分片直传单次返回的预签名分片 URL 最大数量 */
+    public static final int PRESIGNED_PART_URL_BATCH = 1000;
+
+    /** 流式上传时缓冲的文件头部大小：64KB（用于 Magic Bytes 嗅探和尺寸解析） */
+    public static final int UPLOAD_HEAD_BUFFER_SIZE = 64 * 1024;
+
+    /** EXIF 提取时区间读取的头部大小：1MB（JPEG/TIFF/WebP 的元数据段位于图像数据之前） */
+    public static final int EXIF_HEAD_BUFFER_SIZE = 1024 * 1024;
 }
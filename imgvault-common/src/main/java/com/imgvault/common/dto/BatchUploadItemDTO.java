@@ -0,0 +1,38 @@
+package com.imgvault.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量上传单文件结果
+ */
+@Data
+@Schema(description = "批量上传单文件结果")
+public class BatchUploadItemDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String STATUS_SUCCESS = "success";
+    public static final String STATUS_DUPLICATE = "duplicate";
+    public static final String STATUS_FAILED = "failed";
+
+    @Schema(description = "文件在请求中的序号（从0开始）")
+    private int index;
+
+    @Schema(description = "原始文件名")
+    private String originalName;
+
+    @Schema(description = "文件大小(字节)")
+    private Long fileSize;
+
+    @Schema(description = "处理状态: success/duplicate/failed")
+    private String status;
+
+    @Schema(description = "失败原因（仅 failed 时返回）")
+    private String errorMessage;
+
+    @Schema(description = "上传结果（failed 时为空）")
+    private ImageUploadDTO image;
+}
@@ -0,0 +1,29 @@
+package com.imgvault.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量上传结果
+ */
+@Data
+@Schema(description = "批量上传结果")
+public class BatchUploadResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "文件总数")
+    private int total;
+
+    @Schema(description = "成功数（含重复文件）")
+    private int succeeded;
+
+    @Schema(description = "失败数")
+    private int failed;
+
+    @Schema(description = "逐文件结果，顺序与请求一致")
+    private List<BatchUploadItemDTO> items;
+}
@@ -20,6 +20,9 @@ public class ChunkUploadDTO implements Serializable {
     @Schema(description = "当前分片编号")
     private int chunkNumber;
 
+    @Schema(description = "服务端计算的分片 SHA-256")
+    private String chunkSha256;
+
     @Schema(description = "是否全部上传完成")
     private boolean allUploaded;
 
@@ -5,6 +5,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分片上传初始化结果
@@ -26,4 +27,16 @@ public class ChunkUploadInitDTO implements Serializable {
 
     @Schema(description = "已上传的分片编号列表（断点续传用）")
     private List<Integer> uploadedChunks;
+
+    @Schema(description = "是否为分片直传任务")
+    private boolean direct;
+
+    @Schema(description = "预签名分片上传 URL（分片编号 → URL，仅分片直传；超过单批上限时通过 part-urls 接口分批获取）")
+    private Map<Integer, String> partUrls;
+
+    @Schema(description = "预签名分片 URL 有效期(秒)")
+    private Integer partUrlExpirySeconds;
+
+    @Schema(description = "已上传分片的 SHA-256（分片编号 → 摘要），客户端可据此校验服务端已存分片")
+    private Map<Integer, String> chunkHashes;
 }
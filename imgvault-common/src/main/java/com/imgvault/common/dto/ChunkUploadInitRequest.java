@@ -29,4 +29,7 @@ public class ChunkUploadInitRequest implements Serializable {
 
     @Schema(description = "分片大小(字节)，默认 5MB")
     private Integer chunkSize;
+
+    @Schema(description = "是否分片直传：返回预签名分片 URL，客户端直接并行上传到对象存储，完成后调用 complete 接口")
+    private Boolean direct;
 }
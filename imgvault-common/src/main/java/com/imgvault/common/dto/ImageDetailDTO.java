@@ -8,6 +8,7 @@ import java.util.Map;
 
 /**
  * 图片详情 DTO
+ * 列表接口请求稀疏字段集时改用 {@link SparseImageDetailDTO}
  */
 @Data
 @Schema(description = "图片详情")
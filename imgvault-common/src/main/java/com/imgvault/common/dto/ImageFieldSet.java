@@ -0,0 +1,138 @@
+package com.imgvault.common.dto;
+
+import com.imgvault.common.exception.BusinessException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图片列表的稀疏字段集（view= 预设或 fields= 显式列表）
+ * <p>
+ * 决定 {@link ImageDetailDTO} 中哪些列被填充、哪些 URL 族被生成；非 full 时以 {@link SparseImageDetailDTO}
+ * 输出，未包含的字段为 null，序列化时省略。
+ * URL 族可整体选择（thumbnails / variants），也可只选其中一项（thumbnails.small、variants.webp）。
+ * <ul>
+ *   <li>full（默认）: 全部字段，与图片详情一致</li>
+ *   <li>grid: 网格缩略图，仅 id / imageUuid / width / height / thumbnails.small</li>
+ *   <li>table: 管理后台表格，基本列 + thumbnails.medium，不生成下载 URL 和格式变体</li>
+ * </ul>
+ */
+public final class ImageFieldSet {
+
+    public static final String THUMBNAILS = "thumbnails";
+    public static final String VARIANTS = "variants";
+
+    /** 可选的普通列（id 总是包含） */
+    private static final Set<String> COLUMNS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+            "id", "imageUuid", "originalName", "fileSize", "width", "height", "format", "mimeType",
+            "colorSpace", "hasAlpha", "status", "accessLevel", "viewCount", "description",
+            "downloadUrl", "fileHash", "createdAt", "updatedAt")));
+
+    /** URL 族及其成员 */
+    private static final Map<String, List<String>> FAMILIES = new HashMap<>();
+
+    private static final Map<String, ImageFieldSet> VIEWS = new HashMap<>();
+
+    /** 全部字段 */
+    public static final ImageFieldSet FULL = new ImageFieldSet(null);
+
+    static {
+        FAMILIES.put(THUMBNAILS, Arrays.asList("small", "medium", "large"));
+        FAMILIES.put(VARIANTS, Arrays.asList("webp", "avif"));
+        VIEWS.put("full", FULL);
+        VIEWS.put("grid", parse("imageUuid,width,height,thumbnails.small"));
+        VIEWS.put("table", parse("imageUuid,originalName,fileSize,width,height,format,status,"
+                + "viewCount,createdAt,thumbnails.medium"));
+    }
+
+    /** 展开后的字段名（URL 族成员为 family.member），null 表示全部 */
+    private final Set<String> fields;
+
+    private ImageFieldSet(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 解析请求参数，fields 优先于 view，两者都为空时返回 {@link #FULL}
+     *
+     * @throws BusinessException 未知的 view 或字段名（400）
+     */
+    public static ImageFieldSet of(String view, String fields) {
+        if (StringUtils.isNotBlank(fields)) {
+            return parse(fields);
+        }
+        if (StringUtils.isBlank(view)) {
+            return FULL;
+        }
+        ImageFieldSet preset = VIEWS.get(view.trim().toLowerCase(Locale.ROOT));
+        if (preset == null) {
+            throw BusinessException.badRequest("不支持的 view: " + view + "，可选 " + VIEWS.keySet());
+        }
+        return preset;
+    }
+
+    private static ImageFieldSet parse(String fields) {
+        Set<String> expanded = new LinkedHashSet<>();
+        expanded.add("id");
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (COLUMNS.contains(field)) {
+                expanded.add(field);
+                continue;
+            }
+            List<String> members = FAMILIES.get(field);
+            if (members != null) {
+                for (String member : members) {
+                    expanded.add(field + "." + member);
+                }
+                continue;
+            }
+            int dot = field.indexOf('.');
+            members = dot > 0 ? FAMILIES.get(field.substring(0, dot)) : null;
+            if (members == null || !members.contains(field.substring(dot + 1))) {
+                throw BusinessException.badRequest("不支持的字段: " + field);
+            }
+            expanded.add(field);
+        }
+        return new ImageFieldSet(Collections.unmodifiableSet(expanded));
+    }
+
+    /**
+     * 是否为全部字段
+     */
+    public boolean isFull() {
+        return fields == null;
+    }
+
+    /**
+     * 是否包含普通列或 URL 族成员（如 width、thumbnails.small）
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * 是否包含 URL 族中的任一成员
+     */
+    public boolean includesAny(String family) {
+        if (fields == null) {
+            return true;
+        }
+        for (String member : FAMILIES.get(family)) {
+            if (fields.contains(family + "." + member)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
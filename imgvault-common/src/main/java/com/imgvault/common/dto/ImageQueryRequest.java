@@ -23,4 +23,11 @@ public class ImageQueryRequest extends PageQuery {
 
     @Schema(description = "访客ID（前端自动传递，无需手动设置）", hidden = true)
     private String visitorId;
+
+    @Schema(description = "字段预设: full（默认）/ grid（仅小缩略图）/ table（管理后台表格）", example = "grid")
+    private String view;
+
+    @Schema(description = "返回字段，逗号分隔，优先于 view；URL 族可写 thumbnails / variants 或 thumbnails.small 等",
+            example = "imageUuid,width,height,thumbnails.small")
+    private String fields;
 }
@@ -0,0 +1,14 @@
+package com.imgvault.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 稀疏字段集下的图片详情
+ * 只在请求了非 full 的 {@link ImageFieldSet} 时使用：未请求的字段为 null，序列化时省略；
+ * full 视图仍使用 {@link ImageDetailDTO}，输出与图片详情一致（含值为 null 的字段）
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SparseImageDetailDTO extends ImageDetailDTO {
+
+    private static final long serialVersionUID = 1L;
+}
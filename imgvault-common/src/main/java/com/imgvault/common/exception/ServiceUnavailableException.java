@@ -0,0 +1,18 @@
+package com.imgvault.common.exception;
+
+import lombok.Getter;
+
+/**
+ * 依赖服务不可用异常（HTTP 503）
+ * 下游（如对象存储）处于熔断状态，客户端应在 retryAfterSeconds 秒后重试
+ */
+@Getter
+public class ServiceUnavailableException extends BusinessException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(503, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.imgvault.common.exception;
+
+import lombok.Getter;
+
+/**
+ * 请求过多异常（HTTP 429）
+ * 服务端处理能力已满，客户端应在 retryAfterSeconds 秒后重试
+ */
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    private final int retryAfterSeconds;
+
+    public TooManyRequestsException(String message, int retryAfterSeconds) {
+        super(429, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,146 @@
+package com.imgvault.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * {@link #mightContain} 返回 false 表示"一定不存在"，返回 true 表示"可能存在"（需二次确认）
+ * <p>
+ * 元素经 xxHash64（long 键经 fmix64）得到 64 位哈希，高低 32 位做双重哈希（Kirsch-Mitzenmacher）派生 k 个位置；
+ * 位数组基于 {@link AtomicLongArray}，写入无锁，读写可并发
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1L, expectedInsertions);
+        double p = Math.min(Math.max(fpp, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.expectedInsertions = n;
+    }
+
+    /**
+     * 按预期元素数和误判率创建
+     *
+     * @param expectedInsertions 预期插入元素数
+     * @param fpp                期望误判率，如 0.01
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        return new BloomFilter(expectedInsertions, fpp);
+    }
+
+    public void put(String value) {
+        put(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void put(byte[] value) {
+        putHash(XxHash64.hash(value, 0, value.length));
+    }
+
+    /**
+     * 放入 64 位键（如已是均匀分布的摘要前缀，可省去一次字节哈希）
+     */
+    public void put(long key) {
+        putHash(mix64(key));
+    }
+
+    public boolean mightContain(String value) {
+        return mightContain(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean mightContain(byte[] value) {
+        return containsHash(XxHash64.hash(value, 0, value.length));
+    }
+
+    public boolean mightContain(long key) {
+        return containsHash(mix64(key));
+    }
+
+    private void putHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            setBit(index(h1 + i * h2));
+        }
+        insertions.incrementAndGet();
+    }
+
+    private boolean containsHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已插入次数（重复插入同一元素也计数）
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * 按当前插入数估算的误判率
+     */
+    public double expectedFpp() {
+        double fill = 1 - Math.exp(-(double) hashFunctions * insertions.get() / bitSize);
+        return Math.pow(fill, hashFunctions);
+    }
+
+    /**
+     * MurmurHash3 fmix64 终结函数，打散 64 位键
+     */
+    private static long mix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private long index(int combined) {
+        // 取非负后对位数组长度取模
+        return (combined & 0x7FFFFFFFL) % bitSize;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, old, old | mask));
+    }
+}
@@ -0,0 +1,98 @@
+package com.imgvault.common.util;
+
+/**
+ * 一次扫描得到的多重摘要结果
+ * 只保存原始摘要字节，十六进制字符串在首次访问时才生成并缓存
+ */
+public final class FileDigest {
+
+    private final byte[] sha256;
+    private final byte[] md5;
+    private final boolean hasXxHash64;
+    private final long xxHash64;
+    private final long length;
+
+    private String sha256Hex;
+    private String md5Hex;
+
+    FileDigest(byte[] sha256, byte[] md5, boolean hasXxHash64, long xxHash64, long length) {
+        this.sha256 = sha256;
+        this.md5 = md5;
+        this.hasXxHash64 = hasXxHash64;
+        this.xxHash64 = xxHash64;
+        this.length = length;
+    }
+
+    /**
+     * SHA-256 十六进制字符串（去重主键）
+     */
+    public String sha256Hex() {
+        String hex = sha256Hex;
+        if (hex == null) {
+            hex = FileHashUtil.toHex(sha256);
+            sha256Hex = hex;
+        }
+        return hex;
+    }
+
+    /**
+     * MD5 十六进制字符串（双重校验）
+     */
+    public String md5Hex() {
+        String hex = md5Hex;
+        if (hex == null) {
+            hex = FileHashUtil.toHex(md5);
+            md5Hex = hex;
+        }
+        return hex;
+    }
+
+    public byte[] sha256() {
+        return sha256.clone();
+    }
+
+    public byte[] md5() {
+        return md5.clone();
+    }
+
+    /**
+     * 是否计算了 xxHash64
+     */
+    public boolean hasXxHash64() {
+        return hasXxHash64;
+    }
+
+    /**
+     * xxHash64 值，未计算时抛出 IllegalStateException
+     */
+    public long xxHash64() {
+        if (!hasXxHash64) {
+            throw new IllegalStateException("xxHash64 was not computed");
+        }
+        return xxHash64;
+    }
+
+    /**
+     * xxHash64 的 16 位十六进制字符串，未计算时返回 null
+     */
+    public String xxHash64Hex() {
+        if (!hasXxHash64) {
+            return null;
+        }
+        String hex = Long.toHexString(xxHash64);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * 参与摘要计算的字节数
+     */
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "FileDigest{sha256=" + sha256Hex() + ", md5=" + md5Hex()
+                + (hasXxHash64 ? ", xxHash64=" + xxHash64Hex() : "") + ", length=" + length + "}";
+    }
+}
@@ -2,12 +2,14 @@ package com.imgvault.common.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
  * 文件哈希工具类
- * 支持 SHA-256 和 MD5 双重哈希
+ * 支持 SHA-256 和 MD5 双重哈希；需要多个摘要时使用 {@code digest(...)} 一次扫描同时计算，
+ * 摘要实例按线程复用
  */
 public final class FileHashUtil {
 
@@ -16,6 +18,65 @@ public final class FileHashUtil {
 
     private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
 
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> newDigest("SHA-256"));
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> newDigest("MD5"));
+    private static final ThreadLocal<MultiDigest> MULTI = ThreadLocal.withInitial(MultiDigest::new);
+
+    // ==================== 多重摘要（一次扫描） ====================
+
+    /**
+     * 一次扫描同时计算 SHA-256 和 MD5
+     */
+    public static FileDigest digest(byte[] data) {
+        return digest(data, false);
+    }
+
+    /**
+     * 一次扫描同时计算 SHA-256、MD5，可选 xxHash64
+     */
+    public static FileDigest digest(byte[] data, boolean withXxHash64) {
+        MultiDigest md = threadDigest(withXxHash64);
+        md.update(data, 0, data.length);
+        return md.finish();
+    }
+
+    /**
+     * 一次扫描同时计算 SHA-256、MD5，可选 xxHash64
+     * 消费 buffer 中 position 到 limit 的数据
+     */
+    public static FileDigest digest(ByteBuffer buffer, boolean withXxHash64) {
+        MultiDigest md = threadDigest(withXxHash64);
+        md.update(buffer);
+        return md.finish();
+    }
+
+    /**
+     * 一次扫描同时计算 SHA-256、MD5，可选 xxHash64
+     * 读取到流末尾，不负责关闭流
+     */
+    public static FileDigest digest(InputStream inputStream, boolean withXxHash64) throws IOException {
+        MultiDigest md = threadDigest(withXxHash64);
+        try {
+            byte[] buffer = md.scratch();
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                md.update(buffer, 0, bytesRead);
+            }
+            return md.finish();
+        } catch (IOException | RuntimeException e) {
+            md.reset(false);
+            throw e;
+        }
+    }
+
+    private static MultiDigest threadDigest(boolean withXxHash64) {
+        MultiDigest md = MULTI.get();
+        md.reset(withXxHash64);
+        return md;
+    }
+
+    // ==================== 单一摘要 ====================
+
     /**
      * 计算 SHA-256 哈希
      */
@@ -45,29 +106,41 @@ public final class FileHashUtil {
     }
 
     private static String hash(InputStream inputStream, String algorithm) throws IOException {
+        MessageDigest digest = threadDigest(algorithm);
         try {
-            MessageDigest digest = MessageDigest.getInstance(algorithm);
             byte[] buffer = new byte[8192];
             int bytesRead;
             while ((bytesRead = inputStream.read(buffer)) != -1) {
                 digest.update(buffer, 0, bytesRead);
             }
-            return bytesToHex(digest.digest());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Hash algorithm not found: " + algorithm, e);
+            return toHex(digest.digest());
+        } finally {
+            digest.reset();
         }
     }
 
     private static String hash(byte[] data, String algorithm) {
+        MessageDigest digest = threadDigest(algorithm);
+        digest.reset();
+        return toHex(digest.digest(data));
+    }
+
+    private static MessageDigest threadDigest(String algorithm) {
+        return "MD5".equals(algorithm) ? MD5.get() : SHA256.get();
+    }
+
+    static MessageDigest newDigest(String algorithm) {
         try {
-            MessageDigest digest = MessageDigest.getInstance(algorithm);
-            return bytesToHex(digest.digest(data));
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Hash algorithm not found: " + algorithm, e);
         }
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    /**
+     * 字节数组转小写十六进制字符串
+     */
+    public static String toHex(byte[] bytes) {
         char[] hexChars = new char[bytes.length * 2];
         for (int i = 0; i < bytes.length; i++) {
             int v = bytes[i] & 0xFF;
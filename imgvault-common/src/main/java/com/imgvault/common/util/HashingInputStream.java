@@ -0,0 +1,128 @@
+package com.imgvault.common.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 边读边算哈希的输入流
+ * 数据流经时通过 {@link MultiDigest} 同步更新 SHA-256 与 MD5，下游（如 MinIO）读取一遍即可同时得到双重哈希，
+ * 无需把整个文件缓冲到堆内存
+ */
+public class HashingInputStream extends FilterInputStream {
+
+    private final MultiDigest digest;
+    private FileDigest result;
+    private long digestNanos;
+
+    public HashingInputStream(InputStream in) {
+        this(in, false);
+    }
+
+    /**
+     * @param withXxHash64 是否同时计算 xxHash64
+     */
+    public HashingInputStream(InputStream in, boolean withXxHash64) {
+        this(in, new MultiDigest(withXxHash64));
+    }
+
+    /**
+     * 使用外部摘要器，流经的数据接续计入其已有状态（如跨分片续算整文件哈希）
+     * <p>
+     * {@link #getDigest()} 会结束该摘要器；只需旁路喂数据时不调用即可
+     */
+    public HashingInputStream(InputStream in, MultiDigest digest) {
+        super(in);
+        this.digest = digest;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            long start = System.nanoTime();
+            digest.update((byte) b);
+            digestNanos += System.nanoTime() - start;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            long start = System.nanoTime();
+            digest.update(b, off, n);
+            digestNanos += System.nanoTime() - start;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // 跳过的字节同样需要参与哈希，逐块读取
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 1))];
+        long remaining = n;
+        while (remaining > 0) {
+            int r = read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (r < 0) {
+                break;
+            }
+            remaining -= r;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // 不支持 mark/reset，否则重复读取的字节会被重复计入哈希
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * 已计入哈希的字节数（使用外部摘要器时包含其之前已计入的数据）
+     */
+    public long getBytesRead() {
+        return result != null ? result.getLength() : digest.getLength();
+    }
+
+    /**
+     * 累计用于摘要计算的时间（纳秒），用于把哈希耗时从下游写入耗时中区分出来
+     */
+    public long getDigestNanos() {
+        return digestNanos;
+    }
+
+    /**
+     * 摘要结果（应在流读取完毕后调用，首次调用后结果固定，之后读取的数据不再计入）
+     */
+    public FileDigest getDigest() {
+        if (result == null) {
+            result = digest.finish();
+        }
+        return result;
+    }
+
+    /**
+     * SHA-256 十六进制字符串（应在流读取完毕后调用）
+     */
+    public String sha256Hex() {
+        return getDigest().sha256Hex();
+    }
+
+    /**
+     * MD5 十六进制字符串（应在流读取完毕后调用）
+     */
+    public String md5Hex() {
+        return getDigest().md5Hex();
+    }
+}
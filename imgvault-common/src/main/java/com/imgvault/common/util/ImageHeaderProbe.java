@@ -0,0 +1,447 @@
+package com.imgvault.common.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.color.ColorSpace;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Iterator;
+
+/**
+ * 图片头部探测工具
+ * 仅解析文件头部字节（通常几 KB）获取宽高、透明通道和色彩类型，不分配像素缓冲区
+ * <p>
+ * 支持: PNG IHDR / JPEG SOFn / GIF 逻辑屏幕描述符 / WebP VP8、VP8L、VP8X / BMP 信息头。
+ * 无法解析的格式回退到 ImageIO {@link ImageReader#getWidth(int)}（只读元数据，同样不解码像素）。
+ * 头部缓冲不足以覆盖元数据时（如 XMP / ICC / MPF 段把 JPEG SOF 推到缓冲区之外）使用 {@link #probeStream(InputStream)} 流式探测
+ */
+public final class ImageHeaderProbe {
+
+    private ImageHeaderProbe() {
+    }
+
+    public static final String COLOR_RGB = "RGB";
+    public static final String COLOR_GRAY = "GRAY";
+    public static final String COLOR_CMYK = "CMYK";
+    public static final String COLOR_OTHER = "OTHER";
+
+    /**
+     * 探测图片头部信息
+     *
+     * @param header 文件头部字节（可以是完整文件）
+     * @return 图片信息，无法识别返回 null
+     */
+    public static ImageInfo probe(byte[] header) {
+        return probe(header, header != null ? header.length : 0);
+    }
+
+    /**
+     * 探测图片头部信息
+     *
+     * @param header 文件头部字节
+     * @param length 有效字节数
+     * @return 图片信息，无法识别返回 null
+     */
+    public static ImageInfo probe(byte[] header, int length) {
+        if (header == null || length < 4) {
+            return null;
+        }
+        int len = Math.min(length, header.length);
+        ImageInfo info = null;
+        try {
+            String mimeType = MagicBytesValidator.detectMimeType(header);
+            if ("image/png".equals(mimeType)) {
+                info = probePng(header, len);
+            } else if ("image/jpeg".equals(mimeType)) {
+                info = probeJpeg(header, len);
+            } else if ("image/gif".equals(mimeType)) {
+                info = probeGif(header, len);
+            } else if ("image/webp".equals(mimeType)) {
+                info = probeWebp(header, len);
+            } else if ("image/bmp".equals(mimeType)) {
+                info = probeBmp(header, len);
+            }
+        } catch (RuntimeException e) {
+            // 头部损坏或被截断，交给 ImageIO 兜底
+            info = null;
+        }
+        if (info != null && info.getWidth() > 0 && info.getHeight() > 0) {
+            return info;
+        }
+        return probeWithImageReader(header, len);
+    }
+
+    /**
+     * 从完整内容流式探测图片信息，只读到元数据所在位置为止，不缓冲整个文件
+     * <p>
+     * JPEG 按段长度逐段跳过直到 SOF；其他格式交给 ImageReader 读取元数据
+     *
+     * @param in 从文件起始位置开始的输入流（调用方负责关闭）
+     * @return 图片信息，无法识别返回 null
+     */
+    public static ImageInfo probeStream(InputStream in) {
+        try {
+            byte[] soi = new byte[2];
+            readFully(in, soi, 0, 2);
+            if ((soi[0] & 0xFF) == 0xFF && (soi[1] & 0xFF) == 0xD8) {
+                return probeJpegStream(in);
+            }
+            return probeWithImageReader(new SequenceInputStream(new ByteArrayInputStream(soi), in));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ==================== PNG ====================
+
+    private static ImageInfo probePng(byte[] b, int len) {
+        // 8 字节签名 + IHDR(length 4 + type 4 + width 4 + height 4 + bitDepth 1 + colorType 1)
+        if (len < 26 || !isType(b, 12, "IHDR")) {
+            return null;
+        }
+        int width = readIntBE(b, 16);
+        int height = readIntBE(b, 20);
+        int colorType = b[25] & 0xFF;
+        boolean alpha = colorType == 4 || colorType == 6 || hasPngTransparencyChunk(b, len);
+        String color = (colorType == 0 || colorType == 4) ? COLOR_GRAY : COLOR_RGB;
+        return new ImageInfo(width, height, alpha, color);
+    }
+
+    /**
+     * 在 IDAT 之前查找 tRNS 块（调色板/灰度图的透明信息）
+     */
+    private static boolean hasPngTransparencyChunk(byte[] b, int len) {
+        int pos = 8;
+        while (pos + 8 <= len) {
+            long chunkLength = readIntBE(b, pos) & 0xFFFFFFFFL;
+            if (isType(b, pos + 4, "tRNS")) {
+                return true;
+            }
+            if (isType(b, pos + 4, "IDAT") || isType(b, pos + 4, "IEND")) {
+                return false;
+            }
+            long next = pos + 12 + chunkLength;
+            if (next > len) {
+                return false;
+            }
+            pos = (int) next;
+        }
+        return false;
+    }
+
+    // ==================== JPEG ====================
+
+    private static ImageInfo probeJpeg(byte[] b, int len) {
+        int pos = 2;
+        while (pos + 4 <= len) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // 填充字节
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // 无长度的独立标记
+                pos += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // EOI / SOS: 之后是熵编码数据，不会再出现 SOF
+                return null;
+            }
+            int segmentLength = readShortBE(b, pos + 2);
+            if (isSofMarker(marker)) {
+                if (pos + 10 > len) {
+                    return null;
+                }
+                int height = readShortBE(b, pos + 5);
+                int width = readShortBE(b, pos + 7);
+                int components = b[pos + 9] & 0xFF;
+                String color = components == 1 ? COLOR_GRAY : components == 4 ? COLOR_CMYK : COLOR_RGB;
+                return new ImageInfo(width, height, false, color);
+            }
+            pos += 2 + segmentLength;
+        }
+        return null;
+    }
+
+    /**
+     * 流式版本的 {@link #probeJpeg}: 输入流位于 SOI 之后
+     */
+    private static ImageInfo probeJpegStream(InputStream in) throws IOException {
+        byte[] b = new byte[8];
+        int marker = nextMarker(in);
+        while (marker >= 0) {
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                marker = nextMarker(in);
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                return null;
+            }
+            readFully(in, b, 0, 2);
+            int segmentLength = readShortBE(b, 0);
+            if (segmentLength < 2) {
+                return null;
+            }
+            if (isSofMarker(marker)) {
+                // 精度 1 + 高 2 + 宽 2 + 分量数 1
+                readFully(in, b, 0, 6);
+                int components = b[5] & 0xFF;
+                String color = components == 1 ? COLOR_GRAY : components == 4 ? COLOR_CMYK : COLOR_RGB;
+                ImageInfo info = new ImageInfo(readShortBE(b, 3), readShortBE(b, 1), false, color);
+                return info.getWidth() > 0 && info.getHeight() > 0 ? info : null;
+            }
+            skipFully(in, segmentLength - 2);
+            marker = nextMarker(in);
+        }
+        return null;
+    }
+
+    /**
+     * 读取下一个标记（跳过 0xFF 填充字节），不是标记起始返回 -1
+     */
+    private static int nextMarker(InputStream in) throws IOException {
+        int c = in.read();
+        if (c != 0xFF) {
+            return -1;
+        }
+        while (c == 0xFF) {
+            c = in.read();
+        }
+        return c;
+    }
+
+    private static boolean isSofMarker(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF
+                && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    // ==================== GIF ====================
+
+    private static ImageInfo probeGif(byte[] b, int len) {
+        if (len < 13) {
+            return null;
+        }
+        int width = readShortLE(b, 6);
+        int height = readShortLE(b, 8);
+        int flags = b[10] & 0xFF;
+        int pos = 13;
+        if ((flags & 0x80) != 0) {
+            // 跳过全局颜色表
+            pos += 3 * (1 << ((flags & 0x07) + 1));
+        }
+        // 首帧图像描述符之前的图形控制扩展携带透明标志
+        boolean alpha = false;
+        while (pos + 1 < len) {
+            int introducer = b[pos] & 0xFF;
+            if (introducer != 0x21) {
+                break;
+            }
+            int label = b[pos + 1] & 0xFF;
+            if (label == 0xF9 && pos + 3 < len) {
+                alpha = (b[pos + 3] & 0x01) != 0;
+                break;
+            }
+            // 跳过其他扩展的数据子块
+            pos += 2;
+            while (pos < len && (b[pos] & 0xFF) != 0) {
+                pos += (b[pos] & 0xFF) + 1;
+            }
+            pos++;
+        }
+        return new ImageInfo(width, height, alpha, COLOR_RGB);
+    }
+
+    // ==================== WebP ====================
+
+    private static ImageInfo probeWebp(byte[] b, int len) {
+        if (len < 30) {
+            return null;
+        }
+        if (isType(b, 12, "VP8 ")) {
+            // 有损: 3 字节帧标记 + 起始码 9D 01 2A + 14 位宽高
+            if ((b[23] & 0xFF) != 0x9D || (b[24] & 0xFF) != 0x01 || (b[25] & 0xFF) != 0x2A) {
+                return null;
+            }
+            int width = readShortLE(b, 26) & 0x3FFF;
+            int height = readShortLE(b, 28) & 0x3FFF;
+            return new ImageInfo(width, height, false, COLOR_RGB);
+        }
+        if (isType(b, 12, "VP8L")) {
+            // 无损: 签名 0x2F + 14 位宽-1 + 14 位高-1 + 1 位 alpha
+            if ((b[20] & 0xFF) != 0x2F) {
+                return null;
+            }
+            int bits = readIntLE(b, 21);
+            int width = (bits & 0x3FFF) + 1;
+            int height = ((bits >>> 14) & 0x3FFF) + 1;
+            boolean alpha = ((bits >>> 28) & 0x01) != 0;
+            return new ImageInfo(width, height, alpha, COLOR_RGB);
+        }
+        if (isType(b, 12, "VP8X")) {
+            // 扩展格式: 标志位(alpha=0x10) + 24 位画布宽-1 / 高-1
+            boolean alpha = (b[20] & 0x10) != 0;
+            int width = readInt24LE(b, 24) + 1;
+            int height = readInt24LE(b, 27) + 1;
+            return new ImageInfo(width, height, alpha, COLOR_RGB);
+        }
+        return null;
+    }
+
+    // ==================== BMP ====================
+
+    private static ImageInfo probeBmp(byte[] b, int len) {
+        if (len < 26) {
+            return null;
+        }
+        int dibSize = readIntLE(b, 14);
+        if (dibSize == 12) {
+            // BITMAPCOREHEADER: 16 位宽高
+            int bitCount = readShortLE(b, 24);
+            return new ImageInfo(readShortLE(b, 18), readShortLE(b, 20), false,
+                    bitCount == 8 ? COLOR_OTHER : COLOR_RGB);
+        }
+        if (len < 30) {
+            return null;
+        }
+        int width = readIntLE(b, 18);
+        // 高度为负表示自顶向下存储
+        int height = Math.abs(readIntLE(b, 22));
+        int bitCount = readShortLE(b, 28);
+        boolean alpha = false;
+        if (bitCount == 32 && dibSize >= 56 && len >= 14 + 56) {
+            // BITMAPV3INFOHEADER 及以上携带 alpha 掩码
+            alpha = readIntLE(b, 14 + 52) != 0;
+        }
+        return new ImageInfo(width, height, alpha, COLOR_RGB);
+    }
+
+    // ==================== ImageIO 兜底 ====================
+
+    /**
+     * 通过 ImageReader 读取元数据获取尺寸，不调用 read() 解码像素
+     */
+    private static ImageInfo probeWithImageReader(byte[] header, int len) {
+        return probeWithImageReader(new ByteArrayInputStream(header, 0, len));
+    }
+
+    private static ImageInfo probeWithImageReader(InputStream in) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                ImageInfo info = new ImageInfo(reader.getWidth(0), reader.getHeight(0), false, COLOR_OTHER);
+                ImageTypeSpecifier imageType = reader.getRawImageType(0);
+                if (imageType != null) {
+                    info.setHasAlpha(imageType.getColorModel().hasAlpha());
+                    int csType = imageType.getColorModel().getColorSpace().getType();
+                    info.setColorSpace(csType == ColorSpace.TYPE_RGB ? COLOR_RGB
+                            : csType == ColorSpace.TYPE_GRAY ? COLOR_GRAY
+                            : csType == ColorSpace.TYPE_CMYK ? COLOR_CMYK : COLOR_OTHER);
+                }
+                return info;
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // ==================== 字节读取 ====================
+
+    private static void readFully(InputStream in, byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = in.read(b, off, len);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            off += n;
+            len -= n;
+        }
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                // skip 可能返回 0 而不代表流结束，读一个字节确认
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static boolean isType(byte[] b, int offset, String type) {
+        if (offset + 4 > b.length) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (b[offset + i] != (byte) type.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readIntBE(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+                | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    private static int readShortBE(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int readIntLE(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8)
+                | ((b[offset + 2] & 0xFF) << 16) | ((b[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int readInt24LE(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8) | ((b[offset + 2] & 0xFF) << 16);
+    }
+
+    private static int readShortLE(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8);
+    }
+
+    // ==================== DTO ====================
+
+    /**
+     * 图片头部信息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImageInfo {
+        private int width;
+        private int height;
+        private boolean hasAlpha;
+        /** 色彩类型: RGB / GRAY / CMYK / OTHER */
+        private String colorSpace;
+    }
+}
@@ -0,0 +1,128 @@
+package com.imgvault.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * 多重摘要计算器
+ * 每个数据块只遍历一次，同时更新 SHA-256、MD5 和可选的 xxHash64
+ * <p>
+ * 实例非线程安全；{@link #finish()} 后内部状态重置，可继续复用
+ */
+public final class MultiDigest {
+
+    private static final int SCRATCH_SIZE = 8192;
+
+    private final MessageDigest sha256 = FileHashUtil.newDigest("SHA-256");
+    private final MessageDigest md5 = FileHashUtil.newDigest("MD5");
+    private final XxHash64 xxHash64 = new XxHash64();
+    private boolean withXxHash64;
+    private long length;
+
+    /** 直接内存 ByteBuffer 的中转缓冲区，按需分配 */
+    private byte[] scratch;
+
+    public MultiDigest() {
+        this(false);
+    }
+
+    /**
+     * @param withXxHash64 是否同时计算 xxHash64
+     */
+    public MultiDigest(boolean withXxHash64) {
+        this.withXxHash64 = withXxHash64;
+    }
+
+    /**
+     * 重置状态并切换是否计算 xxHash64
+     */
+    void reset(boolean withXxHash64) {
+        sha256.reset();
+        md5.reset();
+        xxHash64.reset();
+        this.withXxHash64 = withXxHash64;
+        this.length = 0;
+    }
+
+    public void update(byte b) {
+        sha256.update(b);
+        md5.update(b);
+        if (withXxHash64) {
+            xxHash64.update(b);
+        }
+        length++;
+    }
+
+    public void update(byte[] b, int off, int len) {
+        if (len <= 0) {
+            return;
+        }
+        sha256.update(b, off, len);
+        md5.update(b, off, len);
+        if (withXxHash64) {
+            xxHash64.update(b, off, len);
+        }
+        length += len;
+    }
+
+    /**
+     * 消费 buffer 中 position 到 limit 的数据（完成后 position = limit）
+     */
+    public void update(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int len = buffer.remaining();
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+            buffer.position(buffer.limit());
+            return;
+        }
+        byte[] buf = scratch();
+        while (buffer.hasRemaining()) {
+            int n = Math.min(buf.length, buffer.remaining());
+            buffer.get(buf, 0, n);
+            update(buf, 0, n);
+        }
+    }
+
+    /**
+     * 读取输入流直到结束并计入摘要（不关闭流）
+     *
+     * @return 本次读取的字节数
+     */
+    public long update(InputStream inputStream) throws IOException {
+        byte[] buf = scratch();
+        long total = 0;
+        int n;
+        while ((n = inputStream.read(buf)) != -1) {
+            update(buf, 0, n);
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * 已计入摘要的字节数
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * 输出摘要结果并重置状态
+     */
+    public FileDigest finish() {
+        FileDigest result = new FileDigest(sha256.digest(), md5.digest(),
+                withXxHash64, withXxHash64 ? xxHash64.digest() : 0L, length);
+        xxHash64.reset();
+        length = 0;
+        return result;
+    }
+
+    byte[] scratch() {
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,153 @@
+package com.imgvault.common.util;
+
+/**
+ * xxHash64 非加密哈希（流式实现，seed 固定为 0）
+ * 速度远高于 SHA-256/MD5，适合作为缓存键等非安全场景，不可用于去重判定
+ * <p>
+ * 实例非线程安全，调用 {@link #digest()} 后可继续通过 {@link #reset()} 复用
+ */
+public final class XxHash64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long totalLength;
+
+    /** 不足一个 32 字节条带的待处理数据 */
+    private final byte[] pending = new byte[32];
+    private int pendingSize;
+
+    public XxHash64() {
+        reset();
+    }
+
+    /**
+     * 一次性计算 xxHash64
+     */
+    public static long hash(byte[] data, int offset, int length) {
+        XxHash64 xx = new XxHash64();
+        xx.update(data, offset, length);
+        return xx.digest();
+    }
+
+    public void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        totalLength = 0;
+        pendingSize = 0;
+    }
+
+    public void update(byte b) {
+        totalLength++;
+        pending[pendingSize++] = b;
+        if (pendingSize == 32) {
+            processStripe(pending, 0);
+            pendingSize = 0;
+        }
+    }
+
+    public void update(byte[] b, int off, int len) {
+        totalLength += len;
+        if (pendingSize + len < 32) {
+            System.arraycopy(b, off, pending, pendingSize, len);
+            pendingSize += len;
+            return;
+        }
+        int end = off + len;
+        if (pendingSize > 0) {
+            int fill = 32 - pendingSize;
+            System.arraycopy(b, off, pending, pendingSize, fill);
+            processStripe(pending, 0);
+            off += fill;
+            pendingSize = 0;
+        }
+        while (off + 32 <= end) {
+            processStripe(b, off);
+            off += 32;
+        }
+        if (off < end) {
+            pendingSize = end - off;
+            System.arraycopy(b, off, pending, 0, pendingSize);
+        }
+    }
+
+    /**
+     * 计算当前哈希值（不修改内部状态）
+     */
+    public long digest() {
+        long h;
+        if (totalLength >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = PRIME5;
+        }
+        h += totalLength;
+
+        int pos = 0;
+        while (pos + 8 <= pendingSize) {
+            h ^= round(0, readLongLE(pending, pos));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+            pos += 8;
+        }
+        if (pos + 4 <= pendingSize) {
+            h ^= (readIntLE(pending, pos) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            pos += 4;
+        }
+        while (pos < pendingSize) {
+            h ^= (pending[pos] & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            pos++;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private void processStripe(byte[] b, int off) {
+        v1 = round(v1, readLongLE(b, off));
+        v2 = round(v2, readLongLE(b, off + 8));
+        v3 = round(v3, readLongLE(b, off + 16));
+        v4 = round(v4, readLongLE(b, off + 24));
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME1 + PRIME4;
+    }
+
+    private static long readLongLE(byte[] b, int off) {
+        return (b[off] & 0xFFL) | ((b[off + 1] & 0xFFL) << 8) | ((b[off + 2] & 0xFFL) << 16)
+                | ((b[off + 3] & 0xFFL) << 24) | ((b[off + 4] & 0xFFL) << 32) | ((b[off + 5] & 0xFFL) << 40)
+                | ((b[off + 6] & 0xFFL) << 48) | ((b[off + 7] & 0xFFL) << 56);
+    }
+
+    private static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8)
+                | ((b[off + 2] & 0xFF) << 16) | ((b[off + 3] & 0xFF) << 24);
+    }
+}
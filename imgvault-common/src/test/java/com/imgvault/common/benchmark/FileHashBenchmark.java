@@ -0,0 +1,96 @@
+package com.imgvault.common.benchmark;
+
+import com.imgvault.common.util.FileDigest;
+import com.imgvault.common.util.FileHashUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件哈希基准测试：两遍 sha256()+md5() 对比一次扫描 digest()
+ * <p>
+ * 运行方式:
+ * <pre>
+ * mvn -pl imgvault-common test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=com.imgvault.common.benchmark.FileHashBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileHashBenchmark {
+
+    /** 典型图片大小: 64KB / 1MB / 8MB */
+    @Param({"65536", "1048576", "8388608"})
+    private int size;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(42).nextBytes(data);
+    }
+
+    @Benchmark
+    public void twoPassByteArray(Blackhole bh) {
+        bh.consume(FileHashUtil.sha256(data));
+        bh.consume(FileHashUtil.md5(data));
+    }
+
+    @Benchmark
+    public void fusedByteArray(Blackhole bh) {
+        FileDigest digest = FileHashUtil.digest(data);
+        bh.consume(digest.sha256Hex());
+        bh.consume(digest.md5Hex());
+    }
+
+    @Benchmark
+    public void fusedByteArrayWithXxHash(Blackhole bh) {
+        FileDigest digest = FileHashUtil.digest(data, true);
+        bh.consume(digest.sha256Hex());
+        bh.consume(digest.md5Hex());
+        bh.consume(digest.xxHash64());
+    }
+
+    @Benchmark
+    public void twoPassStream(Blackhole bh) throws IOException {
+        bh.consume(FileHashUtil.sha256(new ByteArrayInputStream(data)));
+        bh.consume(FileHashUtil.md5(new ByteArrayInputStream(data)));
+    }
+
+    @Benchmark
+    public void fusedStream(Blackhole bh) throws IOException {
+        FileDigest digest = FileHashUtil.digest(new ByteArrayInputStream(data), false);
+        bh.consume(digest.sha256Hex());
+        bh.consume(digest.md5Hex());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FileHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.imgvault.common.dto;
+
+import com.imgvault.common.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImageFieldSet 稀疏字段集单元测试
+ */
+@DisplayName("图片列表字段集测试")
+class ImageFieldSetTest {
+
+    @Test
+    @DisplayName("未指定 view 和 fields 时返回全部字段")
+    void defaultsToFull() {
+        ImageFieldSet fieldSet = ImageFieldSet.of(null, " ");
+
+        assertSame(ImageFieldSet.FULL, fieldSet);
+        assertTrue(fieldSet.isFull());
+        assertSame(ImageFieldSet.FULL, ImageFieldSet.of("full", null));
+        assertTrue(fieldSet.includes("downloadUrl"));
+        assertTrue(fieldSet.includes("variants.avif"));
+        assertTrue(fieldSet.includesAny(ImageFieldSet.THUMBNAILS));
+    }
+
+    @Test
+    @DisplayName("grid 视图只包含小缩略图")
+    void gridView() {
+        ImageFieldSet fieldSet = ImageFieldSet.of("GRID", null);
+
+        assertFalse(fieldSet.isFull());
+
+        assertTrue(fieldSet.includes("id"));
+        assertTrue(fieldSet.includes("width"));
+        assertTrue(fieldSet.includes("thumbnails.small"));
+        assertFalse(fieldSet.includes("thumbnails.medium"));
+        assertFalse(fieldSet.includes("downloadUrl"));
+        assertFalse(fieldSet.includes("originalName"));
+        assertFalse(fieldSet.includesAny(ImageFieldSet.VARIANTS));
+    }
+
+    @Test
+    @DisplayName("fields 优先于 view，URL 族整体展开")
+    void fieldsOverrideView() {
+        ImageFieldSet fieldSet = ImageFieldSet.of("grid", "originalName, variants");
+
+        assertTrue(fieldSet.includes("id"));
+        assertTrue(fieldSet.includes("originalName"));
+        assertTrue(fieldSet.includes("variants.webp"));
+        assertTrue(fieldSet.includes("variants.avif"));
+        assertFalse(fieldSet.includes("width"));
+        assertFalse(fieldSet.includesAny(ImageFieldSet.THUMBNAILS));
+    }
+
+    @Test
+    @DisplayName("未知的 view 或字段返回 400")
+    void rejectsUnknown() {
+        BusinessException badView = assertThrows(BusinessException.class, () -> ImageFieldSet.of("mosaic", null));
+        assertEquals(400, badView.getCode());
+        assertThrows(BusinessException.class, () -> ImageFieldSet.of(null, "storagePath"));
+        assertThrows(BusinessException.class, () -> ImageFieldSet.of(null, "thumbnails.huge"));
+    }
+}
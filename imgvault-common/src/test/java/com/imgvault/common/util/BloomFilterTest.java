@@ -0,0 +1,64 @@
+package com.imgvault.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BloomFilter 单元测试
+ * 验证无漏判以及误判率在配置范围内
+ */
+@DisplayName("BloomFilter 布隆过滤器")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("已插入的字符串一定返回可能存在")
+    void shouldNeverReturnFalseNegativeForStrings() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(FileHashUtil.sha256(("file-" + i).getBytes()));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(FileHashUtil.sha256(("file-" + i).getBytes())));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    @DisplayName("long 键误判率接近配置值")
+    void shouldKeepFalsePositiveRateNearConfigured() {
+        BloomFilter filter = BloomFilter.create(50_000, 0.01);
+        Random random = new Random(7);
+        long[] keys = new long[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            filter.put(keys[i]);
+        }
+        for (long key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "false positive rate too high: " + rate);
+        assertTrue(filter.expectedFpp() < 0.02);
+    }
+
+    @Test
+    @DisplayName("空过滤器对任意元素返回一定不存在")
+    void shouldReturnFalseWhenEmpty() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        assertFalse(filter.mightContain("abc"));
+        assertFalse(filter.mightContain(42L));
+        assertTrue(filter.getHashFunctions() >= 1);
+    }
+}
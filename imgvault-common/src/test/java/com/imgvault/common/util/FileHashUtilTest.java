@@ -0,0 +1,121 @@
+package com.imgvault.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FileHashUtil 单元测试
+ * 验证一次扫描的多重摘要与单一摘要结果一致，以及 xxHash64 标准向量
+ */
+@DisplayName("FileHashUtil 文件哈希")
+class FileHashUtilTest {
+
+    private static final byte[] FOX = "The quick brown fox jumps over the lazy dog"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    @Nested
+    @DisplayName("多重摘要")
+    class MultiDigestTests {
+
+        @Test
+        @DisplayName("byte[] 一次扫描结果与单独计算一致")
+        void shouldMatchSinglePassForByteArray() {
+            byte[] data = randomBytes(100_000);
+
+            FileDigest digest = FileHashUtil.digest(data);
+
+            assertEquals(FileHashUtil.sha256(data), digest.sha256Hex());
+            assertEquals(FileHashUtil.md5(data), digest.md5Hex());
+            assertEquals(data.length, digest.getLength());
+            assertFalse(digest.hasXxHash64());
+            assertNull(digest.xxHash64Hex());
+        }
+
+        @Test
+        @DisplayName("ByteBuffer（堆内/直接内存）与 InputStream 结果一致")
+        void shouldMatchAcrossInputTypes() throws IOException {
+            byte[] data = randomBytes(70_001);
+            FileDigest expected = FileHashUtil.digest(data, true);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data).flip();
+
+            FileDigest fromHeap = FileHashUtil.digest(ByteBuffer.wrap(data), true);
+            FileDigest fromDirect = FileHashUtil.digest(direct, true);
+            FileDigest fromStream = FileHashUtil.digest(new ByteArrayInputStream(data), true);
+
+            for (FileDigest d : new FileDigest[]{fromHeap, fromDirect, fromStream}) {
+                assertEquals(expected.sha256Hex(), d.sha256Hex());
+                assertEquals(expected.md5Hex(), d.md5Hex());
+                assertEquals(expected.xxHash64(), d.xxHash64());
+                assertEquals(data.length, d.getLength());
+            }
+            assertFalse(direct.hasRemaining());
+        }
+
+        @Test
+        @DisplayName("线程内复用摘要实例不会串扰")
+        void shouldResetBetweenCalls() {
+            FileDigest first = FileHashUtil.digest(FOX, true);
+            FileHashUtil.digest(randomBytes(1000), true);
+            FileDigest again = FileHashUtil.digest(FOX, true);
+
+            assertEquals(first.sha256Hex(), again.sha256Hex());
+            assertEquals(first.md5Hex(), again.md5Hex());
+            assertEquals(first.xxHash64(), again.xxHash64());
+        }
+    }
+
+    @Nested
+    @DisplayName("xxHash64")
+    class XxHash64Tests {
+
+        @Test
+        @DisplayName("标准测试向量")
+        void shouldMatchReferenceVectors() {
+            assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(new byte[0], 0, 0));
+            assertEquals(0x44BC2CF5AD770999L, XxHash64.hash("abc".getBytes(StandardCharsets.US_ASCII), 0, 3));
+            assertEquals(0x0B242D361FDA71BCL, XxHash64.hash(FOX, 0, FOX.length));
+            assertEquals("0b242d361fda71bc", FileHashUtil.digest(FOX, true).xxHash64Hex());
+        }
+
+        @Test
+        @DisplayName("任意分块流式更新与一次性计算一致")
+        void shouldMatchWhenUpdatedInChunks() {
+            byte[] data = randomBytes(1000);
+            long expected = XxHash64.hash(data, 0, data.length);
+
+            XxHash64 xx = new XxHash64();
+            int pos = 0;
+            int step = 1;
+            while (pos < data.length) {
+                int n = Math.min(step, data.length - pos);
+                xx.update(data, pos, n);
+                pos += n;
+                step = step % 37 + 3;
+            }
+            assertEquals(expected, xx.digest());
+
+            xx.reset();
+            for (byte b : data) {
+                xx.update(b);
+            }
+            assertEquals(expected, xx.digest());
+        }
+    }
+}
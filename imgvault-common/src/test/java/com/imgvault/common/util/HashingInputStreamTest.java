@@ -0,0 +1,82 @@
+package com.imgvault.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HashingInputStream 单元测试
+ * 验证流式读取时的双重哈希计算与 FileHashUtil 结果一致
+ */
+@DisplayName("HashingInputStream 流式哈希")
+class HashingInputStreamTest {
+
+    private static final byte[] DATA = "The quick brown fox jumps over the lazy dog"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("批量读取后哈希与一次性计算一致")
+    void shouldMatchFileHashUtilWhenReadInBlocks() throws IOException {
+        HashingInputStream in = new HashingInputStream(new ByteArrayInputStream(DATA));
+        byte[] buffer = new byte[7];
+        while (in.read(buffer, 0, buffer.length) != -1) {
+            // 仅消费数据
+        }
+
+        assertEquals(DATA.length, in.getBytesRead());
+        assertEquals(FileHashUtil.sha256(DATA), in.sha256Hex());
+        assertEquals(FileHashUtil.md5(DATA), in.md5Hex());
+    }
+
+    @Test
+    @DisplayName("单字节读取与 skip 的字节同样计入哈希")
+    void shouldHashSingleByteReadsAndSkippedBytes() throws IOException {
+        HashingInputStream in = new HashingInputStream(new ByteArrayInputStream(DATA));
+        assertEquals(DATA[0], (byte) in.read());
+        assertEquals(10, in.skip(10));
+        while (in.read() != -1) {
+            // 仅消费数据
+        }
+
+        assertEquals(DATA.length, in.getBytesRead());
+        assertEquals("d7a8fbb307d7809469ca9abcb0082e4f8d5651e46d3cdb762d02d0bf37c9e592", in.sha256Hex());
+    }
+
+    @Test
+    @DisplayName("外部摘要器跨多段数据续算，结果与整体计算一致")
+    void shouldResumeDigestAcrossSegments() throws IOException {
+        MultiDigest rolling = new MultiDigest();
+        int split = 17;
+
+        // 第一段: 内层旁路续算整体摘要，外层计算分段自身摘要
+        HashingInputStream segment = new HashingInputStream(new HashingInputStream(
+                new ByteArrayInputStream(DATA, 0, split), rolling));
+        while (segment.read() != -1) {
+            // 仅消费数据
+        }
+        assertEquals(FileHashUtil.sha256(Arrays.copyOf(DATA, split)), segment.sha256Hex());
+        assertEquals(split, rolling.getLength());
+
+        // 剩余部分直接计入
+        assertEquals(DATA.length - split, rolling.update(new ByteArrayInputStream(DATA, split, DATA.length - split)));
+        FileDigest digest = rolling.finish();
+
+        assertEquals(DATA.length, digest.getLength());
+        assertEquals(FileHashUtil.sha256(DATA), digest.sha256Hex());
+        assertEquals(FileHashUtil.md5(DATA), digest.md5Hex());
+    }
+
+    @Test
+    @DisplayName("不支持 mark/reset")
+    void shouldNotSupportMark() {
+        HashingInputStream in = new HashingInputStream(new ByteArrayInputStream(DATA));
+        assertFalse(in.markSupported());
+        assertThrows(IOException.class, in::reset);
+    }
+}
@@ -0,0 +1,254 @@
+package com.imgvault.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImageHeaderProbe 单元测试
+ * 验证各格式头部解析得到的宽高/透明通道
+ */
+@DisplayName("ImageHeaderProbe 图片头部探测")
+class ImageHeaderProbeTest {
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, format, out), "no writer for " + format);
+        return out.toByteArray();
+    }
+
+    @Nested
+    @DisplayName("PNG")
+    class PngTests {
+
+        @Test
+        @DisplayName("解析 IHDR 宽高和 RGBA 透明通道")
+        void shouldProbeRgbaPng() throws IOException {
+            byte[] png = encode(new BufferedImage(320, 240, BufferedImage.TYPE_INT_ARGB), "png");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(png);
+
+            assertNotNull(info);
+            assertEquals(320, info.getWidth());
+            assertEquals(240, info.getHeight());
+            assertTrue(info.isHasAlpha());
+            assertEquals(ImageHeaderProbe.COLOR_RGB, info.getColorSpace());
+        }
+
+        @Test
+        @DisplayName("灰度 PNG 无透明通道")
+        void shouldProbeGrayPng() throws IOException {
+            byte[] png = encode(new BufferedImage(17, 9, BufferedImage.TYPE_BYTE_GRAY), "png");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(png);
+
+            assertNotNull(info);
+            assertEquals(17, info.getWidth());
+            assertEquals(9, info.getHeight());
+            assertFalse(info.isHasAlpha());
+            assertEquals(ImageHeaderProbe.COLOR_GRAY, info.getColorSpace());
+        }
+
+        @Test
+        @DisplayName("只传入前 64 字节也能解析")
+        void shouldProbeTruncatedHeader() throws IOException {
+            byte[] png = encode(new BufferedImage(1000, 700, BufferedImage.TYPE_INT_RGB), "png");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(Arrays.copyOf(png, 64));
+
+            assertNotNull(info);
+            assertEquals(1000, info.getWidth());
+            assertEquals(700, info.getHeight());
+            assertFalse(info.isHasAlpha());
+        }
+    }
+
+    @Nested
+    @DisplayName("JPEG / GIF / BMP")
+    class OtherFormatTests {
+
+        @Test
+        @DisplayName("解析 JPEG SOF 段")
+        void shouldProbeJpeg() throws IOException {
+            byte[] jpeg = encode(new BufferedImage(641, 479, BufferedImage.TYPE_INT_RGB), "jpeg");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(jpeg, 2048);
+
+            assertNotNull(info);
+            assertEquals(641, info.getWidth());
+            assertEquals(479, info.getHeight());
+            assertFalse(info.isHasAlpha());
+            assertEquals(ImageHeaderProbe.COLOR_RGB, info.getColorSpace());
+        }
+
+        @Test
+        @DisplayName("解析 GIF 逻辑屏幕描述符")
+        void shouldProbeGif() throws IOException {
+            byte[] gif = encode(new BufferedImage(33, 44, BufferedImage.TYPE_BYTE_INDEXED), "gif");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(gif);
+
+            assertNotNull(info);
+            assertEquals(33, info.getWidth());
+            assertEquals(44, info.getHeight());
+        }
+
+        @Test
+        @DisplayName("解析 BMP 信息头")
+        void shouldProbeBmp() throws IOException {
+            byte[] bmp = encode(new BufferedImage(55, 66, BufferedImage.TYPE_INT_RGB), "bmp");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(bmp);
+
+            assertNotNull(info);
+            assertEquals(55, info.getWidth());
+            assertEquals(66, info.getHeight());
+            assertFalse(info.isHasAlpha());
+        }
+    }
+
+    @Nested
+    @DisplayName("WebP")
+    class WebpTests {
+
+        private byte[] riff(String chunkType, byte[] payload) {
+            byte[] data = new byte[20 + payload.length];
+            System.arraycopy("RIFF".getBytes(), 0, data, 0, 4);
+            System.arraycopy("WEBP".getBytes(), 0, data, 8, 4);
+            System.arraycopy(chunkType.getBytes(), 0, data, 12, 4);
+            data[16] = (byte) payload.length;
+            System.arraycopy(payload, 0, data, 20, payload.length);
+            return data;
+        }
+
+        @Test
+        @DisplayName("解析有损 VP8 帧头")
+        void shouldProbeVp8() {
+            byte[] payload = new byte[10];
+            payload[3] = (byte) 0x9D;
+            payload[4] = 0x01;
+            payload[5] = 0x2A;
+            payload[6] = (byte) (800 & 0xFF);
+            payload[7] = (byte) (800 >> 8);
+            payload[8] = (byte) (600 & 0xFF);
+            payload[9] = (byte) (600 >> 8);
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(riff("VP8 ", payload));
+
+            assertNotNull(info);
+            assertEquals(800, info.getWidth());
+            assertEquals(600, info.getHeight());
+            assertFalse(info.isHasAlpha());
+        }
+
+        @Test
+        @DisplayName("解析无损 VP8L 头部和 alpha 位")
+        void shouldProbeVp8l() {
+            int bits = (1024 - 1) | ((768 - 1) << 14) | (1 << 28);
+            byte[] payload = new byte[10];
+            payload[0] = 0x2F;
+            payload[1] = (byte) bits;
+            payload[2] = (byte) (bits >> 8);
+            payload[3] = (byte) (bits >> 16);
+            payload[4] = (byte) (bits >> 24);
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(riff("VP8L", payload));
+
+            assertNotNull(info);
+            assertEquals(1024, info.getWidth());
+            assertEquals(768, info.getHeight());
+            assertTrue(info.isHasAlpha());
+        }
+
+        @Test
+        @DisplayName("解析扩展 VP8X 画布尺寸")
+        void shouldProbeVp8x() {
+            byte[] payload = new byte[10];
+            payload[0] = 0x10;
+            payload[4] = (byte) ((5000 - 1) & 0xFF);
+            payload[5] = (byte) ((5000 - 1) >> 8);
+            payload[7] = (byte) ((3000 - 1) & 0xFF);
+            payload[8] = (byte) ((3000 - 1) >> 8);
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probe(riff("VP8X", payload));
+
+            assertNotNull(info);
+            assertEquals(5000, info.getWidth());
+            assertEquals(3000, info.getHeight());
+            assertTrue(info.isHasAlpha());
+        }
+    }
+
+    @Nested
+    @DisplayName("流式探测")
+    class StreamTests {
+
+        /**
+         * 在 SOI 之后插入若干个最大长度的 APP1 段，把 SOF 推到 64KB 之后
+         */
+        private byte[] jpegWithLargeApp1(int segments) throws IOException {
+            byte[] jpeg = encode(new BufferedImage(1201, 801, BufferedImage.TYPE_INT_RGB), "jpeg");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(jpeg, 0, 2);
+            for (int i = 0; i < segments; i++) {
+                out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) 0xFF, (byte) 0xFF});
+                out.write(new byte[0xFFFF - 2]);
+            }
+            out.write(jpeg, 2, jpeg.length - 2);
+            return out.toByteArray();
+        }
+
+        @Test
+        @DisplayName("SOF 位于 64KB 之后的 JPEG: 头部探测失败，流式探测按段跳过得到尺寸")
+        void shouldSkipLargeJpegSegments() throws IOException {
+            byte[] jpeg = jpegWithLargeApp1(2);
+
+            assertNull(ImageHeaderProbe.probe(Arrays.copyOf(jpeg, 64 * 1024)));
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probeStream(new ByteArrayInputStream(jpeg));
+
+            assertNotNull(info);
+            assertEquals(1201, info.getWidth());
+            assertEquals(801, info.getHeight());
+            assertEquals(ImageHeaderProbe.COLOR_RGB, info.getColorSpace());
+        }
+
+        @Test
+        @DisplayName("非 JPEG 格式交给 ImageReader 流式读取")
+        void shouldProbeOtherFormatsFromStream() throws IOException {
+            byte[] png = encode(new BufferedImage(70, 30, BufferedImage.TYPE_INT_ARGB), "png");
+
+            ImageHeaderProbe.ImageInfo info = ImageHeaderProbe.probeStream(new ByteArrayInputStream(png));
+
+            assertNotNull(info);
+            assertEquals(70, info.getWidth());
+            assertEquals(30, info.getHeight());
+            assertTrue(info.isHasAlpha());
+        }
+
+        @Test
+        @DisplayName("截断或非图片的流返回 null")
+        void shouldReturnNullForTruncatedStream() throws IOException {
+            byte[] jpeg = jpegWithLargeApp1(1);
+
+            assertNull(ImageHeaderProbe.probeStream(new ByteArrayInputStream(Arrays.copyOf(jpeg, 40000))));
+            assertNull(ImageHeaderProbe.probeStream(new ByteArrayInputStream(new byte[]{0x4D, 0x5A})));
+        }
+    }
+
+    @Test
+    @DisplayName("非图片或过短数据返回 null")
+    void shouldReturnNullForUnknownData() {
+        assertNull(ImageHeaderProbe.probe(null));
+        assertNull(ImageHeaderProbe.probe(new byte[]{1, 2}));
+        assertNull(ImageHeaderProbe.probe(new byte[]{0x4D, 0x5A, 0x00, 0x00, 0x00, 0x00}));
+    }
+}
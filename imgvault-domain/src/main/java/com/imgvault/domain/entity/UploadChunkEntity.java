@@ -0,0 +1,17 @@
+package com.imgvault.domain.entity;
+
+import lombok.Data;
+
+/**
+ * 分片记录实体（分片到达时计算的大小与摘要）
+ */
+@Data
+public class UploadChunkEntity {
+
+    private String uploadId;
+    private Integer chunkNumber;
+    private Long chunkSize;
+    private String chunkSha256;
+    private String chunkMd5;
+    private String createdAt;
+}
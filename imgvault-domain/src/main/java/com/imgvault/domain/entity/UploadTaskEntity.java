@@ -16,9 +16,11 @@ public class UploadTaskEntity {
     private Integer chunkSize;
     private Integer totalChunks;
     private Integer uploadedChunks;
-    /** 逗号分隔的已上传分片编号 */
+    /** 逗号分隔的已上传分片编号（仅升级前创建的任务，新任务分片状态见 img_upload_chunk） */
     private String uploadedParts;
     private String storagePath;
+    /** 分片直传时存储端的 Multipart uploadId，经服务端中转的分片上传为空 */
+    private String multipartUploadId;
     private String status;
     private String createdAt;
     private String updatedAt;
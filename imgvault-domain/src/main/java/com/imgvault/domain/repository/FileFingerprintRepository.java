@@ -2,6 +2,8 @@ package com.imgvault.domain.repository;
 
 import com.imgvault.domain.entity.FileFingerprintEntity;
 
+import java.util.List;
+
 /**
  * 文件指纹仓库接口
  */
@@ -31,4 +33,25 @@ public interface FileFingerprintRepository {
      * 减少引用计数
      */
     int decrementRefCount(Long id);
+
+    /**
+     * 按待删除的图片批量减少引用计数（须在删除图片记录之前调用）
+     *
+     * @return 受影响的指纹数
+     */
+    int decrementRefCountByImageIds(List<Long> imageIds);
+
+    /**
+     * 删除指向给定存储路径的指纹（对象删除前调用，避免秒传命中已删除的文件）
+     *
+     * @return 删除的指纹数
+     */
+    int deleteByStoragePaths(List<String> storagePaths);
+
+    /**
+     * 将指向 sourcePath 的指纹改指向 targetPath（对象迁移后调用）
+     *
+     * @return 更新的指纹数
+     */
+    int updateStoragePath(String sourcePath, String targetPath);
 }
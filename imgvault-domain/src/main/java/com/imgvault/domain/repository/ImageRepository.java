@@ -29,6 +29,38 @@ public interface ImageRepository {
      */
     ImageEntity findByHash(String fileHash);
 
+    /**
+     * 根据 ID 批量查询（不存在的 ID 忽略，结果顺序不保证）
+     */
+    List<ImageEntity> findByIds(List<Long> ids);
+
+    /**
+     * 返回给定存储路径中仍被图片记录引用的路径
+     */
+    List<String> findReferencedPaths(List<String> storagePaths);
+
+    /**
+     * 查询引用给定存储路径的图片记录（含已软删除）
+     */
+    List<ImageEntity> findByStoragePath(String storagePath);
+
+    /**
+     * 查询可降冷的存储对象（每个路径返回一条，仅填充 storagePath / mimeType）:
+     * 引用该路径的记录均创建于 cutoff 之前且此后未被访问或修改，浏览次数合计低于 maxViewCount
+     *
+     * @param excludePrefixes 排除的路径前缀（如已在冷层的对象、内容寻址对象）
+     * @param afterPath       按 storage_path 升序分页的游标，null 时从头开始
+     */
+    List<ImageEntity> findColdCandidates(String cutoff, int maxViewCount, List<String> excludePrefixes,
+                                         String afterPath, int limit);
+
+    /**
+     * 将引用 sourcePath 的记录改指向 targetPath（以原路径为条件，并发修改过的记录不受影响）
+     *
+     * @return 更新的记录数
+     */
+    int updateStoragePath(String sourcePath, String targetPath);
+
     /**
      * 分页查询图片列表
      *
@@ -64,6 +96,21 @@ public interface ImageRepository {
      */
     int deleteById(Long id);
 
+    /**
+     * 批量软删除（已删除的记录跳过）
+     *
+     * @return 实际软删除的记录数
+     */
+    int softDeleteByIds(List<Long> ids);
+
+    /**
+     * 批量物理删除，同时删除引用这些图片的元数据、标签/相册关联和异步任务记录。
+     * 调用方负责开启事务
+     *
+     * @return 删除的图片记录数
+     */
+    int deleteByIds(List<Long> ids);
+
     /**
      * 更新图片描述
      */
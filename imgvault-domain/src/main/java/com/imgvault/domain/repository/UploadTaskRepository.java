@@ -1,5 +1,6 @@
 package com.imgvault.domain.repository;
 
+import com.imgvault.domain.entity.UploadChunkEntity;
 import com.imgvault.domain.entity.UploadTaskEntity;
 
 import java.util.List;
@@ -17,7 +18,45 @@ public interface UploadTaskRepository {
 
     void updateStatus(String uploadId, String status);
 
-    List<UploadTaskEntity> findExpiredTasks(String expireTime);
+    /**
+     * 仅当当前状态为 expect 时更新为 update
+     *
+     * @return 是否更新成功
+     */
+    boolean compareAndSetStatus(String uploadId, String expect, String update);
+
+    /**
+     * 查询待清理的任务：已过期仍在上传的任务、合并超时的任务，以及失败超过保留时长的任务
+     *
+     * @param expireTime             过期判定时间（yyyy-MM-dd HH:mm:ss）
+     * @param mergingTimeoutMinutes  合并中任务的超时（分钟）
+     * @param failedRetentionMinutes 失败任务保留时长（分钟）
+     */
+    List<UploadTaskEntity> findExpiredTasks(String expireTime, int mergingTimeoutMinutes,
+                                            int failedRetentionMinutes, int limit);
 
     void deleteByUploadId(String uploadId);
+
+    /**
+     * 插入分片记录，已存在时不做修改
+     *
+     * @return 是否为首次插入
+     */
+    boolean insertChunkIfAbsent(UploadChunkEntity chunk);
+
+    UploadChunkEntity findChunk(String uploadId, int chunkNumber);
+
+    /**
+     * 原子地将已上传分片数加一
+     *
+     * @return 自增后的已上传分片数，任务不存在时返回 null
+     */
+    Integer incrementUploadedChunks(String uploadId);
+
+    /**
+     * 按分片编号升序返回任务的分片记录
+     */
+    List<UploadChunkEntity> findChunks(String uploadId);
+
+    void deleteChunks(String uploadId);
 }
@@ -0,0 +1,33 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 准入控制配置属性
+ * 限制同时处理中的上传字节数和并发解码数，超出时短暂排队，排队超时返回 429
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.admission")
+public class AdmissionConfig {
+
+    /** 是否启用准入控制 */
+    private boolean enabled = true;
+
+    /** 同时处理中的上传总字节数上限，默认 256MB */
+    private long maxInFlightBytes = 256 * 1024 * 1024L;
+
+    /** 并发解码（合成/去水印）上限，0 表示 CPU 核数 */
+    private int maxConcurrentDecodes = 0;
+
+    /** 排队等待的最长时间（毫秒） */
+    private long maxWaitMillis = 200;
+
+    /** 排队请求数上限，超过后直接拒绝 */
+    private int maxQueueDepth = 32;
+
+    /** 拒绝时 Retry-After 响应头的秒数 */
+    private int retryAfterSeconds = 1;
+}
@@ -10,6 +10,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 异步任务配置
@@ -38,6 +39,22 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * 批量上传执行器
+     * 有界线程池，并发度由 imgvault.upload.batch-parallelism 配置；队列满时由调用线程执行，形成背压
+     */
+    @Bean("batchUploadExecutor")
+    public Executor batchUploadExecutor(UploadConfig uploadConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadConfig.getBatchParallelism());
+        executor.setMaxPoolSize(uploadConfig.getBatchParallelism());
+        executor.setQueueCapacity(uploadConfig.getBatchQueueCapacity());
+        executor.setThreadNamePrefix("imgvault-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return (Throwable throwable, Method method, Object... params) ->
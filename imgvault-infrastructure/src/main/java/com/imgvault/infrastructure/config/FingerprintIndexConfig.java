@@ -0,0 +1,26 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 内存指纹索引配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.fingerprint-index")
+public class FingerprintIndexConfig {
+
+    /** 是否启用内存指纹索引，关闭后 findByHash 直接查库 */
+    private boolean enabled = true;
+
+    /** 布隆过滤器预期容量（实际取 max(配置值, 启动时指纹数 × 2)） */
+    private long expectedInsertions = 1_000_000;
+
+    /** 布隆过滤器期望误判率 */
+    private double fpp = 0.01;
+
+    /** 启动加载时每页读取的指纹数 */
+    private int loadBatchSize = 5000;
+}
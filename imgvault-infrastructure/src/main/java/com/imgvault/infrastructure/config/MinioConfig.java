@@ -1,6 +1,11 @@
 package com.imgvault.infrastructure.config;
 
+import com.imgvault.infrastructure.storage.MultipartMinioClient;
+import com.imgvault.infrastructure.storage.SigV4Presigner;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
+import okhttp3.OkHttpClient;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -28,12 +33,52 @@ public class MinioConfig {
      */
     private String externalUrl;
 
+    /**
+     * 连接 / 读 / 写超时（毫秒）
+     * 客户端默认 5 分钟，MinIO 假死时会长时间占用请求线程
+     */
+    private long connectTimeoutMillis = 5_000;
+    private long readTimeoutMillis = 60_000;
+    private long writeTimeoutMillis = 60_000;
+
+    /**
+     * 异步客户端对 MinIO 的最大并发请求数（OkHttp 默认每主机仅 5 个，超出排队）
+     */
+    private int asyncMaxRequests = 32;
+
     @Bean
     public MinioClient minioClient() {
-        return MinioClient.builder()
+        MinioClient client = MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
                 .region(region)
                 .build();
+        client.setTimeout(connectTimeoutMillis, writeTimeoutMillis, readTimeoutMillis);
+        return client;
+    }
+
+    /**
+     * 预签名下载 URL 签名器（按天缓存派生签名密钥）
+     */
+    @Bean
+    public SigV4Presigner sigV4Presigner() {
+        return new SigV4Presigner(endpoint, accessKey, secretKey, region);
+    }
+
+    /**
+     * 分片直传（预签名 Multipart Upload）及异步存储 API 使用的底层客户端
+     */
+    @Bean
+    public MultipartMinioClient multipartMinioClient() {
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(
+                connectTimeoutMillis, writeTimeoutMillis, readTimeoutMillis);
+        httpClient.dispatcher().setMaxRequests(Math.max(64, asyncMaxRequests));
+        httpClient.dispatcher().setMaxRequestsPerHost(asyncMaxRequests);
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .region(region)
+                .httpClient(httpClient)
+                .build());
     }
 }
@@ -0,0 +1,26 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 原图本地磁盘缓存配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.object-cache")
+public class ObjectCacheConfig {
+
+    /** 是否启用（存储后端为 local 时自动停用） */
+    private boolean enabled = true;
+
+    /** 缓存目录 */
+    private String dir = "data/cache/objects";
+
+    /** 缓存总容量（字节），超出后按 W-TinyLFU 淘汰 */
+    private long maxBytes = 1024L * 1024 * 1024;
+
+    /** 单个对象的最大缓存大小（字节），更大的对象直接读取存储 */
+    private long maxObjectBytes = 64L * 1024 * 1024;
+}
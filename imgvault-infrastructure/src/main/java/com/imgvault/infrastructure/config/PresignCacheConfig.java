@@ -0,0 +1,26 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 预签名下载 URL 缓存配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.presign-cache")
+public class PresignCacheConfig {
+
+    /** 是否启用，关闭后每次请求重新签名 */
+    private boolean enabled = true;
+
+    /** 最多缓存的存储路径数 */
+    private long maxEntries = 100_000;
+
+    /**
+     * 复用比例：URL 在有效期的前该比例内复用，之后重新签名。
+     * 例如 0.75 时 3600 秒的 URL 复用 45 分钟，返回给客户端的 URL 至少还有 15 分钟有效期
+     */
+    private double reuseRatio = 0.75;
+}
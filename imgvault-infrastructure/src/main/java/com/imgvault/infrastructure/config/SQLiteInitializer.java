@@ -53,8 +53,9 @@ public class SQLiteInitializer implements CommandLineRunner {
                                 stmt.execute(s);
                                 successCount++;
                             } catch (Exception e) {
-                                // 忽略已存在的表/索引/触发器错误
-                                if (!e.getMessage().contains("already exists")) {
+                                // 忽略已存在的表/索引/触发器/列错误
+                                if (!e.getMessage().contains("already exists")
+                                        && !e.getMessage().contains("duplicate column name")) {
                                     log.warn("SQL 执行警告: {}", e.getMessage());
                                 }
                             }
@@ -0,0 +1,84 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 存储后端配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.storage")
+public class StorageConfig {
+
+    /** 存储后端: minio（默认）/ local */
+    private String backend = "minio";
+
+    /**
+     * 原图存储布局:
+     * dated（默认）: originals/yyyy/MM/dd/{uuid}.ext；
+     * cas: cas/ab/cd/{sha256}.ext，相同内容只存一份，URL 可永久缓存
+     */
+    private String layout = "dated";
+
+    /**
+     * 下载方式: false（默认）302 重定向到预签名 URL；
+     * true 由服务端代理输出（客户端无法直连存储时使用），支持 Range 与条件请求
+     */
+    private boolean proxyDownload = false;
+
+    private Local local = new Local();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    public boolean isContentAddressed() {
+        return "cas".equalsIgnoreCase(layout);
+    }
+
+    /**
+     * 本地文件系统存储配置（backend = local 时生效）
+     */
+    @Data
+    public static class Local {
+
+        /** 对象根目录 */
+        private String rootDir = "data/objects";
+
+        /**
+         * 预签名 URL 的外部访问基础地址，为空时返回相对路径
+         * 例如: https://www.meczyc6.info/imgvault
+         */
+        private String publicUrl = "";
+
+        /** 预签名 URL 的 HMAC-SHA256 签名密钥 */
+        private String signingSecret = "imgvault-local-storage-secret";
+    }
+
+    /**
+     * 远程存储（MinIO）熔断配置
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        /** 失败率统计的滑动窗口大小（最近 N 次调用） */
+        private int windowSize = 20;
+
+        /** 窗口内至少多少次调用才计算失败率 */
+        private int minimumCalls = 10;
+
+        /** 失败率阈值（百分比），达到后熔断打开 */
+        private int failureRateThreshold = 50;
+
+        /** 打开后至少保持多久才开始后台探测 */
+        private long openDurationMillis = 10_000;
+
+        /** 打开/半开状态下的后台探测间隔 */
+        private long probeIntervalMillis = 5_000;
+
+        /** 半开状态放行的试探调用数，全部成功后关闭 */
+        private int halfOpenPermits = 3;
+    }
+}
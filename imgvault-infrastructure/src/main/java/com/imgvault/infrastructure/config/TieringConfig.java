@@ -0,0 +1,45 @@
+package com.imgvault.infrastructure.config;
+
+import com.imgvault.common.constant.StorageConstants;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 冷热分层配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.tiering")
+public class TieringConfig {
+
+    /** 是否启用冷热分层（默认关闭） */
+    private boolean enabled = false;
+
+    /** 两次降冷扫描之间的间隔（毫秒） */
+    private long intervalMillis = 3600000;
+
+    /** 创建且最近一次访问/修改均早于该天数的对象视为冷数据 */
+    private int coldAfterDays = 90;
+
+    /** 引用同一对象的图片浏览次数合计低于该值才降冷 */
+    private int maxViewCount = 10;
+
+    /** 每次查询的候选对象数 */
+    private int batchSize = 100;
+
+    /** 单轮最多降冷的对象数，超出部分留待下一轮 */
+    private int maxObjectsPerRun = 1000;
+
+    /** 冷对象被读取时是否回迁热层 */
+    private boolean promoteOnRead = true;
+
+    /** 回迁队列的处理间隔（毫秒） */
+    private long promoteIntervalMillis = 10000;
+
+    /** 待回迁对象数上限，超出时丢弃（下次读取再登记） */
+    private int maxPendingPromotions = 10000;
+
+    /** 迁移后原对象的延迟删除时间（秒），不应短于预签名下载 URL 有效期，期间已签发的原路径 URL 仍可访问 */
+    private long sourceDeleteDelaySeconds = StorageConstants.PRESIGNED_URL_EXPIRY_SECONDS;
+}
@@ -0,0 +1,26 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 上传相关配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.upload")
+public class UploadConfig {
+
+    /** 批量上传并发度（batchUploadExecutor 线程数） */
+    private int batchParallelism = 4;
+
+    /** 批量上传执行器队列容量，队列满时由调用线程执行 */
+    private int batchQueueCapacity = 64;
+
+    /**
+     * 批量上传中单个文件等待准入字节预算（imgvault.admission.max-in-flight-bytes）的上限（毫秒），
+     * 超时该文件记为失败；批量请求本身占用预算，等待时间需覆盖前序文件的处理耗时
+     */
+    private long batchMaxWaitMillis = 30000;
+}
@@ -0,0 +1,41 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 过期分片上传任务清理配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.upload-reaper")
+public class UploadReaperConfig {
+
+    /** 是否启用定时清理 */
+    private boolean enabled = true;
+
+    /** 两次清理之间的间隔（毫秒） */
+    private long intervalMillis = 300000;
+
+    /** 每次查询的任务数 */
+    private int batchSize = 50;
+
+    /** 单轮最多处理的任务数，超出部分留待下一轮 */
+    private int maxTasksPerRun = 500;
+
+    /**
+     * 合并中任务的超时（分钟，按进入合并状态的时间计），不受 expires_at 约束，
+     * 避免清理正在进行的大文件合并
+     */
+    private int mergingTimeoutMinutes = 120;
+
+    /** 失败任务保留时长（分钟），期间客户端仍可查询失败原因 */
+    private int failedRetentionMinutes = 60;
+
+    /** 每秒最多删除的对象数，避免与前台请求争抢存储带宽 */
+    private int maxDeletesPerSecond = 1000;
+
+    /** 单轮最多检查的孤儿分片目录数（没有对应进行中任务的 temp/chunks/ 子目录） */
+    private int maxOrphanPrefixesPerRun = 200;
+}
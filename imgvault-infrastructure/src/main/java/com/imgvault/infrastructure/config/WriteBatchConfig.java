@@ -0,0 +1,26 @@
+package com.imgvault.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * SQLite 组提交配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "imgvault.write-batch")
+public class WriteBatchConfig {
+
+    /** 是否启用组提交，关闭后写操作在调用线程直接执行（自动提交） */
+    private boolean enabled = true;
+
+    /** 收到第一个写操作后继续收集的最长时间（毫秒） */
+    private long maxDelayMillis = 2;
+
+    /** 单个事务最多包含的写操作数 */
+    private int maxBatchSize = 64;
+
+    /** 等待队列容量，队列满时调用方阻塞 */
+    private int queueCapacity = 1024;
+}
@@ -6,18 +6,39 @@ import com.imgvault.infrastructure.persistence.mapper.FileFingerprintMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 文件指纹仓库实现
+ * findByHash 优先走内存指纹索引: 新文件不查库，已存在的文件按主键查库
  */
 @Repository
 @RequiredArgsConstructor
 public class FileFingerprintRepositoryImpl implements FileFingerprintRepository {
 
     private final FileFingerprintMapper fingerprintMapper;
+    private final FingerprintIndex fingerprintIndex;
 
     @Override
     public FileFingerprintEntity findByHash(String fileHash) {
-        return fingerprintMapper.findByHash(fileHash);
+        if (!fingerprintIndex.isReady()) {
+            return fingerprintMapper.findByHash(fileHash);
+        }
+        Long id = fingerprintIndex.findId(fileHash);
+        if (id == null) {
+            return null;
+        }
+        FileFingerprintEntity entity = fingerprintMapper.findById(id);
+        if (entity != null && fileHash.equals(entity.getFileHash())) {
+            return entity;
+        }
+        // 哈希前缀冲突或映射失效（如事务回滚），回退按完整哈希查询
+        fingerprintIndex.evict(fileHash, id);
+        entity = fingerprintMapper.findByHash(fileHash);
+        if (entity != null) {
+            fingerprintIndex.add(entity.getFileHash(), entity.getId());
+        }
+        return entity;
     }
 
     @Override
@@ -27,7 +48,11 @@ public class FileFingerprintRepositoryImpl implements FileFingerprintRepository
 
     @Override
     public int insert(FileFingerprintEntity entity) {
-        return fingerprintMapper.insert(entity);
+        int rows = fingerprintMapper.insert(entity);
+        if (rows > 0) {
+            fingerprintIndex.add(entity.getFileHash(), entity.getId());
+        }
+        return rows;
     }
 
     @Override
@@ -39,4 +64,30 @@ public class FileFingerprintRepositoryImpl implements FileFingerprintRepository
     public int decrementRefCount(Long id) {
         return fingerprintMapper.decrementRefCount(id);
     }
+
+    @Override
+    public int decrementRefCountByImageIds(List<Long> imageIds) {
+        int rows = 0;
+        for (List<Long> chunk : ImageRepositoryImpl.partition(imageIds)) {
+            rows += fingerprintMapper.decrementRefCountByImageIds(chunk);
+        }
+        return rows;
+    }
+
+    /**
+     * 内存指纹索引中的失效映射在下次 findByHash 时按主键回查发现并剔除
+     */
+    @Override
+    public int deleteByStoragePaths(List<String> storagePaths) {
+        int rows = 0;
+        for (List<String> chunk : ImageRepositoryImpl.partition(storagePaths)) {
+            rows += fingerprintMapper.deleteByStoragePaths(chunk);
+        }
+        return rows;
+    }
+
+    @Override
+    public int updateStoragePath(String sourcePath, String targetPath) {
+        return fingerprintMapper.updateStoragePath(sourcePath, targetPath);
+    }
 }
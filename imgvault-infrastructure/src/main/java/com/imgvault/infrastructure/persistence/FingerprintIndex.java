@@ -0,0 +1,149 @@
+package com.imgvault.infrastructure.persistence;
+
+import com.imgvault.common.util.BloomFilter;
+import com.imgvault.domain.entity.FileFingerprintEntity;
+import com.imgvault.infrastructure.config.FingerprintIndexConfig;
+import com.imgvault.infrastructure.persistence.mapper.FileFingerprintMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存文件指纹索引
+ * <p>
+ * 启动完成后从 file_fingerprint 分页加载，之后随指纹插入增量更新:
+ * <ul>
+ *   <li>布隆过滤器: 绝大多数新文件在这里直接判定"一定不存在"，不查库</li>
+ *   <li>哈希前 64 位 → 指纹 ID 映射: 命中时按主键查库取完整记录，未命中即不存在</li>
+ * </ul>
+ * 加载完成前 {@link #isReady()} 为 false，调用方应直接查库。
+ * 引用计数变化不删除指纹行，因此无需同步到索引
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FingerprintIndex {
+
+    private final FileFingerprintMapper fingerprintMapper;
+    private final FingerprintIndexConfig indexConfig;
+
+    private final ConcurrentHashMap<Long, Long> idByHashPrefix = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!indexConfig.isEnabled()) {
+            log.info("内存指纹索引已关闭");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // 先建空过滤器，加载期间的并发插入同样会写入
+            bloomFilter = BloomFilter.create(indexConfig.getExpectedInsertions(), indexConfig.getFpp());
+            long lastId = 0;
+            long loaded = 0;
+            while (true) {
+                List<FileFingerprintEntity> page =
+                        fingerprintMapper.findHashesAfterId(lastId, indexConfig.getLoadBatchSize());
+                for (FileFingerprintEntity fp : page) {
+                    add(fp.getFileHash(), fp.getId());
+                    lastId = fp.getId();
+                }
+                loaded += page.size();
+                if (page.size() < indexConfig.getLoadBatchSize()) {
+                    break;
+                }
+            }
+            if (loaded * 2 > indexConfig.getExpectedInsertions()) {
+                rebuildBloomFilter(loaded * 2);
+            }
+            ready = true;
+            log.info("内存指纹索引加载完成: count={}, bloomBits={}, cost={}ms",
+                    loaded, bloomFilter.getBitSize(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("内存指纹索引加载失败，回退为直接查库", e);
+        }
+    }
+
+    /**
+     * 索引是否可用（加载完成后为 true）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询哈希对应的指纹 ID
+     *
+     * @return 指纹 ID；不存在返回 null（仅在 {@link #isReady()} 为 true 时可信）
+     */
+    public Long findId(String fileHash) {
+        BloomFilter filter = bloomFilter;
+        Long prefix = hashPrefix(fileHash);
+        if (filter == null || prefix == null || !filter.mightContain(prefix)) {
+            return null;
+        }
+        return idByHashPrefix.get(prefix);
+    }
+
+    /**
+     * 记录新插入的指纹
+     */
+    public synchronized void add(String fileHash, Long id) {
+        BloomFilter filter = bloomFilter;
+        Long prefix = hashPrefix(fileHash);
+        if (filter == null || prefix == null || id == null) {
+            return;
+        }
+        idByHashPrefix.put(prefix, id);
+        filter.put(prefix);
+        if (ready && filter.getInsertions() > filter.getExpectedInsertions()) {
+            // 超过预期容量后误判率上升，按两倍容量重建
+            rebuildBloomFilter(filter.getInsertions() * 2);
+        }
+    }
+
+    /**
+     * 移除失效映射（如按 ID 查到的记录已不存在或哈希不一致）
+     * 布隆过滤器不支持删除，残留位只会造成一次多余的映射查找
+     */
+    public void evict(String fileHash, Long id) {
+        Long prefix = hashPrefix(fileHash);
+        if (prefix != null) {
+            idByHashPrefix.remove(prefix, id);
+        }
+    }
+
+    /**
+     * 按新容量从映射键重建布隆过滤器（与 add 互斥，不会丢失并发写入）
+     */
+    private synchronized void rebuildBloomFilter(long expectedInsertions) {
+        long capacity = Math.max(expectedInsertions, indexConfig.getExpectedInsertions());
+        BloomFilter rebuilt = BloomFilter.create(capacity, indexConfig.getFpp());
+        for (Long prefix : idByHashPrefix.keySet()) {
+            rebuilt.put(prefix);
+        }
+        bloomFilter = rebuilt;
+        log.info("布隆过滤器重建: capacity={}, count={}", capacity, idByHashPrefix.size());
+    }
+
+    /**
+     * SHA-256 十六进制前 16 位解析为 long，作为紧凑映射键
+     */
+    private static Long hashPrefix(String fileHash) {
+        if (fileHash == null || fileHash.length() < 16) {
+            return null;
+        }
+        try {
+            return Long.parseUnsignedLong(fileHash.substring(0, 16), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.imgvault.infrastructure.persistence.mapper.ImageMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,6 +16,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ImageRepositoryImpl implements ImageRepository {
 
+    /** IN 列表分批大小，低于旧版 SQLite 单条语句 999 个参数的上限（含同一列表引用两次的语句） */
+    static final int IN_BATCH_SIZE = 400;
+
     private final ImageMapper imageMapper;
 
     @Override
@@ -37,6 +41,40 @@ public class ImageRepositoryImpl implements ImageRepository {
         return imageMapper.findByHash(fileHash);
     }
 
+    @Override
+    public List<ImageEntity> findByIds(List<Long> ids) {
+        List<ImageEntity> result = new ArrayList<>(ids.size());
+        for (List<Long> chunk : partition(ids)) {
+            result.addAll(imageMapper.findByIds(chunk));
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> findReferencedPaths(List<String> storagePaths) {
+        List<String> result = new ArrayList<>();
+        for (List<String> chunk : partition(storagePaths)) {
+            result.addAll(imageMapper.findReferencedPaths(chunk));
+        }
+        return result;
+    }
+
+    @Override
+    public List<ImageEntity> findByStoragePath(String storagePath) {
+        return imageMapper.findByStoragePath(storagePath);
+    }
+
+    @Override
+    public List<ImageEntity> findColdCandidates(String cutoff, int maxViewCount, List<String> excludePrefixes,
+                                                String afterPath, int limit) {
+        return imageMapper.findColdCandidates(cutoff, maxViewCount, excludePrefixes, afterPath, limit);
+    }
+
+    @Override
+    public int updateStoragePath(String sourcePath, String targetPath) {
+        return imageMapper.updateStoragePath(sourcePath, targetPath);
+    }
+
     @Override
     public List<ImageEntity> findPage(String format, Integer status, String keyword, String visitorId, String sortBy, String sortOrder, int offset, int limit) {
         return imageMapper.findPage(format, status, keyword, visitorId, sortBy, sortOrder, offset, limit);
@@ -62,6 +100,28 @@ public class ImageRepositoryImpl implements ImageRepository {
         return imageMapper.deleteById(id);
     }
 
+    @Override
+    public int softDeleteByIds(List<Long> ids) {
+        int rows = 0;
+        for (List<Long> chunk : partition(ids)) {
+            rows += imageMapper.softDeleteByIds(chunk);
+        }
+        return rows;
+    }
+
+    @Override
+    public int deleteByIds(List<Long> ids) {
+        int rows = 0;
+        for (List<Long> chunk : partition(ids)) {
+            imageMapper.deleteMetadataByImageIds(chunk);
+            imageMapper.deleteTagLinksByImageIds(chunk);
+            imageMapper.deleteAlbumLinksByImageIds(chunk);
+            imageMapper.deleteAsyncTasksByImageIds(chunk);
+            rows += imageMapper.deleteByIds(chunk);
+        }
+        return rows;
+    }
+
     @Override
     public int updateDescription(Long id, String description) {
         return imageMapper.updateDescription(id, description);
@@ -92,4 +152,12 @@ public class ImageRepositoryImpl implements ImageRepository {
     public long countTodayUploads() {
         return imageMapper.countTodayUploads();
     }
+
+    static <T> List<List<T>> partition(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>((list.size() + IN_BATCH_SIZE - 1) / IN_BATCH_SIZE);
+        for (int from = 0; from < list.size(); from += IN_BATCH_SIZE) {
+            chunks.add(list.subList(from, Math.min(list.size(), from + IN_BATCH_SIZE)));
+        }
+        return chunks;
+    }
 }
@@ -0,0 +1,238 @@
+package com.imgvault.infrastructure.persistence;
+
+import com.imgvault.infrastructure.config.WriteBatchConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * SQLite 组提交写入器
+ * <p>
+ * SQLite 只有一个连接（maximum-pool-size: 1），每条自动提交语句各自刷一次 WAL。
+ * 本组件由单个写线程收集并发请求的写操作，在 maxDelayMillis 内凑批后放入同一个事务提交:
+ * <ul>
+ *   <li>每个操作运行在独立的保存点（PROPAGATION_NESTED）中，单个操作失败只回滚自己</li>
+ *   <li>事务提交成功后才完成各调用方的 future，调用方拿到结果即已持久化</li>
+ *   <li>提交失败时整批逐个在各自的事务中重试，避免一个坏操作拖垮整批</li>
+ * </ul>
+ * 单独执行的操作（批内只有一个、提交失败后重试、组提交停用）同样在自己的事务中运行，
+ * 操作内的多条语句始终原子提交。
+ * 调用线程已处于事务中或本身就是写线程时直接在当前事务内执行，避免等待自己持有的连接
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqliteWriteBatcher {
+
+    private static final String THREAD_NAME = "imgvault-sqlite-writer";
+
+    private final PlatformTransactionManager transactionManager;
+    private final WriteBatchConfig writeBatchConfig;
+
+    private BlockingQueue<WriteOp<?>> queue;
+    private TransactionTemplate batchTemplate;
+    private TransactionTemplate opTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(writeBatchConfig.getQueueCapacity());
+        this.batchTemplate = new TransactionTemplate(transactionManager);
+        this.opTemplate = new TransactionTemplate(transactionManager);
+        this.opTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        if (!writeBatchConfig.isEnabled()) {
+            return;
+        }
+        this.running = true;
+        this.writer = new Thread(this::runLoop, THREAD_NAME);
+        this.writer.setDaemon(true);
+        this.writer.start();
+        log.info("SQLite 组提交已启用: maxDelayMillis={}, maxBatchSize={}",
+                writeBatchConfig.getMaxDelayMillis(), writeBatchConfig.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 关闭后仍在队列中的操作直接执行
+        List<WriteOp<?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(this::runAlone);
+    }
+
+    /**
+     * 提交写操作，返回在事务提交后完成的 future
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        WriteOp<T> op = new WriteOp<>(operation);
+        if (!running || runsInline()) {
+            runAlone(op);
+            return op.future;
+        }
+        try {
+            queue.put(op);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            op.future.completeExceptionally(e);
+        }
+        return op.future;
+    }
+
+    /**
+     * 提交写操作并等待提交完成，操作抛出的 RuntimeException 原样抛出
+     */
+    public <T> T execute(Supplier<T> operation) {
+        try {
+            return submit(operation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private boolean runsInline() {
+        return Thread.currentThread() == writer
+                || TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void runLoop() {
+        List<WriteOp<?>> batch = new ArrayList<>(writeBatchConfig.getMaxBatchSize());
+        while (running) {
+            try {
+                WriteOp<?> first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeBatchConfig.getMaxDelayMillis());
+                while (batch.size() < writeBatchConfig.getMaxBatchSize()) {
+                    long waitNanos = deadline - System.nanoTime();
+                    WriteOp<?> next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                log.error("SQLite 组提交写线程异常", t);
+                batch.forEach(op -> op.future.completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<WriteOp<?>> batch) {
+        if (batch.size() == 1) {
+            runAlone(batch.get(0));
+            return;
+        }
+        try {
+            batchTemplate.executeWithoutResult(status -> {
+                for (WriteOp<?> op : batch) {
+                    op.runNested(opTemplate);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("组提交事务失败，逐个重试: size={}, error={}", batch.size(), e.getMessage());
+            batch.forEach(this::runAlone);
+            return;
+        }
+        batch.forEach(WriteOp::publish);
+        log.debug("组提交完成: size={}", batch.size());
+    }
+
+    private void runAlone(WriteOp<?> op) {
+        op.reset();
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // 随调用方事务或写线程上的外层事务提交/回滚
+                op.runDirect();
+            } else {
+                op.runInTransaction(batchTemplate);
+            }
+        } finally {
+            op.publish();
+        }
+    }
+
+    /**
+     * 单个写操作及其结果
+     */
+    private static final class WriteOp<T> {
+
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable error;
+
+        WriteOp(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        void runNested(TransactionTemplate opTemplate) {
+            try {
+                result = opTemplate.execute(status -> operation.get());
+            } catch (RuntimeException e) {
+                // 保存点已回滚，只影响当前操作
+                error = e;
+            }
+        }
+
+        void runInTransaction(TransactionTemplate template) {
+            try {
+                result = template.execute(status -> operation.get());
+            } catch (Throwable t) {
+                error = t;
+            }
+        }
+
+        void runDirect() {
+            try {
+                result = operation.get();
+            } catch (Throwable t) {
+                error = t;
+            }
+        }
+
+        void reset() {
+            result = null;
+            error = null;
+        }
+
+        void publish() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.imgvault.infrastructure.persistence;
 
+import com.imgvault.domain.entity.UploadChunkEntity;
 import com.imgvault.domain.entity.UploadTaskEntity;
 import com.imgvault.domain.repository.UploadTaskRepository;
 import com.imgvault.infrastructure.persistence.mapper.UploadTaskMapper;
@@ -35,12 +36,43 @@ public class UploadTaskRepositoryImpl implements UploadTaskRepository {
     }
 
     @Override
-    public List<UploadTaskEntity> findExpiredTasks(String expireTime) {
-        return uploadTaskMapper.findExpiredTasks(expireTime);
+    public boolean compareAndSetStatus(String uploadId, String expect, String update) {
+        return uploadTaskMapper.compareAndSetStatus(uploadId, expect, update) > 0;
+    }
+
+    @Override
+    public List<UploadTaskEntity> findExpiredTasks(String expireTime, int mergingTimeoutMinutes,
+                                                   int failedRetentionMinutes, int limit) {
+        return uploadTaskMapper.findExpiredTasks(expireTime, mergingTimeoutMinutes, failedRetentionMinutes, limit);
     }
 
     @Override
     public void deleteByUploadId(String uploadId) {
         uploadTaskMapper.deleteByUploadId(uploadId);
     }
+
+    @Override
+    public boolean insertChunkIfAbsent(UploadChunkEntity chunk) {
+        return uploadTaskMapper.insertChunkIfAbsent(chunk) > 0;
+    }
+
+    @Override
+    public UploadChunkEntity findChunk(String uploadId, int chunkNumber) {
+        return uploadTaskMapper.findChunk(uploadId, chunkNumber);
+    }
+
+    @Override
+    public Integer incrementUploadedChunks(String uploadId) {
+        return uploadTaskMapper.incrementUploadedChunks(uploadId);
+    }
+
+    @Override
+    public List<UploadChunkEntity> findChunks(String uploadId) {
+        return uploadTaskMapper.findChunks(uploadId);
+    }
+
+    @Override
+    public void deleteChunks(String uploadId) {
+        uploadTaskMapper.deleteChunks(uploadId);
+    }
 }
@@ -4,6 +4,8 @@ import com.imgvault.domain.entity.FileFingerprintEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 文件指纹 MyBatis Mapper
  */
@@ -14,9 +16,19 @@ public interface FileFingerprintMapper {
 
     FileFingerprintEntity findByMd5(@Param("fileMd5") String fileMd5);
 
+    FileFingerprintEntity findById(@Param("id") Long id);
+
+    List<FileFingerprintEntity> findHashesAfterId(@Param("afterId") long afterId, @Param("limit") int limit);
+
     int insert(FileFingerprintEntity entity);
 
     int incrementRefCount(@Param("id") Long id);
 
     int decrementRefCount(@Param("id") Long id);
+
+    int decrementRefCountByImageIds(@Param("imageIds") List<Long> imageIds);
+
+    int deleteByStoragePaths(@Param("paths") List<String> paths);
+
+    int updateStoragePath(@Param("sourcePath") String sourcePath, @Param("targetPath") String targetPath);
 }
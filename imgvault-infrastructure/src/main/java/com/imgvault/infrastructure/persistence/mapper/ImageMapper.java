@@ -20,6 +20,20 @@ public interface ImageMapper {
 
     ImageEntity findByHash(@Param("fileHash") String fileHash);
 
+    List<ImageEntity> findByIds(@Param("ids") List<Long> ids);
+
+    List<String> findReferencedPaths(@Param("paths") List<String> paths);
+
+    List<ImageEntity> findByStoragePath(@Param("storagePath") String storagePath);
+
+    List<ImageEntity> findColdCandidates(@Param("cutoff") String cutoff,
+                                         @Param("maxViewCount") int maxViewCount,
+                                         @Param("excludePrefixes") List<String> excludePrefixes,
+                                         @Param("afterPath") String afterPath,
+                                         @Param("limit") int limit);
+
+    int updateStoragePath(@Param("sourcePath") String sourcePath, @Param("targetPath") String targetPath);
+
     List<ImageEntity> findPage(@Param("format") String format,
                                @Param("status") Integer status,
                                @Param("keyword") String keyword,
@@ -35,8 +49,20 @@ public interface ImageMapper {
 
     int softDelete(@Param("id") Long id);
 
+    int softDeleteByIds(@Param("ids") List<Long> ids);
+
     int deleteById(@Param("id") Long id);
 
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    int deleteMetadataByImageIds(@Param("ids") List<Long> ids);
+
+    int deleteTagLinksByImageIds(@Param("ids") List<Long> ids);
+
+    int deleteAlbumLinksByImageIds(@Param("ids") List<Long> ids);
+
+    int deleteAsyncTasksByImageIds(@Param("ids") List<Long> ids);
+
     int updateDescription(@Param("id") Long id, @Param("description") String description);
 
     int incrementViewCount(@Param("id") Long id);
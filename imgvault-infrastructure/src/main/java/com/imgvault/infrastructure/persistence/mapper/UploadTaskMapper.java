@@ -1,5 +1,6 @@
 package com.imgvault.infrastructure.persistence.mapper;
 
+import com.imgvault.domain.entity.UploadChunkEntity;
 import com.imgvault.domain.entity.UploadTaskEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -17,7 +18,23 @@ public interface UploadTaskMapper {
 
     void updateStatus(@Param("uploadId") String uploadId, @Param("status") String status);
 
-    List<UploadTaskEntity> findExpiredTasks(@Param("expireTime") String expireTime);
+    int compareAndSetStatus(@Param("uploadId") String uploadId, @Param("expect") String expect,
+                            @Param("update") String update);
+
+    List<UploadTaskEntity> findExpiredTasks(@Param("expireTime") String expireTime,
+                                            @Param("mergingTimeoutMinutes") int mergingTimeoutMinutes,
+                                            @Param("failedRetentionMinutes") int failedRetentionMinutes,
+                                            @Param("limit") int limit);
 
     void deleteByUploadId(@Param("uploadId") String uploadId);
+
+    int insertChunkIfAbsent(UploadChunkEntity chunk);
+
+    UploadChunkEntity findChunk(@Param("uploadId") String uploadId, @Param("chunkNumber") int chunkNumber);
+
+    Integer incrementUploadedChunks(@Param("uploadId") String uploadId);
+
+    List<UploadChunkEntity> findChunks(@Param("uploadId") String uploadId);
+
+    void deleteChunks(@Param("uploadId") String uploadId);
 }
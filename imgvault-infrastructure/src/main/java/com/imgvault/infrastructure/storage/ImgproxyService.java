@@ -7,9 +7,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.util.Base64;
 
 /**
  * imgproxy 图片处理服务
@@ -22,6 +19,9 @@ import java.util.Base64;
  * - 智能裁剪 (gravity:sm)
  * <p>
  * 签名算法参考: https://github.com/imgproxy/imgproxy/blob/master/examples/signature.java
+ * <p>
+ * 详情/列表每张图片生成多个签名 URL，签名使用预初始化的 {@link ImgproxySigner}（按线程复用 Mac），
+ * 处理路径用 StringBuilder 拼接，源地址前缀和基础地址在初始化时确定。
  */
 @Slf4j
 @Service
@@ -31,14 +31,23 @@ public class ImgproxyService {
     private final ImgproxyConfig imgproxyConfig;
     private final MinioConfig minioConfig;
 
-    private byte[] keyBytes;
-    private byte[] saltBytes;
+    private ImgproxySigner signer;
+
+    /** 源图片地址前缀: s3://bucket/ */
+    private String sourcePrefix;
+
+    /** 生成 URL 使用的基础地址（优先 externalBaseUrl） */
+    private String baseUrl;
 
     @PostConstruct
     public void init() {
+        this.sourcePrefix = "s3://" + minioConfig.getBucketName() + "/";
+        String externalBaseUrl = imgproxyConfig.getExternalBaseUrl();
+        this.baseUrl = externalBaseUrl == null || externalBaseUrl.isEmpty()
+                ? imgproxyConfig.getBaseUrl() : externalBaseUrl;
         if (imgproxyConfig.getKey() != null && imgproxyConfig.getSalt() != null) {
-            this.keyBytes = hexStringToByteArray(imgproxyConfig.getKey());
-            this.saltBytes = hexStringToByteArray(imgproxyConfig.getSalt());
+            this.signer = new ImgproxySigner(hexStringToByteArray(imgproxyConfig.getKey()),
+                    hexStringToByteArray(imgproxyConfig.getSalt()));
             log.info("imgproxy 签名密钥已初始化");
         } else {
             log.warn("imgproxy 签名密钥未配置，URL 签名功能不可用");
@@ -55,12 +64,30 @@ public class ImgproxyService {
      */
     public ThumbnailUrls getThumbnailUrls(String storagePath) {
         ThumbnailUrls urls = new ThumbnailUrls();
-        urls.setSmall(getResizeUrl(storagePath, 150, 150, "fit"));
-        urls.setMedium(getResizeUrl(storagePath, 800, 600, "fit"));
-        urls.setLarge(getResizeUrl(storagePath, 1920, 1080, "fit"));
+        urls.setSmall(getThumbnailUrl(storagePath, "small"));
+        urls.setMedium(getThumbnailUrl(storagePath, "medium"));
+        urls.setLarge(getThumbnailUrl(storagePath, "large"));
         return urls;
     }
 
+    /**
+     * 生成单个规格的缩略图 URL（只需要部分规格时避免签名全部三个）
+     *
+     * @param size small(150x150) / medium(800x600) / large(1920x1080)
+     */
+    public String getThumbnailUrl(String storagePath, String size) {
+        switch (size) {
+            case "small":
+                return getResizeUrl(storagePath, 150, 150, "fit");
+            case "medium":
+                return getResizeUrl(storagePath, 800, 600, "fit");
+            case "large":
+                return getResizeUrl(storagePath, 1920, 1080, "fit");
+            default:
+                throw new IllegalArgumentException("未知的缩略图规格: " + size);
+        }
+    }
+
     /**
      * 生成指定尺寸的缩放 URL
      *
@@ -71,9 +98,9 @@ public class ImgproxyService {
      * @return 签名后的 imgproxy URL
      */
     public String getResizeUrl(String storagePath, int width, int height, String resizeType) {
-        String processingPath = String.format("/rs:%s:%d:%d:0/plain/%s",
-                resizeType, width, height, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath)
+                .append("/rs:").append(resizeType).append(':').append(width).append(':').append(height).append(":0");
+        return buildSignedUrl(appendSource(path, storagePath, null));
     }
 
     // ==================== 格式转换 URL (F14) ====================
@@ -82,18 +109,16 @@ public class ImgproxyService {
      * 生成 WebP 格式 URL
      */
     public String getWebpUrl(String storagePath, int quality) {
-        String processingPath = String.format("/q:%d/plain/%s@webp",
-                quality, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath).append("/q:").append(quality);
+        return buildSignedUrl(appendSource(path, storagePath, "webp"));
     }
 
     /**
      * 生成 AVIF 格式 URL
      */
     public String getAvifUrl(String storagePath, int quality) {
-        String processingPath = String.format("/q:%d/plain/%s@avif",
-                quality, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath).append("/q:").append(quality);
+        return buildSignedUrl(appendSource(path, storagePath, "avif"));
     }
 
     /**
@@ -105,9 +130,8 @@ public class ImgproxyService {
      * @return 签名后的 imgproxy URL
      */
     public String getFormatConvertUrl(String storagePath, String format, int quality) {
-        String processingPath = String.format("/q:%d/plain/%s@%s",
-                quality, buildSourceUrl(storagePath), format);
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath).append("/q:").append(quality);
+        return buildSignedUrl(appendSource(path, storagePath, format));
     }
 
     // ==================== 水印 URL (F15) ====================
@@ -121,9 +145,9 @@ public class ImgproxyService {
      * @return 签名后的 imgproxy URL
      */
     public String getWatermarkUrl(String storagePath, double opacity, String position) {
-        String processingPath = String.format("/wm:%s:%s/plain/%s",
-                formatDouble(opacity), position, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath)
+                .append("/wm:").append(formatDouble(opacity)).append(':').append(position);
+        return buildSignedUrl(appendSource(path, storagePath, null));
     }
 
     // ==================== 图片压缩 URL (F16) ====================
@@ -136,9 +160,8 @@ public class ImgproxyService {
      * @return 签名后的 imgproxy URL
      */
     public String getCompressedUrl(String storagePath, int quality) {
-        String processingPath = String.format("/q:%d/plain/%s",
-                quality, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath).append("/q:").append(quality);
+        return buildSignedUrl(appendSource(path, storagePath, null));
     }
 
     // ==================== 智能裁剪 URL (F17) ====================
@@ -152,9 +175,9 @@ public class ImgproxyService {
      * @return 签名后的 imgproxy URL
      */
     public String getSmartCropUrl(String storagePath, int width, int height) {
-        String processingPath = String.format("/rs:fill:%d:%d:0/g:sm/plain/%s",
-                width, height, buildSourceUrl(storagePath));
-        return buildSignedUrl(processingPath);
+        StringBuilder path = processingPath(storagePath)
+                .append("/rs:fill:").append(width).append(':').append(height).append(":0/g:sm");
+        return buildSignedUrl(appendSource(path, storagePath, null));
     }
 
     // ==================== 组合处理 URL ====================
@@ -172,13 +195,12 @@ public class ImgproxyService {
      */
     public String getProcessedUrl(String storagePath, int width, int height,
                                   String format, int quality, boolean smartCrop) {
-        StringBuilder processingOpts = new StringBuilder();
+        StringBuilder processingOpts = processingPath(storagePath);
 
         // 缩放
         if (width > 0 || height > 0) {
-            String type = smartCrop ? "fill" : "fit";
-            processingOpts.append(String.format("/rs:%s:%d:%d:0", type,
-                    Math.max(width, 0), Math.max(height, 0)));
+            processingOpts.append("/rs:").append(smartCrop ? "fill" : "fit")
+                    .append(':').append(Math.max(width, 0)).append(':').append(Math.max(height, 0)).append(":0");
         }
 
         // 智能裁剪
@@ -188,28 +210,31 @@ public class ImgproxyService {
 
         // 质量
         if (quality > 0 && quality <= 100) {
-            processingOpts.append(String.format("/q:%d", quality));
+            processingOpts.append("/q:").append(quality);
         }
 
         // 源地址和格式
-        String sourceUrl = buildSourceUrl(storagePath);
-        if (format != null && !format.isEmpty()) {
-            processingOpts.append(String.format("/plain/%s@%s", sourceUrl, format));
-        } else {
-            processingOpts.append(String.format("/plain/%s", sourceUrl));
-        }
-
-        return buildSignedUrl(processingOpts.toString());
+        return buildSignedUrl(appendSource(processingOpts, storagePath, format));
     }
 
     // ==================== 内部方法 ====================
 
     /**
-     * 构建 S3 源图片 URL
-     * 格式: s3://bucket/path
+     * 按源路径长度预留容量的处理路径缓冲
      */
-    private String buildSourceUrl(String storagePath) {
-        return String.format("s3://%s/%s", minioConfig.getBucketName(), storagePath);
+    private StringBuilder processingPath(String storagePath) {
+        return new StringBuilder(64 + sourcePrefix.length() + storagePath.length());
+    }
+
+    /**
+     * 追加源图片地址 /plain/s3://bucket/path[@format]
+     */
+    private StringBuilder appendSource(StringBuilder path, String storagePath, String format) {
+        path.append("/plain/").append(sourcePrefix).append(storagePath);
+        if (format != null && !format.isEmpty()) {
+            path.append('@').append(format);
+        }
+        return path;
     }
 
     /**
@@ -217,38 +242,18 @@ public class ImgproxyService {
      * 如果配置了 externalBaseUrl，使用外部域名代理地址
      * 签名算法: HMAC-SHA256(key, salt + path) -> URL-safe Base64
      */
-    private String buildSignedUrl(String path) {
+    private String buildSignedUrl(StringBuilder path) {
         try {
-            String signedPath = signPath(keyBytes, saltBytes, path);
-            String baseUrl = imgproxyConfig.getExternalBaseUrl();
-            if (baseUrl == null || baseUrl.isEmpty()) {
-                baseUrl = imgproxyConfig.getBaseUrl();
+            if (signer == null) {
+                throw new IllegalStateException("签名密钥未配置");
             }
-            return baseUrl + signedPath;
+            return baseUrl + signer.sign(path.toString());
         } catch (Exception e) {
             log.error("imgproxy URL 签名失败: path={}", path, e);
             throw new RuntimeException("imgproxy URL 签名失败: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * imgproxy 官方签名算法
-     * 参考: https://github.com/imgproxy/imgproxy/blob/master/examples/signature.java
-     */
-    private static String signPath(byte[] key, byte[] salt, String path) throws Exception {
-        final String HMAC_SHA256 = "HmacSHA256";
-
-        Mac sha256HMAC = Mac.getInstance(HMAC_SHA256);
-        SecretKeySpec secretKey = new SecretKeySpec(key, HMAC_SHA256);
-        sha256HMAC.init(secretKey);
-        sha256HMAC.update(salt);
-
-        String hash = Base64.getUrlEncoder().withoutPadding()
-                .encodeToString(sha256HMAC.doFinal(path.getBytes()));
-
-        return "/" + hash + path;
-    }
-
     /**
      * 十六进制字符串转字节数组
      */
@@ -266,7 +271,7 @@ public class ImgproxyService {
 
     private static String formatDouble(double value) {
         if (value == (long) value) {
-            return String.format("%d", (long) value);
+            return Long.toString((long) value);
         }
         return String.format("%.2f", value);
     }
@@ -0,0 +1,69 @@
+package com.imgvault.infrastructure.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * imgproxy URL 签名器: HMAC-SHA256(key, salt + path) -> URL-safe Base64（无填充）
+ * <p>
+ * 构造时完成一次 JCA 查找和密钥初始化作为原型，各线程首次使用时克隆原型得到自己的 Mac，
+ * 之后每次签名只需 update + doFinal（doFinal 会把 Mac 复位到已设密钥的初始状态），
+ * 不再为每个 URL 重复 Mac.getInstance / init。线程安全。
+ */
+public final class ImgproxySigner {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Mac prototype;
+    private final byte[] salt;
+    private final ThreadLocal<Mac> macs;
+
+    public ImgproxySigner(byte[] key, byte[] salt) {
+        this.prototype = newMac(key);
+        this.salt = salt.clone();
+        this.macs = ThreadLocal.withInitial(() -> copyOf(prototype, key));
+    }
+
+    /**
+     * 对处理路径签名
+     *
+     * @param path 以 / 开头的处理路径，如 /rs:fit:150:150:0/plain/s3://bucket/a.png
+     * @return /{signature}{path}
+     */
+    public String sign(String path) {
+        Mac mac = macs.get();
+        mac.update(salt);
+        byte[] digest = mac.doFinal(path.getBytes(StandardCharsets.UTF_8));
+        String signature = URL_ENCODER.encodeToString(digest);
+        return new StringBuilder(signature.length() + 1 + path.length())
+                .append('/').append(signature).append(path).toString();
+    }
+
+    private static Mac newMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("imgproxy 签名器初始化失败", e);
+        }
+    }
+
+    /**
+     * 克隆原型；提供者不支持克隆时退回重新初始化
+     */
+    private static Mac copyOf(Mac prototype, byte[] key) {
+        try {
+            synchronized (prototype) {
+                return (Mac) prototype.clone();
+            }
+        } catch (CloneNotSupportedException e) {
+            return newMac(key);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.imgvault.infrastructure.storage;
+
+import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.infrastructure.config.StorageConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件系统存储后端（imgvault.storage.backend = local）
+ * <p>
+ * 对象键直接映射为根目录下的相对路径；写入先落临时文件再原子改名，读取与合并走 FileChannel.transferTo。
+ * 预签名 URL 指向本服务的 /api/v1/storage/{path}，以 HMAC-SHA256 签名校验方法、路径和过期时间。
+ * 不支持分片直传（客户端应使用经服务端中转的分片上传）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "imgvault.storage", name = "backend", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+
+    /** 预签名 URL 路径前缀 */
+    public static final String URL_PATH_PREFIX = "/api/v1/storage/";
+
+    /** 写入中的临时文件前缀，列举时跳过 */
+    private static final String TEMP_FILE_PREFIX = ".upload-";
+
+    /** 单次 transferFrom 的最大字节数 */
+    private static final long TRANSFER_CHUNK = 8 * 1024 * 1024L;
+
+    private final StorageConfig storageConfig;
+    private final PresignedUrlCache presignedUrlCache;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(storageConfig.getLocal().getRootDir()).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("本地存储根目录: {}", root);
+    }
+
+    /**
+     * 将对象键解析为根目录下的文件路径，拒绝越出根目录的路径
+     */
+    public Path resolve(String storagePath) {
+        Path path = root.resolve(storagePath).normalize();
+        if (storagePath.isEmpty() || !path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("非法存储路径: " + storagePath);
+        }
+        return path;
+    }
+
+    @Override
+    public String uploadFile(String storagePath, InputStream inputStream, long fileSize, String contentType) {
+        Path target = resolve(storagePath);
+        Path temp = null;
+        try {
+            temp = createTempFile(target.getParent());
+            long written = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = Channels.newChannel(inputStream)) {
+                long n;
+                while ((n = out.transferFrom(in, written, TRANSFER_CHUNK)) > 0) {
+                    written += n;
+                }
+            }
+            if (fileSize >= 0 && written != fileSize) {
+                throw new IOException("写入长度不符: expected=" + fileSize + ", actual=" + written);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            String etag = etag(target);
+            log.info("文件上传成功: path={}, etag={}", storagePath, etag);
+            return etag;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            log.error("文件上传失败: path={}", storagePath, e);
+            throw new RuntimeException("文件上传失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream getFileStream(String storagePath) {
+        try {
+            return Files.newInputStream(resolve(storagePath));
+        } catch (IOException e) {
+            log.error("获取文件流失败: path={}", storagePath, e);
+            throw new RuntimeException("获取文件流失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream getFileStream(String storagePath, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(resolve(storagePath), StandardOpenOption.READ);
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            log.error("获取文件区间失败: path={}, offset={}, length={}", storagePath, offset, length, e);
+            throw new RuntimeException("获取文件区间失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long transferTo(String storagePath, long offset, long length, WritableByteChannel target)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(storagePath), StandardOpenOption.READ)) {
+            long end = Math.min(channel.size(), offset + length);
+            long position = offset;
+            while (position < end) {
+                long n = channel.transferTo(position, end - position, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+            return position - offset;
+        }
+    }
+
+    @Override
+    public long getObjectSize(String storagePath) {
+        try {
+            return Files.size(resolve(storagePath));
+        } catch (IOException e) {
+            log.error("获取对象信息失败: path={}", storagePath, e);
+            throw new RuntimeException("获取对象信息失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean objectExists(String storagePath) {
+        return Files.isRegularFile(resolve(storagePath));
+    }
+
+    @Override
+    public String copyObject(String sourcePath, String targetPath, String contentType) {
+        Path target = resolve(targetPath);
+        Path temp = null;
+        try {
+            temp = createTempFile(target.getParent());
+            Files.copy(resolve(sourcePath), temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("对象已复制: source={}, target={}", sourcePath, targetPath);
+            return etag(target);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            log.error("对象复制失败: source={}, target={}", sourcePath, targetPath, e);
+            throw new RuntimeException("对象复制失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String storagePath) {
+        try {
+            Path path = resolve(storagePath);
+            Files.deleteIfExists(path);
+            pruneEmptyParents(path.getParent());
+            presignedUrlCache.invalidate(storagePath);
+            log.info("文件已删除: path={}", storagePath);
+        } catch (IOException e) {
+            log.error("文件删除失败: path={}", storagePath, e);
+            throw new RuntimeException("文件删除失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int deleteFiles(List<String> storagePaths) {
+        int failed = 0;
+        for (String storagePath : storagePaths) {
+            try {
+                Path path = resolve(storagePath);
+                Files.deleteIfExists(path);
+                pruneEmptyParents(path.getParent());
+                presignedUrlCache.invalidate(storagePath);
+            } catch (IOException | IllegalArgumentException e) {
+                failed++;
+                log.warn("批量删除失败: path={}, message={}", storagePath, e.getMessage());
+            }
+        }
+        log.info("批量删除完成: count={}, failed={}", storagePaths.size(), failed);
+        return failed;
+    }
+
+    @Override
+    public List<String> listObjects(String prefix, boolean recursive, String startAfter, int limit) {
+        int slash = prefix.lastIndexOf('/');
+        Path dir = slash < 0 ? root : resolve(prefix.substring(0, slash));
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = recursive ? Files.walk(dir) : Files.list(dir)) {
+            return stream
+                    .filter(path -> !path.equals(dir) && !path.getFileName().toString().startsWith(TEMP_FILE_PREFIX))
+                    .filter(path -> !recursive || Files.isRegularFile(path))
+                    .map(path -> toKey(path) + (!recursive && Files.isDirectory(path) ? "/" : ""))
+                    .filter(key -> key.startsWith(prefix) && (startAfter == null || key.compareTo(startAfter) > 0))
+                    .sorted()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.error("列出对象失败: prefix={}", prefix, e);
+            throw new RuntimeException("列出对象失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按顺序拼接源文件（文件到文件的 transferTo，不经过用户态缓冲）
+     */
+    @Override
+    public String composeObject(String targetPath, List<String> sourcePaths, String contentType) {
+        Path target = resolve(targetPath);
+        Path temp = null;
+        try {
+            temp = createTempFile(target.getParent());
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (String sourcePath : sourcePaths) {
+                    try (FileChannel in = FileChannel.open(resolve(sourcePath), StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            String etag = etag(target);
+            log.info("对象合并成功: path={}, parts={}, etag={}", targetPath, sourcePaths.size(), etag);
+            return etag;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            log.error("对象合并失败: path={}, parts={}", targetPath, sourcePaths.size(), e);
+            throw new RuntimeException("对象合并失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getPresignedDownloadUrl(String storagePath, int expirySeconds) {
+        // 内容寻址对象不可变，签长有效期并长期复用同一 URL
+        int expiry = StorageBackend.isContentAddressed(storagePath)
+                ? Math.max(expirySeconds, StorageConstants.IMMUTABLE_URL_EXPIRY_SECONDS) : expirySeconds;
+        return presignedUrlCache.get(storagePath, expiry, () -> presign("GET", storagePath, expiry));
+    }
+
+    /**
+     * 生成预签名上传 URL（PUT 请求体即文件内容），contentType 不参与签名
+     */
+    @Override
+    public String getPresignedUploadUrl(String storagePath, String contentType, int expirySeconds) {
+        return presign("PUT", storagePath, expirySeconds);
+    }
+
+    /**
+     * 校验预签名 URL
+     *
+     * @param method    HTTP 方法
+     * @param expires   过期时间（epoch 秒）
+     * @param signature URL 中的签名
+     */
+    public boolean verifyPresignedUrl(String method, String storagePath, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        byte[] expected = sign(method, storagePath, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public String getName() {
+        return "Local";
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return Files.isDirectory(root) && Files.isWritable(root);
+    }
+
+    private String presign(String method, String storagePath, int expirySeconds) {
+        long expires = System.currentTimeMillis() / 1000 + expirySeconds;
+        String base = storageConfig.getLocal().getPublicUrl();
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base + URL_PATH_PREFIX + encodePath(storagePath)
+                + "?expires=" + expires + "&signature=" + sign(method, storagePath, expires);
+    }
+
+    private String sign(String method, String storagePath, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(storageConfig.getLocal().getSigningSecret()
+                    .getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] hash = mac.doFinal((method + "\n" + storagePath + "\n" + expires)
+                    .getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (Exception e) {
+            throw new RuntimeException("HMAC signing failed", e);
+        }
+    }
+
+    private static String encodePath(String storagePath) {
+        StringBuilder sb = new StringBuilder(storagePath.length() + 16);
+        for (String segment : storagePath.split("/")) {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            try {
+                sb.append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    private String toKey(Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * 在目标目录下创建临时文件；目录可能正被并发删除清理，失败时重建目录重试一次
+     */
+    private static Path createTempFile(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try {
+            return Files.createTempFile(dir, TEMP_FILE_PREFIX, ".tmp");
+        } catch (NoSuchFileException e) {
+            Files.createDirectories(dir);
+            return Files.createTempFile(dir, TEMP_FILE_PREFIX, ".tmp");
+        }
+    }
+
+    /**
+     * 删除文件后逐级清理空目录，使已清空的前缀不再出现在列举结果中
+     */
+    private void pruneEmptyParents(Path dir) {
+        while (dir != null && dir.startsWith(root) && !dir.equals(root)) {
+            try {
+                Files.delete(dir);
+            } catch (DirectoryNotEmptyException | NoSuchFileException e) {
+                return;
+            } catch (IOException e) {
+                log.debug("清理空目录失败: {}", dir);
+                return;
+            }
+            dir = dir.getParent();
+        }
+    }
+
+    private static String etag(Path path) throws IOException {
+        return Long.toHexString(Files.size(path)) + "-" + Long.toHexString(Files.getLastModifiedTime(path).toMillis());
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("删除临时文件失败: {}", path);
+        }
+    }
+
+    /**
+     * 最多读取 limit 字节的输入流，用于区间读取（关闭时一并关闭底层通道）
+     */
+    private static final class BoundedInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(buffer, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -1,83 +1,103 @@
 package com.imgvault.infrastructure.storage;
 
 import com.imgvault.common.constant.StorageConstants;
+import com.imgvault.common.exception.BusinessException;
+import com.imgvault.common.exception.ServiceUnavailableException;
 import com.imgvault.infrastructure.config.MinioConfig;
+import com.imgvault.infrastructure.config.StorageConfig;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.InputStream;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * MinIO 对象存储服务
+ * MinIO 对象存储服务（默认存储后端）
  * 负责原图直写、预签名 URL 生成、文件删除
+ * <p>
+ * 所有网络调用经 {@link StorageCircuitBreaker}: MinIO 故障时快速失败（503），由后台探测恢复；
+ * 预签名 URL 在本地计算，不受熔断影响。
+ * *Async 方法基于 {@link MinioAsyncClient}（与分片直传共用），请求在 OkHttp 调度线程上完成
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class MinioStorageService {
+@ConditionalOnProperty(prefix = "imgvault.storage", name = "backend", havingValue = "minio", matchIfMissing = true)
+public class MinioStorageService implements StorageBackend {
 
     private final MinioClient minioClient;
+    /** 异步客户端: 分片直传及 *Async 方法 */
+    private final MultipartMinioClient multipartClient;
     private final MinioConfig minioConfig;
+    private final SigV4Presigner presigner;
+    private final PresignedUrlCache presignedUrlCache;
+    private final StorageConfig storageConfig;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-
-    private volatile boolean minioAvailable = false;
+    private StorageCircuitBreaker circuitBreaker;
 
     @PostConstruct
     public void init() {
+        circuitBreaker = new StorageCircuitBreaker(getName(), storageConfig.getCircuitBreaker(),
+                this::ensureBucket, MinioStorageService::isStorageFailure);
         try {
-            boolean exists = minioClient.bucketExists(BucketExistsArgs.builder()
-                    .bucket(minioConfig.getBucketName())
-                    .build());
-            if (!exists) {
-                minioClient.makeBucket(MakeBucketArgs.builder()
-                        .bucket(minioConfig.getBucketName())
-                        .build());
-                log.info("MinIO Bucket '{}' 已创建", minioConfig.getBucketName());
-            } else {
-                log.info("MinIO Bucket '{}' 已存在", minioConfig.getBucketName());
-            }
-            minioAvailable = true;
+            ensureBucket();
         } catch (Exception e) {
-            log.warn("MinIO 初始化失败（服务将继续启动，但存储功能不可用）: {}", e.getMessage());
-            minioAvailable = false;
+            log.warn("MinIO 初始化失败（服务将继续启动，存储调用快速失败直至探测恢复）: {}", e.getMessage());
+            circuitBreaker.forceOpen(e);
         }
+        circuitBreaker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        circuitBreaker.stop();
     }
 
     /**
-     * 确保 MinIO 可用，否则尝试重连
+     * 确保 bucket 存在（启动及熔断探测时调用）
      */
-    private void ensureAvailable() {
-        if (!minioAvailable) {
-            try {
-                minioClient.bucketExists(BucketExistsArgs.builder()
-                        .bucket(minioConfig.getBucketName())
-                        .build());
-                minioAvailable = true;
-                init(); // 重新初始化 bucket
-            } catch (Exception e) {
-                throw new RuntimeException("MinIO 服务不可用，请确保 MinIO 已启动: " + e.getMessage());
-            }
+    private boolean ensureBucket() throws Exception {
+        boolean exists = minioClient.bucketExists(BucketExistsArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .build());
+        if (!exists) {
+            minioClient.makeBucket(MakeBucketArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .build());
+            log.info("MinIO Bucket '{}' 已创建", minioConfig.getBucketName());
         }
+        return true;
     }
 
     /**
-     * 生成存储路径
-     * 格式: originals/2026/02/13/{uuid}.{ext}
+     * 是否计为存储故障: 存储端返回的 4xx 错误（如对象不存在）说明服务正常，不计入
      */
-    public String generateStoragePath(String extension) {
-        String datePath = LocalDate.now().format(DATE_FORMATTER);
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        return String.format("%s/%s/%s.%s",
-                StorageConstants.ORIGINALS_PREFIX, datePath, uuid, extension);
+    static boolean isStorageFailure(Throwable e) {
+        if (e instanceof ErrorResponseException) {
+            return ((ErrorResponseException) e).response().code() >= 500;
+        }
+        return !(e instanceof IllegalArgumentException);
     }
 
     /**
@@ -89,15 +109,17 @@ public class MinioStorageService {
      * @param contentType MIME 类型
      * @return 存储后的 ETag
      */
+    @Override
     public String uploadFile(String storagePath, InputStream inputStream, long fileSize, String contentType) {
-        ensureAvailable();
+        circuitBreaker.acquirePermission();
         try {
-            ObjectWriteResponse response = minioClient.putObject(PutObjectArgs.builder()
+            ObjectWriteResponse response = circuitBreaker.record(() -> minioClient.putObject(PutObjectArgs.builder()
                     .bucket(minioConfig.getBucketName())
                     .object(storagePath)
                     .stream(inputStream, fileSize, -1)
                     .contentType(contentType)
-                    .build());
+                    .headers(cacheHeaders(storagePath))
+                    .build()));
             log.info("文件上传成功: path={}, etag={}", storagePath, response.etag());
             return response.etag();
         } catch (Exception e) {
@@ -106,17 +128,41 @@ public class MinioStorageService {
         }
     }
 
+    /**
+     * 异步上传（请求体在调用线程读入分片缓冲后发出，等待响应期间不占用调用线程）
+     */
+    @Override
+    public CompletableFuture<String> uploadFileAsync(String storagePath, InputStream inputStream, long fileSize,
+                                                     String contentType) {
+        return callAsync(() -> multipartClient.putObject(PutObjectArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .object(storagePath)
+                .stream(inputStream, fileSize, -1)
+                .contentType(contentType)
+                .headers(cacheHeaders(storagePath))
+                .build()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = StorageCircuitBreaker.unwrap(error);
+                        log.error("文件上传失败: path={}", storagePath, cause);
+                        throw asyncFailure("文件上传失败", cause);
+                    }
+                    log.info("文件上传成功: path={}, etag={}", storagePath, response.etag());
+                    return response.etag();
+                });
+    }
+
     /**
      * 生成预签名下载 URL
-     * 如果配置了 externalUrl，将返回基于外部域名的直接访问 URL（无签名参数，bucket 已设为公开读取）
+     * 如果配置了 externalUrl，将返回基于外部域名的直接访问 URL（无签名参数，bucket 已设为公开读取）；
+     * 否则在有效期的大部分时间内复用同一个签名 URL（{@link PresignedUrlCache}）
      *
      * @param storagePath 存储路径
      * @param expirySeconds 有效期（秒）
      * @return 下载 URL
      */
+    @Override
     public String getPresignedDownloadUrl(String storagePath, int expirySeconds) {
-        ensureAvailable();
-
         // 如果配置了外部 URL，直接返回基于外部域名的访问路径（无需预签名，bucket 为公开读取）
         String externalUrl = minioConfig.getExternalUrl();
         if (externalUrl != null && !externalUrl.isEmpty()) {
@@ -124,28 +170,11 @@ public class MinioStorageService {
             return base + storagePath;
         }
 
-        try {
-            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
-                    .method(Method.GET)
-                    .bucket(minioConfig.getBucketName())
-                    .object(storagePath)
-                    .expiry(expirySeconds, TimeUnit.SECONDS)
-                    .build());
-        } catch (Exception e) {
-            log.error("生成预签名下载 URL 失败: path={}", storagePath, e);
-            throw new RuntimeException("生成预签名 URL 失败: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * 生成预签名上传 URL（客户端直传）
-     *
-     * @param storagePath 存储路径
-     * @param expirySeconds 有效期（秒）
-     * @return 预签名 URL
-     */
-    public String getPresignedUploadUrl(String storagePath, int expirySeconds) {
-        return getPresignedUploadUrl(storagePath, null, expirySeconds);
+        // 内容寻址对象不可变，签长有效期并长期复用同一 URL
+        int expiry = StorageBackend.isContentAddressed(storagePath)
+                ? Math.max(expirySeconds, StorageConstants.IMMUTABLE_URL_EXPIRY_SECONDS) : expirySeconds;
+        return presignedUrlCache.get(storagePath, expiry,
+                () -> presigner.presignGet(minioConfig.getBucketName(), storagePath, expiry));
     }
 
     /**
@@ -156,8 +185,8 @@ public class MinioStorageService {
      * @param expirySeconds 有效期（秒）
      * @return 预签名 URL
      */
+    @Override
     public String getPresignedUploadUrl(String storagePath, String contentType, int expirySeconds) {
-        ensureAvailable();
         try {
             GetPresignedObjectUrlArgs.Builder builder = GetPresignedObjectUrlArgs.builder()
                     .method(Method.PUT)
@@ -166,7 +195,7 @@ public class MinioStorageService {
                     .expiry(expirySeconds, TimeUnit.SECONDS);
 
             if (contentType != null && !contentType.isEmpty()) {
-                java.util.Map<String, String> reqParams = new java.util.HashMap<>();
+                Map<String, String> reqParams = new HashMap<>();
                 reqParams.put("Content-Type", contentType);
                 builder.extraQueryParams(reqParams);
             }
@@ -181,13 +210,18 @@ public class MinioStorageService {
     /**
      * 删除文件
      */
+    @Override
     public void deleteFile(String storagePath) {
-        ensureAvailable();
+        circuitBreaker.acquirePermission();
         try {
-            minioClient.removeObject(RemoveObjectArgs.builder()
-                    .bucket(minioConfig.getBucketName())
-                    .object(storagePath)
-                    .build());
+            circuitBreaker.record(() -> {
+                minioClient.removeObject(RemoveObjectArgs.builder()
+                        .bucket(minioConfig.getBucketName())
+                        .object(storagePath)
+                        .build());
+                return null;
+            });
+            presignedUrlCache.invalidate(storagePath);
             log.info("文件已删除: path={}", storagePath);
         } catch (Exception e) {
             log.error("文件删除失败: path={}", storagePath, e);
@@ -195,34 +229,431 @@ public class MinioStorageService {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> deleteFileAsync(String storagePath) {
+        return callAsync(() -> multipartClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .object(storagePath)
+                .build()))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        Throwable cause = StorageCircuitBreaker.unwrap(error);
+                        log.error("文件删除失败: path={}", storagePath, cause);
+                        throw asyncFailure("文件删除失败", cause);
+                    }
+                    presignedUrlCache.invalidate(storagePath);
+                    log.info("文件已删除: path={}", storagePath);
+                    return null;
+                });
+    }
+
+    /**
+     * 批量删除文件（DeleteObjects，每批最多 {@link StorageConstants#DELETE_OBJECTS_MAX_BATCH} 个）
+     * <p>
+     * 不存在的对象视为删除成功
+     *
+     * @return 删除失败的对象数
+     */
+    @Override
+    public int deleteFiles(List<String> storagePaths) {
+        if (storagePaths.isEmpty()) {
+            return 0;
+        }
+        circuitBreaker.acquirePermission();
+        storagePaths.forEach(presignedUrlCache::invalidate);
+        int failed = 0;
+        for (int from = 0; from < storagePaths.size(); from += StorageConstants.DELETE_OBJECTS_MAX_BATCH) {
+            List<DeleteObject> batch = storagePaths
+                    .subList(from, Math.min(from + StorageConstants.DELETE_OBJECTS_MAX_BATCH, storagePaths.size()))
+                    .stream().map(DeleteObject::new).collect(Collectors.toList());
+            try {
+                failed += circuitBreaker.record(() -> {
+                    int errors = 0;
+                    // 结果惰性返回，必须遍历才会真正发出请求
+                    for (Result<DeleteError> result : minioClient.removeObjects(RemoveObjectsArgs.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .objects(batch)
+                            .build())) {
+                        DeleteError error = result.get();
+                        errors++;
+                        log.warn("批量删除失败: path={}, code={}, message={}",
+                                error.objectName(), error.code(), error.message());
+                    }
+                    return errors;
+                });
+            } catch (Exception e) {
+                log.error("批量删除请求失败: count={}", batch.size(), e);
+                failed += batch.size();
+            }
+        }
+        log.info("批量删除完成: count={}, failed={}", storagePaths.size(), failed);
+        return failed;
+    }
+
+    /**
+     * 列出指定前缀下的对象
+     *
+     * @param recursive  false 时只列出直接子级，子目录以 "/" 结尾返回
+     * @param startAfter 从该路径之后开始列出（不含），为 null 时从头开始
+     * @param limit      最多返回的数量
+     */
+    @Override
+    public List<String> listObjects(String prefix, boolean recursive, String startAfter, int limit) {
+        circuitBreaker.acquirePermission();
+        try {
+            return circuitBreaker.record(() -> {
+                List<String> paths = new ArrayList<>();
+                for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                        .bucket(minioConfig.getBucketName())
+                        .prefix(prefix)
+                        .recursive(recursive)
+                        .startAfter(startAfter)
+                        .build())) {
+                    paths.add(result.get().objectName());
+                    if (paths.size() >= limit) {
+                        break;
+                    }
+                }
+                return paths;
+            });
+        } catch (Exception e) {
+            log.error("列出对象失败: prefix={}", prefix, e);
+            throw new RuntimeException("列出对象失败: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * 获取文件流
      */
+    @Override
     public InputStream getFileStream(String storagePath) {
-        ensureAvailable();
+        circuitBreaker.acquirePermission();
         try {
-            return minioClient.getObject(GetObjectArgs.builder()
+            return circuitBreaker.record(() -> minioClient.getObject(GetObjectArgs.builder()
                     .bucket(minioConfig.getBucketName())
                     .object(storagePath)
-                    .build());
+                    .build()));
         } catch (Exception e) {
             log.error("获取文件流失败: path={}", storagePath, e);
             throw new RuntimeException("获取文件流失败: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public CompletableFuture<InputStream> getFileStreamAsync(String storagePath) {
+        return callAsync(() -> multipartClient.getObject(GetObjectArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .object(storagePath)
+                .build()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = StorageCircuitBreaker.unwrap(error);
+                        log.error("获取文件流失败: path={}", storagePath, cause);
+                        throw asyncFailure("获取文件流失败", cause);
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * 获取文件的部分内容（HTTP Range）
+     *
+     * @param storagePath 存储路径
+     * @param offset      起始偏移
+     * @param length      读取长度
+     */
+    @Override
+    public InputStream getFileStream(String storagePath, long offset, long length) {
+        circuitBreaker.acquirePermission();
+        try {
+            return circuitBreaker.record(() -> minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .object(storagePath)
+                    .offset(offset)
+                    .length(length)
+                    .build()));
+        } catch (Exception e) {
+            log.error("获取文件区间失败: path={}, offset={}, length={}", storagePath, offset, length, e);
+            throw new RuntimeException("获取文件区间失败: " + e.getMessage(), e);
+        }
+    }
+
     /**
-     * 检查 MinIO 连接健康状态
+     * 获取对象大小（statObject，只取元数据）
      */
-    public boolean isHealthy() {
+    @Override
+    public long getObjectSize(String storagePath) {
+        circuitBreaker.acquirePermission();
         try {
-            minioClient.bucketExists(BucketExistsArgs.builder()
+            return circuitBreaker.record(() -> minioClient.statObject(StatObjectArgs.builder()
                     .bucket(minioConfig.getBucketName())
-                    .build());
+                    .object(storagePath)
+                    .build()).size());
+        } catch (Exception e) {
+            log.error("获取对象信息失败: path={}", storagePath, e);
+            throw new RuntimeException("获取对象信息失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean objectExists(String storagePath) {
+        circuitBreaker.acquirePermission();
+        try {
+            circuitBreaker.record(() -> minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .object(storagePath)
+                    .build()));
             return true;
+        } catch (ErrorResponseException e) {
+            if (e.response().code() == 404) {
+                return false;
+            }
+            log.error("获取对象信息失败: path={}", storagePath, e);
+            throw new RuntimeException("获取对象信息失败: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("获取对象信息失败: path={}", storagePath, e);
+            throw new RuntimeException("获取对象信息失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 服务端复制（S3 CopyObject），元数据按目标路径重写
+     */
+    @Override
+    public String copyObject(String sourcePath, String targetPath, String contentType) {
+        circuitBreaker.acquirePermission();
+        try {
+            Map<String, String> headers = new HashMap<>(cacheHeaders(targetPath));
+            headers.put("Content-Type", contentType);
+            ObjectWriteResponse response = circuitBreaker.record(() -> minioClient.copyObject(CopyObjectArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .object(targetPath)
+                    .source(CopySource.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .object(sourcePath)
+                            .build())
+                    .headers(headers)
+                    .metadataDirective(Directive.REPLACE)
+                    .build()));
+            log.info("对象已复制: source={}, target={}", sourcePath, targetPath);
+            return response.etag();
+        } catch (Exception e) {
+            log.error("对象复制失败: source={}, target={}", sourcePath, targetPath, e);
+            throw new RuntimeException("对象复制失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 服务端合并多个对象为一个对象（S3 UploadPartCopy），数据不经过应用
+     * 除最后一个外每个源对象需不小于 {@link StorageConstants#COMPOSE_MIN_PART_SIZE}
+     *
+     * @param targetPath  目标路径
+     * @param sourcePaths 源对象路径（按顺序）
+     * @param contentType 目标对象 MIME 类型
+     * @return 目标对象 ETag
+     */
+    @Override
+    public String composeObject(String targetPath, List<String> sourcePaths, String contentType) {
+        circuitBreaker.acquirePermission();
+        try {
+            List<ComposeSource> sources = sourcePaths.stream()
+                    .map(path -> ComposeSource.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .object(path)
+                            .build())
+                    .collect(Collectors.toList());
+            ObjectWriteResponse response = circuitBreaker.record(() -> minioClient.composeObject(ComposeObjectArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .object(targetPath)
+                    .sources(sources)
+                    .headers(Collections.singletonMap("Content-Type", contentType))
+                    .build()));
+            log.info("对象合并成功: path={}, parts={}, etag={}", targetPath, sourcePaths.size(), response.etag());
+            return response.etag();
+        } catch (Exception e) {
+            log.error("对象合并失败: path={}, parts={}", targetPath, sourcePaths.size(), e);
+            throw new RuntimeException("对象合并失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsMultipartUpload() {
+        return true;
+    }
+
+    /**
+     * 发起原生分片上传（客户端通过预签名分片 URL 直传）
+     *
+     * @param storagePath 最终对象路径
+     * @param contentType 最终对象 MIME 类型（可为空）
+     * @return S3 uploadId
+     */
+    @Override
+    public String createMultipartUpload(String storagePath, String contentType) {
+        circuitBreaker.acquirePermission();
+        try {
+            String uploadId = circuitBreaker.record(() -> multipartClient.createMultipartUpload(
+                    minioConfig.getBucketName(), minioConfig.getRegion(), storagePath, contentType));
+            log.info("分片直传已发起: path={}, uploadId={}", storagePath, uploadId);
+            return uploadId;
+        } catch (Exception e) {
+            log.error("发起分片直传失败: path={}", storagePath, e);
+            throw new RuntimeException("发起分片直传失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 生成单个分片的预签名上传 URL（PUT，带 uploadId 和 partNumber 查询参数）
+     */
+    @Override
+    public String getPresignedPartUploadUrl(String storagePath, String uploadId, int partNumber,
+                                            int expirySeconds) {
+        try {
+            Map<String, String> queryParams = new HashMap<>();
+            queryParams.put("uploadId", uploadId);
+            queryParams.put("partNumber", String.valueOf(partNumber));
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(Method.PUT)
+                    .bucket(minioConfig.getBucketName())
+                    .object(storagePath)
+                    .extraQueryParams(queryParams)
+                    .expiry(expirySeconds, TimeUnit.SECONDS)
+                    .build());
+        } catch (Exception e) {
+            log.error("生成预签名分片 URL 失败: path={}, part={}", storagePath, partNumber, e);
+            throw new RuntimeException("生成预签名分片 URL 失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 列出分片直传中已上传的分片（按分片号升序）
+     */
+    @Override
+    public List<StoragePart> listUploadedParts(String storagePath, String uploadId) {
+        circuitBreaker.acquirePermission();
+        try {
+            return circuitBreaker.record(() -> multipartClient.listAllParts(minioConfig.getBucketName(),
+                    minioConfig.getRegion(), storagePath, uploadId)).stream()
+                    .map(part -> new StoragePart(part.partNumber(), part.etag(), part.partSize()))
+                    .collect(Collectors.toList());
         } catch (Exception e) {
-            log.warn("MinIO 健康检查失败", e);
-            return false;
+            log.error("查询已上传分片失败: path={}, uploadId={}", storagePath, uploadId, e);
+            throw new RuntimeException("查询已上传分片失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 完成分片直传，由存储端按分片顺序拼接为最终对象
+     *
+     * @return 最终对象 ETag
+     */
+    @Override
+    public String completeMultipartUpload(String storagePath, String uploadId, List<StoragePart> parts) {
+        circuitBreaker.acquirePermission();
+        try {
+            Part[] completed = parts.stream()
+                    .map(part -> new Part(part.getPartNumber(), part.getEtag()))
+                    .toArray(Part[]::new);
+            ObjectWriteResponse response = circuitBreaker.record(() -> multipartClient.completeMultipartUpload(
+                    minioConfig.getBucketName(), minioConfig.getRegion(), storagePath, uploadId, completed));
+            log.info("分片直传完成: path={}, parts={}, etag={}", storagePath, parts.size(), response.etag());
+            return response.etag();
+        } catch (Exception e) {
+            log.error("完成分片直传失败: path={}, uploadId={}", storagePath, uploadId, e);
+            throw new RuntimeException("完成分片直传失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 放弃分片直传，释放存储端已上传的分片
+     * <p>
+     * 分片上传已不存在（已完成或已放弃）时视为成功
+     */
+    @Override
+    public void abortMultipartUpload(String storagePath, String uploadId) {
+        circuitBreaker.acquirePermission();
+        try {
+            circuitBreaker.record(() -> {
+                multipartClient.abortMultipartUpload(minioConfig.getBucketName(), minioConfig.getRegion(),
+                        storagePath, uploadId);
+                return null;
+            });
+            log.info("分片直传已放弃: path={}, uploadId={}", storagePath, uploadId);
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchUpload".equals(e.errorResponse().code())) {
+                log.error("放弃分片直传失败: path={}, uploadId={}", storagePath, uploadId, e);
+                throw new RuntimeException("放弃分片直传失败: " + e.getMessage(), e);
+            }
+            log.info("分片直传已不存在: path={}, uploadId={}", storagePath, uploadId);
+        } catch (Exception e) {
+            log.error("放弃分片直传失败: path={}, uploadId={}", storagePath, uploadId, e);
+            throw new RuntimeException("放弃分片直传失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "MinIO";
+    }
+
+    /**
+     * 内容寻址对象写入不可变 Cache-Control，MinIO 读取时原样返回给浏览器/CDN
+     */
+    private static Map<String, String> cacheHeaders(String storagePath) {
+        return StorageBackend.isContentAddressed(storagePath)
+                ? Collections.singletonMap("Cache-Control", StorageConstants.IMMUTABLE_CACHE_CONTROL)
+                : Collections.emptyMap();
+    }
+
+    /**
+     * 经熔断器发起异步调用，熔断打开时返回以 {@link ServiceUnavailableException}
+     * 失败的 future
+     */
+    private <T> CompletableFuture<T> callAsync(Callable<CompletableFuture<T>> call) {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+        return circuitBreaker.recordAsync(call);
+    }
+
+    /**
+     * 与同步方法一致: 业务异常（如熔断 503）原样抛出，其余包装为 RuntimeException
+     */
+    private static CompletionException asyncFailure(String message, Throwable cause) {
+        if (cause instanceof BusinessException) {
+            return new CompletionException(cause);
+        }
+        return new CompletionException(new RuntimeException(message + ": " + cause.getMessage(), cause));
+    }
+
+    /**
+     * MinIO 健康状态: 取熔断器缓存的状态，不发起探测；熔断未启用时直接探测
+     */
+    @Override
+    public boolean isHealthy() {
+        if (!storageConfig.getCircuitBreaker().isEnabled()) {
+            try {
+                return ensureBucket();
+            } catch (Exception e) {
+                log.warn("MinIO 健康检查失败: {}", e.getMessage());
+                return false;
+            }
+        }
+        return circuitBreaker.getState() != StorageCircuitBreaker.State.OPEN;
+    }
+
+    @Override
+    public Map<String, Object> getHealthDetails() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("circuitBreaker", circuitBreaker.getState());
+        details.put("failureRate", circuitBreaker.getFailureRate() + "%");
+        if (circuitBreaker.getState() != StorageCircuitBreaker.State.CLOSED && circuitBreaker.getLastError() != null) {
+            details.put("lastError", circuitBreaker.getLastError());
         }
+        return details;
     }
 }
@@ -0,0 +1,82 @@
+package com.imgvault.infrastructure.storage;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 暴露 S3 原生 Multipart Upload 底层操作的 MinIO 客户端
+ * <p>
+ * MinIO SDK 将 createMultipartUpload / listParts / completeMultipartUpload / abortMultipartUpload
+ * 定义为 protected（供 putObject 内部使用），预签名分片直传需要由服务端直接编排这些操作。
+ * 同步版本已标记为废弃，这里调用对应的 *Async 版本并等待结果，异常解包为原始的 MinIO 异常
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    /** listParts 单次返回的最大分片数（S3 上限） */
+    private static final int LIST_PARTS_PAGE_SIZE = 1000;
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * 发起分片上传
+     *
+     * @return S3 uploadId
+     */
+    public String createMultipartUpload(String bucket, String region, String object, String contentType)
+            throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null && !contentType.isEmpty()) {
+            headers.put("Content-Type", contentType);
+        }
+        return await(createMultipartUploadAsync(bucket, region, object, headers, null)).result().uploadId();
+    }
+
+    /**
+     * 列出已上传的全部分片（自动翻页），按分片号升序
+     */
+    public List<Part> listAllParts(String bucket, String region, String object, String uploadId) throws Exception {
+        List<Part> parts = new ArrayList<>();
+        Integer marker = null;
+        while (true) {
+            ListPartsResult result = await(listPartsAsync(bucket, region, object,
+                    LIST_PARTS_PAGE_SIZE, marker, uploadId, null, null)).result();
+            parts.addAll(result.partList());
+            if (!result.isTruncated()) {
+                return parts;
+            }
+            marker = result.nextPartNumberMarker();
+        }
+    }
+
+    public ObjectWriteResponse completeMultipartUpload(String bucket, String region, String object,
+                                                       String uploadId, Part[] parts) throws Exception {
+        return await(completeMultipartUploadAsync(bucket, region, object, uploadId, parts, null, null));
+    }
+
+    public void abortMultipartUpload(String bucket, String region, String object, String uploadId)
+            throws Exception {
+        await(abortMultipartUploadAsync(bucket, region, object, uploadId, null, null));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
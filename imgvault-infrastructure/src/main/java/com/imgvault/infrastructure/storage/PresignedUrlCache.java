@@ -0,0 +1,91 @@
+package com.imgvault.infrastructure.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.imgvault.infrastructure.config.PresignCacheConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 预签名下载 URL 缓存
+ * <p>
+ * 同一存储路径在有效期的前 {@link PresignCacheConfig#getReuseRatio()} 内返回同一个 URL，
+ * 列表页在缓存热时无需任何签名计算，浏览器也能按 URL 缓存图片；之后重新签名，保证返回的 URL 仍有足够剩余有效期
+ */
+@Component
+public class PresignedUrlCache {
+
+    private final PresignCacheConfig config;
+    private final Cache<String, Entry> cache;
+
+    public PresignedUrlCache(PresignCacheConfig config) {
+        this.config = config;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.reuseUntil - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 获取可复用的 URL，不存在或即将过期时调用 signer 重新签名
+     *
+     * @param storagePath   存储路径
+     * @param expirySeconds URL 有效期（秒），与缓存项不一致时重新签名
+     * @param signer        签名函数
+     */
+    public String get(String storagePath, int expirySeconds, Supplier<String> signer) {
+        if (!config.isEnabled()) {
+            return signer.get();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = cache.getIfPresent(storagePath);
+        if (entry != null && entry.expirySeconds == expirySeconds && now < entry.reuseUntil) {
+            return entry.url;
+        }
+        String url = signer.get();
+        long reuseMillis = (long) (expirySeconds * 1000L * config.getReuseRatio());
+        if (reuseMillis > 0) {
+            cache.put(storagePath, new Entry(url, expirySeconds, now + reuseMillis));
+        }
+        return url;
+    }
+
+    /**
+     * 对象删除后失效
+     */
+    public void invalidate(String storagePath) {
+        cache.invalidate(storagePath);
+    }
+
+    private static final class Entry {
+
+        private final String url;
+        private final int expirySeconds;
+        /** 复用截止时间（epoch 毫秒） */
+        private final long reuseUntil;
+
+        private Entry(String url, int expirySeconds, long reuseUntil) {
+            this.url = url;
+            this.expirySeconds = expirySeconds;
+            this.reuseUntil = reuseUntil;
+        }
+    }
+}
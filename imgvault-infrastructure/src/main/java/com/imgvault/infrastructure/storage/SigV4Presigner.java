@@ -0,0 +1,163 @@
+package com.imgvault.infrastructure.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * S3 SigV4 查询串预签名（仅 host 签名头，UNSIGNED-PAYLOAD），生成 path-style URL
+ * <p>
+ * 与 MinIO SDK 的 getPresignedObjectUrl 结果等价，区别在于按天缓存派生签名密钥
+ * （kSigning = HMAC(HMAC(HMAC(HMAC("AWS4" + secret, date), region), "s3"), "aws4_request")），
+ * 每次签名只需一次 SHA-256 和一次 HMAC
+ */
+public class SigV4Presigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String baseUrl;
+    private final String host;
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    /** 当天的派生签名密钥 */
+    private volatile SigningKey signingKey;
+
+    /**
+     * @param endpoint 服务地址，如 http://localhost:9000
+     */
+    public SigV4Presigner(String endpoint, String accessKey, String secretKey, String region) {
+        try {
+            URL url = new URL(endpoint);
+            boolean defaultPort = url.getPort() == -1 || url.getPort() == url.getDefaultPort();
+            this.host = defaultPort ? url.getHost() : url.getHost() + ":" + url.getPort();
+            this.baseUrl = url.getProtocol() + "://" + host;
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("无效的存储地址: " + endpoint, e);
+        }
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region == null || region.isEmpty() ? "us-east-1" : region;
+    }
+
+    /**
+     * 生成 path-style 预签名 GET URL: {endpoint}/{bucket}/{object}?X-Amz-...
+     */
+    public String presignGet(String bucket, String object, int expirySeconds) {
+        String canonicalUri = "/" + bucket + "/" + uriEncode(object, false);
+        return baseUrl + canonicalUri + "?" + presignQuery("GET", host, canonicalUri, expirySeconds, Instant.now());
+    }
+
+    /**
+     * 计算预签名查询串（含 X-Amz-Signature）
+     *
+     * @param canonicalUri 已编码的请求路径
+     */
+    String presignQuery(String method, String host, String canonicalUri, int expirySeconds, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = amzDate.substring(0, 8);
+        String scope = dateStamp + "/" + region + "/s3/aws4_request";
+
+        // 参数已按名称字典序排列
+        String query = "X-Amz-Algorithm=" + ALGORITHM
+                + "&X-Amz-Credential=" + uriEncode(accessKey + "/" + scope, true)
+                + "&X-Amz-Date=" + amzDate
+                + "&X-Amz-Expires=" + expirySeconds
+                + "&X-Amz-SignedHeaders=host";
+        String canonicalRequest = method + "\n"
+                + canonicalUri + "\n"
+                + query + "\n"
+                + "host:" + host + "\n"
+                + "\n"
+                + "host\n"
+                + "UNSIGNED-PAYLOAD";
+        String stringToSign = ALGORITHM + "\n"
+                + amzDate + "\n"
+                + scope + "\n"
+                + hex(sha256(canonicalRequest));
+        String signature = hex(hmac(signingKey(dateStamp), stringToSign));
+        return query + "&X-Amz-Signature=" + signature;
+    }
+
+    private byte[] signingKey(String dateStamp) {
+        SigningKey current = signingKey;
+        if (current == null || !current.dateStamp.equals(dateStamp)) {
+            byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+            key = hmac(key, region);
+            key = hmac(key, "s3");
+            key = hmac(key, "aws4_request");
+            current = new SigningKey(dateStamp, key);
+            signingKey = current;
+        }
+        return current.key;
+    }
+
+    /**
+     * S3 URI 编码：除非保留字符 A-Z a-z 0-9 - _ . ~ 外按 UTF-8 字节百分号编码
+     *
+     * @param encodeSlash 是否编码 "/"（对象路径中保留）
+     */
+    static String uriEncode(String value, boolean encodeSlash) {
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(HEX[c >> 4])).append(Character.toUpperCase(HEX[c & 0xf]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC signing failed", e);
+        }
+    }
+
+    private static byte[] sha256(String data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+
+    private static final class SigningKey {
+
+        private final String dateStamp;
+        private final byte[] key;
+
+        private SigningKey(String dateStamp, byte[] key) {
+            this.dateStamp = dateStamp;
+            this.key = key;
+        }
+    }
+}
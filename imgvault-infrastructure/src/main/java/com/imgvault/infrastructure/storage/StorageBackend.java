@@ -0,0 +1,315 @@
+package com.imgvault.infrastructure.storage;
+
+import com.imgvault.common.constant.StorageConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 对象存储后端 SPI
+ * <p>
+ * 由 imgvault.storage.backend 选择实现:
+ * <ul>
+ *   <li>minio（默认）: {@link MinioStorageService}</li>
+ *   <li>local: {@link LocalStorageBackend}，对象保存为本地文件，下载走 FileChannel.transferTo</li>
+ * </ul>
+ * 路径统一使用 "/" 分隔的对象键，如 originals/2026/02/13/{uuid}.png
+ * <p>
+ * *Async 方法返回 CompletableFuture，供调用方并行发起互不依赖的存储 I/O；
+ * 默认实现在调用线程同步执行后返回已完成的 future，MinIO 实现基于异步客户端，请求期间不占用调用线程
+ */
+public interface StorageBackend {
+
+    DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    /**
+     * 生成存储路径
+     * 格式: originals/2026/02/13/{uuid}.{ext}
+     */
+    default String generateStoragePath(String extension) {
+        String datePath = LocalDate.now().format(DATE_FORMATTER);
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        return String.format("%s/%s/%s.%s",
+                StorageConstants.ORIGINALS_PREFIX, datePath, uuid, extension);
+    }
+
+    /**
+     * 生成内容寻址存储路径: cas/ab/cd/{sha256}.{ext}
+     * <p>
+     * 路径由内容决定，相同内容只存一份；两级目录避免单个前缀下对象过多
+     */
+    default String generateContentAddressedPath(String sha256, String extension) {
+        String hash = sha256.toLowerCase(Locale.ROOT);
+        return String.format("%s/%s/%s/%s.%s", StorageConstants.CAS_PREFIX,
+                hash.substring(0, 2), hash.substring(2, 4), hash, extension);
+    }
+
+    /**
+     * 是否为内容寻址路径（对象不可变，可长期缓存）
+     */
+    static boolean isContentAddressed(String storagePath) {
+        return storagePath != null && storagePath.startsWith(StorageConstants.CAS_PREFIX + "/");
+    }
+
+    /**
+     * 上传文件（字节流直写，零重编码）
+     *
+     * @param storagePath 存储路径
+     * @param inputStream 文件输入流
+     * @param fileSize    文件大小
+     * @param contentType MIME 类型
+     * @return 存储后的 ETag
+     */
+    String uploadFile(String storagePath, InputStream inputStream, long fileSize, String contentType);
+
+    /**
+     * 获取文件流
+     */
+    InputStream getFileStream(String storagePath);
+
+    /**
+     * 获取文件的部分内容（HTTP Range）
+     *
+     * @param storagePath 存储路径
+     * @param offset      起始偏移
+     * @param length      读取长度
+     */
+    InputStream getFileStream(String storagePath, long offset, long length);
+
+    /**
+     * 将文件区间写入目标通道
+     * <p>
+     * 默认实现经由 {@link #getFileStream(String, long, long)} 缓冲复制；
+     * 本地实现直接 FileChannel.transferTo，目标为 socket/文件通道时由内核完成零拷贝
+     *
+     * @return 实际写入的字节数
+     */
+    default long transferTo(String storagePath, long offset, long length, WritableByteChannel target)
+            throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(getFileStream(storagePath, offset, length))) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long written = 0;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return written;
+        }
+    }
+
+    /**
+     * 内容寻址写入: 相同内容的对象已存在时跳过写入（只需写元数据）
+     *
+     * @return true 表示本次实际写入了对象
+     */
+    default boolean uploadFileIfAbsent(String storagePath, InputStream inputStream, long fileSize,
+                                       String contentType) {
+        if (objectExists(storagePath)) {
+            return false;
+        }
+        uploadFile(storagePath, inputStream, fileSize, contentType);
+        return true;
+    }
+
+    /**
+     * 异步上传文件
+     *
+     * @return 存储后的 ETag
+     */
+    default CompletableFuture<String> uploadFileAsync(String storagePath, InputStream inputStream, long fileSize,
+                                                      String contentType) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(uploadFile(storagePath, inputStream, fileSize, contentType));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 异步获取文件流，future 完成时响应头已到达，调用方负责关闭流
+     */
+    default CompletableFuture<InputStream> getFileStreamAsync(String storagePath) {
+        CompletableFuture<InputStream> future = new CompletableFuture<>();
+        try {
+            future.complete(getFileStream(storagePath));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 异步删除文件
+     */
+    default CompletableFuture<Void> deleteFileAsync(String storagePath) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            deleteFile(storagePath);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 获取对象大小（只取元数据）
+     */
+    long getObjectSize(String storagePath);
+
+    /**
+     * 对象是否存在（只取元数据）
+     */
+    boolean objectExists(String storagePath);
+
+    /**
+     * 存储端复制对象，数据不经过应用；目标为内容寻址路径时写入不可变 Cache-Control
+     *
+     * @return 目标对象的 ETag
+     */
+    String copyObject(String sourcePath, String targetPath, String contentType);
+
+    /**
+     * 删除文件
+     */
+    void deleteFile(String storagePath);
+
+    /**
+     * 批量删除文件，不存在的对象视为删除成功
+     *
+     * @return 删除失败的对象数
+     */
+    int deleteFiles(List<String> storagePaths);
+
+    /**
+     * 列出指定前缀下的对象（按路径字典序）
+     *
+     * @param recursive  false 时只列出直接子级，子目录以 "/" 结尾返回
+     * @param startAfter 从该路径之后开始列出（不含），为 null 时从头开始
+     * @param limit      最多返回的数量
+     */
+    List<String> listObjects(String prefix, boolean recursive, String startAfter, int limit);
+
+    /**
+     * 合并多个对象为一个对象（按顺序拼接）
+     * 对象存储实现要求除最后一个外每个源对象不小于 {@link StorageConstants#COMPOSE_MIN_PART_SIZE}
+     *
+     * @return 目标对象 ETag
+     */
+    String composeObject(String targetPath, List<String> sourcePaths, String contentType);
+
+    /**
+     * 生成预签名下载 URL
+     *
+     * @param storagePath   存储路径
+     * @param expirySeconds 有效期（秒）
+     */
+    String getPresignedDownloadUrl(String storagePath, int expirySeconds);
+
+    /**
+     * 生成预签名上传 URL（客户端直传）
+     */
+    default String getPresignedUploadUrl(String storagePath, int expirySeconds) {
+        return getPresignedUploadUrl(storagePath, null, expirySeconds);
+    }
+
+    /**
+     * 生成预签名上传 URL（客户端直传，含 contentType）
+     */
+    String getPresignedUploadUrl(String storagePath, String contentType, int expirySeconds);
+
+    /**
+     * 是否支持分片直传（预签名 Multipart Upload）
+     * <p>
+     * 返回 false 时下列分片直传方法均不可调用（默认实现抛出 UnsupportedOperationException），
+     * 调用方应先检查本方法并回退为经服务端中转的分片上传；返回 true 的实现必须覆盖全部分片直传方法
+     */
+    default boolean supportsMultipartUpload() {
+        return false;
+    }
+
+    /**
+     * 发起分片直传
+     *
+     * @return 分片上传 ID
+     * @throws UnsupportedOperationException 不支持分片直传的后端（默认实现）
+     */
+    default String createMultipartUpload(String storagePath, String contentType) {
+        throw new UnsupportedOperationException("当前存储后端不支持分片直传");
+    }
+
+    /**
+     * 生成单个分片的预签名上传 URL（客户端直接 PUT 分片数据）
+     *
+     * @param uploadId      {@link #createMultipartUpload(String, String)} 返回的分片上传 ID
+     * @param partNumber    分片号，从 1 开始
+     * @param expirySeconds 有效期（秒）
+     * @throws UnsupportedOperationException 不支持分片直传的后端（默认实现）
+     */
+    default String getPresignedPartUploadUrl(String storagePath, String uploadId, int partNumber,
+                                             int expirySeconds) {
+        throw new UnsupportedOperationException("当前存储后端不支持分片直传");
+    }
+
+    /**
+     * 列出分片直传中已上传的分片（按分片号升序）
+     *
+     * @throws UnsupportedOperationException 不支持分片直传的后端（默认实现）
+     */
+    default List<StoragePart> listUploadedParts(String storagePath, String uploadId) {
+        throw new UnsupportedOperationException("当前存储后端不支持分片直传");
+    }
+
+    /**
+     * 完成分片直传，按分片顺序拼接为最终对象
+     *
+     * @return 最终对象 ETag
+     * @throws UnsupportedOperationException 不支持分片直传的后端（默认实现）
+     */
+    default String completeMultipartUpload(String storagePath, String uploadId, List<StoragePart> parts) {
+        throw new UnsupportedOperationException("当前存储后端不支持分片直传");
+    }
+
+    /**
+     * 放弃分片直传，分片上传已不存在时视为成功
+     *
+     * @throws UnsupportedOperationException 不支持分片直传的后端（默认实现）
+     */
+    default void abortMultipartUpload(String storagePath, String uploadId) {
+        throw new UnsupportedOperationException("当前存储后端不支持分片直传");
+    }
+
+    /**
+     * 检查存储健康状态
+     */
+    boolean isHealthy();
+
+    /**
+     * 健康检查附加信息（如熔断状态），默认无
+     */
+    default Map<String, Object> getHealthDetails() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 后端名称（用于健康检查与日志）
+     */
+    String getName();
+}
@@ -0,0 +1,294 @@
+package com.imgvault.infrastructure.storage;
+
+import com.imgvault.common.exception.ServiceUnavailableException;
+import com.imgvault.infrastructure.config.StorageConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 对象存储熔断器
+ * <p>
+ * 状态机:
+ * <ul>
+ *   <li>CLOSED: 正常放行，按最近 windowSize 次调用统计失败率；样本数不少于 minimumCalls
+ *       且失败率达到阈值时打开</li>
+ *   <li>OPEN: 直接拒绝（503），不发起网络请求、不占用请求线程；打开满 openDurationMillis 后
+ *       由后台线程每 probeIntervalMillis 探测一次，探测成功进入半开</li>
+ *   <li>HALF_OPEN: 最多放行 halfOpenPermits 次试探调用（后台探测也计入），
+ *       成功数达到 halfOpenPermits 时关闭，任一失败重新打开</li>
+ * </ul>
+ * 健康检查读取缓存的状态，不再每次探测
+ */
+@Slf4j
+public class StorageCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final StorageConfig.CircuitBreaker config;
+    private final Callable<?> probe;
+    private final Predicate<Throwable> recordAsFailure;
+    private final LongSupplier clock;
+
+    /** 滑动窗口: true 表示失败 */
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenAttempts;
+    private int halfOpenSuccesses;
+    private volatile String lastError;
+
+    private ScheduledExecutorService prober;
+
+    /**
+     * @param probe           探测调用（如 bucketExists），不抛异常即视为恢复
+     * @param recordAsFailure 哪些异常计为存储故障（如对象不存在等业务错误不应计入）
+     */
+    public StorageCircuitBreaker(String name, StorageConfig.CircuitBreaker config, Callable<?> probe,
+                                 Predicate<Throwable> recordAsFailure) {
+        this(name, config, probe, recordAsFailure, System::currentTimeMillis);
+    }
+
+    StorageCircuitBreaker(String name, StorageConfig.CircuitBreaker config, Callable<?> probe,
+                          Predicate<Throwable> recordAsFailure, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.probe = probe;
+        this.recordAsFailure = recordAsFailure;
+        this.clock = clock;
+        this.window = new boolean[Math.max(1, config.getWindowSize())];
+    }
+
+    /**
+     * 启动后台探测线程
+     */
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "imgvault-storage-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probeIfNeeded,
+                config.getProbeIntervalMillis(), config.getProbeIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    /**
+     * 申请调用许可，熔断打开或半开许可用尽时抛出 {@link ServiceUnavailableException}
+     */
+    public void acquirePermission() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        int retryAfter;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && halfOpenAttempts < config.getHalfOpenPermits()) {
+                halfOpenAttempts++;
+                return;
+            }
+            retryAfter = retryAfterSeconds();
+        }
+        throw new ServiceUnavailableException(name + " 暂不可用，请稍后重试", retryAfter);
+    }
+
+    /**
+     * 执行存储调用并记录结果（调用前须已 {@link #acquirePermission()}）
+     */
+    public <T> T record(Callable<T> call) throws Exception {
+        if (!config.isEnabled()) {
+            return call.call();
+        }
+        try {
+            T result = call.call();
+            onSuccess();
+            return result;
+        } catch (Exception e) {
+            if (recordAsFailure.test(e)) {
+                onFailure(e);
+            } else {
+                // 存储端正常响应了错误（如对象不存在），说明服务可用
+                onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 记录异步存储调用的结果（调用前须已 {@link #acquirePermission()}），在 future 完成时计入窗口
+     *
+     * @return 与调用返回的 future 同时完成；发起调用即抛出的异常以失败的 future 返回
+     */
+    public <T> CompletableFuture<T> recordAsync(Callable<CompletableFuture<T>> call) {
+        CompletableFuture<T> future;
+        try {
+            future = call.call();
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        if (!config.isEnabled()) {
+            return future;
+        }
+        return future.whenComplete((result, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause == null || !recordAsFailure.test(cause)) {
+                onSuccess();
+            } else {
+                onFailure(cause);
+            }
+        });
+    }
+
+    /**
+     * 剥离 CompletableFuture 包装的异常
+     */
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * 直接打开熔断（如启动时存储不可达）
+     */
+    public synchronized void forceOpen(Throwable cause) {
+        lastError = String.valueOf(cause.getMessage());
+        transitionToOpen();
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.CLOSED) {
+            addToWindow(false);
+        } else if (state == State.HALF_OPEN && ++halfOpenSuccesses >= config.getHalfOpenPermits()) {
+            transitionToClosed();
+        }
+    }
+
+    synchronized void onFailure(Throwable cause) {
+        lastError = String.valueOf(cause.getMessage());
+        if (state == State.CLOSED) {
+            addToWindow(true);
+            if (windowCount >= config.getMinimumCalls()
+                    && windowFailures * 100 >= config.getFailureRateThreshold() * windowCount) {
+                transitionToOpen();
+            }
+        } else if (state == State.HALF_OPEN) {
+            transitionToOpen();
+        }
+    }
+
+    /**
+     * 后台探测: 打开满 openDurationMillis 后每次调度都探测，成功进入半开；半开时探测结果计为一次试探
+     */
+    void probeIfNeeded() {
+        synchronized (this) {
+            if (state == State.CLOSED
+                    || (state == State.OPEN && clock.getAsLong() - openedAt < config.getOpenDurationMillis())) {
+                return;
+            }
+        }
+        try {
+            probe.call();
+        } catch (Exception e) {
+            log.debug("{} 探测失败: {}", name, e.getMessage());
+            synchronized (this) {
+                lastError = String.valueOf(e.getMessage());
+                // 打开状态保留 openedAt，下一次探测仍在 probeIntervalMillis 之后；半开时重新打开
+                if (state == State.HALF_OPEN) {
+                    transitionToOpen();
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                state = State.HALF_OPEN;
+                halfOpenAttempts = 0;
+                halfOpenSuccesses = 0;
+                log.info("{} 探测成功，熔断半开", name);
+            }
+        }
+        onSuccess();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * 当前窗口内的失败率（百分比），样本为空时返回 0
+     */
+    public synchronized int getFailureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100 / windowCount;
+    }
+
+    private void addToWindow(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transitionToOpen() {
+        if (state != State.OPEN) {
+            log.warn("{} 熔断打开: failureRate={}%, lastError={}", name, getFailureRate(), lastError);
+        }
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void transitionToClosed() {
+        state = State.CLOSED;
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        log.info("{} 已恢复，熔断关闭", name);
+    }
+
+    private int retryAfterSeconds() {
+        long waitMillis = Math.max(config.getProbeIntervalMillis(), config.getOpenDurationMillis()
+                - (clock.getAsLong() - openedAt));
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999));
+    }
+}
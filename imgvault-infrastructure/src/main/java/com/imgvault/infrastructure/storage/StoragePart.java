@@ -0,0 +1,20 @@
+package com.imgvault.infrastructure.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 分片直传中已上传的分片
+ */
+@Data
+@AllArgsConstructor
+public class StoragePart {
+
+    /** 分片编号（从 1 开始） */
+    private int partNumber;
+
+    private String etag;
+
+    /** 分片大小（字节） */
+    private long size;
+}
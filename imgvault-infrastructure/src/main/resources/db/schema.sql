@@ -44,6 +44,7 @@ CREATE INDEX IF NOT EXISTS idx_image_uploader ON img_image(uploader_id);
 CREATE INDEX IF NOT EXISTS idx_image_status ON img_image(status);
 CREATE INDEX IF NOT EXISTS idx_image_created ON img_image(created_at);
 CREATE INDEX IF NOT EXISTS idx_image_format ON img_image(format);
+CREATE INDEX IF NOT EXISTS idx_image_storage_path ON img_image(storage_path);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_image_uuid ON img_image(image_uuid);
 
 -- 更新时间触发器
@@ -162,8 +163,9 @@ CREATE TABLE IF NOT EXISTS img_upload_task (
     chunk_size INTEGER NOT NULL,
     total_chunks INTEGER NOT NULL,
     uploaded_chunks INTEGER DEFAULT 0,
-    uploaded_parts TEXT,               -- 逗号分隔的已上传分片编号
+    uploaded_parts TEXT,               -- 逗号分隔的已上传分片编号（旧版本，新任务见 img_upload_chunk）
     storage_path TEXT,                 -- 合并后的存储路径
+    multipart_upload_id TEXT,          -- 分片直传时的 S3 Multipart uploadId
     status TEXT DEFAULT 'uploading',   -- uploading/merging/completed/failed/expired
     uploader_id INTEGER,
     expires_at TEXT NOT NULL,
@@ -175,6 +177,17 @@ CREATE INDEX IF NOT EXISTS idx_upload_task_id ON img_upload_task(upload_id);
 CREATE INDEX IF NOT EXISTS idx_upload_task_status ON img_upload_task(status);
 CREATE INDEX IF NOT EXISTS idx_upload_task_expires ON img_upload_task(expires_at);
 
+-- 分片记录表（每个分片到达时计算的摘要，合并时只需读取元数据）
+CREATE TABLE IF NOT EXISTS img_upload_chunk (
+    upload_id TEXT NOT NULL,
+    chunk_number INTEGER NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    chunk_sha256 TEXT NOT NULL,
+    chunk_md5 TEXT NOT NULL,
+    created_at TEXT DEFAULT (datetime('now')),
+    PRIMARY KEY (upload_id, chunk_number)
+);
+
 -- ==========================================
 -- 异步任务表（替代 RocketMQ）
 -- ==========================================
@@ -212,3 +225,8 @@ CREATE TABLE IF NOT EXISTS img_operation_log (
 
 CREATE INDEX IF NOT EXISTS idx_log_operator ON img_operation_log(operator_id);
 CREATE INDEX IF NOT EXISTS idx_log_created ON img_operation_log(created_at);
+
+-- ==========================================
+-- 增量列（已有数据库升级用，列已存在时忽略）
+-- ==========================================
+ALTER TABLE img_upload_task ADD COLUMN multipart_upload_id TEXT;
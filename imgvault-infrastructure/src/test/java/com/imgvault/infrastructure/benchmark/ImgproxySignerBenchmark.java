@@ -0,0 +1,120 @@
+package com.imgvault.infrastructure.benchmark;
+
+import com.imgvault.infrastructure.config.ImgproxyConfig;
+import com.imgvault.infrastructure.config.MinioConfig;
+import com.imgvault.infrastructure.storage.ImgproxyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * imgproxy URL 生成基准测试（吞吐量单位: URL/秒）
+ * <p>
+ * 每次调用生成一张图片详情所需的 5 个签名 URL（三种缩略图 + WebP + AVIF）:
+ * legacy 为改造前的实现（每个 URL 都 Mac.getInstance + init，String.format 拼接路径），
+ * current 为 {@link ImgproxyService}（按线程复用预初始化的 Mac，StringBuilder 拼接）。
+ * <p>
+ * 运行方式:
+ * <pre>
+ * mvn -pl imgvault-infrastructure test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=com.imgvault.infrastructure.benchmark.ImgproxySignerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImgproxySignerBenchmark {
+
+    private static final String KEY = "943b421c9eb07c830af81030552c86009268de4e532ba2ee2eab8247c6da0881";
+    private static final String SALT = "520f986b998545b4785e0defbc4f3c1203f22de2374a3d53cb7a7fe9fea309c5";
+    private static final String BUCKET = "imgvault";
+    private static final String BASE_URL = "http://localhost:8081";
+    private static final String STORAGE_PATH = "originals/2026/02/14/0b5c1e4f8a2d4d3c9e7f6a5b4c3d2e1f.jpg";
+
+    private ImgproxyService service;
+    private byte[] keyBytes;
+    private byte[] saltBytes;
+
+    @Setup
+    public void setup() {
+        ImgproxyConfig imgproxyConfig = new ImgproxyConfig();
+        imgproxyConfig.setBaseUrl(BASE_URL);
+        imgproxyConfig.setKey(KEY);
+        imgproxyConfig.setSalt(SALT);
+        MinioConfig minioConfig = new MinioConfig();
+        minioConfig.setBucketName(BUCKET);
+        service = new ImgproxyService(imgproxyConfig, minioConfig);
+        service.init();
+        keyBytes = hex(KEY);
+        saltBytes = hex(SALT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void legacy(Blackhole bh) throws Exception {
+        bh.consume(legacyUrl(String.format("/rs:%s:%d:%d:0/plain/%s", "fit", 150, 150, legacySource())));
+        bh.consume(legacyUrl(String.format("/rs:%s:%d:%d:0/plain/%s", "fit", 800, 600, legacySource())));
+        bh.consume(legacyUrl(String.format("/rs:%s:%d:%d:0/plain/%s", "fit", 1920, 1080, legacySource())));
+        bh.consume(legacyUrl(String.format("/q:%d/plain/%s@webp", 85, legacySource())));
+        bh.consume(legacyUrl(String.format("/q:%d/plain/%s@avif", 80, legacySource())));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void current(Blackhole bh) {
+        bh.consume(service.getThumbnailUrls(STORAGE_PATH));
+        bh.consume(service.getWebpUrl(STORAGE_PATH, 85));
+        bh.consume(service.getAvifUrl(STORAGE_PATH, 80));
+    }
+
+    private static String legacySource() {
+        return String.format("s3://%s/%s", BUCKET, STORAGE_PATH);
+    }
+
+    /**
+     * 改造前的签名实现
+     */
+    private String legacyUrl(String path) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(keyBytes, "HmacSHA256"));
+        mac.update(saltBytes);
+        String hash = Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(path.getBytes()));
+        return BASE_URL + "/" + hash + path;
+    }
+
+    private static byte[] hex(String hex) {
+        byte[] res = new byte[hex.length() / 2];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return res;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ImgproxySignerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.imgvault.infrastructure.persistence;
+
+import com.imgvault.domain.entity.FileFingerprintEntity;
+import com.imgvault.infrastructure.config.FingerprintIndexConfig;
+import com.imgvault.infrastructure.config.SQLiteInitializer;
+import com.imgvault.infrastructure.persistence.mapper.FileFingerprintMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FileFingerprintRepositoryImpl 单元测试
+ * 覆盖内存指纹索引的回退路径: 64 位前缀冲突、删除后的失效映射都必须回落到按完整哈希查库
+ */
+@DisplayName("文件指纹仓库测试")
+class FileFingerprintRepositoryImplTest {
+
+    /** 两个哈希前 16 位（64 位前缀）相同，其余不同 */
+    private static final String PREFIX = "0123456789abcdef";
+    private static final String HASH_A = PREFIX + repeat('a', 48);
+    private static final String HASH_B = PREFIX + repeat('b', 48);
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource dataSource;
+    private FileFingerprintMapper mapper;
+    private FingerprintIndex index;
+    private FileFingerprintRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("test.db"));
+        dataSource.setMaximumPoolSize(1);
+        new SQLiteInitializer(dataSource).run();
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath*:mapper/*.xml"));
+        Configuration configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        factory.setConfiguration(configuration);
+        mapper = new SqlSessionTemplate(factory.getObject()).getMapper(FileFingerprintMapper.class);
+
+        FingerprintIndexConfig config = new FingerprintIndexConfig();
+        config.setExpectedInsertions(1000);
+        index = new FingerprintIndex(mapper, config);
+        index.load();
+        assertTrue(index.isReady());
+        repository = new FileFingerprintRepositoryImpl(mapper, index);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("64 位前缀冲突时按完整哈希查库，两个哈希都能查到各自的记录")
+    void resolvesPrefixCollision() {
+        FileFingerprintEntity a = insert(HASH_A, "cas/a.png");
+        // 后插入的 B 覆盖同一前缀的映射
+        FileFingerprintEntity b = insert(HASH_B, "cas/b.png");
+        assertEquals(b.getId(), index.findId(HASH_A));
+
+        for (int round = 0; round < 2; round++) {
+            assertEquals(a.getId(), repository.findByHash(HASH_A).getId());
+            assertEquals(b.getId(), repository.findByHash(HASH_B).getId());
+        }
+        assertNull(repository.findByHash(PREFIX + repeat('c', 48)));
+    }
+
+    @Test
+    @DisplayName("指纹删除后索引中的失效映射被剔除，重新插入后可再次命中")
+    void evictsStaleEntryAfterDelete() {
+        FileFingerprintEntity a = insert(HASH_A, "cas/a.png");
+        assertEquals(a.getId(), index.findId(HASH_A));
+
+        assertEquals(1, repository.deleteByStoragePaths(Collections.singletonList("cas/a.png")));
+
+        assertNull(repository.findByHash(HASH_A));
+        assertNull(index.findId(HASH_A));
+
+        FileFingerprintEntity again = insert(HASH_A, "cas/a2.png");
+        assertNotEquals(a.getId(), again.getId());
+        assertEquals("cas/a2.png", repository.findByHash(HASH_A).getStoragePath());
+    }
+
+    @Test
+    @DisplayName("启动加载已有指纹，索引外的哈希直接判定不存在")
+    void loadsExistingFingerprints() {
+        FileFingerprintEntity a = insert(HASH_A, "cas/a.png");
+        FingerprintIndexConfig config = new FingerprintIndexConfig();
+        config.setExpectedInsertions(1000);
+        config.setLoadBatchSize(1);
+        FingerprintIndex reloaded = new FingerprintIndex(mapper, config);
+        reloaded.load();
+
+        assertEquals(a.getId(), reloaded.findId(HASH_A));
+        assertNull(reloaded.findId(repeat('f', 64)));
+    }
+
+    private FileFingerprintEntity insert(String hash, String storagePath) {
+        FileFingerprintEntity entity = new FileFingerprintEntity();
+        entity.setFileHash(hash);
+        entity.setFileMd5("md5");
+        entity.setStoragePath(storagePath);
+        entity.setFileSize(1L);
+        assertEquals(1, repository.insert(entity));
+        assertNotNull(entity.getId());
+        return entity;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,192 @@
+package com.imgvault.infrastructure.persistence;
+
+import com.imgvault.domain.entity.ImageEntity;
+import com.imgvault.infrastructure.config.SQLiteInitializer;
+import com.imgvault.infrastructure.persistence.mapper.FileFingerprintMapper;
+import com.imgvault.infrastructure.persistence.mapper.ImageMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImageRepositoryImpl / FileFingerprintRepositoryImpl 批量删除与降冷候选查询单元测试
+ * 使用临时文件 SQLite + 正式建表脚本与 Mapper XML（foreign_keys=ON，与生产配置一致）
+ */
+@DisplayName("图片仓库批量删除测试")
+class ImageRepositoryImplTest {
+
+    /** 超过两个分批边界，覆盖最后一批不满的情况 */
+    private static final int IMAGE_COUNT = ImageRepositoryImpl.IN_BATCH_SIZE * 2 + 50;
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ImageRepositoryImpl imageRepository;
+    private FileFingerprintRepositoryImpl fingerprintRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("test.db") + "?foreign_keys=on");
+        dataSource.setMaximumPoolSize(1);
+        new SQLiteInitializer(dataSource).run();
+        jdbc = new JdbcTemplate(dataSource);
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath*:mapper/*.xml"));
+        Configuration configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        factory.setConfiguration(configuration);
+        SqlSessionTemplate session = new SqlSessionTemplate(factory.getObject());
+
+        imageRepository = new ImageRepositoryImpl(session.getMapper(ImageMapper.class));
+        // decrementRefCountByImageIds 不经过内存指纹索引
+        fingerprintRepository = new FileFingerprintRepositoryImpl(session.getMapper(FileFingerprintMapper.class), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("partition 按 IN_BATCH_SIZE 切分")
+    void partitionSplitsAtBatchSize() {
+        int size = ImageRepositoryImpl.IN_BATCH_SIZE;
+        assertEquals(Collections.emptyList(), ImageRepositoryImpl.partition(Collections.emptyList()));
+        assertEquals(1, ImageRepositoryImpl.partition(range(1, size)).size());
+
+        List<List<Long>> chunks = ImageRepositoryImpl.partition(range(1, size + 1));
+        assertEquals(2, chunks.size());
+        assertEquals(size, chunks.get(0).size());
+        assertEquals(Collections.singletonList((long) size + 1), chunks.get(1));
+    }
+
+    @Test
+    @DisplayName("跨多个分批物理删除图片，并级联删除元数据、标签、相册与异步任务记录")
+    void deleteByIdsCascadesAcrossBatches() {
+        List<Long> ids = insertImages(IMAGE_COUNT + 1, i -> "hash-" + i);
+        long keptId = ids.get(IMAGE_COUNT);
+        List<Long> deleted = ids.subList(0, IMAGE_COUNT);
+        jdbc.update("INSERT INTO img_tag (name) VALUES ('t')");
+        jdbc.update("INSERT INTO img_album (name, owner_id) VALUES ('a', 1)");
+        for (String sql : Arrays.asList(
+                "INSERT INTO img_metadata (image_id) SELECT id FROM img_image",
+                "INSERT INTO img_image_tag (image_id, tag_id) SELECT id, 1 FROM img_image",
+                "INSERT INTO img_album_image (album_id, image_id) SELECT 1, id FROM img_image",
+                "INSERT INTO img_async_task (task_type, image_id) SELECT 'exif_extract', id FROM img_image")) {
+            jdbc.update(sql);
+        }
+
+        // 任一从表漏删时 foreign_keys=ON 会使删除失败
+        assertEquals(IMAGE_COUNT, imageRepository.deleteByIds(deleted));
+
+        assertEquals(Collections.singletonList(keptId),
+                jdbc.queryForList("SELECT id FROM img_image", Long.class));
+        for (String table : Arrays.asList("img_metadata", "img_image_tag", "img_album_image", "img_async_task")) {
+            assertEquals(Collections.singletonList(keptId),
+                    jdbc.queryForList("SELECT image_id FROM " + table, Long.class), table);
+        }
+    }
+
+    @Test
+    @DisplayName("按图片批量扣减引用计数：共享指纹跨分批时逐批累计扣减")
+    void decrementRefCountByImageIdsHandlesSharedFingerprints() {
+        // shared 被全部图片中的偶数号引用（跨越所有分批），其余图片各自独占指纹
+        List<Long> ids = insertImages(IMAGE_COUNT, i -> i % 2 == 0 ? "shared" : "own-" + i);
+        int sharedRefs = (IMAGE_COUNT + 1) / 2;
+        jdbc.update("INSERT INTO file_fingerprint (file_hash, file_md5, storage_path, file_size, ref_count)"
+                + " SELECT DISTINCT file_hash, 'md5', 'cas/' || file_hash, 1, 0 FROM img_image");
+        jdbc.update("UPDATE file_fingerprint SET ref_count ="
+                + " (SELECT COUNT(*) FROM img_image i WHERE i.file_hash = file_fingerprint.file_hash)");
+        jdbc.update("INSERT INTO file_fingerprint (file_hash, file_md5, storage_path, file_size, ref_count)"
+                + " VALUES ('untouched', 'md5', 'cas/untouched', 1, 3)");
+        assertEquals(sharedRefs, refCount("shared"));
+
+        // 删除除最后 10 张外的全部图片，shared 仍被其中 5 张引用
+        List<Long> deleted = ids.subList(0, IMAGE_COUNT - 10);
+        fingerprintRepository.decrementRefCountByImageIds(deleted);
+
+        assertEquals(5, refCount("shared"));
+        assertEquals(0, refCount("own-1"));
+        assertEquals(1, refCount("own-" + (IMAGE_COUNT - 1)));
+        assertEquals(3, refCount("untouched"));
+        assertEquals(0, (int) jdbc.queryForObject(
+                "SELECT COUNT(*) FROM file_fingerprint WHERE ref_count < 0", Integer.class));
+    }
+
+    @Test
+    @DisplayName("降冷候选按路径聚合，并排除冷层与内容寻址对象")
+    void findColdCandidatesExcludesPrefixes() {
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{"u1", "originals/a.png"},
+                new Object[]{"u2", "originals/a.png"},
+                new Object[]{"u3", "cold/originals/b.png"},
+                new Object[]{"u4", "cas/ab/cd/abcd.png"},
+                new Object[]{"u5", "originals/c.png"});
+        jdbc.batchUpdate("INSERT INTO img_image (image_uuid, file_hash, file_md5, storage_path, file_size,"
+                + " format, mime_type, created_at, updated_at)"
+                + " VALUES (?, 'h', 'md5', ?, 1, 'png', 'image/png', '2020-01-01 00:00:00', '2020-01-01 00:00:00')",
+                rows);
+
+        List<ImageEntity> candidates = imageRepository.findColdCandidates("2021-01-01 00:00:00", 10,
+                Arrays.asList("cold/", "cas/"), null, 10);
+
+        assertEquals(Arrays.asList("originals/a.png", "originals/c.png"),
+                candidates.stream().map(ImageEntity::getStoragePath).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList("originals/c.png"),
+                imageRepository.findColdCandidates("2021-01-01 00:00:00", 10,
+                        Arrays.asList("cold/", "cas/"), "originals/a.png", 10)
+                        .stream().map(ImageEntity::getStoragePath).collect(Collectors.toList()));
+    }
+
+    private interface HashByIndex {
+        String hash(int index);
+    }
+
+    /**
+     * 插入 count 张图片，返回按插入顺序排列的 id
+     */
+    private List<Long> insertImages(int count, HashByIndex hashes) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"uuid-" + i, hashes.hash(i), "originals/" + i + ".png"});
+        }
+        jdbc.batchUpdate("INSERT INTO img_image (image_uuid, file_hash, file_md5, storage_path, file_size,"
+                + " format, mime_type) VALUES (?, ?, 'md5', ?, 1, 'png', 'image/png')", rows);
+        return jdbc.queryForList("SELECT id FROM img_image ORDER BY id", Long.class);
+    }
+
+    private int refCount(String fileHash) {
+        return jdbc.queryForObject("SELECT ref_count FROM file_fingerprint WHERE file_hash = ?",
+                Integer.class, fileHash);
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> list = new ArrayList<>();
+        for (long i = from; i <= to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,186 @@
+package com.imgvault.infrastructure.persistence;
+
+import com.imgvault.infrastructure.config.WriteBatchConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqliteWriteBatcher 单元测试
+ * 使用临时文件 SQLite + 单连接池（与生产配置 maximum-pool-size: 1 一致）
+ */
+@DisplayName("SQLite 组提交写入器")
+class SqliteWriteBatcherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+    private WriteBatchConfig config;
+    private SqliteWriteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("test.db"));
+        dataSource.setMaximumPoolSize(1);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name TEXT NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        config = new WriteBatchConfig();
+        // 放宽凑批窗口，保证测试中连续提交的操作落在同一批
+        config.setMaxDelayMillis(300);
+        batcher = new SqliteWriteBatcher(transactionManager, config);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("批内单个操作失败只回滚自己的保存点，其余操作照常提交")
+    void failingOpRollsBackOnlyItsSavepoint() throws Exception {
+        CompletableFuture<Integer> first = batcher.submit(() -> insert(1, "a"));
+        CompletableFuture<Integer> failing = batcher.submit(() -> {
+            insert(2, "b");
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> third = batcher.submit(() -> insert(3, "c"));
+
+        assertEquals(1, first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, third.get(10, TimeUnit.SECONDS));
+        CompletionException error = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        // 失败操作在抛出前已写入的行随保存点回滚；若走了逐个自动提交，这一行会残留
+        assertEquals(Arrays.asList(1, 3), ids());
+    }
+
+    @Test
+    @DisplayName("约束冲突的操作不影响同批其他操作")
+    void constraintViolationIsIsolated() throws Exception {
+        insert(10, "existing");
+        CompletableFuture<Integer> duplicate = batcher.submit(() -> insert(10, "dup"));
+        CompletableFuture<Integer> ok = batcher.submit(() -> insert(11, "ok"));
+
+        assertEquals(1, ok.get(10, TimeUnit.SECONDS));
+        assertThrows(CompletionException.class, duplicate::join);
+        assertEquals(Arrays.asList(10, 11), ids());
+        assertEquals("existing", jdbc.queryForObject("SELECT name FROM item WHERE id = 10", String.class));
+    }
+
+    @Test
+    @DisplayName("批内只有一个操作时仍在事务中执行，后一条语句失败会回滚前一条")
+    void loneOpIsAtomic() {
+        insert(50, "existing");
+
+        // 队列中只有这一个操作，单独成批
+        assertThrows(RuntimeException.class, () -> batcher.execute(() -> insert(51, "first") + insert(50, "dup")));
+
+        assertEquals(Collections.singletonList(50), ids());
+    }
+
+    @Test
+    @DisplayName("execute 原样抛出操作的 RuntimeException")
+    void executeRethrowsRuntimeException() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> batcher.execute(() -> {
+                    throw new IllegalArgumentException("bad");
+                }));
+        assertEquals("bad", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("已处于事务中时 execute 在当前事务内直接执行，不等待写线程")
+    void executeRunsInlineInsideActiveTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> tx.executeWithoutResult(status -> {
+            batcher.execute(() -> insert(20, "inline"));
+            // 同一事务内可见，随后回滚
+            assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM item WHERE id = 20", Integer.class));
+            status.setRollbackOnly();
+        }));
+
+        // 与外层事务一起回滚，说明没有在写线程的独立事务中提交
+        assertEquals(Collections.emptyList(), ids());
+    }
+
+    @Test
+    @DisplayName("写线程上嵌套调用 execute 直接执行，不会死锁")
+    void executeRunsInlineOnWriterThread() {
+        Integer rows = assertTimeoutPreemptively(TIMEOUT,
+                () -> batcher.execute(() -> insert(30, "outer") + batcher.execute(() -> insert(31, "nested"))));
+
+        assertEquals(2, rows);
+        assertEquals(Arrays.asList(30, 31), ids());
+    }
+
+    @Test
+    @DisplayName("停用时在调用线程上逐个执行，每个操作仍在自己的事务中")
+    void runsDirectlyWhenDisabled() {
+        batcher.stop();
+        config.setEnabled(false);
+        batcher = new SqliteWriteBatcher(transactionManager, config);
+        batcher.start();
+
+        assertEquals(1, batcher.execute(() -> insert(40, "direct")));
+        assertThrows(RuntimeException.class, () -> batcher.execute(() -> insert(41, "first") + insert(40, "dup")));
+        assertEquals(Arrays.asList(40), ids());
+    }
+
+    @Test
+    @DisplayName("单独提交的分片记录 + 计数: 计数失败时分片记录回滚，重试后正常计数")
+    void chunkRecordRollsBackWithFailedCounter() {
+        jdbc.execute("CREATE TABLE counter (id INTEGER PRIMARY KEY, n INTEGER NOT NULL CHECK (n <= 1))");
+        jdbc.update("INSERT INTO counter (id, n) VALUES (1, 1)");
+
+        // 与 insertChunkIfAbsent + incrementUploadedChunks 相同的形态，计数违反约束
+        assertThrows(RuntimeException.class, () -> batcher.execute(this::recordChunk));
+        assertEquals(Collections.emptyList(), ids());
+
+        // 若分片记录残留，重试会因记录已存在而跳过计数
+        jdbc.update("UPDATE counter SET n = 0 WHERE id = 1");
+        assertEquals(1, batcher.execute(this::recordChunk));
+        assertEquals(Collections.singletonList(60), ids());
+    }
+
+    private Integer recordChunk() {
+        if (jdbc.update("INSERT OR IGNORE INTO item (id, name) VALUES (60, 'chunk')") == 0) {
+            return null;
+        }
+        jdbc.update("UPDATE counter SET n = n + 1 WHERE id = 1");
+        return jdbc.queryForObject("SELECT n FROM counter WHERE id = 1", Integer.class);
+    }
+
+    private int insert(int id, String name) {
+        return jdbc.update("INSERT INTO item (id, name) VALUES (?, ?)", id, name);
+    }
+
+    private List<Integer> ids() {
+        return jdbc.queryForList("SELECT id FROM item ORDER BY id", Integer.class);
+    }
+}
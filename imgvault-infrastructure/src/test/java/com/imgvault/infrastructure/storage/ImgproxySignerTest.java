@@ -0,0 +1,88 @@
+package com.imgvault.infrastructure.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImgproxySigner 单元测试
+ */
+@DisplayName("imgproxy 签名器")
+class ImgproxySignerTest {
+
+    private static final byte[] KEY = hex("943b421c9eb07c830af81030552c86009268de4e532ba2ee2eab8247c6da0881");
+    private static final byte[] SALT = hex("520f986b998545b4785e0defbc4f3c1203f22de2374a3d53cb7a7fe9fea309c5");
+
+    private final ImgproxySigner signer = new ImgproxySigner(KEY, SALT);
+
+    @Test
+    @DisplayName("签名为 HMAC-SHA256(key, salt + path) 的 URL-safe Base64")
+    void shouldSignPath() {
+        String path = "/rs:fill:300:400:0/g:sm/aHR0cDovL2V4YW1w/bGUuY29tL2ltYWdl/cy9jdXJpb3NpdHku/anBn.png";
+
+        assertEquals("/90UxdwGRAI2bpLSHKkZculJau5ahfxfS0h3fMuQAf40" + path, signer.sign(path));
+    }
+
+    @Test
+    @DisplayName("连续签名互不影响，与每次新建 Mac 的结果一致")
+    void shouldResetBetweenCalls() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String path = "/q:" + (80 + i) + "/plain/s3://imgvault/originals/2026/02/14/abc-" + i + ".jpg@webp";
+            assertEquals(reference(path), signer.sign(path));
+        }
+    }
+
+    @Test
+    @DisplayName("多线程并发签名结果正确")
+    void shouldBeThreadSafe() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String path = "/rs:fit:" + thread + ":" + i + ":0/plain/s3://imgvault/a.png";
+                        if (!reference(path).equals(signer.sign(path))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String reference(String path) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+        mac.update(SALT);
+        return "/" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(path.getBytes(StandardCharsets.UTF_8))) + path;
+    }
+
+    private static byte[] hex(String hex) {
+        byte[] res = new byte[hex.length() / 2];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,237 @@
+package com.imgvault.infrastructure.storage;
+
+import com.imgvault.common.exception.ServiceUnavailableException;
+import com.imgvault.infrastructure.config.StorageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StorageCircuitBreaker 单元测试
+ */
+@DisplayName("存储熔断器")
+class StorageCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicBoolean probeHealthy = new AtomicBoolean(false);
+    private StorageCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        StorageConfig.CircuitBreaker config = new StorageConfig.CircuitBreaker();
+        config.setWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDurationMillis(10_000);
+        config.setHalfOpenPermits(2);
+        breaker = new StorageCircuitBreaker("MinIO", config, () -> {
+            if (!probeHealthy.get()) {
+                throw new IOException("connection refused");
+            }
+            return true;
+        }, e -> !(e instanceof IllegalArgumentException), now::get);
+    }
+
+    private void fail() {
+        breaker.acquirePermission();
+        assertThrows(IOException.class, () -> breaker.record(() -> {
+            throw new IOException("connection refused");
+        }));
+    }
+
+    private void succeed() throws Exception {
+        breaker.acquirePermission();
+        assertEquals("ok", breaker.record(() -> "ok"));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("样本不足 minimumCalls 时不打开")
+    void shouldStayClosedBelowMinimumCalls() {
+        fail();
+        fail();
+        fail();
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("失败率低于阈值时保持关闭")
+    void shouldStayClosedBelowThreshold() throws Exception {
+        succeed();
+        succeed();
+        succeed();
+        fail();
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(25, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("失败率达到阈值后打开并快速失败")
+    void shouldOpenAndFailFast() {
+        openBreaker();
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                breaker::acquirePermission);
+        assertEquals(503, e.getCode());
+        assertEquals(10, e.getRetryAfterSeconds());
+        assertEquals("connection refused", breaker.getLastError());
+    }
+
+    @Test
+    @DisplayName("业务错误（如对象不存在）不计入失败")
+    void shouldNotCountNonStorageFailures() {
+        for (int i = 0; i < 6; i++) {
+            breaker.acquirePermission();
+            assertThrows(IllegalArgumentException.class, () -> breaker.record(() -> {
+                throw new IllegalArgumentException("not found");
+            }));
+        }
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("打开未满 openDuration 时不探测")
+    void shouldNotProbeBeforeOpenDuration() {
+        openBreaker();
+        probeHealthy.set(true);
+        now.addAndGet(5_000);
+
+        breaker.probeIfNeeded();
+
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("探测成功进入半开，试探调用成功后关闭")
+    void shouldRecoverThroughHalfOpen() throws Exception {
+        openBreaker();
+        probeHealthy.set(true);
+        now.addAndGet(10_000);
+
+        breaker.probeIfNeeded();
+        assertEquals(StorageCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        succeed();
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("半开时试探许可用尽则拒绝")
+    void shouldLimitHalfOpenPermits() {
+        openBreaker();
+        probeHealthy.set(true);
+        now.addAndGet(10_000);
+        breaker.probeIfNeeded();
+
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    @DisplayName("半开时试探失败重新打开")
+    void shouldReopenOnHalfOpenFailure() {
+        openBreaker();
+        probeHealthy.set(true);
+        now.addAndGet(10_000);
+        breaker.probeIfNeeded();
+
+        fail();
+
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    @DisplayName("探测失败保持打开")
+    void shouldStayOpenWhenProbeFails() {
+        openBreaker();
+        now.addAndGet(10_000);
+
+        breaker.probeIfNeeded();
+
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("探测失败不重置打开时间，下一个探测间隔即再次探测")
+    void shouldProbeEveryIntervalAfterProbeFailure() {
+        openBreaker();
+        now.addAndGet(10_000);
+        breaker.probeIfNeeded();
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+
+        // 探测间隔（默认 5 秒）短于 openDuration，恢复后的首次探测即进入半开
+        probeHealthy.set(true);
+        now.addAndGet(5_000);
+        breaker.probeIfNeeded();
+
+        assertEquals(StorageCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("半开时探测失败重新打开，重新等待 openDuration")
+    void shouldReopenWhenHalfOpenProbeFails() {
+        openBreaker();
+        probeHealthy.set(true);
+        now.addAndGet(10_000);
+        breaker.probeIfNeeded();
+        assertEquals(StorageCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        probeHealthy.set(false);
+        breaker.probeIfNeeded();
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+
+        probeHealthy.set(true);
+        now.addAndGet(5_000);
+        breaker.probeIfNeeded();
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("异步调用在 future 失败时计入失败")
+    void shouldRecordAsyncFailures() {
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<String> pending = new CompletableFuture<>();
+            breaker.acquirePermission();
+            CompletableFuture<String> recorded = breaker.recordAsync(() -> pending);
+            assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+
+            pending.completeExceptionally(new CompletionException(new IOException("connection reset")));
+            assertThrows(CompletionException.class, recorded::join);
+        }
+        assertEquals(StorageCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals("connection reset", breaker.getLastError());
+    }
+
+    @Test
+    @DisplayName("异步调用成功或业务错误不计入失败")
+    void shouldRecordAsyncSuccesses() {
+        for (int i = 0; i < 4; i++) {
+            breaker.acquirePermission();
+            assertEquals("ok", breaker.recordAsync(() -> CompletableFuture.completedFuture("ok")).join());
+            breaker.acquirePermission();
+            CompletableFuture<String> notFound = new CompletableFuture<>();
+            notFound.completeExceptionally(new IllegalArgumentException("not found"));
+            assertThrows(CompletionException.class, breaker.recordAsync(() -> notFound)::join);
+        }
+        assertEquals(StorageCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+}
@@ -0,0 +1,7 @@
+-- ==========================================
+-- ImgVault v2.5.0 迁移脚本 - 分片直传
+-- 为 img_upload_task 表新增 multipart_upload_id 列
+-- ==========================================
+
+-- 分片直传（预签名分片 URL）时存储端的 Multipart uploadId，普通分片上传为空
+ALTER TABLE img_upload_task ADD COLUMN multipart_upload_id TEXT;